@@ -0,0 +1,41 @@
+package core.bench;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaModelException;
+
+import core.model.IRBuilder;
+import core.model.IntermediateRepresentation;
+import core.parser.AssociationDetector;
+import core.parser.ClassInfo;
+import core.parser.FilterSpec;
+import core.parser.InheritanceDetector;
+import core.parser.JavaClassParser;
+
+/**
+ * Parse -> IR -> detect, the same sequence the plug-in runs.
+ */
+public final class BenchPipeline {
+    
+    private BenchPipeline() {
+    }
+    
+    public static IntermediateRepresentation run(List<ICompilationUnit> units, FilterSpec filter) 
+            throws JavaModelException {
+        JavaClassParser parser = new JavaClassParser(filter);
+        List<ClassInfo> classInfos = new ArrayList<>();
+        List<IType> types = new ArrayList<>();
+        for (ICompilationUnit unit : units) {
+            classInfos.addAll(parser.parse(unit));
+            types.addAll(Arrays.asList(unit.getAllTypes()));
+        }
+        IntermediateRepresentation ir = new IRBuilder().build(classInfos);
+        new InheritanceDetector(ir, filter).detectInheritance(types);
+        new AssociationDetector(ir, new ArrayList<>(ir.getAllClasses().values()), filter).detectAssociations(types);
+        return ir;
+    }
+}
@@ -0,0 +1,55 @@
+package core.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import core.layout.BarnesHutLayout;
+import core.layout.EdgeBundle;
+import core.layout.EdgeBundler;
+import core.layout.LayoutCache;
+import core.model.IntermediateRepresentation;
+import core.model.PackageGraph;
+
+/**
+ * Cost of recomputing all edge bundles from cached positions, as done after
+ * each incremental layout update.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BundleBenchmark {
+    
+    @Param({ "5000", "50000" })
+    public int classes;
+    
+    private IntermediateRepresentation ir;
+    private LayoutCache cache;
+    private EdgeBundler bundler;
+    
+    @Setup
+    public void setUp() {
+        ir = SyntheticIR.generate(classes, 42);
+        cache = LayoutCache.of(new BarnesHutLayout().iterations(30).layout(ir));
+        bundler = new EdgeBundler(ir, new PackageGraph(ir));
+    }
+    
+    @Benchmark
+    public List<EdgeBundle> route() {
+        return bundler.route(cache);
+    }
+}
@@ -0,0 +1,67 @@
+package core.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import core.cluster.Clustering;
+import core.cluster.LouvainClustering;
+import core.layout.GraphIndex;
+
+/**
+ * Louvain clustering of a generated graph with five edges per node, 85% of
+ * them inside planted groups of 100 nodes. The graph is built directly as a
+ * GraphIndex since an IR with a million relations would dominate the heap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+public class ClusterBenchmark {
+    
+    private static final String[] TYPES = { "association", "composition", "aggregation", "inheritance", "implements" };
+    
+    @Param({ "100000", "1000000" })
+    public int edges;
+    
+    private GraphIndex graph;
+    
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        int nodes = edges / 5;
+        String[] ids = new String[nodes];
+        for (int i = 0; i < nodes; i++) {
+            ids[i] = "com.acme.C" + i;
+        }
+        int[] source = new int[edges];
+        int[] target = new int[edges];
+        String[] type = new String[edges];
+        for (int e = 0; e < edges; e++) {
+            int a = random.nextInt(nodes);
+            int b = random.nextInt(100) < 85 ? Math.min(nodes - 1, a / 100 * 100 + random.nextInt(100)) : random.nextInt(nodes);
+            source[e] = a;
+            target[e] = b == a ? (a + 1) % nodes : b;
+            type[e] = TYPES[e % TYPES.length];
+        }
+        graph = GraphIndex.of(ids, source, target, type);
+    }
+    
+    @Benchmark
+    public Clustering louvain() {
+        return new LouvainClustering().cluster(graph);
+    }
+}
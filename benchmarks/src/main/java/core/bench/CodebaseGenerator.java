@@ -0,0 +1,245 @@
+package core.bench;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import core.model.ClassNode;
+import core.model.Field;
+import core.model.IntermediateRepresentation;
+import core.model.Method;
+import core.model.Relation;
+
+/**
+ * Seeded generator of synthetic code bases, so scale problems can be
+ * reproduced without sharing real sources. generate() builds the expected
+ * IR: the classes and exactly the relations the detectors should find.
+ * From it, writeSources() writes a compilable Java source tree,
+ * writeWorkspace() an Eclipse workspace with one Java project, and
+ * FakeJavaModel an in-memory Java model for headless runs.
+ */
+public final class CodebaseGenerator {
+
+    // None of these contain List, Set, Map, Queue or Collection, which the AssociationDetector would take for collections
+    private static final String[] NOUNS = { "Order", "Customer", "Account", "Invoice", "Payment", "Product",
+        "Shipment", "Report", "Ledger", "Policy", "Rule", "Event", "Audit", "Tariff", "Route", "Budget" };
+    private static final String[] ROLES = { "", "Service", "Repository", "Handler", "Factory", "Model",
+        "Controller", "Validator" };
+    private static final int LOCALITY = 200; // references mostly stay within this many classes
+
+    private CodebaseGenerator() {
+    }
+
+    public static IntermediateRepresentation generate(CodebaseSpec spec) {
+        Random random = new Random(spec.getSeed());
+        int n = spec.getClasses();
+        List<String> packages = leafPackages(spec);
+        ClassNode[] nodes = new ClassNode[n];
+        int[] depth = new int[n];
+        List<Integer> interfaces = new ArrayList<>();
+        IntermediateRepresentation ir = new IntermediateRepresentation();
+
+        for (int i = 0; i < n; i++) {
+            // Consecutive classes share a package, so most references stay close
+            String packageName = packages.get((int) ((long) i * packages.size() / n));
+            boolean isInterface = random.nextDouble() < spec.getInterfaceRatio();
+            String name = NOUNS[random.nextInt(NOUNS.length)] + ROLES[random.nextInt(ROLES.length)] + i;
+            nodes[i] = new ClassNode(name, isInterface ? "interface" : "class", packageName);
+            int methods = random.nextInt((int) Math.round(2 * spec.getMethodsPerClass()) + 1);
+            for (int m = 0; m < methods; m++) {
+                // Interface methods are default methods; unique names keep unrelated defaults from clashing
+                String methodName = (m % 2 == 0 ? "get" : "process") + m + (isInterface ? "Of" + i : "");
+                nodes[i].addMethod(new Method(methodName, "void", "public", false));
+            }
+            if (isInterface) {
+                interfaces.add(i);
+            }
+            ir.addClass(nodes[i]);
+        }
+
+        for (int i = 0; i < n; i++) {
+            if ("interface".equals(nodes[i].getType())) {
+                continue;
+            }
+            if (random.nextDouble() < spec.getInheritanceRatio()) {
+                int parent = pickParent(nodes, depth, i, spec.getInheritanceDepth(), random);
+                if (parent >= 0) {
+                    depth[i] = depth[parent] + 1;
+                    ir.addRelation(new Relation(nodes[i].getId(), nodes[parent].getId(), "inheritance"));
+                }
+            }
+            if (!interfaces.isEmpty() && random.nextBoolean()) {
+                int api = interfaces.get(random.nextInt(interfaces.size()));
+                ir.addRelation(new Relation(nodes[i].getId(), nodes[api].getId(), "implements"));
+            }
+            int fields = random.nextInt((int) Math.round(2 * spec.getFieldsPerClass()) + 1);
+            for (int f = 0; f < fields; f++) {
+                if (random.nextDouble() >= spec.getReferenceRatio()) {
+                    String visibility = f % 3 == 0 ? "public" : "private";
+                    nodes[i].addField(new Field("value" + f, "int", visibility, false));
+                    continue;
+                }
+                int target = pickReference(n, i, spec.getCycleDensity(), random);
+                if (target < 0) {
+                    continue;
+                }
+                String type = random.nextDouble() < spec.getCollectionRatio() ? "aggregation"
+                    : (random.nextInt(3) == 0 ? "association" : "composition");
+                ir.mergeRelation(new Relation(nodes[i].getId(), nodes[target].getId(), type));
+            }
+        }
+        return ir;
+    }
+
+    private static List<String> leafPackages(CodebaseSpec spec) {
+        List<String> packages = new ArrayList<>();
+        packages.add(spec.getRootPackage());
+        for (int level = 0; level < spec.getPackageDepth(); level++) {
+            List<String> children = new ArrayList<>();
+            for (String parent : packages) {
+                for (int c = 0; c < spec.getPackageFanout(); c++) {
+                    children.add(parent + ".p" + level + c);
+                }
+            }
+            packages = children;
+        }
+        return packages;
+    }
+
+    /**
+     * A nearby earlier class whose hierarchy is not yet at the maximum depth, or -1
+     */
+    private static int pickParent(ClassNode[] nodes, int[] depth, int i, int maxDepth, Random random) {
+        if (i == 0 || maxDepth <= 0) {
+            return -1;
+        }
+        for (int attempt = 0; attempt < 8; attempt++) {
+            int candidate = Math.max(0, i - LOCALITY) + random.nextInt(Math.min(i, LOCALITY));
+            if ("class".equals(nodes[candidate].getType()) && depth[candidate] < maxDepth) {
+                return candidate;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * A nearby later class, or with the cycle density an earlier one; -1 if there is none
+     */
+    private static int pickReference(int n, int i, double cycleDensity, Random random) {
+        boolean back = random.nextDouble() < cycleDensity || i == n - 1;
+        if (back) {
+            return i == 0 ? -1 : Math.max(0, i - LOCALITY) + random.nextInt(Math.min(i, LOCALITY));
+        }
+        return i + 1 + random.nextInt(Math.min(n - i - 1, LOCALITY));
+    }
+
+    /**
+     * Write one compilation unit per class below a source folder. Reference
+     * fields are written per relation and multiplicity, as FakeJavaModel does.
+     */
+    public static void writeSources(IntermediateRepresentation ir, Path sourceFolder) throws IOException {
+        for (ClassNode node : ir.getAllClasses().values()) {
+            Path folder = sourceFolder.resolve(node.getPackageName().replace('.', '/'));
+            Files.createDirectories(folder);
+            try (Writer out = Files.newBufferedWriter(folder.resolve(node.getName() + ".java"), StandardCharsets.UTF_8)) {
+                writeClass(ir, node, out);
+            }
+        }
+    }
+
+    private static void writeClass(IntermediateRepresentation ir, ClassNode node, Writer out) throws IOException {
+        boolean isInterface = "interface".equals(node.getType());
+        StringBuilder header = new StringBuilder("public ").append(node.getType()).append(' ').append(node.getName());
+        StringBuilder body = new StringBuilder();
+        List<String> interfaces = new ArrayList<>();
+        int index = 0;
+        for (Relation rel : ir.getOutgoingRelations(node.getId())) {
+            String target = rel.getTargetId();
+            switch (rel.getType()) {
+                case "inheritance":
+                    header.append(" extends ").append(target);
+                    break;
+                case "implements":
+                    interfaces.add(target);
+                    break;
+                default:
+                    for (int m = 0; m < rel.getMultiplicity(); m++) {
+                        body.append("    ").append(referenceField(rel.getType(), target, index++)).append('\n');
+                    }
+            }
+        }
+        if (!interfaces.isEmpty()) {
+            header.append(" implements ").append(String.join(", ", interfaces));
+        }
+        for (Field field : node.getFields()) {
+            body.append("    ").append(field.getVisibility()).append(' ').append(field.getType())
+                .append(' ').append(field.getName()).append(";\n");
+        }
+        for (Method method : node.getMethods()) {
+            body.append("\n    ").append(isInterface ? "default " : "public ").append(method.getReturnType())
+                .append(' ').append(method.getName()).append("() {\n    }\n");
+        }
+        out.write("package " + node.getPackageName() + ";\n\n" + header + " {\n\n" + body + "}\n");
+    }
+
+    private static String referenceField(String relationType, String target, int index) {
+        switch (relationType) {
+            case "composition": return "private " + target + " ref" + index + ";";
+            case "association": return "protected " + target + " ref" + index + ";";
+            default: return "private java.util.List<" + target + "> ref" + index + ";";
+        }
+    }
+
+    /**
+     * Write an Eclipse workspace with one Java project holding the sources.
+     * Returns the project folder.
+     */
+    public static Path writeWorkspace(IntermediateRepresentation ir, Path workspace, String projectName)
+            throws IOException {
+        Path project = workspace.resolve(projectName);
+        Files.createDirectories(project);
+        Files.writeString(project.resolve(".project"),
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<projectDescription>\n"
+            + "\t<name>" + projectName + "</name>\n"
+            + "\t<comment></comment>\n"
+            + "\t<projects>\n\t</projects>\n"
+            + "\t<buildSpec>\n"
+            + "\t\t<buildCommand>\n\t\t\t<name>org.eclipse.jdt.core.javabuilder</name>\n"
+            + "\t\t\t<arguments>\n\t\t\t</arguments>\n\t\t</buildCommand>\n"
+            + "\t</buildSpec>\n"
+            + "\t<natures>\n\t\t<nature>org.eclipse.jdt.core.javanature</nature>\n\t</natures>\n"
+            + "</projectDescription>\n");
+        Files.writeString(project.resolve(".classpath"),
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<classpath>\n"
+            + "\t<classpathentry kind=\"con\" path=\"org.eclipse.jdt.launching.JRE_CONTAINER\"/>\n"
+            + "\t<classpathentry kind=\"src\" path=\"src\"/>\n"
+            + "\t<classpathentry kind=\"output\" path=\"bin\"/>\n"
+            + "</classpath>\n");
+        writeSources(ir, project.resolve("src"));
+        return project;
+    }
+
+    /**
+     * Usage: CodebaseGenerator <classes> <workspace folder> [seed]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: CodebaseGenerator <classes> <workspace folder> [seed]");
+            System.exit(2);
+        }
+        CodebaseSpec spec = new CodebaseSpec().classes(Integer.parseInt(args[0]));
+        if (args.length > 2) {
+            spec.seed(Long.parseLong(args[2]));
+        }
+        IntermediateRepresentation ir = generate(spec);
+        Path project = writeWorkspace(ir, Path.of(args[1]), "synthetic" + spec.getClasses());
+        System.out.println(spec + " -> " + ir + " in " + project);
+    }
+}
@@ -0,0 +1,167 @@
+package core.bench;
+
+/**
+ * Shape of a generated code base. All ratios are between 0 and 1; counts per
+ * class are averages. The same spec and seed always give the same code base.
+ */
+public class CodebaseSpec {
+    
+    private int classes = 1000;
+    private String rootPackage = "gen";
+    private int packageDepth = 3;
+    private int packageFanout = 4;
+    private double interfaceRatio = 0.1;
+    private double inheritanceRatio = 0.4;
+    private int inheritanceDepth = 4;
+    private double fieldsPerClass = 4;
+    private double referenceRatio = 0.6;
+    private double collectionRatio = 0.3;
+    private double cycleDensity = 0.05;
+    private double methodsPerClass = 4;
+    private long seed = 42;
+    
+    public CodebaseSpec classes(int classes) {
+        this.classes = classes;
+        return this;
+    }
+    
+    public CodebaseSpec rootPackage(String rootPackage) {
+        this.rootPackage = rootPackage;
+        return this;
+    }
+    
+    /**
+     * Number of package levels below the root package; classes live in the leaves
+     */
+    public CodebaseSpec packageDepth(int packageDepth) {
+        this.packageDepth = packageDepth;
+        return this;
+    }
+    
+    /**
+     * Subpackages per package
+     */
+    public CodebaseSpec packageFanout(int packageFanout) {
+        this.packageFanout = packageFanout;
+        return this;
+    }
+    
+    public CodebaseSpec interfaceRatio(double interfaceRatio) {
+        this.interfaceRatio = interfaceRatio;
+        return this;
+    }
+    
+    /**
+     * Share of classes that extend another class
+     */
+    public CodebaseSpec inheritanceRatio(double inheritanceRatio) {
+        this.inheritanceRatio = inheritanceRatio;
+        return this;
+    }
+    
+    /**
+     * Maximum number of superclasses above a class
+     */
+    public CodebaseSpec inheritanceDepth(int inheritanceDepth) {
+        this.inheritanceDepth = inheritanceDepth;
+        return this;
+    }
+    
+    public CodebaseSpec fieldsPerClass(double fieldsPerClass) {
+        this.fieldsPerClass = fieldsPerClass;
+        return this;
+    }
+    
+    /**
+     * Share of fields whose type is a class of the code base rather than a primitive
+     */
+    public CodebaseSpec referenceRatio(double referenceRatio) {
+        this.referenceRatio = referenceRatio;
+        return this;
+    }
+    
+    /**
+     * Share of reference fields that are collections of the referenced class
+     */
+    public CodebaseSpec collectionRatio(double collectionRatio) {
+        this.collectionRatio = collectionRatio;
+        return this;
+    }
+    
+    /**
+     * Share of reference fields pointing back to an earlier class. References
+     * otherwise point forward, so 0 gives an acyclic field graph.
+     */
+    public CodebaseSpec cycleDensity(double cycleDensity) {
+        this.cycleDensity = cycleDensity;
+        return this;
+    }
+    
+    public CodebaseSpec methodsPerClass(double methodsPerClass) {
+        this.methodsPerClass = methodsPerClass;
+        return this;
+    }
+    
+    public CodebaseSpec seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+    
+    public int getClasses() {
+        return classes;
+    }
+    
+    public String getRootPackage() {
+        return rootPackage;
+    }
+    
+    public int getPackageDepth() {
+        return packageDepth;
+    }
+    
+    public int getPackageFanout() {
+        return packageFanout;
+    }
+    
+    public double getInterfaceRatio() {
+        return interfaceRatio;
+    }
+    
+    public double getInheritanceRatio() {
+        return inheritanceRatio;
+    }
+    
+    public int getInheritanceDepth() {
+        return inheritanceDepth;
+    }
+    
+    public double getFieldsPerClass() {
+        return fieldsPerClass;
+    }
+    
+    public double getReferenceRatio() {
+        return referenceRatio;
+    }
+    
+    public double getCollectionRatio() {
+        return collectionRatio;
+    }
+    
+    public double getCycleDensity() {
+        return cycleDensity;
+    }
+    
+    public double getMethodsPerClass() {
+        return methodsPerClass;
+    }
+    
+    public long getSeed() {
+        return seed;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("CodebaseSpec[classes=%d, packages=%s x%d^%d, seed=%d]",
+            classes, rootPackage, packageFanout, packageDepth, seed);
+    }
+}
@@ -0,0 +1,120 @@
+package core.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IField;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.Signature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import core.diagnostics.PipelineStats;
+import core.model.ClassNode;
+import core.model.IntermediateRepresentation;
+import core.parser.AssociationDetector;
+import core.parser.InheritanceDetector;
+import core.parser.TypeNames;
+
+/**
+ * Relation detection over the fake Java model: class name lookups of the
+ * AssociationDetector, the InheritanceDetector, and the type string parsing
+ * both of them do per field.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class DetectorBenchmark {
+    
+    private static final int TYPE_STRINGS = 1024;
+    
+    @Param({ "1000", "10000", "100000" })
+    public int classes;
+    
+    /** Run with -p stats=false,true to measure the cost of collecting pipeline statistics */
+    @Param({ "false" })
+    public boolean stats;
+    
+    private List<ClassNode> classNodes;
+    private List<IType> types;
+    private String[] fieldTypes;
+    
+    @Setup
+    public void setUp() throws JavaModelException {
+        PipelineStats.setEnabled(stats);
+        IntermediateRepresentation source = SyntheticIR.generate(classes, 42);
+        classNodes = new ArrayList<>(source.getAllClasses().values());
+        types = new ArrayList<>();
+        List<String> signatures = new ArrayList<>();
+        for (ICompilationUnit unit : FakeJavaModel.fromIR(source)) {
+            for (IType type : unit.getAllTypes()) {
+                types.add(type);
+                for (IField field : type.getFields()) {
+                    if (signatures.size() < TYPE_STRINGS) {
+                        signatures.add(Signature.toString(field.getTypeSignature()));
+                    }
+                }
+            }
+        }
+        fieldTypes = new String[TYPE_STRINGS];
+        for (int i = 0; i < TYPE_STRINGS; i++) {
+            fieldTypes[i] = signatures.get(i % signatures.size());
+        }
+    }
+    
+    private IntermediateRepresentation classesOnly() {
+        IntermediateRepresentation ir = new IntermediateRepresentation();
+        for (ClassNode node : classNodes) {
+            ir.addClass(node);
+        }
+        return ir;
+    }
+    
+    @Benchmark
+    public IntermediateRepresentation associations() throws JavaModelException {
+        IntermediateRepresentation ir = classesOnly();
+        new AssociationDetector(ir, classNodes).detectAssociations(types);
+        return ir;
+    }
+    
+    @Benchmark
+    public IntermediateRepresentation inheritance() throws JavaModelException {
+        IntermediateRepresentation ir = classesOnly();
+        new InheritanceDetector(ir).detectInheritance(types);
+        return ir;
+    }
+    
+    /**
+     * Time per field type string
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @OperationsPerInvocation(TYPE_STRINGS)
+    public void typeParsing(Blackhole blackhole) {
+        for (String fieldType : fieldTypes) {
+            if (TypeNames.isCollection(fieldType)) {
+                String element = TypeNames.collectionElementType(fieldType);
+                blackhole.consume(element == null ? null : TypeNames.simpleName(element));
+            } else {
+                blackhole.consume(TypeNames.simpleName(fieldType));
+            }
+        }
+    }
+}
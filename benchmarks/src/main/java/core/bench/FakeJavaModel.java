@@ -0,0 +1,194 @@
+package core.bench;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.runtime.Path;
+import org.eclipse.jdt.core.Flags;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IField;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IType;
+
+import core.model.ClassNode;
+import core.model.Field;
+import core.model.IntermediateRepresentation;
+import core.model.Method;
+import core.model.Relation;
+
+/**
+ * In-memory stand-in for the JDT Java model, so the parser and detectors can
+ * be benchmarked without a workspace. Every class of an IR becomes one
+ * compilation unit with one IType. Its fields are the ClassNode fields plus
+ * one field per association, aggregation or composition and multiplicity,
+ * so the detectors rediscover the relations of the IR.
+ */
+public final class FakeJavaModel {
+    
+    private FakeJavaModel() {
+    }
+    
+    public static List<ICompilationUnit> fromIR(IntermediateRepresentation ir) {
+        Map<String, String[]> bySimpleName = new HashMap<>();
+        for (ClassNode node : ir.getAllClasses().values()) {
+            bySimpleName.put(node.getName(), new String[] { node.getPackageName(), node.getName() });
+        }
+        Map<String, IPackageFragment> packages = new HashMap<>();
+        List<ICompilationUnit> units = new ArrayList<>();
+        for (ClassNode node : ir.getAllClasses().values()) {
+            IPackageFragment fragment = packages.computeIfAbsent(node.getPackageName(), FakeJavaModel::packageFragment);
+            units.add(compilationUnit(ir, node, fragment, bySimpleName));
+        }
+        return units;
+    }
+    
+    private static IPackageFragment packageFragment(String name) {
+        return proxy(IPackageFragment.class, (p, m, a) -> {
+            switch (m.getName()) {
+                case "getElementName": return name;
+                case "getHandleIdentifier": return "=bench/src<" + name;
+                case "getElementType": return IJavaElement.PACKAGE_FRAGMENT;
+                case "exists": return true;
+                default: return objectMethod(p, m.getName(), a, "package " + name);
+            }
+        });
+    }
+    
+    private static ICompilationUnit compilationUnit(IntermediateRepresentation ir, ClassNode node,
+            IPackageFragment fragment, Map<String, String[]> bySimpleName) {
+        IType[] types = new IType[1];
+        ICompilationUnit unit = proxy(ICompilationUnit.class, (p, m, a) -> {
+            switch (m.getName()) {
+                case "getAllTypes":
+                case "getTypes": return types.clone();
+                case "getElementName": return node.getName() + ".java";
+                case "getHandleIdentifier": return "=bench/src<" + node.getPackageName() + "{" + node.getName() + ".java";
+                case "getPath": return new Path("/bench/src/" + node.getPackageName().replace('.', '/') + "/" + node.getName() + ".java");
+                case "getParent": return fragment;
+                case "getElementType": return IJavaElement.COMPILATION_UNIT;
+                case "exists": return true;
+                default: return objectMethod(p, m.getName(), a, node.getName() + ".java");
+            }
+        });
+        types[0] = type(ir, node, fragment, unit, bySimpleName);
+        return unit;
+    }
+    
+    private static IType type(IntermediateRepresentation ir, ClassNode node, IPackageFragment fragment,
+            ICompilationUnit unit, Map<String, String[]> bySimpleName) {
+        String superclass = null;
+        List<String> interfaces = new ArrayList<>();
+        List<IField> fields = new ArrayList<>();
+        for (Field field : node.getFields()) {
+            fields.add(field(field.getName(), "I", visibilityFlags(field.getVisibility())));
+        }
+        int index = 0;
+        for (Relation rel : ir.getOutgoingRelations(node.getId())) {
+            String target = simpleName(rel.getTargetId());
+            for (int m = 0; m < rel.getMultiplicity(); m++) {
+                switch (rel.getType()) {
+                    case "inheritance": superclass = target; break;
+                    case "implements": interfaces.add(target); break;
+                    case "composition": fields.add(field("ref" + index++, "Q" + target + ";", Flags.AccPrivate)); break;
+                    case "association": fields.add(field("ref" + index++, "Q" + target + ";", Flags.AccProtected)); break;
+                    default: fields.add(field("ref" + index++, "QList<Q" + target + ";>;", Flags.AccPrivate)); break;
+                }
+            }
+        }
+        List<IMethod> methods = new ArrayList<>();
+        for (Method method : node.getMethods()) {
+            methods.add(method(method.getName(), visibilityFlags(method.getVisibility())));
+        }
+        String superclassName = superclass;
+        String[] interfaceNames = interfaces.toArray(new String[0]);
+        IField[] fieldArray = fields.toArray(new IField[0]);
+        IMethod[] methodArray = methods.toArray(new IMethod[0]);
+        
+        return proxy(IType.class, (p, m, a) -> {
+            switch (m.getName()) {
+                case "getElementName": return node.getName();
+                case "getFullyQualifiedName": return node.getId();
+                case "getTypeQualifiedName": return node.getName();
+                case "getPackageFragment": return fragment;
+                case "getCompilationUnit":
+                case "getParent": return unit;
+                case "getHandleIdentifier": return unit.getHandleIdentifier() + "[" + node.getName();
+                case "getElementType": return IJavaElement.TYPE;
+                case "getFlags": return Flags.AccPublic;
+                case "exists": return true;
+                case "isEnum": return "enum".equals(node.getType());
+                case "isInterface": return "interface".equals(node.getType());
+                case "isClass": return "class".equals(node.getType());
+                case "getFields": return fieldArray.clone();
+                case "getMethods": return methodArray.clone();
+                case "getSuperclassName": return superclassName;
+                case "getSuperInterfaceNames": return interfaceNames.clone();
+                case "resolveType": {
+                    String[] resolved = bySimpleName.get(simpleName((String) a[0]));
+                    return resolved == null ? null : new String[][] { resolved };
+                }
+                default: return objectMethod(p, m.getName(), a, node.getId());
+            }
+        });
+    }
+    
+    private static IField field(String name, String signature, int flags) {
+        return proxy(IField.class, (p, m, a) -> {
+            switch (m.getName()) {
+                case "getElementName": return name;
+                case "getTypeSignature": return signature;
+                case "getFlags": return flags;
+                case "exists": return true;
+                default: return objectMethod(p, m.getName(), a, "field " + name);
+            }
+        });
+    }
+    
+    private static IMethod method(String name, int flags) {
+        return proxy(IMethod.class, (p, m, a) -> {
+            switch (m.getName()) {
+                case "getElementName": return name;
+                case "isConstructor": return false;
+                case "getReturnType": return "V";
+                case "getParameterTypes":
+                case "getParameterNames": return new String[0];
+                case "getFlags": return flags;
+                case "exists": return true;
+                default: return objectMethod(p, m.getName(), a, "method " + name);
+            }
+        });
+    }
+    
+    private static int visibilityFlags(String visibility) {
+        switch (visibility) {
+            case "public": return Flags.AccPublic;
+            case "private": return Flags.AccPrivate;
+            case "protected": return Flags.AccProtected;
+            default: return 0;
+        }
+    }
+    
+    private static String simpleName(String qualifiedName) {
+        return qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1);
+    }
+    
+    private static Object objectMethod(Object proxy, String name, Object[] args, String description) {
+        switch (name) {
+            case "equals": return proxy == args[0];
+            case "hashCode": return System.identityHashCode(proxy);
+            case "toString": return description;
+            default: throw new UnsupportedOperationException(name + " on " + description);
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(FakeJavaModel.class.getClassLoader(), new Class<?>[] { type }, handler);
+    }
+}
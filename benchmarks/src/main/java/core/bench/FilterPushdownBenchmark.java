@@ -0,0 +1,59 @@
+package core.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.JavaModelException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import core.model.IntermediateRepresentation;
+import core.parser.FilterSpec;
+
+/**
+ * A filter pushed into the parser and detectors, against the same filter
+ * applied to the IR of an unfiltered run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterPushdownBenchmark {
+    
+    @Param({ "5000" })
+    public int classes;
+    
+    private List<ICompilationUnit> units;
+    private FilterSpec filter;
+    
+    @Setup
+    public void setUp() {
+        units = FakeJavaModel.fromIR(SyntheticIR.generate(classes, 42));
+        filter = FilterSpec.all()
+            .includePackages("com.acme.service.**", "com.acme.repo.**")
+            .visibilities("public")
+            .relationTypes("inheritance", "implements", "composition");
+    }
+    
+    @Benchmark
+    public IntermediateRepresentation pushdown() throws JavaModelException {
+        return BenchPipeline.run(units, filter);
+    }
+    
+    @Benchmark
+    public IntermediateRepresentation filterAfter() throws JavaModelException {
+        return filter.apply(BenchPipeline.run(units, FilterSpec.all()));
+    }
+}
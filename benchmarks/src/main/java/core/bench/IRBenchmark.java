@@ -0,0 +1,88 @@
+package core.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import core.model.ClassNode;
+import core.model.IntermediateRepresentation;
+import core.model.Relation;
+
+/**
+ * Building an IR relation by relation, and the adjacency queries the
+ * detectors, views and renderers run against it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class IRBenchmark {
+    
+    @Param({ "1000", "10000", "100000" })
+    public int classes;
+    
+    private IntermediateRepresentation ir;
+    private List<ClassNode> classNodes;
+    private List<Relation> relations;
+    private String[] ids;
+    private int next;
+    
+    @Setup
+    public void setUp() {
+        ir = SyntheticIR.generate(classes, 42);
+        classNodes = new ArrayList<>(ir.getAllClasses().values());
+        relations = new ArrayList<>(ir.getAllRelations());
+        ids = ir.getAllClasses().keySet().toArray(new String[0]);
+    }
+    
+    private String nextId() {
+        next = next + 1 == ids.length ? 0 : next + 1;
+        return ids[next];
+    }
+    
+    /**
+     * All classes and relations into an empty IR
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public IntermediateRepresentation addRelations() {
+        IntermediateRepresentation fresh = new IntermediateRepresentation();
+        for (ClassNode node : classNodes) {
+            fresh.addClass(node);
+        }
+        for (Relation relation : relations) {
+            fresh.addRelation(relation);
+        }
+        return fresh;
+    }
+    
+    @Benchmark
+    public int outgoingAndIncoming() {
+        String id = nextId();
+        return ir.getOutgoingRelations(id).size() + ir.getIncomingRelations(id).size();
+    }
+    
+    @Benchmark
+    public List<Relation> relationsForClass() {
+        return ir.getRelationsForClass(nextId());
+    }
+    
+    @Benchmark
+    public int relationsOfType() {
+        return ir.getRelationsByType("composition").size();
+    }
+}
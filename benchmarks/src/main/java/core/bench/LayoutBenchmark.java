@@ -0,0 +1,61 @@
+package core.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import core.layout.BarnesHutLayout;
+import core.layout.GraphIndex;
+import core.layout.LayeredLayoutResult;
+import core.layout.LayoutResult;
+import core.layout.SugiyamaLayout;
+
+/**
+ * Layout of synthetic graphs: force-directed (single-threaded against all
+ * cores) and layered.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LayoutBenchmark {
+    
+    @Param({ "1000", "10000" })
+    public int classes;
+    
+    @Param({ "1", "0" })
+    public int threads;
+    
+    private GraphIndex graph;
+    
+    @Setup
+    public void setUp() {
+        graph = GraphIndex.of(SyntheticIR.generate(classes, 42));
+    }
+    
+    @Benchmark
+    public LayoutResult barnesHut() {
+        BarnesHutLayout layout = new BarnesHutLayout().iterations(100);
+        if (threads > 0) {
+            layout.parallelism(threads);
+        }
+        return layout.layout(graph);
+    }
+    
+    @Benchmark
+    public LayeredLayoutResult sugiyama() {
+        return new SugiyamaLayout().layout(graph);
+    }
+}
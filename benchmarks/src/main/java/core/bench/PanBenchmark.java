@@ -0,0 +1,79 @@
+package core.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import core.layout.BarnesHutLayout;
+import core.layout.LayoutResult;
+import core.model.IntermediateRepresentation;
+import core.render.DetailPolicy;
+import core.render.RenderScene;
+import core.render.Viewport;
+import core.render.ViewportCuller;
+import core.render.ViewportUpdate;
+
+/**
+ * Culling cost of one pan step over a large laid out diagram at various zoom
+ * levels; a frame at 60 fps has a budget of about 16 ms.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PanBenchmark {
+    
+    @Param({ "50000" })
+    public int classes;
+    
+    @Param({ "1.0", "0.4", "0.05" })
+    public double zoom;
+    
+    private IntermediateRepresentation ir;
+    private LayoutResult layout;
+    private RenderScene scene;
+    private ViewportCuller culler;
+    private Viewport viewport;
+    private double step;
+    private double minX;
+    private double maxX;
+    
+    @Setup
+    public void setUp() {
+        ir = SyntheticIR.generate(classes, 42);
+        layout = new BarnesHutLayout().iterations(30).layout(ir);
+        scene = new RenderScene(ir, layout, new DetailPolicy());
+        culler = new ViewportCuller(scene, new DetailPolicy());
+        double[] bounds = layout.bounds();
+        minX = bounds[0];
+        maxX = bounds[2];
+        viewport = Viewport.ofScreen(minX, (bounds[1] + bounds[3]) / 2, 1600, 1000, zoom);
+        step = 40 / zoom;
+    }
+    
+    @Benchmark
+    public ViewportUpdate pan() {
+        // Wrap around so the viewport stays over the diagram
+        viewport = viewport.getX() > maxX ? viewport.pan(minX - viewport.getX(), 0) : viewport.pan(step, 0);
+        return culler.update(viewport);
+    }
+    
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public RenderScene buildScene() {
+        return new RenderScene(ir, layout, new DetailPolicy());
+    }
+}
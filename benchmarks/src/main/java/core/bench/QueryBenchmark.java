@@ -0,0 +1,87 @@
+package core.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import core.model.ClassNode;
+import core.model.IntermediateRepresentation;
+import core.model.Relation;
+import core.model.TraversalRules.Direction;
+import core.query.ClassQuery;
+
+/**
+ * Typical structural queries, compiled plans against hand-written full scans.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryBenchmark {
+    
+    @Param({ "50000" })
+    public int classes;
+    
+    private IntermediateRepresentation ir;
+    private ClassQuery servicesComposingRepos;
+    private ClassQuery interfacesWithoutImplementations;
+    
+    @Setup
+    public void setUp() {
+        ir = SyntheticIR.generate(classes, 42);
+        servicesComposingRepos = ClassQuery.classes()
+            .inPackage("com.acme.service.m7")
+            .hasRelation("composition", Direction.OUTGOING, ClassQuery.classes().inPackageTree("com.acme.repo"))
+            .lacksRelation("implements", Direction.OUTGOING);
+        interfacesWithoutImplementations = ClassQuery.classes()
+            .inPackageTree("com.acme.api")
+            .lacksRelation("implements", Direction.INCOMING);
+    }
+    
+    @Benchmark
+    public long servicesComposingReposPlanned() {
+        return servicesComposingRepos.stream(ir).count();
+    }
+    
+    @Benchmark
+    public long servicesComposingReposScan() {
+        return ir.getAllClasses().values().stream()
+            .filter(c -> c.getPackageName().equals("com.acme.service.m7"))
+            .filter(c -> hasOutgoing(c, "composition", "com.acme.repo"))
+            .filter(c -> !hasOutgoing(c, "implements", null))
+            .count();
+    }
+    
+    @Benchmark
+    public long interfacesWithoutImplementationsPlanned() {
+        return interfacesWithoutImplementations.stream(ir).count();
+    }
+    
+    @Benchmark
+    public long firstTenInheritingClasses() {
+        // Lazy streams stop after the first hits
+        return ClassQuery.classes().hasRelation("inheritance", Direction.OUTGOING).stream(ir).limit(10).count();
+    }
+    
+    private boolean hasOutgoing(ClassNode node, String type, String targetPackagePrefix) {
+        for (Relation rel : ir.getOutgoingRelations(node.getId())) {
+            if (rel.getType().equals(type)
+                    && (targetPackagePrefix == null || rel.getTargetId().startsWith(targetPackagePrefix))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
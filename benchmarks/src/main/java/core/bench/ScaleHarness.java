@@ -0,0 +1,240 @@
+package core.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaModelException;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import core.diagnostics.PipelineStats;
+import core.model.IRBuilder;
+import core.model.IRDiff;
+import core.model.IRJsonSerializer;
+import core.model.IntermediateRepresentation;
+import core.parser.AssociationDetector;
+import core.parser.ClassInfo;
+import core.parser.InheritanceDetector;
+import core.parser.JavaClassParser;
+
+/**
+ * Macro benchmark of the whole parse -> IR -> detect -> serialize pipeline on
+ * generated code bases. Each scenario of the budget file is run several times;
+ * the median wall-clock time and peak heap growth are compared with the
+ * scenario's budgets and the process exits with 1 if any budget is exceeded
+ * or the pipeline does not find exactly the generated relations.
+ *
+ * Usage: ScaleHarness [--update] [--results file.json] budgets.json
+ * With --update the budgets are rewritten from the measurements plus headroom.
+ * With -Duml.stats=true the pipeline statistics of each scenario are printed.
+ */
+public final class ScaleHarness {
+
+    private static final double WALL_HEADROOM = 1.5;
+    private static final double HEAP_HEADROOM = 1.3;
+
+    /**
+     * Budget file: scenarios and how often each is run
+     */
+    static class Budgets {
+        int runs = 3;
+        List<Scenario> scenarios = new ArrayList<>();
+    }
+
+    static class Scenario {
+        String name;
+        int classes;
+        long seed = 42;
+        double cycleDensity = 0.05;
+        long wallMillis;
+        long peakHeapMb;
+    }
+
+    /**
+     * Measurements of one scenario, written to the results file
+     */
+    static class Result {
+        String name;
+        int classes;
+        int relations;
+        long parseMillis;
+        long buildMillis;
+        long detectMillis;
+        long serializeMillis;
+        long wallMillis;
+        long peakHeapMb;
+        long budgetWallMillis;
+        long budgetPeakHeapMb;
+        List<String> failures = new ArrayList<>();
+    }
+
+    private ScaleHarness() {
+    }
+
+    public static void main(String[] args) throws IOException, JavaModelException {
+        boolean update = false;
+        Path resultsFile = null;
+        Path budgetsFile = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--update")) {
+                update = true;
+            } else if (args[i].equals("--results") && i + 1 < args.length) {
+                resultsFile = Path.of(args[++i]);
+            } else {
+                budgetsFile = Path.of(args[i]);
+            }
+        }
+        if (budgetsFile == null) {
+            System.err.println("Usage: ScaleHarness [--update] [--results file.json] budgets.json");
+            System.exit(2);
+        }
+
+        PipelineStats.configureFromPlatform();
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        Budgets budgets = gson.fromJson(Files.readString(budgetsFile, StandardCharsets.UTF_8), Budgets.class);
+        List<Result> results = new ArrayList<>();
+        boolean failed = false;
+        for (Scenario scenario : budgets.scenarios) {
+            Result result = run(scenario, Math.max(1, budgets.runs));
+            if (update) {
+                scenario.wallMillis = (long) Math.ceil(result.wallMillis * WALL_HEADROOM);
+                scenario.peakHeapMb = (long) Math.ceil(result.peakHeapMb * HEAP_HEADROOM);
+                result.failures.removeIf(failure -> failure.startsWith("budget"));
+            }
+            System.out.printf("%-10s %7d classes %7d relations  parse %5d  build %5d  detect %5d  serialize %5d"
+                + "  total %6d ms (budget %d)  heap %5d MB (budget %d)%n",
+                result.name, result.classes, result.relations, result.parseMillis, result.buildMillis,
+                result.detectMillis, result.serializeMillis, result.wallMillis, scenario.wallMillis,
+                result.peakHeapMb, scenario.peakHeapMb);
+            for (String failure : result.failures) {
+                System.out.println("  FAILED: " + failure);
+            }
+            if (PipelineStats.isEnabled()) {
+                System.out.print(PipelineStats.summary());
+                PipelineStats.reset();
+            }
+            failed |= !result.failures.isEmpty();
+            results.add(result);
+        }
+        if (update) {
+            Files.writeString(budgetsFile, gson.toJson(budgets) + "\n", StandardCharsets.UTF_8);
+        }
+        if (resultsFile != null) {
+            Files.writeString(resultsFile, gson.toJson(results) + "\n", StandardCharsets.UTF_8);
+        }
+        System.exit(failed ? 1 : 0);
+    }
+
+    private static Result run(Scenario scenario, int runs) throws IOException, JavaModelException {
+        CodebaseSpec spec = new CodebaseSpec()
+            .classes(scenario.classes)
+            .seed(scenario.seed)
+            .cycleDensity(scenario.cycleDensity);
+        IntermediateRepresentation expected = CodebaseGenerator.generate(spec);
+        List<ICompilationUnit> units = FakeJavaModel.fromIR(expected);
+        File json = File.createTempFile("scale", ".json");
+        json.deleteOnExit();
+
+        Result[] samples = new Result[runs];
+        IntermediateRepresentation detected = null;
+        for (int r = 0; r < runs; r++) {
+            samples[r] = new Result();
+            detected = runOnce(units, json, samples[r]);
+        }
+        Result result = median(samples);
+        result.name = scenario.name;
+        result.classes = detected.getAllClasses().size();
+        result.relations = detected.getAllRelations().size();
+        result.budgetWallMillis = scenario.wallMillis;
+        result.budgetPeakHeapMb = scenario.peakHeapMb;
+
+        IRDiff diff = IRDiff.between(expected, detected);
+        int wrongRelations = diff.getAddedRelations().size() + diff.getRemovedRelations().size()
+            + diff.getChangedRelations().size();
+        if (result.classes != expected.getAllClasses().size() || wrongRelations > 0) {
+            result.failures.add(String.format("pipeline found %d classes and %d wrong relations, expected %d classes",
+                result.classes, wrongRelations, expected.getAllClasses().size()));
+        }
+        if (result.wallMillis > scenario.wallMillis) {
+            result.failures.add(String.format("budget: %d ms exceeds %d ms", result.wallMillis, scenario.wallMillis));
+        }
+        if (result.peakHeapMb > scenario.peakHeapMb) {
+            result.failures.add(String.format("budget: %d MB heap exceeds %d MB", result.peakHeapMb, scenario.peakHeapMb));
+        }
+        return result;
+    }
+
+    /**
+     * Parse, build, detect and serialize once; phase times and the peak heap
+     * growth over the live heap before the run go into the result
+     */
+    private static IntermediateRepresentation runOnce(List<ICompilationUnit> units, File json, Result result)
+            throws IOException, JavaModelException {
+        List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                heapPools.add(pool);
+            }
+        }
+        System.gc();
+        long baseline = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            baseline += pool.getUsage().getUsed();
+            pool.resetPeakUsage();
+        }
+
+        long start = System.nanoTime();
+        JavaClassParser parser = new JavaClassParser();
+        List<ClassInfo> classInfos = new ArrayList<>();
+        List<IType> types = new ArrayList<>();
+        for (ICompilationUnit unit : units) {
+            classInfos.addAll(parser.parse(unit));
+            types.addAll(Arrays.asList(unit.getAllTypes()));
+        }
+        long parsed = System.nanoTime();
+        IntermediateRepresentation ir = new IRBuilder().build(classInfos);
+        long built = System.nanoTime();
+        new InheritanceDetector(ir).detectInheritance(types);
+        new AssociationDetector(ir, new ArrayList<>(ir.getAllClasses().values())).detectAssociations(types);
+        long detected = System.nanoTime();
+        new IRJsonSerializer().saveToFileWithRelations(ir, json.getPath());
+        long serialized = System.nanoTime();
+
+        long peak = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            peak += pool.getPeakUsage().getUsed();
+        }
+        result.parseMillis = (parsed - start) / 1_000_000;
+        result.buildMillis = (built - parsed) / 1_000_000;
+        result.detectMillis = (detected - built) / 1_000_000;
+        result.serializeMillis = (serialized - detected) / 1_000_000;
+        result.wallMillis = (serialized - start) / 1_000_000;
+        result.peakHeapMb = Math.max(0, peak - baseline) / (1024 * 1024);
+        return ir;
+    }
+
+    private static Result median(Result[] samples) {
+        Result[] sorted = samples.clone();
+        Arrays.sort(sorted, (a, b) -> Long.compare(a.wallMillis, b.wallMillis));
+        Result result = sorted[sorted.length / 2];
+        long[] heap = new long[samples.length];
+        for (int i = 0; i < samples.length; i++) {
+            heap[i] = samples[i].peakHeapMb;
+        }
+        Arrays.sort(heap);
+        result.peakHeapMb = heap[heap.length / 2];
+        return result;
+    }
+}
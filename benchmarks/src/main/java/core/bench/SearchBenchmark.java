@@ -0,0 +1,83 @@
+package core.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import core.model.ClassNode;
+import core.model.Field;
+import core.model.IntermediateRepresentation;
+import core.model.Method;
+import core.search.SearchIndex;
+import core.search.SearchResult;
+
+/**
+ * Name search over classes with one field and one method each. Every query
+ * is expected to stay under a millisecond, also for short, common prefixes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+    
+    private static final String[] WORDS = { "Customer", "Order", "Invoice", "Product", "Account", "Payment",
+        "Shipment", "Offer", "Option", "Observer" };
+    
+    @Param({ "100000" })
+    public int classes;
+    
+    private SearchIndex index;
+    
+    @Setup
+    public void setUp() {
+        IntermediateRepresentation ir = new IntermediateRepresentation();
+        for (int i = 0; i < classes; i++) {
+            String word = WORDS[i % WORDS.length];
+            ClassNode node = new ClassNode(word + "Service" + i, "class", "com.acme.m" + (i / 250));
+            node.addField(new Field(Character.toLowerCase(word.charAt(0)) + word.substring(1) + "Id", "long",
+                "private", false));
+            node.addMethod(new Method("get" + word + i, "void", "public", false));
+            ir.addClass(node);
+        }
+        index = SearchIndex.attach(ir);
+    }
+    
+    @Benchmark
+    public List<SearchResult> searchShortPrefix() {
+        return index.search("O", 20);
+    }
+    
+    @Benchmark
+    public List<SearchResult> searchWord() {
+        return index.search("Customer", 20);
+    }
+    
+    @Benchmark
+    public List<SearchResult> searchHumps() {
+        return index.search("CuSe", 20);
+    }
+    
+    @Benchmark
+    public List<SearchResult> prefixShort() {
+        return index.prefix("O", 20);
+    }
+    
+    @Benchmark
+    public List<SearchResult> fuzzy() {
+        return index.fuzzy("Custmer", 20);
+    }
+}
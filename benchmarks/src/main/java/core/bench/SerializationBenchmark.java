@@ -0,0 +1,69 @@
+package core.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.JavaModelException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import core.model.IRBuilder;
+import core.model.IRJsonSerializer;
+import core.model.IntermediateRepresentation;
+import core.parser.ClassInfo;
+import core.parser.JavaClassParser;
+import core.parser.ParserJsonOutput;
+
+/**
+ * Parsed classes to IR, and both JSON outputs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx3g")
+public class SerializationBenchmark {
+    
+    @Param({ "1000", "10000", "100000" })
+    public int classes;
+    
+    private List<ClassInfo> classInfos;
+    private IntermediateRepresentation ir;
+    
+    @Setup
+    public void setUp() throws JavaModelException {
+        ir = SyntheticIR.generate(classes, 42);
+        JavaClassParser parser = new JavaClassParser();
+        classInfos = new ArrayList<>();
+        for (ICompilationUnit unit : FakeJavaModel.fromIR(ir)) {
+            classInfos.addAll(parser.parse(unit));
+        }
+    }
+    
+    @Benchmark
+    public IntermediateRepresentation irBuilder() {
+        return new IRBuilder().build(classInfos);
+    }
+    
+    @Benchmark
+    public String irJson() {
+        return new IRJsonSerializer().toJsonWithRelations(ir);
+    }
+    
+    @Benchmark
+    public String parserJson() {
+        return new ParserJsonOutput().toJson(classInfos);
+    }
+}
@@ -0,0 +1,90 @@
+package core.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import core.model.ClassNode;
+import core.model.Field;
+import core.model.IntermediateRepresentation;
+import core.model.Method;
+import core.model.Relation;
+
+/**
+ * Deterministic layered IR for benchmarks. Classes are spread over
+ * com.acme.{api,service,repo,model,util}.mN packages of about 50 classes;
+ * services compose repos, repos aggregate models, most classes implement an
+ * api interface and some extend a class of their own layer.
+ */
+public final class SyntheticIR {
+    
+    public static final String[] LAYERS = { "api", "service", "repo", "model", "util" };
+    private static final int CLASSES_PER_PACKAGE = 50;
+    
+    private SyntheticIR() {
+    }
+    
+    public static IntermediateRepresentation generate(int classCount, long seed) {
+        Random random = new Random(seed);
+        IntermediateRepresentation ir = new IntermediateRepresentation();
+        List<List<ClassNode>> byLayer = new ArrayList<>();
+        for (int l = 0; l < LAYERS.length; l++) {
+            byLayer.add(new ArrayList<>());
+        }
+        
+        for (int i = 0; i < classCount; i++) {
+            int layer = i % LAYERS.length;
+            String packageName = "com.acme." + LAYERS[layer] + ".m" + (i / (CLASSES_PER_PACKAGE * LAYERS.length));
+            String kind = layer == 0 ? "interface" : (random.nextInt(20) == 0 ? "enum" : "class");
+            ClassNode node = new ClassNode(capitalize(LAYERS[layer]) + i, kind, packageName);
+            int fields = random.nextInt(6);
+            for (int f = 0; f < fields; f++) {
+                node.addField(new Field("field" + f, "int", f % 3 == 0 ? "public" : "private", false));
+            }
+            int methods = 1 + random.nextInt(8);
+            for (int m = 0; m < methods; m++) {
+                node.addMethod(new Method((m % 2 == 0 ? "get" : "process") + m, "void", "public", false));
+            }
+            ir.addClass(node);
+            byLayer.get(layer).add(node);
+        }
+        
+        for (int layer = 1; layer < LAYERS.length; layer++) {
+            for (ClassNode node : byLayer.get(layer)) {
+                List<ClassNode> sameLayer = byLayer.get(layer);
+                if (random.nextInt(3) == 0 && sameLayer.size() > 1) {
+                    ClassNode parent = sameLayer.get(random.nextInt(sameLayer.size()));
+                    if (parent != node) {
+                        ir.addRelation(new Relation(node.getId(), parent.getId(), "inheritance"));
+                    }
+                }
+                if (random.nextInt(5) < 2 && !byLayer.get(0).isEmpty()) {
+                    ClassNode api = pick(byLayer.get(0), random);
+                    ir.addRelation(new Relation(node.getId(), api.getId(), "implements"));
+                }
+                int dependencies = random.nextInt(4);
+                for (int d = 0; d < dependencies; d++) {
+                    int targetLayer = Math.min(LAYERS.length - 1, layer + random.nextInt(2));
+                    if (byLayer.get(targetLayer).isEmpty()) {
+                        continue;
+                    }
+                    ClassNode target = pick(byLayer.get(targetLayer), random);
+                    String type = d == 0 ? "composition" : (d == 1 ? "aggregation" : "association");
+                    ir.addRelation(new Relation(node.getId(), target.getId(), type));
+                }
+                if (random.nextInt(10) == 0) {
+                    ir.addRelation(new Relation(node.getId(), "java.util.List", "aggregation", true));
+                }
+            }
+        }
+        return ir;
+    }
+    
+    private static ClassNode pick(List<ClassNode> nodes, Random random) {
+        return nodes.get(random.nextInt(nodes.size()));
+    }
+    
+    private static String capitalize(String s) {
+        return Character.toUpperCase(s.charAt(0)) + s.substring(1);
+    }
+}
@@ -0,0 +1,188 @@
+package core.cluster;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import core.layout.GraphIndex;
+import core.model.ClassNode;
+import core.model.IntermediateRepresentation;
+import core.model.Relation;
+
+/**
+ * Result of a community detection: the cluster of every class. Clusters are
+ * numbered by size, largest first. collapse() turns the clusters into
+ * super-nodes that layout and rendering can treat like classes and expand on
+ * demand.
+ */
+public class Clustering {
+    
+    /** Type of the ClassNode standing for a collapsed cluster */
+    public static final String CLUSTER_TYPE = "cluster";
+    
+    private GraphIndex graph;
+    private int[] community;
+    private int[] start;    // members of cluster c are members[start[c] .. start[c + 1])
+    private int[] members;
+    private double modularity;
+    private int levels;
+    
+    Clustering(GraphIndex graph, int[] assignment, int count, double modularity, int levels) {
+        this.graph = graph;
+        this.modularity = modularity;
+        this.levels = levels;
+        
+        // Renumber so that cluster 0 is the largest; ties keep the order of first appearance
+        int[] size = new int[count];
+        for (int c : assignment) {
+            size[c]++;
+        }
+        Integer[] order = new Integer[count];
+        for (int c = 0; c < count; c++) {
+            order[c] = c;
+        }
+        Arrays.sort(order, (a, b) -> size[a] != size[b] ? Integer.compare(size[b], size[a]) : Integer.compare(a, b));
+        int[] rank = new int[count];
+        for (int r = 0; r < count; r++) {
+            rank[order[r]] = r;
+        }
+        int n = assignment.length;
+        this.community = new int[n];
+        this.start = new int[count + 1];
+        for (int i = 0; i < n; i++) {
+            community[i] = rank[assignment[i]];
+            start[community[i] + 1]++;
+        }
+        for (int c = 0; c < count; c++) {
+            start[c + 1] += start[c];
+        }
+        this.members = new int[n];
+        int[] fill = Arrays.copyOf(start, count);
+        for (int i = 0; i < n; i++) {
+            members[fill[community[i]]++] = i;
+        }
+    }
+    
+    public GraphIndex getGraph() {
+        return graph;
+    }
+    
+    public int getClusterCount() {
+        return start.length - 1;
+    }
+    
+    /**
+     * Cluster of a GraphIndex node
+     */
+    public int getCluster(int node) {
+        return community[node];
+    }
+    
+    /**
+     * Cluster of a class, or -1 if the class was not part of the graph
+     */
+    public int getCluster(String classId) {
+        int node = graph.indexOf(classId);
+        return node < 0 ? -1 : community[node];
+    }
+    
+    public int getSize(int cluster) {
+        return start[cluster + 1] - start[cluster];
+    }
+    
+    /**
+     * Class IDs of a cluster
+     */
+    public List<String> getMembers(int cluster) {
+        List<String> ids = new ArrayList<>(getSize(cluster));
+        for (int m = start[cluster]; m < start[cluster + 1]; m++) {
+            ids.add(graph.id(members[m]));
+        }
+        return ids;
+    }
+    
+    /**
+     * Modularity of the clustering with the weights and resolution it was computed with
+     */
+    public double getModularity() {
+        return modularity;
+    }
+    
+    /**
+     * Number of aggregation levels the clustering went through
+     */
+    public int getLevelCount() {
+        return levels;
+    }
+    
+    /**
+     * All assignments keyed by class ID
+     */
+    public Map<String, Integer> toMap() {
+        Map<String, Integer> clusters = new HashMap<>(community.length * 2);
+        for (int i = 0; i < community.length; i++) {
+            clusters.put(graph.id(i), community[i]);
+        }
+        return clusters;
+    }
+    
+    /**
+     * ID of the super-node of a cluster in a collapsed IR. '#' cannot occur in
+     * Java names, so it never clashes with a class.
+     */
+    public static String superNodeId(int cluster) {
+        return "Cluster#" + cluster;
+    }
+    
+    /**
+     * IR in which every cluster that is not expanded is replaced by one
+     * super-node of type CLUSTER_TYPE. Relations are redirected to the
+     * super-nodes, relations inside a collapsed cluster are dropped and
+     * relations that end up parallel are merged, adding up their multiplicity.
+     * Single-class clusters are always shown as their class. ClassNode
+     * instances of shown classes are shared with the given IR.
+     */
+    public IntermediateRepresentation collapse(IntermediateRepresentation ir, Collection<Integer> expanded) {
+        Set<Integer> open = new HashSet<>(expanded);
+        IntermediateRepresentation collapsed = new IntermediateRepresentation();
+        for (ClassNode classNode : ir.getAllClasses().values()) {
+            int cluster = getCluster(classNode.getId());
+            if (isShown(cluster, open)) {
+                collapsed.addClass(classNode);
+            } else if (collapsed.getClass(superNodeId(cluster)) == null) {
+                collapsed.addClass(new ClassNode(superNodeId(cluster), CLUSTER_TYPE, ""));
+            }
+        }
+        for (Relation relation : ir.getAllRelations()) {
+            String source = representative(relation.getSourceId(), open);
+            String target = representative(relation.getTargetId(), open);
+            if (source.equals(target) && !source.equals(relation.getSourceId())) {
+                continue;
+            }
+            Relation merged = new Relation(source, target, relation.getType(), relation.isTargetExternal());
+            merged.setMultiplicity(relation.getMultiplicity());
+            collapsed.mergeRelation(merged);
+        }
+        return collapsed;
+    }
+    
+    private boolean isShown(int cluster, Set<Integer> expanded) {
+        return cluster < 0 || getSize(cluster) == 1 || expanded.contains(cluster);
+    }
+    
+    private String representative(String classId, Set<Integer> expanded) {
+        int cluster = getCluster(classId);
+        return isShown(cluster, expanded) ? classId : superNodeId(cluster);
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("Clustering[%d classes, %d clusters, modularity %.3f, %d levels]",
+            community.length, getClusterCount(), modularity, levels);
+    }
+}
@@ -0,0 +1,162 @@
+package core.cluster;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import core.layout.GraphIndex;
+
+/**
+ * Undirected weighted graph in CSR form, the working graph of one Louvain
+ * level. Every edge is stored in both directions; self loops (edges collapsed
+ * into an aggregated node) are kept apart in selfWeight.
+ */
+final class WeightedGraph {
+    
+    final int nodeCount;
+    final int[] offsets;      // edges of node i are [offsets[i], offsets[i + 1])
+    final int[] targets;
+    final double[] weights;
+    final double[] selfWeight;
+    final double[] nodeWeight; // weighted degree, self loops counted twice
+    final double totalWeight;  // sum of nodeWeight, i.e. twice the edge weight
+    
+    private WeightedGraph(int nodeCount, int[] offsets, int[] targets, double[] weights, double[] selfWeight) {
+        this.nodeCount = nodeCount;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.selfWeight = selfWeight;
+        this.nodeWeight = new double[nodeCount];
+        double total = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            double degree = 2 * selfWeight[i];
+            for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+                degree += weights[e];
+            }
+            nodeWeight[i] = degree;
+            total += degree;
+        }
+        this.totalWeight = total;
+    }
+    
+    /**
+     * Graph of a GraphIndex with each edge weighted by its relation type;
+     * edges of types weighted 0 or less are left out
+     */
+    static WeightedGraph of(GraphIndex graph, Map<String, Double> typeWeights, double defaultWeight) {
+        int n = graph.nodeCount();
+        int edges = graph.edgeCount();
+        double[] edgeWeight = new double[edges];
+        int[] offsets = new int[n + 1];
+        for (int e = 0; e < edges; e++) {
+            edgeWeight[e] = typeWeights.getOrDefault(graph.edgeType(e), defaultWeight);
+            if (edgeWeight[e] > 0) {
+                offsets[graph.edgeSource(e) + 1]++;
+                offsets[graph.edgeTarget(e) + 1]++;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] targets = new int[offsets[n]];
+        double[] weights = new double[offsets[n]];
+        int[] fill = Arrays.copyOf(offsets, n);
+        for (int e = 0; e < edges; e++) {
+            if (edgeWeight[e] > 0) {
+                int source = graph.edgeSource(e);
+                int target = graph.edgeTarget(e);
+                targets[fill[source]] = target;
+                weights[fill[source]++] = edgeWeight[e];
+                targets[fill[target]] = source;
+                weights[fill[target]++] = edgeWeight[e];
+            }
+        }
+        return new WeightedGraph(n, offsets, targets, weights, new double[n]);
+    }
+    
+    /**
+     * Graph with one node per community; edges between communities are summed
+     * and edges inside a community become its self loop
+     */
+    WeightedGraph aggregate(int[] community, int count) {
+        // Members of each community, by counting sort
+        int[] start = new int[count + 1];
+        for (int i = 0; i < nodeCount; i++) {
+            start[community[i] + 1]++;
+        }
+        for (int c = 0; c < count; c++) {
+            start[c + 1] += start[c];
+        }
+        int[] members = new int[nodeCount];
+        int[] fill = Arrays.copyOf(start, count);
+        for (int i = 0; i < nodeCount; i++) {
+            members[fill[community[i]]++] = i;
+        }
+        
+        int[] newOffsets = new int[count + 1];
+        int[] newTargets = new int[Math.max(16, targets.length / 2)];
+        double[] newWeights = new double[newTargets.length];
+        double[] newSelf = new double[count];
+        double[] sum = new double[count];
+        int[] touched = new int[count];
+        int size = 0;
+        for (int c = 0; c < count; c++) {
+            int touchedCount = 0;
+            for (int m = start[c]; m < start[c + 1]; m++) {
+                int i = members[m];
+                newSelf[c] += selfWeight[i];
+                for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+                    int other = community[targets[e]];
+                    if (other == c) {
+                        newSelf[c] += weights[e] / 2; // seen once from each end
+                    } else {
+                        if (sum[other] == 0) {
+                            touched[touchedCount++] = other;
+                        }
+                        sum[other] += weights[e];
+                    }
+                }
+            }
+            if (size + touchedCount > newTargets.length) {
+                int capacity = Math.max(size + touchedCount, newTargets.length * 2);
+                newTargets = Arrays.copyOf(newTargets, capacity);
+                newWeights = Arrays.copyOf(newWeights, capacity);
+            }
+            for (int t = 0; t < touchedCount; t++) {
+                newTargets[size] = touched[t];
+                newWeights[size++] = sum[touched[t]];
+                sum[touched[t]] = 0;
+            }
+            newOffsets[c + 1] = size;
+        }
+        return new WeightedGraph(count, newOffsets, Arrays.copyOf(newTargets, size),
+            Arrays.copyOf(newWeights, size), newSelf);
+    }
+    
+    /**
+     * Modularity of a partition with the given resolution
+     */
+    double modularity(int[] community, int count, double resolution) {
+        if (totalWeight == 0) {
+            return 0;
+        }
+        double[] internal = new double[count];
+        double[] total = new double[count];
+        for (int i = 0; i < nodeCount; i++) {
+            int c = community[i];
+            total[c] += nodeWeight[i];
+            internal[c] += 2 * selfWeight[i];
+            for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+                if (community[targets[e]] == c) {
+                    internal[c] += weights[e];
+                }
+            }
+        }
+        double q = 0;
+        for (int c = 0; c < count; c++) {
+            double share = total[c] / totalWeight;
+            q += internal[c] / totalWeight - resolution * share * share;
+        }
+        return q;
+    }
+}
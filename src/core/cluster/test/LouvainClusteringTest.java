@@ -0,0 +1,143 @@
+package core.cluster.test;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import core.cluster.Clustering;
+import core.cluster.LouvainClustering;
+import core.model.ClassNode;
+import core.model.IntermediateRepresentation;
+import core.model.Relation;
+
+/**
+ * Unit tests for community detection and cluster collapsing
+ */
+public class LouvainClusteringTest {
+
+    private static final int GROUPS = 4;
+    private static final int GROUP_SIZE = 8;
+
+    private IntermediateRepresentation ir;
+
+    /**
+     * Four densely connected groups whose classes are spread over packages
+     * that do not match the groups, with one weak link between neighbor groups
+     */
+    @Before
+    public void setUp() {
+        ir = new IntermediateRepresentation();
+        for (int g = 0; g < GROUPS; g++) {
+            for (int i = 0; i < GROUP_SIZE; i++) {
+                ir.addClass(new ClassNode(name(g, i), "class", "pkg" + (i % 3)));
+            }
+            for (int i = 0; i < GROUP_SIZE; i++) {
+                for (int j = i + 1; j < GROUP_SIZE; j++) {
+                    ir.addRelation(new Relation(id(g, i), id(g, j), "composition"));
+                }
+            }
+            ir.addRelation(new Relation(id(g, 0), id((g + 1) % GROUPS, 1), "association"));
+        }
+    }
+
+    private static String name(int group, int i) {
+        return "G" + group + "C" + i;
+    }
+
+    private static String id(int group, int i) {
+        return "pkg" + (i % 3) + "." + name(group, i);
+    }
+
+    /**
+     * Test Case 1: Planted groups are found regardless of package structure
+     */
+    @Test
+    public void testFindsGroups() {
+        Clustering clustering = new LouvainClustering().cluster(ir);
+
+        assertEquals(GROUPS, clustering.getClusterCount());
+        for (int g = 0; g < GROUPS; g++) {
+            int cluster = clustering.getCluster(id(g, 0));
+            assertEquals(GROUP_SIZE, clustering.getSize(cluster));
+            for (int i = 1; i < GROUP_SIZE; i++) {
+                assertEquals(cluster, clustering.getCluster(id(g, i)));
+            }
+        }
+        assertTrue(clustering.getModularity() > 0.7);
+        assertEquals(-1, clustering.getCluster("java.util.List"));
+    }
+
+    /**
+     * Test Case 2: Results do not depend on the number of threads
+     */
+    @Test
+    public void testDeterministic() {
+        Random random = new Random(7);
+        IntermediateRepresentation big = new IntermediateRepresentation();
+        for (int i = 0; i < 3000; i++) {
+            big.addClass(new ClassNode("C" + i, "class", "p"));
+        }
+        for (int e = 0; e < 9000; e++) {
+            int a = random.nextInt(3000);
+            int b = random.nextInt(100) < 80 ? (a / 30) * 30 + random.nextInt(30) : random.nextInt(3000);
+            if (a != b) {
+                big.addRelation(new Relation("p.C" + a, "p.C" + b, "association"));
+            }
+        }
+
+        Clustering single = new LouvainClustering().parallelism(1).cluster(big);
+        Clustering parallel = new LouvainClustering().parallelism(4).cluster(big);
+
+        assertEquals(single.toMap(), parallel.toMap());
+        assertEquals(single.getModularity(), parallel.getModularity(), 0.0);
+        assertTrue(single.getModularity() > 0.5);
+    }
+
+    /**
+     * Test Case 3: Relation types weighted 0 are ignored
+     */
+    @Test
+    public void testTypeWeights() {
+        IntermediateRepresentation pair = new IntermediateRepresentation();
+        pair.addClass(new ClassNode("A", "class", "p"));
+        pair.addClass(new ClassNode("B", "class", "p"));
+        pair.addRelation(new Relation("p.A", "p.B", "inheritance"));
+
+        assertEquals(1, new LouvainClustering().cluster(pair).getClusterCount());
+        assertEquals(2, new LouvainClustering().weight("inheritance", 0).cluster(pair).getClusterCount());
+    }
+
+    /**
+     * Test Case 4: Collapsed clusters become super-nodes with merged relations
+     */
+    @Test
+    public void testCollapse() {
+        Clustering clustering = new LouvainClustering().cluster(ir);
+        int first = clustering.getCluster(id(0, 0));
+        int second = clustering.getCluster(id(1, 1));
+
+        IntermediateRepresentation collapsed = clustering.collapse(ir, Collections.emptySet());
+        assertEquals(GROUPS, collapsed.getAllClasses().size());
+        assertEquals(Clustering.CLUSTER_TYPE, collapsed.getClass(Clustering.superNodeId(first)).getType());
+        assertEquals(GROUPS, collapsed.getAllRelations().size());
+
+        Set<Integer> expanded = new HashSet<>();
+        expanded.add(first);
+        IntermediateRepresentation partial = clustering.collapse(ir, expanded);
+        assertEquals(GROUP_SIZE + GROUPS - 1, partial.getAllClasses().size());
+        assertSame(ir.getClass(id(0, 3)), partial.getClass(id(0, 3)));
+        List<Relation> outgoing = partial.getOutgoingRelations(id(0, 0));
+        boolean linked = false;
+        for (Relation relation : outgoing) {
+            linked |= relation.getTargetId().equals(Clustering.superNodeId(second));
+        }
+        assertTrue(linked);
+    }
+}
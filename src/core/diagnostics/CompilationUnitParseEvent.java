@@ -0,0 +1,37 @@
+package core.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR event for the parse of one compilation unit by JavaClassParser
+ */
+@Name(CompilationUnitParseEvent.NAME)
+@Label("Compilation Unit Parse")
+@Description("Extraction of the types and members of one compilation unit")
+@Category({ "UML Visualizer", "Pipeline" })
+@Threshold("1 ms")
+@StackTrace(false)
+public class CompilationUnitParseEvent extends Event {
+    
+    public static final String NAME = "Eclipse_UML_Visualizer.CompilationUnitParse";
+    
+    @Label("Compilation Unit")
+    @Description("Workspace path of the compilation unit")
+    public String unit;
+    
+    @Label("Types")
+    @Description("Types kept by the filter")
+    public int types;
+    
+    @Label("Fields")
+    public int fields;
+    
+    @Label("Methods")
+    public int methods;
+}
@@ -0,0 +1,35 @@
+package core.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one run of a relation detector over a list of types
+ */
+@Name(DetectorEvent.NAME)
+@Label("Relation Detection")
+@Description("One run of a relation detector")
+@Category({ "UML Visualizer", "Pipeline" })
+@StackTrace(false)
+public class DetectorEvent extends Event {
+    
+    public static final String NAME = "Eclipse_UML_Visualizer.Detector";
+    
+    @Label("Detector")
+    public String detector;
+    
+    @Label("Types")
+    @Description("Types passed to the detector")
+    public int types;
+    
+    @Label("Relations Before")
+    @Description("Relations in the IR when the detector started")
+    public int relationsBefore;
+    
+    @Label("Relations After")
+    public int relationsAfter;
+}
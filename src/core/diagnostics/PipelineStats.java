@@ -0,0 +1,301 @@
+package core.diagnostics;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.osgi.service.debug.DebugOptions;
+import org.eclipse.osgi.service.debug.DebugTrace;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.ServiceReference;
+import org.osgi.framework.SynchronousBundleListener;
+
+import core.pipeline.DiagramPipeline;
+
+/**
+ * Process-wide counters and per-stage latency histograms of the parse ->
+ * IR -> detect -> serialize pipeline. Collection is off by default; while it
+ * is off every call is a single read of a volatile flag, and start() returns 0
+ * so no clock is read either. Switched on by the tracing option
+ * Eclipse_UML_Visualizer/debug/stats, the system property uml.stats or over JMX.
+ *
+ * Usage at a stage boundary:
+ *   long start = PipelineStats.start();
+ *   ...
+ *   PipelineStats.stop(PipelineStats.Stage.PARSE, start);
+ */
+public final class PipelineStats {
+    
+    public static final String DEBUG_OPTION = DiagramPipeline.PLUGIN_ID + "/debug/stats";
+    public static final String TRACE_OPTION = DEBUG_OPTION + "/trace";
+    public static final String SYSTEM_PROPERTY = "uml.stats";
+    public static final String OBJECT_NAME = DiagramPipeline.PLUGIN_ID + ":type=PipelineStats";
+    
+    public enum Counter {
+        TYPES_PARSED,
+        MEMBERS_PARSED,
+        FIELDS_SCANNED,
+        RELATIONS_ADDED,
+        RELATIONS_DEDUPED,
+        LOOKUP_HITS,
+        LOOKUP_MISSES,
+        MEMBER_CACHE_HITS,
+        MEMBER_CACHE_MISSES,
+        CHANGE_EVENTS,
+        CHANGED_UNITS,
+        CHANGE_UPDATES,
+        UNITS_DEGRADED,
+        UNITS_FAILED,
+        UNITS_QUARANTINED
+    }
+    
+    public enum Stage {
+        PARSE,
+        BUILD,
+        INHERITANCE,
+        ASSOCIATION,
+        SERIALIZE
+    }
+    
+    private static volatile boolean enabled;
+    private static volatile boolean registered;
+    private static final LongAdder[] COUNTERS = new LongAdder[Counter.values().length];
+    private static final LatencyHistogram[] STAGES = new LatencyHistogram[Stage.values().length];
+    
+    static {
+        for (int c = 0; c < COUNTERS.length; c++) {
+            COUNTERS[c] = new LongAdder();
+        }
+        for (int s = 0; s < STAGES.length; s++) {
+            STAGES[s] = new LatencyHistogram();
+        }
+    }
+    
+    private PipelineStats() {
+    }
+    
+    public static boolean isEnabled() {
+        return enabled;
+    }
+    
+    public static void setEnabled(boolean enabled) {
+        PipelineStats.enabled = enabled;
+    }
+    
+    public static void count(Counter counter) {
+        if (enabled) {
+            COUNTERS[counter.ordinal()].increment();
+        }
+    }
+    
+    public static void count(Counter counter, long amount) {
+        if (enabled) {
+            COUNTERS[counter.ordinal()].add(amount);
+        }
+    }
+    
+    /**
+     * Start time of a stage, or 0 while collection is off
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+    
+    /**
+     * Record a stage that began at the given start(); runs started while
+     * collection was off are not recorded
+     */
+    public static void stop(Stage stage, long start) {
+        if (start != 0 && enabled) {
+            STAGES[stage.ordinal()].record(System.nanoTime() - start);
+        }
+    }
+    
+    public static long get(Counter counter) {
+        return COUNTERS[counter.ordinal()].sum();
+    }
+    
+    public static LatencyHistogram get(Stage stage) {
+        return STAGES[stage.ordinal()];
+    }
+    
+    public static void reset() {
+        for (LongAdder counter : COUNTERS) {
+            counter.reset();
+        }
+        for (LatencyHistogram stage : STAGES) {
+            stage.reset();
+        }
+    }
+    
+    /**
+     * Enable collection if the tracing option or the system property asks for
+     * it, and in that case register the MBean. With the trace option a summary
+     * is written to the trace file when the plug-in stops. Safe to call more
+     * than once.
+     */
+    public static void configureFromPlatform() {
+        boolean requested = Boolean.getBoolean(SYSTEM_PROPERTY);
+        boolean trace = false;
+        if (Platform.isRunning()) {
+            requested |= "true".equalsIgnoreCase(Platform.getDebugOption(DEBUG_OPTION));
+            trace = "true".equalsIgnoreCase(Platform.getDebugOption(TRACE_OPTION));
+        }
+        if (!requested || registered) {
+            return;
+        }
+        setEnabled(true);
+        registerMBean();
+        if (trace) {
+            traceSummaryOnStop();
+        }
+    }
+    
+    /**
+     * Write the summary through the platform's DebugTrace when this bundle
+     * stops, while the framework can still record it
+     */
+    private static void traceSummaryOnStop() {
+        Bundle bundle = Platform.getBundle(DiagramPipeline.PLUGIN_ID);
+        BundleContext context = bundle != null ? bundle.getBundleContext() : null;
+        ServiceReference<DebugOptions> reference = context != null ? context.getServiceReference(DebugOptions.class) : null;
+        DebugOptions options = reference != null ? context.getService(reference) : null;
+        if (options == null) {
+            Platform.getLog(PipelineStats.class).warn("No debug options service; " + TRACE_OPTION + " is ignored");
+            return;
+        }
+        DebugTrace trace = options.newDebugTrace(DiagramPipeline.PLUGIN_ID, PipelineStats.class);
+        context.addBundleListener((SynchronousBundleListener) event -> {
+            if (event.getBundle() == bundle && event.getType() == BundleEvent.STOPPING) {
+                trace.trace(TRACE_OPTION, summary());
+            }
+        });
+    }
+    
+    /**
+     * Register the MBean with the platform MBean server unless it already is
+     */
+    public static synchronized void registerMBean() {
+        if (registered) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new MXBean(), name);
+            }
+            registered = true;
+        } catch (JMException e) {
+            Platform.getLog(PipelineStats.class).error("Failed to register " + OBJECT_NAME, e);
+        }
+    }
+    
+    /**
+     * Counters and stage times as text, one line each
+     */
+    public static String summary() {
+        StringBuilder text = new StringBuilder("Pipeline stats:\n");
+        for (Counter counter : Counter.values()) {
+            text.append(String.format("  %-18s %d%n", counter, get(counter)));
+        }
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram histogram = get(stage);
+            text.append(String.format("  %-18s %d runs, total %.1f ms, mean %.2f ms, p95 %.2f ms, max %.2f ms%n",
+                stage, histogram.getCount(), millis(histogram.getTotalNanos()), histogram.getMeanNanos() / 1e6,
+                millis(histogram.getPercentileNanos(95)), millis(histogram.getMaxNanos())));
+        }
+        return text.toString();
+    }
+    
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+    
+    private static double lookupHitRate() {
+        long hits = get(Counter.LOOKUP_HITS);
+        long lookups = hits + get(Counter.LOOKUP_MISSES);
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+    
+    private interface StageValue {
+        double of(LatencyHistogram histogram);
+    }
+    
+    private static Map<String, Double> perStage(StageValue value) {
+        Map<String, Double> values = new LinkedHashMap<>();
+        for (Stage stage : Stage.values()) {
+            values.put(stage.name(), value.of(get(stage)));
+        }
+        return values;
+    }
+    
+    private static final class MXBean implements PipelineStatsMXBean {
+        
+        @Override
+        public boolean isEnabled() {
+            return PipelineStats.isEnabled();
+        }
+        
+        @Override
+        public void setEnabled(boolean enabled) {
+            PipelineStats.setEnabled(enabled);
+        }
+        
+        @Override
+        public Map<String, Long> getCounters() {
+            Map<String, Long> values = new LinkedHashMap<>();
+            for (Counter counter : Counter.values()) {
+                values.put(counter.name(), get(counter));
+            }
+            return values;
+        }
+        
+        @Override
+        public Map<String, Long> getStageCounts() {
+            Map<String, Long> values = new LinkedHashMap<>();
+            for (Stage stage : Stage.values()) {
+                values.put(stage.name(), get(stage).getCount());
+            }
+            return values;
+        }
+        
+        @Override
+        public Map<String, Double> getStageTotalMillis() {
+            return perStage(histogram -> millis(histogram.getTotalNanos()));
+        }
+        
+        @Override
+        public Map<String, Double> getStageMeanMillis() {
+            return perStage(histogram -> histogram.getMeanNanos() / 1e6);
+        }
+        
+        @Override
+        public Map<String, Double> getStageP95Millis() {
+            return perStage(histogram -> millis(histogram.getPercentileNanos(95)));
+        }
+        
+        @Override
+        public Map<String, Double> getStageMaxMillis() {
+            return perStage(histogram -> millis(histogram.getMaxNanos()));
+        }
+        
+        @Override
+        public double getLookupHitRate() {
+            return lookupHitRate();
+        }
+        
+        @Override
+        public void reset() {
+            PipelineStats.reset();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package core.diagnostics;
+
+import java.util.Map;
+
+/**
+ * Management interface of the pipeline statistics, registered as
+ * Eclipse_UML_Visualizer:type=PipelineStats. Times are in milliseconds.
+ */
+public interface PipelineStatsMXBean {
+    
+    boolean isEnabled();
+    
+    void setEnabled(boolean enabled);
+    
+    /**
+     * Counter values keyed by counter name
+     */
+    Map<String, Long> getCounters();
+    
+    /**
+     * Number of timed runs keyed by stage name
+     */
+    Map<String, Long> getStageCounts();
+    
+    Map<String, Double> getStageTotalMillis();
+    
+    Map<String, Double> getStageMeanMillis();
+    
+    Map<String, Double> getStageP95Millis();
+    
+    Map<String, Double> getStageMaxMillis();
+    
+    /**
+     * Share of type lookups answered from the project's own classes, 0 if there were none
+     */
+    double getLookupHitRate();
+    
+    void reset();
+}
@@ -0,0 +1,40 @@
+package core.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one JSON serialization of the IR or of parse results
+ */
+@Name(SerializationEvent.NAME)
+@Label("Serialization")
+@Description("One JSON serialization of the IR or of parse results")
+@Category({ "UML Visualizer", "Pipeline" })
+@StackTrace(false)
+public class SerializationEvent extends Event {
+    
+    public static final String NAME = "Eclipse_UML_Visualizer.Serialization";
+    
+    @Label("Serializer")
+    public String serializer;
+    
+    @Label("Target")
+    @Description("File written, or empty for serialization to a string")
+    public String target;
+    
+    @Label("Classes")
+    public int classes;
+    
+    @Label("Relations")
+    public int relations;
+    
+    @Label("Size")
+    @Description("File size, or string length for serialization to a string")
+    @DataAmount
+    public long size;
+}
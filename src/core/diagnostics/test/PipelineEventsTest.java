@@ -0,0 +1,116 @@
+package core.diagnostics.test;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import core.diagnostics.DetectorEvent;
+import core.diagnostics.SerializationEvent;
+import core.model.ClassNode;
+import core.model.IRJsonSerializer;
+import core.model.IntermediateRepresentation;
+import core.model.Relation;
+import core.parser.InheritanceDetector;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Unit tests for the JFR events of the detectors and serializers
+ */
+public class PipelineEventsTest {
+    
+    private Recording recording;
+    private Path dump;
+    
+    @Before
+    public void setUp() throws Exception {
+        recording = new Recording();
+        recording.enable(DetectorEvent.NAME).withoutThreshold();
+        recording.enable(SerializationEvent.NAME).withoutThreshold();
+        recording.start();
+        dump = Files.createTempFile("pipeline", ".jfr");
+    }
+    
+    @After
+    public void tearDown() throws Exception {
+        recording.close();
+        Files.deleteIfExists(dump);
+    }
+    
+    private List<RecordedEvent> stopAndRead(String name) throws Exception {
+        recording.stop();
+        recording.dump(dump);
+        List<RecordedEvent> events = new ArrayList<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(dump)) {
+            if (event.getEventType().getName().equals(name)) {
+                events.add(event);
+            }
+        }
+        return events;
+    }
+    
+    private IntermediateRepresentation sampleIR() {
+        IntermediateRepresentation ir = new IntermediateRepresentation();
+        ir.addClass(new ClassNode("A", "class", "p"));
+        ir.addClass(new ClassNode("B", "class", "p"));
+        ir.addRelation(new Relation("p.A", "p.B", "inheritance"));
+        return ir;
+    }
+    
+    /**
+     * Test Case 1: Serialization to a string records classes, relations and length
+     */
+    @Test
+    public void testSerializationToString() throws Exception {
+        String json = new IRJsonSerializer().toJsonWithRelations(sampleIR());
+        
+        List<RecordedEvent> events = stopAndRead(SerializationEvent.NAME);
+        assertEquals(1, events.size());
+        RecordedEvent event = events.get(0);
+        assertEquals("IRJsonSerializer", event.getString("serializer"));
+        assertEquals(2, event.getInt("classes"));
+        assertEquals(1, event.getInt("relations"));
+        assertEquals(json.length(), event.getLong("size"));
+    }
+    
+    /**
+     * Test Case 2: Serialization to a file records the file and its size
+     */
+    @Test
+    public void testSerializationToFile() throws Exception {
+        File file = File.createTempFile("snapshot", ".json");
+        file.deleteOnExit();
+        new IRJsonSerializer().saveToFileWithRelations(sampleIR(), file.getPath());
+        
+        List<RecordedEvent> events = stopAndRead(SerializationEvent.NAME);
+        assertEquals(1, events.size());
+        assertEquals(file.getPath(), events.get(0).getString("target"));
+        assertEquals(file.length(), events.get(0).getLong("size"));
+    }
+    
+    /**
+     * Test Case 3: Each detector run is one event with the relation counts around it
+     */
+    @Test
+    public void testDetectorRun() throws Exception {
+        new InheritanceDetector(sampleIR()).detectInheritance(Collections.emptyList());
+        
+        List<RecordedEvent> events = stopAndRead(DetectorEvent.NAME);
+        assertEquals(1, events.size());
+        RecordedEvent event = events.get(0);
+        assertEquals("InheritanceDetector", event.getString("detector"));
+        assertEquals(0, event.getInt("types"));
+        assertEquals(1, event.getInt("relationsBefore"));
+        assertEquals(1, event.getInt("relationsAfter"));
+    }
+}
@@ -0,0 +1,117 @@
+package core.diagnostics.test;
+
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import javax.management.JMX;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import core.diagnostics.LatencyHistogram;
+import core.diagnostics.PipelineStats;
+import core.diagnostics.PipelineStatsMXBean;
+import core.model.ClassNode;
+import core.model.IntermediateRepresentation;
+import core.model.Relation;
+
+/**
+ * Unit tests for the pipeline counters, stage histograms and their MBean
+ */
+public class PipelineStatsTest {
+    
+    @Before
+    public void setUp() {
+        PipelineStats.reset();
+    }
+    
+    @After
+    public void tearDown() {
+        PipelineStats.setEnabled(false);
+        PipelineStats.reset();
+    }
+    
+    private IntermediateRepresentation mergeTwice() {
+        IntermediateRepresentation ir = new IntermediateRepresentation();
+        ir.addClass(new ClassNode("A", "class", "p"));
+        ir.addClass(new ClassNode("B", "class", "p"));
+        ir.mergeRelation(new Relation("p.A", "p.B", "composition"));
+        ir.mergeRelation(new Relation("p.A", "p.B", "composition"));
+        return ir;
+    }
+    
+    /**
+     * Test Case 1: Relations added and deduplicated by the IR are counted while enabled
+     */
+    @Test
+    public void testCountsWhenEnabled() {
+        PipelineStats.setEnabled(true);
+        mergeTwice();
+        assertEquals(1, PipelineStats.get(PipelineStats.Counter.RELATIONS_ADDED));
+        assertEquals(1, PipelineStats.get(PipelineStats.Counter.RELATIONS_DEDUPED));
+    }
+    
+    /**
+     * Test Case 2: Nothing is recorded while disabled, not even stages started before
+     */
+    @Test
+    public void testNothingRecordedWhenDisabled() {
+        mergeTwice();
+        assertEquals(0, PipelineStats.start());
+        assertEquals(0, PipelineStats.get(PipelineStats.Counter.RELATIONS_ADDED));
+        
+        long start = PipelineStats.start();
+        PipelineStats.setEnabled(true);
+        PipelineStats.stop(PipelineStats.Stage.PARSE, start);
+        assertEquals(0, PipelineStats.get(PipelineStats.Stage.PARSE).getCount());
+    }
+    
+    /**
+     * Test Case 3: Percentiles are within a factor of two and capped at the maximum
+     */
+    @Test
+    public void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1000L);
+        }
+        assertEquals(100, histogram.getCount());
+        assertEquals(100_000, histogram.getMaxNanos());
+        assertEquals(50_500, histogram.getMeanNanos(), 1e-9);
+        long p50 = histogram.getPercentileNanos(50);
+        assertTrue(p50 >= 50_000 && p50 < 100_000);
+        assertEquals(100_000, histogram.getPercentileNanos(100));
+        assertEquals(0, new LatencyHistogram().getPercentileNanos(95));
+    }
+    
+    /**
+     * Test Case 4: Counters and stage times can be read and reset over JMX
+     */
+    @Test
+    public void testMBean() throws Exception {
+        PipelineStats.registerMBean();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        PipelineStatsMXBean bean = JMX.newMXBeanProxy(server, new ObjectName(PipelineStats.OBJECT_NAME),
+            PipelineStatsMXBean.class);
+        
+        bean.setEnabled(true);
+        assertTrue(PipelineStats.isEnabled());
+        PipelineStats.count(PipelineStats.Counter.LOOKUP_HITS, 3);
+        PipelineStats.count(PipelineStats.Counter.LOOKUP_MISSES);
+        PipelineStats.stop(PipelineStats.Stage.SERIALIZE, PipelineStats.start());
+        
+        Map<String, Long> counters = bean.getCounters();
+        assertEquals(Long.valueOf(3), counters.get("LOOKUP_HITS"));
+        assertEquals(0.75, bean.getLookupHitRate(), 1e-9);
+        assertEquals(Long.valueOf(1), bean.getStageCounts().get("SERIALIZE"));
+        assertTrue(bean.getStageMaxMillis().get("SERIALIZE") >= 0);
+        
+        bean.reset();
+        assertEquals(Long.valueOf(0), bean.getCounters().get("LOOKUP_HITS"));
+    }
+}
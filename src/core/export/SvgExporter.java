@@ -0,0 +1,170 @@
+package core.export;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+import core.model.ClassNode;
+import core.render.DetailLevel;
+import core.render.DetailPolicy;
+import core.render.RenderScene;
+
+/**
+ * Writes a laid out diagram as SVG. Elements are streamed straight to the
+ * writer one node or edge at a time, so memory use does not grow with the
+ * size of the diagram.
+ */
+public class SvgExporter {
+    
+    private DetailPolicy policy = new DetailPolicy();
+    private DetailLevel level = DetailLevel.FULL;
+    private double margin = 20;
+    
+    public SvgExporter policy(DetailPolicy policy) {
+        this.policy = policy;
+        return this;
+    }
+    
+    public SvgExporter level(DetailLevel level) {
+        this.level = level;
+        return this;
+    }
+    
+    public void export(RenderScene scene, String filePath) throws IOException {
+        try (Writer writer = new BufferedWriter(new FileWriter(filePath), 1 << 16)) {
+            export(scene, writer);
+        }
+    }
+    
+    public void export(RenderScene scene, Writer out) throws IOException {
+        double[] bounds = scene.bounds();
+        double x = bounds[0] - margin;
+        double y = bounds[1] - margin;
+        double width = bounds[2] - bounds[0] + 2 * margin;
+        double height = bounds[3] - bounds[1] + 2 * margin;
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        out.write("<svg xmlns=\"http://www.w3.org/2000/svg\" viewBox=\"" + num(x) + " " + num(y) + " " 
+            + num(width) + " " + num(height) + "\" width=\"" + num(width) + "\" height=\"" + num(height) + "\">\n");
+        out.write("<style>"
+            + ".edge{fill:none;stroke:#555;stroke-width:1}"
+            + ".dashed{stroke-dasharray:6 4}"
+            + ".head{fill:#fff;stroke:#555}"
+            + ".filled{fill:#555;stroke:#555}"
+            + ".node{fill:#fffde7;stroke:#333}"
+            + ".dot{fill:#333}"
+            + "text{font-family:sans-serif;font-size:12px;fill:#000}"
+            + ".title{font-weight:bold}"
+            + "</style>\n");
+        
+        out.write("<g id=\"edges\">\n");
+        for (int e = 0; e < scene.edgeCount(); e++) {
+            writeEdge(scene, e, out);
+        }
+        out.write("</g>\n<g id=\"nodes\">\n");
+        for (int i = 0; i < scene.nodeCount(); i++) {
+            writeNode(scene, i, out);
+        }
+        out.write("</g>\n</svg>\n");
+    }
+    
+    private void writeEdge(RenderScene scene, int edge, Writer out) throws IOException {
+        String type = scene.getLayout().getGraph().edgeType(edge);
+        double[] path = UmlNotation.clippedPath(scene, edge, policy, level, 1);
+        int n = path.length;
+        out.write("<polyline class=\"edge" + (UmlNotation.isDashed(type) ? " dashed" : "") + "\" points=\"");
+        for (int k = 0; k < n; k += 2) {
+            out.write((k == 0 ? "" : " ") + num(path[k]) + "," + num(path[k + 1]));
+        }
+        out.write("\"/>\n");
+        if (UmlNotation.hasTriangle(type)) {
+            writePolygon(UmlNotation.arrowHead(path[n - 4], path[n - 3], path[n - 2], path[n - 1]), "head", out);
+        } else if (UmlNotation.hasDiamond(type)) {
+            writePolygon(UmlNotation.diamond(path[2], path[3], path[0], path[1]), 
+                "composition".equals(type) ? "filled" : "head", out);
+        } else {
+            double[] head = UmlNotation.arrowHead(path[n - 4], path[n - 3], path[n - 2], path[n - 1]);
+            out.write("<polyline class=\"edge\" points=\"" + num(head[2]) + "," + num(head[3]) + " " 
+                + num(head[0]) + "," + num(head[1]) + " " + num(head[4]) + "," + num(head[5]) + "\"/>\n");
+        }
+    }
+    
+    private void writePolygon(double[] points, String styleClass, Writer out) throws IOException {
+        out.write("<polygon class=\"" + styleClass + "\" points=\"");
+        for (int k = 0; k < points.length; k += 2) {
+            out.write((k == 0 ? "" : " ") + num(points[k]) + "," + num(points[k + 1]));
+        }
+        out.write("\"/>\n");
+    }
+    
+    private void writeNode(RenderScene scene, int node, Writer out) throws IOException {
+        double cx = scene.getLayout().getX(node);
+        double cy = scene.getLayout().getY(node);
+        ClassNode classNode = scene.getClassNode(node);
+        if (level == DetailLevel.DOT || classNode == null) {
+            out.write("<circle class=\"dot\" cx=\"" + num(cx) + "\" cy=\"" + num(cy) + "\" r=\"" 
+                + num(policy.getDotSize() / 2) + "\"/>\n");
+            return;
+        }
+        double[] size = policy.size(classNode, level);
+        double left = cx - size[0] / 2;
+        double top = cy - size[1] / 2;
+        double padding = policy.getPadding();
+        double lineHeight = policy.getLineHeight();
+        out.write("<g><title>" + escape(classNode.getId()) + "</title>");
+        out.write("<rect class=\"node\" x=\"" + num(left) + "\" y=\"" + num(top) + "\" width=\"" + num(size[0]) 
+            + "\" height=\"" + num(size[1]) + "\"/>");
+        double baseline = top + padding + lineHeight * 0.75;
+        out.write("<text class=\"title\" x=\"" + num(cx) + "\" y=\"" + num(baseline) + "\" text-anchor=\"middle\">" 
+            + escape(UmlNotation.title(classNode)) + "</text>");
+        if (level == DetailLevel.FULL) {
+            List<String> fields = UmlNotation.fieldLines(classNode);
+            List<String> methods = UmlNotation.methodLines(classNode);
+            double separator = top + padding + lineHeight;
+            writeSeparator(left, separator, size[0], out);
+            for (String line : fields) {
+                baseline += lineHeight;
+                writeText(left + padding, baseline, line, out);
+            }
+            writeSeparator(left, separator + fields.size() * lineHeight, size[0], out);
+            for (String line : methods) {
+                baseline += lineHeight;
+                writeText(left + padding, baseline, line, out);
+            }
+        }
+        out.write("</g>\n");
+    }
+    
+    private void writeSeparator(double left, double y, double width, Writer out) throws IOException {
+        out.write("<line class=\"edge\" x1=\"" + num(left) + "\" y1=\"" + num(y) + "\" x2=\"" + num(left + width) 
+            + "\" y2=\"" + num(y) + "\"/>");
+    }
+    
+    private void writeText(double x, double y, String text, Writer out) throws IOException {
+        out.write("<text x=\"" + num(x) + "\" y=\"" + num(y) + "\">" + escape(text) + "</text>");
+    }
+    
+    /**
+     * Coordinates rounded to one decimal, independent of the default locale
+     */
+    private static String num(double value) {
+        long tenths = Math.round(value * 10);
+        return tenths % 10 == 0 ? Long.toString(tenths / 10) : Double.toString(tenths / 10.0);
+    }
+    
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length() + 8);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<': escaped.append("&lt;"); break;
+                case '>': escaped.append("&gt;"); break;
+                case '&': escaped.append("&amp;"); break;
+                case '"': escaped.append("&quot;"); break;
+                default: escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,212 @@
+package core.export;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Stroke;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+import com.google.gson.GsonBuilder;
+
+import core.model.ClassNode;
+import core.render.DetailLevel;
+import core.render.DetailPolicy;
+import core.render.RenderScene;
+import core.render.Viewport;
+
+/**
+ * Renders a laid out diagram into fixed-size PNG tiles plus an index.json.
+ * Uses headless AWT; one tile image is reused for the whole export, so
+ * memory is bounded by the tile size, not the diagram size. Only nodes and
+ * edges that touch a tile are drawn into it.
+ */
+public class TileExporter {
+    
+    private static final Color BACKGROUND = Color.WHITE;
+    private static final Color NODE_FILL = new Color(0xfffde7);
+    private static final Color LINE = new Color(0x333333);
+    private static final Color EDGE = new Color(0x555555);
+    
+    private int tileSize = 1024;
+    private double scale = 1.0;
+    private DetailPolicy policy = new DetailPolicy();
+    
+    /**
+     * Width and height of a tile in pixels
+     */
+    public TileExporter tileSize(int tileSize) {
+        this.tileSize = tileSize;
+        return this;
+    }
+    
+    /**
+     * Pixels per diagram unit; also selects the detail level
+     */
+    public TileExporter scale(double scale) {
+        this.scale = scale;
+        return this;
+    }
+    
+    public TileExporter policy(DetailPolicy policy) {
+        this.policy = policy;
+        return this;
+    }
+    
+    public TileIndex export(RenderScene scene, File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        double[] bounds = scene.bounds();
+        double span = tileSize / scale;
+        DetailLevel level = policy.levelFor(scale);
+        
+        TileIndex index = new TileIndex();
+        index.tileSize = tileSize;
+        index.scale = scale;
+        index.originX = Math.floor(bounds[0]);
+        index.originY = Math.floor(bounds[1]);
+        index.columns = Math.max(1, (int) Math.ceil((bounds[2] - index.originX) / span));
+        index.rows = Math.max(1, (int) Math.ceil((bounds[3] - index.originY) / span));
+        index.level = level.name();
+        
+        BufferedImage image = new BufferedImage(tileSize, tileSize, BufferedImage.TYPE_INT_RGB);
+        for (int row = 0; row < index.rows; row++) {
+            for (int column = 0; column < index.columns; column++) {
+                Viewport tile = new Viewport(index.originX + column * span, index.originY + row * span, span, span, scale);
+                int[] nodes = scene.nodesIn(tile);
+                int[] edges = policy.showsEdges(level) ? scene.edgesIn(tile) : new int[0];
+                if (nodes.length == 0 && edges.length == 0) {
+                    continue;
+                }
+                Graphics2D g = image.createGraphics();
+                try {
+                    g.setColor(BACKGROUND);
+                    g.fillRect(0, 0, tileSize, tileSize);
+                    g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                    g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+                    g.scale(scale, scale);
+                    g.translate(-tile.getX(), -tile.getY());
+                    g.setStroke(new BasicStroke((float) (1 / scale)));
+                    for (int e : edges) {
+                        paintEdge(scene, e, level, g);
+                    }
+                    for (int i : nodes) {
+                        paintNode(scene, i, level, g);
+                    }
+                } finally {
+                    g.dispose();
+                }
+                String file = "tile_" + row + "_" + column + ".png";
+                ImageIO.write(image, "png", new File(directory, file));
+                index.tiles.add(new TileIndex.Tile(column, row, file, nodes.length));
+            }
+        }
+        try (Writer writer = new FileWriter(new File(directory, "index.json"))) {
+            new GsonBuilder().setPrettyPrinting().create().toJson(index, writer);
+        }
+        return index;
+    }
+    
+    private void paintEdge(RenderScene scene, int edge, DetailLevel level, Graphics2D g) {
+        String type = scene.getLayout().getGraph().edgeType(edge);
+        double[] path = UmlNotation.clippedPath(scene, edge, policy, level, scale);
+        int n = path.length;
+        Path2D.Double line = new Path2D.Double();
+        line.moveTo(path[0], path[1]);
+        for (int k = 2; k < n; k += 2) {
+            line.lineTo(path[k], path[k + 1]);
+        }
+        Stroke solid = g.getStroke();
+        if (UmlNotation.isDashed(type)) {
+            float unit = (float) (1 / scale);
+            g.setStroke(new BasicStroke(unit, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 10, 
+                new float[] { 6 * unit, 4 * unit }, 0));
+        }
+        g.setColor(EDGE);
+        g.draw(line);
+        g.setStroke(solid);
+        
+        if (UmlNotation.hasTriangle(type)) {
+            paintPolygon(UmlNotation.arrowHead(path[n - 4], path[n - 3], path[n - 2], path[n - 1]), Color.WHITE, g);
+        } else if (UmlNotation.hasDiamond(type)) {
+            paintPolygon(UmlNotation.diamond(path[2], path[3], path[0], path[1]), 
+                "composition".equals(type) ? EDGE : Color.WHITE, g);
+        } else {
+            double[] head = UmlNotation.arrowHead(path[n - 4], path[n - 3], path[n - 2], path[n - 1]);
+            Path2D.Double open = new Path2D.Double();
+            open.moveTo(head[2], head[3]);
+            open.lineTo(head[0], head[1]);
+            open.lineTo(head[4], head[5]);
+            g.draw(open);
+        }
+    }
+    
+    private void paintPolygon(double[] points, Color fill, Graphics2D g) {
+        Path2D.Double polygon = new Path2D.Double();
+        polygon.moveTo(points[0], points[1]);
+        for (int k = 2; k < points.length; k += 2) {
+            polygon.lineTo(points[k], points[k + 1]);
+        }
+        polygon.closePath();
+        g.setColor(fill);
+        g.fill(polygon);
+        g.setColor(EDGE);
+        g.draw(polygon);
+    }
+    
+    private void paintNode(RenderScene scene, int node, DetailLevel level, Graphics2D g) {
+        double cx = scene.getLayout().getX(node);
+        double cy = scene.getLayout().getY(node);
+        ClassNode classNode = scene.getClassNode(node);
+        double[] size = UmlNotation.nodeSize(scene, node, policy, level, scale);
+        Rectangle2D.Double box = new Rectangle2D.Double(cx - size[0] / 2, cy - size[1] / 2, size[0], size[1]);
+        if (level == DetailLevel.DOT || classNode == null) {
+            g.setColor(LINE);
+            g.fill(new Ellipse2D.Double(box.x, box.y, box.width, box.height));
+            return;
+        }
+        g.setColor(NODE_FILL);
+        g.fill(box);
+        g.setColor(LINE);
+        g.draw(box);
+        
+        double padding = policy.getPadding();
+        double lineHeight = policy.getLineHeight();
+        Font plain = new Font(Font.SANS_SERIF, Font.PLAIN, 12);
+        g.setFont(plain.deriveFont(Font.BOLD));
+        String title = UmlNotation.title(classNode);
+        float titleWidth = (float) g.getFontMetrics().getStringBounds(title, g).getWidth();
+        float baseline = (float) (box.y + padding + lineHeight * 0.75);
+        g.drawString(title, (float) cx - titleWidth / 2, baseline);
+        if (level == DetailLevel.FULL) {
+            g.setFont(plain);
+            List<String> fields = UmlNotation.fieldLines(classNode);
+            List<String> methods = UmlNotation.methodLines(classNode);
+            double separator = box.y + padding + lineHeight;
+            g.draw(new Line2D.Double(box.x, separator, box.x + box.width, separator));
+            for (String line : fields) {
+                baseline += lineHeight;
+                g.drawString(line, (float) (box.x + padding), baseline);
+            }
+            separator += fields.size() * lineHeight;
+            g.draw(new Line2D.Double(box.x, separator, box.x + box.width, separator));
+            for (String line : methods) {
+                baseline += lineHeight;
+                g.drawString(line, (float) (box.x + padding), baseline);
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package core.export;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Description of an exported tile set, written next to the tiles as
+ * index.json. Tile (column, row) covers diagram coordinates starting at
+ * originX + column * tileSize / scale, originY + row * tileSize / scale.
+ */
+public class TileIndex {
+    
+    public int tileSize;
+    public double scale;
+    public double originX;
+    public double originY;
+    public int columns;
+    public int rows;
+    public String level;
+    public List<Tile> tiles = new ArrayList<>();
+    
+    /**
+     * One written tile; empty tiles are not written
+     */
+    public static class Tile {
+        public int column;
+        public int row;
+        public String file;
+        public int nodes;
+        
+        public Tile(int column, int row, String file, int nodes) {
+            this.column = column;
+            this.row = row;
+            this.file = file;
+            this.nodes = nodes;
+        }
+    }
+}
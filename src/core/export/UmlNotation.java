@@ -0,0 +1,160 @@
+package core.export;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import core.model.ClassNode;
+import core.render.DetailLevel;
+import core.render.DetailPolicy;
+import core.render.RenderScene;
+import core.model.Field;
+import core.model.Method;
+
+/**
+ * Text and edge decorations shared by the exporters, so SVG and PNG output
+ * look the same.
+ */
+final class UmlNotation {
+    
+    static final double ARROW_LENGTH = 12;
+    static final double ARROW_WIDTH = 8;
+    
+    private UmlNotation() {
+    }
+    
+    static String symbol(String visibility) {
+        switch (visibility == null ? "" : visibility) {
+            case "public": return "+";
+            case "private": return "-";
+            case "protected": return "#";
+            default: return "~";
+        }
+    }
+    
+    /**
+     * Stereotype line for non-class kinds, e.g. «interface», or null
+     */
+    static String stereotype(ClassNode node) {
+        return "class".equals(node.getType()) ? null : "«" + node.getType() + "»";
+    }
+    
+    static List<String> fieldLines(ClassNode node) {
+        List<String> lines = new ArrayList<>(node.getFields().size());
+        for (Field field : node.getFields()) {
+            lines.add(symbol(field.getVisibility()) + " " + field.getName() + " : " + field.getType());
+        }
+        return lines;
+    }
+    
+    static List<String> methodLines(ClassNode node) {
+        List<String> lines = new ArrayList<>(node.getMethods().size());
+        for (Method method : node.getMethods()) {
+            String parameters = method.getParameters().isEmpty() ? "" : "…";
+            lines.add(symbol(method.getVisibility()) + " " + method.getName() 
+                + "(" + parameters + ") : " + method.getReturnType());
+        }
+        return lines;
+    }
+    
+    /**
+     * Class name with the stereotype of non-class kinds, e.g. «interface» Shape
+     */
+    static String title(ClassNode node) {
+        String stereotype = stereotype(node);
+        return stereotype == null ? node.getName() : stereotype + " " + node.getName();
+    }
+    
+    /**
+     * Drawn {width, height} of a node in diagram units; dots keep their
+     * screen size at any scale
+     */
+    static double[] nodeSize(RenderScene scene, int node, DetailPolicy policy, DetailLevel level, double scale) {
+        ClassNode classNode = scene.getClassNode(node);
+        if (level == DetailLevel.DOT || classNode == null) {
+            double dot = policy.getDotSize() / scale;
+            return new double[] { dot, dot };
+        }
+        return policy.size(classNode, level);
+    }
+    
+    /**
+     * Edge path with its ends moved from the node centres to the node borders
+     */
+    static double[] clippedPath(RenderScene scene, int edge, DetailPolicy policy, DetailLevel level, double scale) {
+        double[] path = scene.getEdgePath(edge);
+        int n = path.length;
+        double[] source = nodeSize(scene, scene.getLayout().getGraph().edgeSource(edge), policy, level, scale);
+        double[] target = nodeSize(scene, scene.getLayout().getGraph().edgeTarget(edge), policy, level, scale);
+        double[] start = clip(path[0], path[1], source[0] / 2, source[1] / 2, path[2], path[3]);
+        double[] end = clip(path[n - 2], path[n - 1], target[0] / 2, target[1] / 2, path[n - 4], path[n - 3]);
+        path[0] = start[0];
+        path[1] = start[1];
+        path[n - 2] = end[0];
+        path[n - 1] = end[1];
+        return path;
+    }
+    
+    static boolean isDashed(String relationType) {
+        return "implements".equals(relationType);
+    }
+    
+    /**
+     * Hollow triangle at the target for generalizations, open arrow for
+     * associations; aggregation and composition use a diamond at the source
+     */
+    static boolean hasTriangle(String relationType) {
+        return "inheritance".equals(relationType) || "implements".equals(relationType);
+    }
+    
+    static boolean hasDiamond(String relationType) {
+        return "aggregation".equals(relationType) || "composition".equals(relationType);
+    }
+    
+    /**
+     * Point where the segment from the centre of a box towards (x, y) leaves the box
+     */
+    static double[] clip(double cx, double cy, double halfWidth, double halfHeight, double x, double y) {
+        double dx = x - cx;
+        double dy = y - cy;
+        if (dx == 0 && dy == 0) {
+            return new double[] { cx, cy };
+        }
+        double t = Math.min(dx == 0 ? Double.MAX_VALUE : halfWidth / Math.abs(dx), 
+                            dy == 0 ? Double.MAX_VALUE : halfHeight / Math.abs(dy));
+        t = Math.min(t, 1);
+        return new double[] { cx + dx * t, cy + dy * t };
+    }
+    
+    /**
+     * Triangle {tipX, tipY, leftX, leftY, rightX, rightY} pointing from (fromX, fromY) to the tip
+     */
+    static double[] arrowHead(double fromX, double fromY, double tipX, double tipY) {
+        double[] axis = unit(fromX, fromY, tipX, tipY);
+        double baseX = tipX - axis[0] * ARROW_LENGTH;
+        double baseY = tipY - axis[1] * ARROW_LENGTH;
+        double w = ARROW_WIDTH / 2;
+        return new double[] { tipX, tipY, baseX - axis[1] * w, baseY + axis[0] * w, baseX + axis[1] * w, baseY - axis[0] * w };
+    }
+    
+    /**
+     * Diamond {x0, y0, ..., x3, y3} with its tip at (tipX, tipY), pointing away from (fromX, fromY)
+     */
+    static double[] diamond(double fromX, double fromY, double tipX, double tipY) {
+        double[] axis = unit(fromX, fromY, tipX, tipY);
+        double midX = tipX - axis[0] * ARROW_LENGTH;
+        double midY = tipY - axis[1] * ARROW_LENGTH;
+        double w = ARROW_WIDTH / 2;
+        return new double[] { 
+            tipX, tipY, 
+            midX - axis[1] * w, midY + axis[0] * w, 
+            tipX - axis[0] * 2 * ARROW_LENGTH, tipY - axis[1] * 2 * ARROW_LENGTH, 
+            midX + axis[1] * w, midY - axis[0] * w };
+    }
+    
+    private static double[] unit(double fromX, double fromY, double toX, double toY) {
+        double dx = toX - fromX;
+        double dy = toY - fromY;
+        double length = Math.sqrt(dx * dx + dy * dy);
+        return length == 0 ? new double[] { 0, 1 } : new double[] { dx / length, dy / length };
+    }
+}
@@ -0,0 +1,85 @@
+package core.export.test;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+import core.export.SvgExporter;
+import core.layout.SugiyamaLayout;
+import core.model.ClassNode;
+import core.model.Field;
+import core.model.IntermediateRepresentation;
+import core.model.Method;
+import core.model.Relation;
+import core.render.DetailLevel;
+import core.render.DetailPolicy;
+import core.render.RenderScene;
+
+/**
+ * Unit tests for the streaming SVG exporter
+ */
+public class SvgExporterTest {
+
+    private RenderScene scene;
+
+    @Before
+    public void setUp() {
+        IntermediateRepresentation ir = new IntermediateRepresentation();
+        ClassNode shape = new ClassNode("Shape", "interface", "geo");
+        shape.addMethod(new Method("area", "double", "public", false));
+        ClassNode circle = new ClassNode("Circle", "class", "geo");
+        circle.addField(new Field("radius", "double", "private", false));
+        ClassNode canvas = new ClassNode("Canvas<T>", "class", "geo");
+        ir.addClass(shape);
+        ir.addClass(circle);
+        ir.addClass(canvas);
+        ir.addRelation(new Relation("geo.Circle", "geo.Shape", "implements"));
+        ir.addRelation(new Relation("geo.Canvas<T>", "geo.Shape", "aggregation"));
+        scene = new RenderScene(ir, new SugiyamaLayout().layout(ir), new DetailPolicy());
+    }
+
+    private static Document parse(String svg) throws Exception {
+        return DocumentBuilderFactory.newInstance().newDocumentBuilder()
+            .parse(new ByteArrayInputStream(svg.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Test Case 1: Output is well-formed SVG with a box per class and a line per relation
+     */
+    @Test
+    public void testFullDetail() throws Exception {
+        StringWriter out = new StringWriter();
+        new SvgExporter().export(scene, out);
+
+        Document svg = parse(out.toString());
+        assertEquals("svg", svg.getDocumentElement().getTagName());
+        assertEquals(3, svg.getElementsByTagName("rect").getLength());
+        assertTrue(out.toString().contains("- radius : double"));
+        assertTrue(out.toString().contains("«interface» Shape"));
+        assertTrue(out.toString().contains("Canvas&lt;T&gt;"));
+        assertTrue(out.toString().contains("dashed"));
+        // Aggregation diamond and implements triangle
+        assertEquals(2, svg.getElementsByTagName("polygon").getLength());
+    }
+
+    /**
+     * Test Case 2: Dot level writes no text
+     */
+    @Test
+    public void testDotLevel() throws Exception {
+        StringWriter out = new StringWriter();
+        new SvgExporter().level(DetailLevel.DOT).export(scene, out);
+
+        Document svg = parse(out.toString());
+        assertEquals(3, svg.getElementsByTagName("circle").getLength());
+        assertEquals(0, svg.getElementsByTagName("text").getLength());
+    }
+}
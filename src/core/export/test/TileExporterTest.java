@@ -0,0 +1,59 @@
+package core.export.test;
+
+import static org.junit.Assert.*;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import core.export.TileExporter;
+import core.export.TileIndex;
+import core.layout.GraphIndex;
+import core.layout.LayoutResult;
+import core.model.ClassNode;
+import core.model.IntermediateRepresentation;
+import core.model.Relation;
+import core.render.DetailPolicy;
+import core.render.RenderScene;
+
+/**
+ * Unit tests for the PNG tile exporter
+ */
+public class TileExporterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Test Case 1: Tiles cover the diagram, empty tiles are skipped and an index is written
+     */
+    @Test
+    public void testTiles() throws Exception {
+        // Two classes far apart on a diagonal, so the tiles between them stay empty
+        IntermediateRepresentation ir = new IntermediateRepresentation();
+        ir.addClass(new ClassNode("A", "class", "p"));
+        ir.addClass(new ClassNode("B", "class", "p"));
+        ir.addRelation(new Relation("p.A", "p.B", "association"));
+        GraphIndex graph = GraphIndex.of(ir);
+        LayoutResult layout = new LayoutResult(graph, new double[] { 0, 1000 }, new double[] { 0, 1000 });
+        RenderScene scene = new RenderScene(ir, layout, new DetailPolicy());
+
+        File directory = folder.newFolder("tiles");
+        TileIndex index = new TileExporter().tileSize(256).scale(1.0).export(scene, directory);
+
+        assertEquals(4, index.columns);
+        assertEquals(5, index.rows);
+        assertTrue(index.tiles.size() < 20);
+        assertTrue(new File(directory, "index.json").isFile());
+        TileIndex.Tile first = index.tiles.get(0);
+        BufferedImage image = ImageIO.read(new File(directory, first.file));
+        assertEquals(256, image.getWidth());
+        assertEquals(256, image.getHeight());
+        assertEquals(1, first.nodes);
+    }
+}
@@ -0,0 +1,229 @@
+package core.layout;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import core.model.IntermediateRepresentation;
+
+/**
+ * Headless force-directed layout (Fruchterman-Reingold forces) with
+ * Barnes-Hut approximated repulsion. Each iteration rebuilds a quadtree and
+ * then computes all node forces in parallel from the same position snapshot,
+ * so results do not depend on the number of threads.
+ */
+public class BarnesHutLayout {
+    
+    private static final int BLOCK_SIZE = 512;
+    
+    private int iterations = 300;
+    private long timeBudgetMillis = 0;
+    private double theta = 0.9;
+    private double springLength = 80;
+    private double repulsion = 1.0;
+    private double gravity = 0.05;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private long seed = 1;
+    private Map<String, double[]> warmStart;
+    
+    /**
+     * Maximum number of iterations
+     */
+    public BarnesHutLayout iterations(int iterations) {
+        this.iterations = iterations;
+        return this;
+    }
+    
+    /**
+     * Stop after this many milliseconds even if iterations remain; 0 for no limit
+     */
+    public BarnesHutLayout timeBudgetMillis(long millis) {
+        this.timeBudgetMillis = millis;
+        return this;
+    }
+    
+    /**
+     * Barnes-Hut opening criterion; 0 is exact, larger is faster and coarser
+     */
+    public BarnesHutLayout theta(double theta) {
+        this.theta = theta;
+        return this;
+    }
+    
+    /**
+     * Ideal edge length
+     */
+    public BarnesHutLayout springLength(double springLength) {
+        this.springLength = springLength;
+        return this;
+    }
+    
+    public BarnesHutLayout repulsion(double repulsion) {
+        this.repulsion = repulsion;
+        return this;
+    }
+    
+    /**
+     * Pull towards the origin that keeps disconnected components together
+     */
+    public BarnesHutLayout gravity(double gravity) {
+        this.gravity = gravity;
+        return this;
+    }
+    
+    public BarnesHutLayout parallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+        return this;
+    }
+    
+    /**
+     * Seed for the initial placement of nodes without a previous position
+     */
+    public BarnesHutLayout seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+    
+    /**
+     * Start from previous positions (class ID -> {x, y}); nodes that are
+     * missing are placed next to a positioned neighbor
+     */
+    public BarnesHutLayout warmStart(Map<String, double[]> previous) {
+        this.warmStart = previous;
+        return this;
+    }
+    
+    public LayoutResult layout(IntermediateRepresentation ir) {
+        return layout(GraphIndex.of(ir));
+    }
+    
+    public LayoutResult layout(GraphIndex graph) {
+        int n = graph.nodeCount();
+        double[] x = new double[n];
+        double[] y = new double[n];
+        int warm = initialPositions(graph, x, y);
+        if (n < 2 || iterations <= 0) {
+            return new LayoutResult(graph, x, y);
+        }
+        
+        // A mostly warm-started layout only needs small corrections
+        double startTemperature = warm * 10 >= n * 9 
+            ? springLength / 2 
+            : springLength * Math.sqrt(n) / 2;
+        double strength = repulsion * springLength * springLength;
+        double[] dx = new double[n];
+        double[] dy = new double[n];
+        QuadTree tree = new QuadTree(4 * n);
+        int blocks = (n + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        long deadline = timeBudgetMillis > 0 ? System.nanoTime() + timeBudgetMillis * 1_000_000 : Long.MAX_VALUE;
+        
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (int it = 0; it < iterations && System.nanoTime() < deadline; it++) {
+                double temperature = Math.max(springLength / 100, startTemperature * (1.0 - (double) it / iterations));
+                tree.build(x, y);
+                pool.submit(() -> IntStream.range(0, blocks).parallel().forEach(block -> {
+                    int[] stack = new int[tree.stackSize()];
+                    double[] force = new double[2];
+                    int end = Math.min(n, (block + 1) * BLOCK_SIZE);
+                    for (int i = block * BLOCK_SIZE; i < end; i++) {
+                        force[0] = 0;
+                        force[1] = 0;
+                        tree.repulsion(i, x[i], y[i], theta, strength, stack, force);
+                        attraction(graph, i, x, y, force);
+                        force[0] -= gravity * x[i];
+                        force[1] -= gravity * y[i];
+                        dx[i] = force[0];
+                        dy[i] = force[1];
+                    }
+                })).join();
+                
+                double maxMove = 0;
+                for (int i = 0; i < n; i++) {
+                    double length = Math.sqrt(dx[i] * dx[i] + dy[i] * dy[i]);
+                    if (length > 0) {
+                        double move = Math.min(length, temperature);
+                        x[i] += dx[i] / length * move;
+                        y[i] += dy[i] / length * move;
+                        maxMove = Math.max(maxMove, move);
+                    }
+                }
+                if (maxMove < springLength / 1000) {
+                    break;
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return new LayoutResult(graph, x, y);
+    }
+    
+    /**
+     * Spring force d^2 / k along each edge
+     */
+    private void attraction(GraphIndex graph, int i, double[] x, double[] y, double[] force) {
+        for (int k = 0; k < graph.degree(i); k++) {
+            int j = graph.neighbor(i, k);
+            double ddx = x[i] - x[j];
+            double ddy = y[i] - y[j];
+            double d = Math.sqrt(ddx * ddx + ddy * ddy);
+            force[0] -= ddx * d / springLength;
+            force[1] -= ddy * d / springLength;
+        }
+    }
+    
+    /**
+     * Fill positions from the warm start, placing the remaining nodes next to a
+     * positioned neighbor or pseudo-randomly in a disk. Returns the number of
+     * warm-started nodes.
+     */
+    private int initialPositions(GraphIndex graph, double[] x, double[] y) {
+        int n = graph.nodeCount();
+        boolean[] placed = new boolean[n];
+        int warm = 0;
+        if (warmStart != null) {
+            for (int i = 0; i < n; i++) {
+                double[] position = warmStart.get(graph.id(i));
+                if (position != null) {
+                    x[i] = position[0];
+                    y[i] = position[1];
+                    placed[i] = true;
+                    warm++;
+                }
+            }
+        }
+        double radius = springLength * Math.sqrt(n + 1);
+        for (int i = 0; i < n; i++) {
+            if (placed[i]) {
+                continue;
+            }
+            long h = mix(graph.id(i).hashCode() ^ seed);
+            double angle = (h & 0xFFFF) / 65536.0 * 2 * Math.PI;
+            double distance = ((h >>> 16) & 0xFFFF) / 65536.0;
+            int anchor = -1;
+            for (int k = 0; k < graph.degree(i) && anchor < 0; k++) {
+                if (placed[graph.neighbor(i, k)]) {
+                    anchor = graph.neighbor(i, k);
+                }
+            }
+            if (anchor >= 0) {
+                x[i] = x[anchor] + Math.cos(angle) * springLength * (0.5 + distance);
+                y[i] = y[anchor] + Math.sin(angle) * springLength * (0.5 + distance);
+            } else {
+                x[i] = Math.cos(angle) * radius * Math.sqrt(distance);
+                y[i] = Math.sin(angle) * radius * Math.sqrt(distance);
+            }
+            placed[i] = true;
+        }
+        return warm;
+    }
+    
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,99 @@
+package core.layout;
+
+import java.util.Set;
+
+import core.model.Relation;
+
+/**
+ * All class relations from one package to another, drawn as a single curve.
+ * The control points run from the source package centroid up the package
+ * tree to the common ancestor and down to the target package centroid.
+ */
+public class EdgeBundle {
+    
+    private String sourcePackage;
+    private String targetPackage;
+    private Set<Relation> relations;
+    private int weight;
+    private double[] controlPoints;
+    
+    public EdgeBundle(String sourcePackage, String targetPackage, Set<Relation> relations,
+                      int weight, double[] controlPoints) {
+        this.sourcePackage = sourcePackage;
+        this.targetPackage = targetPackage;
+        this.relations = relations;
+        this.weight = weight;
+        this.controlPoints = controlPoints;
+    }
+    
+    public String getSourcePackage() {
+        return sourcePackage;
+    }
+    
+    public String getTargetPackage() {
+        return targetPackage;
+    }
+    
+    /**
+     * Class relations drawn by this bundle
+     */
+    public Set<Relation> getRelations() {
+        return relations;
+    }
+    
+    /**
+     * Sum of the relation multiplicities, e.g. to scale the stroke width
+     */
+    public int getWeight() {
+        return weight;
+    }
+    
+    /**
+     * Control points {x0, y0, x1, y1, ...} from source to target
+     */
+    public double[] getControlPoints() {
+        return controlPoints;
+    }
+    
+    /**
+     * Polyline {x0, y0, x1, y1, ...} along the uniform cubic B-spline of the
+     * control points, with the given number of segments per span. The curve
+     * starts and ends exactly at the package centroids.
+     */
+    public double[] sample(int segments) {
+        int n = controlPoints.length / 2;
+        if (n < 3 || segments < 1) {
+            return controlPoints.clone();
+        }
+        // Triple the end points so the curve is clamped to them
+        int spans = n + 1;
+        double[] polyline = new double[(spans * segments + 1) * 2];
+        int out = 0;
+        for (int span = 0; span < spans; span++) {
+            int i0 = Math.max(0, span - 2);
+            int i1 = Math.max(0, Math.min(n - 1, span - 1));
+            int i2 = Math.min(n - 1, span);
+            int i3 = Math.min(n - 1, span + 1);
+            for (int step = span == 0 ? 0 : 1; step <= segments; step++) {
+                double t = (double) step / segments;
+                double t2 = t * t;
+                double t3 = t2 * t;
+                double b0 = (1 - 3 * t + 3 * t2 - t3) / 6;
+                double b1 = (4 - 6 * t2 + 3 * t3) / 6;
+                double b2 = (1 + 3 * t + 3 * t2 - 3 * t3) / 6;
+                double b3 = t3 / 6;
+                polyline[out++] = b0 * controlPoints[2 * i0] + b1 * controlPoints[2 * i1]
+                    + b2 * controlPoints[2 * i2] + b3 * controlPoints[2 * i3];
+                polyline[out++] = b0 * controlPoints[2 * i0 + 1] + b1 * controlPoints[2 * i1 + 1]
+                    + b2 * controlPoints[2 * i2 + 1] + b3 * controlPoints[2 * i3 + 1];
+            }
+        }
+        return polyline;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("EdgeBundle[%s --%d--> %s, %d control points]",
+            sourcePackage, weight, targetPackage, controlPoints.length / 2);
+    }
+}
@@ -0,0 +1,214 @@
+package core.layout;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import core.model.IntermediateRepresentation;
+import core.model.PackageEdge;
+import core.model.PackageGraph;
+
+/**
+ * Hierarchical edge bundling over the package tree. Every PackageEdge between
+ * two different packages becomes one EdgeBundle routed through the centroids
+ * of the packages on the tree path between them, so relations that share
+ * ancestors are drawn close together. Package edges come from an incremental
+ * PackageGraph, the package tree is kept as int arrays between calls and
+ * centroids are recomputed in one pass over the positions, so route() is
+ * cheap enough to call after every IncrementalLayout update.
+ */
+public class EdgeBundler {
+    
+    private IntermediateRepresentation ir;
+    private PackageGraph packageGraph;
+    private double beta = 0.85;
+    private int minWeight = 1;
+    
+    // Package tree: every package and ancestor prefix gets a node once
+    private Map<String, Integer> treeIds = new HashMap<>();
+    private List<String> names = new ArrayList<>();
+    private int[] parent = new int[0];
+    private int[] depth = new int[0];
+    private double[] centroidX = new double[0];
+    private double[] centroidY = new double[0];
+    private int[] count = new int[0];
+    
+    public EdgeBundler(IntermediateRepresentation ir, PackageGraph packageGraph) {
+        this.ir = ir;
+        this.packageGraph = packageGraph;
+    }
+    
+    /**
+     * Bundling strength from 0 (straight lines) to 1 (follow the package tree exactly)
+     */
+    public EdgeBundler beta(double beta) {
+        this.beta = Math.max(0, Math.min(1, beta));
+        return this;
+    }
+    
+    /**
+     * Skip bundles whose summed multiplicity is below this weight
+     */
+    public EdgeBundler minWeight(int minWeight) {
+        this.minWeight = minWeight;
+        return this;
+    }
+    
+    public List<EdgeBundle> route(LayoutResult layout) {
+        return route(layout.toMap());
+    }
+    
+    public List<EdgeBundle> route(LayoutCache cache) {
+        return route(cache.getPositions());
+    }
+    
+    /**
+     * Bundles for all package edges whose both ends have positioned classes
+     */
+    public List<EdgeBundle> route(Map<String, double[]> positions) {
+        computeCentroids(positions);
+        List<EdgeBundle> bundles = new ArrayList<>();
+        int[] path = new int[16];
+        for (PackageEdge edge : packageGraph.getEdges()) {
+            if (edge.isSelfLoop()) {
+                continue;
+            }
+            Integer source = treeIds.get(edge.getSourcePackage());
+            Integer target = treeIds.get(edge.getTargetPackage());
+            if (source == null || target == null || count[source] == 0 || count[target] == 0) {
+                continue; // external package or nothing laid out yet
+            }
+            int weight = edge.getMultiplicity();
+            if (weight < minWeight) {
+                continue;
+            }
+            if (path.length < depth[source] + depth[target] + 2) {
+                path = new int[depth[source] + depth[target] + 2];
+            }
+            int length = treePath(source, target, path);
+            bundles.add(new EdgeBundle(edge.getSourcePackage(), edge.getTargetPackage(),
+                edge.getRelations(), weight, controlPoints(path, length)));
+        }
+        return bundles;
+    }
+    
+    /**
+     * Centroid of every package and each of its ancestors, in tree order
+     */
+    private void computeCentroids(Map<String, double[]> positions) {
+        for (String packageName : ir.getPackageNames()) {
+            treeId(packageName);
+        }
+        int size = names.size();
+        if (centroidX.length < size) {
+            centroidX = new double[size * 2];
+            centroidY = new double[size * 2];
+            count = new int[size * 2];
+        }
+        Arrays.fill(centroidX, 0);
+        Arrays.fill(centroidY, 0);
+        Arrays.fill(count, 0);
+        for (String packageName : ir.getPackageNames()) {
+            double sumX = 0;
+            double sumY = 0;
+            int n = 0;
+            for (String classId : ir.getClassIdsInPackage(packageName)) {
+                double[] position = positions.get(classId);
+                if (position != null) {
+                    sumX += position[0];
+                    sumY += position[1];
+                    n++;
+                }
+            }
+            for (int id = treeIds.get(packageName); n > 0 && id >= 0; id = parent[id]) {
+                centroidX[id] += sumX;
+                centroidY[id] += sumY;
+                count[id] += n;
+            }
+        }
+        for (int id = 0; id < size; id++) {
+            if (count[id] > 0) {
+                centroidX[id] /= count[id];
+                centroidY[id] /= count[id];
+            }
+        }
+    }
+    
+    /**
+     * Tree nodes from the source package up to the lowest common ancestor and
+     * down to the target package. The ancestor is left out when it is neither
+     * end, as in Holten's bundling, so sibling packages do not meet in a knot.
+     * Returns the path length.
+     */
+    private int treePath(int source, int target, int[] path) {
+        int a = source;
+        int b = target;
+        int up = 0;
+        int down = path.length;
+        while (depth[a] > depth[b]) {
+            path[up++] = a;
+            a = parent[a];
+        }
+        while (depth[b] > depth[a]) {
+            path[--down] = b;
+            b = parent[b];
+        }
+        while (a != b) {
+            path[up++] = a;
+            path[--down] = b;
+            a = parent[a];
+            b = parent[b];
+        }
+        if (up == 0 || down == path.length) {
+            path[up++] = a; // one end is the ancestor of the other
+        }
+        int length = up;
+        for (int i = down; i < path.length; i++) {
+            path[length++] = path[i];
+        }
+        return length;
+    }
+    
+    /**
+     * Centroids along a tree path, pulled towards the straight line between the ends
+     */
+    private double[] controlPoints(int[] path, int n) {
+        double[] points = new double[n * 2];
+        double x0 = centroidX[path[0]];
+        double y0 = centroidY[path[0]];
+        double dx = centroidX[path[n - 1]] - x0;
+        double dy = centroidY[path[n - 1]] - y0;
+        for (int i = 0; i < n; i++) {
+            double t = n == 1 ? 0 : (double) i / (n - 1);
+            double b = i == 0 || i == n - 1 ? 1 : beta;
+            points[2 * i] = b * centroidX[path[i]] + (1 - b) * (x0 + t * dx);
+            points[2 * i + 1] = b * centroidY[path[i]] + (1 - b) * (y0 + t * dy);
+        }
+        return points;
+    }
+    
+    /**
+     * Node of a package in the package tree, adding it and its ancestors on first use.
+     * "" is the root.
+     */
+    private int treeId(String packageName) {
+        Integer id = treeIds.get(packageName);
+        if (id != null) {
+            return id;
+        }
+        int lastDot = packageName.lastIndexOf('.');
+        int parentId = packageName.isEmpty() ? -1 : treeId(lastDot > 0 ? packageName.substring(0, lastDot) : "");
+        int newId = names.size();
+        names.add(packageName);
+        treeIds.put(packageName, newId);
+        if (parent.length <= newId) {
+            parent = Arrays.copyOf(parent, newId * 2 + 16);
+            depth = Arrays.copyOf(depth, newId * 2 + 16);
+        }
+        parent[newId] = parentId;
+        depth[newId] = parentId < 0 ? 0 : depth[parentId] + 1;
+        return newId;
+    }
+}
@@ -0,0 +1,135 @@
+package core.layout;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import core.model.IntermediateRepresentation;
+import core.model.Relation;
+
+/**
+ * Int-indexed, immutable snapshot of the IR graph for layout algorithms.
+ * Nodes are the IR classes in ID order; edges are the relations between two
+ * distinct classes (external targets and self relations are left out).
+ * Undirected adjacency is stored in compressed (CSR) form.
+ */
+public class GraphIndex {
+    
+    private String[] ids;
+    private Map<String, Integer> indexOf;
+    private int[] edgeSource;
+    private int[] edgeTarget;
+    private String[] edgeType;
+    private int[] offsets;   // neighbors of node i are neighbors[offsets[i] .. offsets[i + 1])
+    private int[] neighbors;
+    
+    private GraphIndex(String[] ids, int[] edgeSource, int[] edgeTarget, String[] edgeType) {
+        this.ids = ids;
+        this.indexOf = new HashMap<>(ids.length * 2);
+        for (int i = 0; i < ids.length; i++) {
+            indexOf.put(ids[i], i);
+        }
+        this.edgeSource = edgeSource;
+        this.edgeTarget = edgeTarget;
+        this.edgeType = edgeType;
+        
+        this.offsets = new int[ids.length + 1];
+        for (int e = 0; e < edgeSource.length; e++) {
+            offsets[edgeSource[e] + 1]++;
+            offsets[edgeTarget[e] + 1]++;
+        }
+        for (int i = 0; i < ids.length; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        this.neighbors = new int[offsets[ids.length]];
+        int[] fill = Arrays.copyOf(offsets, ids.length);
+        for (int e = 0; e < edgeSource.length; e++) {
+            neighbors[fill[edgeSource[e]]++] = edgeTarget[e];
+            neighbors[fill[edgeTarget[e]]++] = edgeSource[e];
+        }
+    }
+    
+    public static GraphIndex of(IntermediateRepresentation ir) {
+        String[] ids = ir.getAllClasses().keySet().toArray(new String[0]);
+        Arrays.sort(ids);
+        Map<String, Integer> indexOf = new HashMap<>(ids.length * 2);
+        for (int i = 0; i < ids.length; i++) {
+            indexOf.put(ids[i], i);
+        }
+        
+        List<Relation> internal = new ArrayList<>();
+        for (Relation rel : ir.getAllRelations()) {
+            Integer source = indexOf.get(rel.getSourceId());
+            Integer target = indexOf.get(rel.getTargetId());
+            if (source != null && target != null && !source.equals(target)) {
+                internal.add(rel);
+            }
+        }
+        int[] edgeSource = new int[internal.size()];
+        int[] edgeTarget = new int[internal.size()];
+        String[] edgeType = new String[internal.size()];
+        for (int e = 0; e < internal.size(); e++) {
+            Relation rel = internal.get(e);
+            edgeSource[e] = indexOf.get(rel.getSourceId());
+            edgeTarget[e] = indexOf.get(rel.getTargetId());
+            edgeType[e] = rel.getType();
+        }
+        return new GraphIndex(ids, edgeSource, edgeTarget, edgeType);
+    }
+    
+    /**
+     * Index over an edge list that is already int-indexed, e.g. for large
+     * generated graphs that never go through an IR
+     */
+    public static GraphIndex of(String[] ids, int[] edgeSource, int[] edgeTarget, String[] edgeType) {
+        if (edgeSource.length != edgeTarget.length || edgeSource.length != edgeType.length) {
+            throw new IllegalArgumentException("Edge arrays differ in length");
+        }
+        return new GraphIndex(ids, edgeSource, edgeTarget, edgeType);
+    }
+    
+    public int nodeCount() {
+        return ids.length;
+    }
+    
+    public int edgeCount() {
+        return edgeSource.length;
+    }
+    
+    public String id(int node) {
+        return ids[node];
+    }
+    
+    /**
+     * Index of a class ID, or -1 if it is not a node
+     */
+    public int indexOf(String id) {
+        Integer index = indexOf.get(id);
+        return index == null ? -1 : index;
+    }
+    
+    public int edgeSource(int edge) {
+        return edgeSource[edge];
+    }
+    
+    public int edgeTarget(int edge) {
+        return edgeTarget[edge];
+    }
+    
+    public String edgeType(int edge) {
+        return edgeType[edge];
+    }
+    
+    public int degree(int node) {
+        return offsets[node + 1] - offsets[node];
+    }
+    
+    /**
+     * i-th neighbor of a node, ignoring edge direction
+     */
+    public int neighbor(int node, int i) {
+        return neighbors[offsets[node] + i];
+    }
+}
@@ -0,0 +1,347 @@
+package core.layout;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import core.model.ClassNode;
+import core.model.IRChangeListener;
+import core.model.IntermediateRepresentation;
+import core.model.Relation;
+
+/**
+ * Keeps a LayoutCache in step with an IR. Changes are collected as they
+ * happen; update() then places only the new classes next to their positioned
+ * neighbors and relaxes them locally while all other nodes stay fixed.
+ * Repulsion uses a uniform grid over the cached positions, so an update costs
+ * time proportional to the number of changed classes, not the diagram size.
+ */
+public class IncrementalLayout implements IRChangeListener {
+    
+    private IntermediateRepresentation ir;
+    private LayoutCache cache;
+    private Grid grid;
+    private Set<String> pending;    // classes without a position
+    private Set<String> affected;   // endpoints of added or removed relations
+    private Set<String> removed;
+    private double springLength = 80;
+    private int iterations = 30;
+    private boolean moveAffected = false;
+    private double maxX = 0;
+    
+    /**
+     * Attach to an IR, dropping cached positions of classes that no longer exist
+     */
+    public IncrementalLayout(IntermediateRepresentation ir, LayoutCache cache) {
+        this.ir = ir;
+        this.cache = cache;
+        this.pending = new LinkedHashSet<>();
+        this.affected = new LinkedHashSet<>();
+        this.removed = new LinkedHashSet<>();
+        
+        cache.retainAll(ir.getAllClasses().keySet());
+        rebuildGrid();
+        for (String id : ir.getAllClasses().keySet()) {
+            if (!cache.contains(id)) {
+                pending.add(id);
+            }
+        }
+        ir.addChangeListener(this);
+    }
+    
+    public IncrementalLayout springLength(double springLength) {
+        this.springLength = springLength;
+        rebuildGrid();
+        return this;
+    }
+    
+    /**
+     * Relaxation steps per update
+     */
+    public IncrementalLayout iterations(int iterations) {
+        this.iterations = iterations;
+        return this;
+    }
+    
+    /**
+     * Also let existing classes whose relations changed move during relaxation
+     */
+    public IncrementalLayout moveAffected(boolean moveAffected) {
+        this.moveAffected = moveAffected;
+        return this;
+    }
+    
+    /**
+     * Stop tracking changes of the underlying IR
+     */
+    public void detach() {
+        ir.removeChangeListener(this);
+    }
+    
+    public LayoutCache getCache() {
+        return cache;
+    }
+    
+    public boolean hasPendingChanges() {
+        return !pending.isEmpty() || !removed.isEmpty() || (moveAffected && !affected.isEmpty());
+    }
+    
+    /**
+     * Apply the collected changes to the cache
+     * 
+     * @return IDs of the classes whose position was set or changed
+     */
+    public Set<String> update() {
+        for (String id : removed) {
+            if (ir.getClass(id) == null) {
+                grid.remove(id, cache.get(id));
+                cache.remove(id);
+            }
+        }
+        removed.clear();
+        
+        Set<String> movable = new LinkedHashSet<>(pending);
+        placePending();
+        if (moveAffected) {
+            for (String id : affected) {
+                if (cache.contains(id)) {
+                    movable.add(id);
+                }
+            }
+        }
+        affected.clear();
+        relax(new ArrayList<>(movable));
+        return movable;
+    }
+    
+    /**
+     * Place pending classes breadth-first from the positioned ones; classes
+     * with no positioned neighbor start a new column right of the diagram
+     */
+    private void placePending() {
+        List<String> queue = new ArrayList<>();
+        for (String id : pending) {
+            if (hasPlacedNeighbor(id)) {
+                queue.add(id);
+            }
+        }
+        while (!pending.isEmpty()) {
+            if (queue.isEmpty()) {
+                String orphan = pending.iterator().next();
+                place(orphan, maxX + 2 * springLength, 0);
+                queue.add(orphan);
+            }
+            List<String> next = new ArrayList<>();
+            for (String id : queue) {
+                if (pending.remove(id) && !cache.contains(id)) {
+                    double[] centre = neighborCentroid(id);
+                    double angle = (id.hashCode() & 0xFFFF) / 65536.0 * 2 * Math.PI;
+                    place(id, centre[0] + Math.cos(angle) * springLength, centre[1] + Math.sin(angle) * springLength);
+                }
+                for (String neighbor : neighbors(id)) {
+                    if (pending.contains(neighbor)) {
+                        next.add(neighbor);
+                    }
+                }
+            }
+            queue = next;
+        }
+    }
+    
+    private void place(String id, double x, double y) {
+        cache.put(id, x, y);
+        grid.add(id, x, y);
+        maxX = Math.max(maxX, x);
+    }
+    
+    private boolean hasPlacedNeighbor(String id) {
+        for (String neighbor : neighbors(id)) {
+            if (cache.contains(neighbor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private double[] neighborCentroid(String id) {
+        double x = 0;
+        double y = 0;
+        int count = 0;
+        for (String neighbor : neighbors(id)) {
+            double[] position = cache.get(neighbor);
+            if (position != null) {
+                x += position[0];
+                y += position[1];
+                count++;
+            }
+        }
+        return count == 0 ? new double[] { maxX + 2 * springLength, 0 } : new double[] { x / count, y / count };
+    }
+    
+    private List<String> neighbors(String id) {
+        List<String> neighbors = new ArrayList<>();
+        for (Relation relation : ir.getOutgoingRelations(id)) {
+            neighbors.add(relation.getTargetId());
+        }
+        for (Relation relation : ir.getIncomingRelations(id)) {
+            neighbors.add(relation.getSourceId());
+        }
+        return neighbors;
+    }
+    
+    /**
+     * Force-directed relaxation of the movable classes only: repulsion from
+     * classes within two spring lengths (found through the grid), springs
+     * along their relations
+     */
+    private void relax(List<String> movable) {
+        Map<String, List<String>> springs = new HashMap<>();
+        for (String id : movable) {
+            List<String> placed = new ArrayList<>();
+            for (String neighbor : neighbors(id)) {
+                if (!neighbor.equals(id) && cache.contains(neighbor)) {
+                    placed.add(neighbor);
+                }
+            }
+            springs.put(id, placed);
+        }
+        Map<String, double[]> positions = cache.getPositions();
+        double k2 = springLength * springLength;
+        double cutoff = 4 * k2;
+        List<String> nearby = new ArrayList<>();
+        for (int it = 0; it < iterations; it++) {
+            double temperature = springLength * (1.0 - (double) it / iterations) / 2;
+            for (String id : movable) {
+                double[] p = positions.get(id);
+                double fx = 0;
+                double fy = 0;
+                grid.near(p[0], p[1], nearby);
+                for (String other : nearby) {
+                    if (other.equals(id)) {
+                        continue;
+                    }
+                    double[] q = positions.get(other);
+                    double dx = p[0] - q[0];
+                    double dy = p[1] - q[1];
+                    double d2 = dx * dx + dy * dy;
+                    if (d2 > cutoff) {
+                        continue;
+                    } else if (d2 < 1e-9) {
+                        dx = (id.compareTo(other) < 0 ? -1 : 1) * 1e-3;
+                        d2 = dx * dx;
+                    }
+                    fx += dx * k2 / d2;
+                    fy += dy * k2 / d2;
+                }
+                for (String neighbor : springs.get(id)) {
+                    double[] q = positions.get(neighbor);
+                    double dx = p[0] - q[0];
+                    double dy = p[1] - q[1];
+                    double d = Math.sqrt(dx * dx + dy * dy);
+                    fx -= dx * d / springLength;
+                    fy -= dy * d / springLength;
+                }
+                double length = Math.sqrt(fx * fx + fy * fy);
+                if (length > 0) {
+                    double move = Math.min(length, temperature);
+                    grid.remove(id, p);
+                    place(id, p[0] + fx / length * move, p[1] + fy / length * move);
+                }
+            }
+        }
+    }
+    
+    private void rebuildGrid() {
+        grid = new Grid(2 * springLength);
+        for (Map.Entry<String, double[]> entry : cache.getPositions().entrySet()) {
+            double[] position = entry.getValue();
+            grid.add(entry.getKey(), position[0], position[1]);
+            maxX = Math.max(maxX, position[0]);
+        }
+    }
+    
+    @Override
+    public void classAdded(ClassNode classNode) {
+        // A replaced class is removed and re-added; it keeps its position
+        removed.remove(classNode.getId());
+        if (!cache.contains(classNode.getId())) {
+            pending.add(classNode.getId());
+        }
+    }
+    
+    @Override
+    public void classRemoved(ClassNode classNode) {
+        pending.remove(classNode.getId());
+        affected.remove(classNode.getId());
+        if (cache.contains(classNode.getId())) {
+            removed.add(classNode.getId());
+        }
+    }
+    
+    @Override
+    public void relationAdded(Relation relation) {
+        affected.add(relation.getSourceId());
+        affected.add(relation.getTargetId());
+    }
+    
+    @Override
+    public void relationRemoved(Relation relation) {
+        affected.add(relation.getSourceId());
+        affected.add(relation.getTargetId());
+    }
+    
+    /**
+     * Uniform grid of class IDs by position, for neighborhood lookups
+     */
+    private static class Grid {
+        private double cellSize;
+        private Map<Long, List<String>> cells = new HashMap<>();
+        
+        Grid(double cellSize) {
+            this.cellSize = cellSize;
+        }
+        
+        private long cell(long cx, long cy) {
+            return (cx << 32) ^ (cy & 0xFFFFFFFFL);
+        }
+        
+        private long cellOf(double x, double y) {
+            return cell((long) Math.floor(x / cellSize), (long) Math.floor(y / cellSize));
+        }
+        
+        void add(String id, double x, double y) {
+            cells.computeIfAbsent(cellOf(x, y), key -> new ArrayList<>()).add(id);
+        }
+        
+        void remove(String id, double[] position) {
+            if (position == null) {
+                return;
+            }
+            long key = cellOf(position[0], position[1]);
+            List<String> cell = cells.get(key);
+            if (cell != null && cell.remove(id) && cell.isEmpty()) {
+                cells.remove(key);
+            }
+        }
+        
+        /**
+         * IDs in the 3x3 block of cells around a point
+         */
+        void near(double x, double y, List<String> result) {
+            result.clear();
+            long cx = (long) Math.floor(x / cellSize);
+            long cy = (long) Math.floor(y / cellSize);
+            for (long i = cx - 1; i <= cx + 1; i++) {
+                for (long j = cy - 1; j <= cy + 1; j++) {
+                    List<String> cell = cells.get(cell(i, j));
+                    if (cell != null) {
+                        result.addAll(cell);
+                    }
+                }
+            }
+        }
+    }
+}
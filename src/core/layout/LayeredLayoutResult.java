@@ -0,0 +1,61 @@
+package core.layout;
+
+import java.util.Map;
+
+/**
+ * Result of a layered (Sugiyama) layout: node positions plus the layer of each
+ * node and the bend points of edges that span several layers.
+ */
+public class LayeredLayoutResult extends LayoutResult {
+    
+    private static final double[] NO_BENDS = new double[0];
+    
+    private int[] layer;
+    private int layerCount;
+    private long crossings;
+    private int reversedEdges;
+    private Map<Integer, double[]> bends;
+    
+    public LayeredLayoutResult(GraphIndex graph, double[] x, double[] y, int[] layer, int layerCount,
+                               long crossings, int reversedEdges, Map<Integer, double[]> bends) {
+        super(graph, x, y);
+        this.layer = layer;
+        this.layerCount = layerCount;
+        this.crossings = crossings;
+        this.reversedEdges = reversedEdges;
+        this.bends = bends;
+    }
+    
+    /**
+     * Layer of a node (0 is the top), or -1 if it takes part in no hierarchy relation
+     */
+    public int getLayer(int node) {
+        return layer[node];
+    }
+    
+    public int getLayerCount() {
+        return layerCount;
+    }
+    
+    /**
+     * Edge crossings left after crossing reduction
+     */
+    public long getCrossings() {
+        return crossings;
+    }
+    
+    /**
+     * Number of relations reversed to break inheritance cycles
+     */
+    public int getReversedEdgeCount() {
+        return reversedEdges;
+    }
+    
+    /**
+     * Bend points {x0, y0, x1, y1, ...} of a GraphIndex edge, from the upper
+     * end downwards; empty if the edge connects adjacent layers
+     */
+    public double[] getBendPoints(int edge) {
+        return bends.getOrDefault(edge, NO_BENDS);
+    }
+}
@@ -0,0 +1,143 @@
+package core.layout;
+
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.gson.Gson;
+
+import core.model.IntermediateRepresentation;
+
+/**
+ * Node positions keyed by class ID. Survives IR rebuilds and can be saved
+ * between sessions, so diagrams keep their shape across edits and restarts.
+ */
+public class LayoutCache {
+    
+    private static final int FORMAT_VERSION = 1;
+    
+    private Map<String, double[]> positions;
+    
+    public LayoutCache() {
+        this.positions = new HashMap<>();
+    }
+    
+    /**
+     * Cache seeded with every position of a computed layout
+     */
+    public static LayoutCache of(LayoutResult layout) {
+        LayoutCache cache = new LayoutCache();
+        cache.positions.putAll(layout.toMap());
+        return cache;
+    }
+    
+    /**
+     * Layout of the classes of an IR at their cached positions; classes
+     * without one are placed at the origin
+     */
+    public LayoutResult toLayout(IntermediateRepresentation ir) {
+        GraphIndex graph = GraphIndex.of(ir);
+        double[] x = new double[graph.nodeCount()];
+        double[] y = new double[graph.nodeCount()];
+        for (int i = 0; i < graph.nodeCount(); i++) {
+            double[] position = positions.get(graph.id(i));
+            if (position != null) {
+                x[i] = position[0];
+                y[i] = position[1];
+            }
+        }
+        return new LayoutResult(graph, x, y);
+    }
+    
+    public boolean contains(String classId) {
+        return positions.containsKey(classId);
+    }
+    
+    /**
+     * Position as {x, y}, or null if the class has none yet
+     */
+    public double[] get(String classId) {
+        double[] position = positions.get(classId);
+        return position == null ? null : position.clone();
+    }
+    
+    public void put(String classId, double x, double y) {
+        positions.put(classId, new double[] { x, y });
+    }
+    
+    public void remove(String classId) {
+        positions.remove(classId);
+    }
+    
+    /**
+     * Drop positions of classes that no longer exist
+     */
+    public void retainAll(Collection<String> classIds) {
+        positions.keySet().retainAll(classIds);
+    }
+    
+    public int size() {
+        return positions.size();
+    }
+    
+    public Map<String, double[]> getPositions() {
+        return Collections.unmodifiableMap(positions);
+    }
+    
+    public String toJson() {
+        return new Gson().toJson(new CacheFile(positions));
+    }
+    
+    public static LayoutCache fromJson(String json) {
+        return fromFile(new Gson().fromJson(json, CacheFile.class));
+    }
+    
+    public void save(String filePath) throws IOException {
+        try (FileWriter writer = new FileWriter(filePath)) {
+            new Gson().toJson(new CacheFile(positions), writer);
+        }
+    }
+    
+    public static LayoutCache load(String filePath) throws IOException {
+        try (FileReader reader = new FileReader(filePath)) {
+            return fromFile(new Gson().fromJson(reader, CacheFile.class));
+        }
+    }
+    
+    /**
+     * Caches written by another format version are discarded rather than misread
+     */
+    private static LayoutCache fromFile(CacheFile file) {
+        LayoutCache cache = new LayoutCache();
+        if (file != null && file.version == FORMAT_VERSION && file.positions != null) {
+            for (Map.Entry<String, double[]> entry : file.positions.entrySet()) {
+                double[] position = entry.getValue();
+                if (position != null && position.length == 2) {
+                    cache.positions.put(entry.getKey(), position);
+                }
+            }
+        }
+        return cache;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("LayoutCache[positions=%d]", positions.size());
+    }
+    
+    /**
+     * On-disk form of the cache
+     */
+    private static class CacheFile {
+        int version = FORMAT_VERSION;
+        Map<String, double[]> positions;
+        
+        CacheFile(Map<String, double[]> positions) {
+            this.positions = positions;
+        }
+    }
+}
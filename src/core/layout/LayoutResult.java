@@ -0,0 +1,74 @@
+package core.layout;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Node positions computed for a GraphIndex, addressable by index or class ID.
+ */
+public class LayoutResult {
+    
+    private GraphIndex graph;
+    private double[] x;
+    private double[] y;
+    
+    public LayoutResult(GraphIndex graph, double[] x, double[] y) {
+        this.graph = graph;
+        this.x = x;
+        this.y = y;
+    }
+    
+    public GraphIndex getGraph() {
+        return graph;
+    }
+    
+    public double getX(int node) {
+        return x[node];
+    }
+    
+    public double getY(int node) {
+        return y[node];
+    }
+    
+    public boolean contains(String id) {
+        return graph.indexOf(id) >= 0;
+    }
+    
+    /**
+     * Position of a class as {x, y}, or null if it was not laid out
+     */
+    public double[] getPosition(String id) {
+        int node = graph.indexOf(id);
+        return node < 0 ? null : new double[] { x[node], y[node] };
+    }
+    
+    /**
+     * All positions keyed by class ID, e.g. to warm-start the next layout
+     */
+    public Map<String, double[]> toMap() {
+        Map<String, double[]> positions = new HashMap<>(graph.nodeCount() * 2);
+        for (int i = 0; i < graph.nodeCount(); i++) {
+            positions.put(graph.id(i), new double[] { x[i], y[i] });
+        }
+        return positions;
+    }
+    
+    /**
+     * Bounding box as {minX, minY, maxX, maxY}
+     */
+    public double[] bounds() {
+        double[] bounds = { Double.MAX_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE };
+        for (int i = 0; i < x.length; i++) {
+            bounds[0] = Math.min(bounds[0], x[i]);
+            bounds[1] = Math.min(bounds[1], y[i]);
+            bounds[2] = Math.max(bounds[2], x[i]);
+            bounds[3] = Math.max(bounds[3], y[i]);
+        }
+        return bounds;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("LayoutResult[nodes=%d]", x.length);
+    }
+}
@@ -0,0 +1,181 @@
+package core.layout;
+
+import java.util.Arrays;
+
+/**
+ * Array-backed Barnes-Hut quadtree over point masses of unit weight.
+ * Rebuilt once per layout iteration; force queries are read-only and may
+ * run concurrently.
+ */
+class QuadTree {
+    
+    private static final int EMPTY = -1;
+    private static final int INTERNAL = -2;
+    private static final int MAX_DEPTH = 48;
+    
+    private double[] centerX;
+    private double[] centerY;
+    private double[] half;
+    private double[] mass;
+    private double[] sumX;
+    private double[] sumY;
+    private int[] body;       // body index for a leaf, EMPTY or INTERNAL
+    private int[] firstChild; // children are firstChild .. firstChild + 3
+    private int size;
+    
+    QuadTree(int capacity) {
+        allocate(Math.max(16, capacity));
+    }
+    
+    private void allocate(int capacity) {
+        centerX = new double[capacity];
+        centerY = new double[capacity];
+        half = new double[capacity];
+        mass = new double[capacity];
+        sumX = new double[capacity];
+        sumY = new double[capacity];
+        body = new int[capacity];
+        firstChild = new int[capacity];
+    }
+    
+    private void grow() {
+        int capacity = centerX.length * 2;
+        centerX = Arrays.copyOf(centerX, capacity);
+        centerY = Arrays.copyOf(centerY, capacity);
+        half = Arrays.copyOf(half, capacity);
+        mass = Arrays.copyOf(mass, capacity);
+        sumX = Arrays.copyOf(sumX, capacity);
+        sumY = Arrays.copyOf(sumY, capacity);
+        body = Arrays.copyOf(body, capacity);
+        firstChild = Arrays.copyOf(firstChild, capacity);
+    }
+    
+    private int newCell(double cx, double cy, double h) {
+        if (size == centerX.length) {
+            grow();
+        }
+        int cell = size++;
+        centerX[cell] = cx;
+        centerY[cell] = cy;
+        half[cell] = h;
+        mass[cell] = 0;
+        sumX[cell] = 0;
+        sumY[cell] = 0;
+        body[cell] = EMPTY;
+        firstChild[cell] = -1;
+        return cell;
+    }
+    
+    /**
+     * Rebuild the tree for the given positions
+     */
+    void build(double[] x, double[] y) {
+        size = 0;
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (int i = 0; i < x.length; i++) {
+            minX = Math.min(minX, x[i]);
+            minY = Math.min(minY, y[i]);
+            maxX = Math.max(maxX, x[i]);
+            maxY = Math.max(maxY, y[i]);
+        }
+        double h = Math.max(maxX - minX, maxY - minY) / 2 + 1;
+        newCell((minX + maxX) / 2, (minY + maxY) / 2, h);
+        for (int i = 0; i < x.length; i++) {
+            insert(i, x, y);
+        }
+    }
+    
+    private void insert(int i, double[] x, double[] y) {
+        int cell = 0;
+        for (int depth = 0; ; depth++) {
+            mass[cell] += 1;
+            sumX[cell] += x[i];
+            sumY[cell] += y[i];
+            if (body[cell] == EMPTY && mass[cell] == 1) {
+                body[cell] = i;
+                return;
+            }
+            if (body[cell] >= 0) {
+                if (depth >= MAX_DEPTH) {
+                    // Coincident points: keep them aggregated in this leaf
+                    return;
+                }
+                int existing = body[cell];
+                body[cell] = INTERNAL;
+                subdivide(cell);
+                int child = childFor(cell, x[existing], y[existing]);
+                mass[child] = 1;
+                sumX[child] = x[existing];
+                sumY[child] = y[existing];
+                body[child] = existing;
+            }
+            cell = childFor(cell, x[i], y[i]);
+        }
+    }
+    
+    private void subdivide(int cell) {
+        double h = half[cell] / 2;
+        double cx = centerX[cell];
+        double cy = centerY[cell];
+        int first = newCell(cx - h, cy - h, h);
+        newCell(cx + h, cy - h, h);
+        newCell(cx - h, cy + h, h);
+        newCell(cx + h, cy + h, h);
+        firstChild[cell] = first;
+    }
+    
+    private int childFor(int cell, double px, double py) {
+        int quadrant = (px >= centerX[cell] ? 1 : 0) + (py >= centerY[cell] ? 2 : 0);
+        return firstChild[cell] + quadrant;
+    }
+    
+    /**
+     * Repulsive force on body i, accumulated into force[0..1].
+     * Cells whose width over distance is below theta are treated as a single mass.
+     */
+    void repulsion(int i, double px, double py, double theta, double strength, int[] stack, double[] force) {
+        double fx = 0;
+        double fy = 0;
+        double theta2 = theta * theta;
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int cell = stack[--top];
+            double m = mass[cell];
+            if (m == 0 || (body[cell] == i && m == 1)) {
+                continue;
+            }
+            double dx = px - sumX[cell] / m;
+            double dy = py - sumY[cell] / m;
+            double d2 = dx * dx + dy * dy;
+            double width = 2 * half[cell];
+            if (body[cell] != INTERNAL || width * width < theta2 * d2) {
+                if (d2 < 1e-4) {
+                    // Separate coincident nodes in a deterministic direction
+                    dx = ((i * 31) % 7) - 3 + 0.5;
+                    dy = ((i * 17) % 5) - 2 + 0.5;
+                    d2 = dx * dx + dy * dy;
+                }
+                double f = strength * m / d2;
+                fx += dx * f;
+                fy += dy * f;
+            } else {
+                int first = firstChild[cell];
+                stack[top++] = first;
+                stack[top++] = first + 1;
+                stack[top++] = first + 2;
+                stack[top++] = first + 3;
+            }
+        }
+        force[0] += fx;
+        force[1] += fy;
+    }
+    
+    /**
+     * Stack size sufficient for a traversal
+     */
+    int stackSize() {
+        return 4 * MAX_DEPTH + 8;
+    }
+}
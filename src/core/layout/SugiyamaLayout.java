@@ -0,0 +1,745 @@
+package core.layout;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import core.model.IntermediateRepresentation;
+
+/**
+ * Headless, deterministic layered layout for class hierarchies. Supertypes are
+ * placed above their subtypes using the classic Sugiyama phases:
+ * <ol>
+ * <li>cycle breaking by reversing DFS back edges</li>
+ * <li>longest-path layering, with sources pulled down next to their children</li>
+ * <li>dummy nodes for relations spanning several layers</li>
+ * <li>barycentric crossing reduction, keeping the best ordering seen</li>
+ * <li>Brandes-Köpf coordinate assignment (four alignments, balanced)</li>
+ * </ol>
+ * Classes that take part in no hierarchy relation are packed into a grid
+ * beside the hierarchy instead of widening the top layer.
+ */
+public class SugiyamaLayout {
+    
+    private Set<String> relationTypes = new LinkedHashSet<>(Arrays.asList("inheritance", "implements"));
+    private double nodeSpacing = 160;
+    private double edgeSpacing = 40;
+    private double layerSpacing = 120;
+    private int sweeps = 8;
+    
+    /**
+     * Relation types that define the hierarchy (source is the subtype)
+     */
+    public SugiyamaLayout relationTypes(String... types) {
+        this.relationTypes = new LinkedHashSet<>(Arrays.asList(types));
+        return this;
+    }
+    
+    /**
+     * Minimum horizontal distance between the centres of two classes
+     */
+    public SugiyamaLayout nodeSpacing(double nodeSpacing) {
+        this.nodeSpacing = nodeSpacing;
+        return this;
+    }
+    
+    /**
+     * Minimum horizontal distance reserved for an edge passing through a layer
+     */
+    public SugiyamaLayout edgeSpacing(double edgeSpacing) {
+        this.edgeSpacing = edgeSpacing;
+        return this;
+    }
+    
+    public SugiyamaLayout layerSpacing(double layerSpacing) {
+        this.layerSpacing = layerSpacing;
+        return this;
+    }
+    
+    /**
+     * Number of alternating down/up barycenter sweeps
+     */
+    public SugiyamaLayout sweeps(int sweeps) {
+        this.sweeps = sweeps;
+        return this;
+    }
+    
+    public LayeredLayoutResult layout(IntermediateRepresentation ir) {
+        return layout(GraphIndex.of(ir));
+    }
+    
+    public LayeredLayoutResult layout(GraphIndex graph) {
+        return new Run(graph).execute();
+    }
+    
+    /**
+     * State of a single layout computation. Nodes 0..n-1 are the graph nodes,
+     * nodes n.. are dummies.
+     */
+    private class Run {
+        
+        private final GraphIndex graph;
+        private final int n;
+        
+        // Hierarchy edges, oriented from the upper (supertype) to the lower node
+        private int[] edgeId;
+        private int[] edgeUp;
+        private int[] edgeDown;
+        private int reversed;
+        
+        private int total;
+        private int[] layerOf;
+        private int[][] layers;
+        private int[][] upper;
+        private int[][] lower;
+        private int[] pos;
+        private int[] chainStart;   // first dummy of each edge, -1 if the edge spans one layer
+        private Set<Long> conflicts;
+        
+        Run(GraphIndex graph) {
+            this.graph = graph;
+            this.n = graph.nodeCount();
+        }
+        
+        LayeredLayoutResult execute() {
+            collectEdges();
+            breakCycles();
+            assignLayers();
+            insertDummies();
+            long crossings = orderLayers();
+            double[] bx = assignCoordinates();
+            
+            double[] x = new double[n];
+            double[] y = new double[n];
+            int[] layer = Arrays.copyOf(layerOf, n);
+            double minX = Double.MAX_VALUE;
+            double maxX = -Double.MAX_VALUE;
+            for (int v = 0; v < total; v++) {
+                if (layerOf[v] >= 0) {
+                    minX = Math.min(minX, bx[v]);
+                    maxX = Math.max(maxX, bx[v]);
+                }
+            }
+            if (minX > maxX) {
+                minX = 0;
+                maxX = -nodeSpacing;
+            }
+            for (int v = 0; v < n; v++) {
+                if (layerOf[v] >= 0) {
+                    x[v] = bx[v] - minX;
+                    y[v] = layerOf[v] * layerSpacing;
+                }
+            }
+            packIsolated(x, y, maxX - minX + nodeSpacing);
+            
+            Map<Integer, double[]> bends = new HashMap<>();
+            for (int e = 0; e < edgeId.length; e++) {
+                if (chainStart[e] >= 0) {
+                    int length = layerOf[edgeDown[e]] - layerOf[edgeUp[e]] - 1;
+                    double[] points = new double[2 * length];
+                    for (int k = 0; k < length; k++) {
+                        int d = chainStart[e] + k;
+                        points[2 * k] = bx[d] - minX;
+                        points[2 * k + 1] = layerOf[d] * layerSpacing;
+                    }
+                    bends.put(edgeId[e], points);
+                }
+            }
+            return new LayeredLayoutResult(graph, x, y, layer, layers.length, crossings, reversed, bends);
+        }
+        
+        /**
+         * Hierarchy relations between distinct pairs of classes
+         */
+        private void collectEdges() {
+            Set<Long> seen = new HashSet<>();
+            int[] id = new int[graph.edgeCount()];
+            int count = 0;
+            for (int e = 0; e < graph.edgeCount(); e++) {
+                if (!relationTypes.contains(graph.edgeType(e))) {
+                    continue;
+                }
+                int sub = graph.edgeSource(e);
+                int sup = graph.edgeTarget(e);
+                long key = (long) Math.min(sub, sup) * n + Math.max(sub, sup);
+                if (seen.add(key)) {
+                    id[count++] = e;
+                }
+            }
+            edgeId = Arrays.copyOf(id, count);
+            edgeUp = new int[count];
+            edgeDown = new int[count];
+            for (int e = 0; e < count; e++) {
+                edgeUp[e] = graph.edgeTarget(edgeId[e]);
+                edgeDown[e] = graph.edgeSource(edgeId[e]);
+            }
+        }
+        
+        /**
+         * Outgoing (downward) edge indices per node in CSR form
+         */
+        private int[][] outEdges() {
+            int[] degree = new int[n];
+            for (int e = 0; e < edgeUp.length; e++) {
+                degree[edgeUp[e]]++;
+            }
+            int[][] out = new int[n][];
+            for (int v = 0; v < n; v++) {
+                out[v] = new int[degree[v]];
+                degree[v] = 0;
+            }
+            for (int e = 0; e < edgeUp.length; e++) {
+                out[edgeUp[e]][degree[edgeUp[e]]++] = e;
+            }
+            return out;
+        }
+        
+        /**
+         * Reverse every edge that closes a cycle during an iterative DFS
+         */
+        private void breakCycles() {
+            int[][] out = outEdges();
+            byte[] state = new byte[n];
+            int[] stack = new int[n];
+            int[] next = new int[n];
+            boolean[] flip = new boolean[edgeUp.length];
+            for (int start = 0; start < n; start++) {
+                if (state[start] != 0) {
+                    continue;
+                }
+                int top = 0;
+                stack[0] = start;
+                state[start] = 1;
+                while (top >= 0) {
+                    int v = stack[top];
+                    if (next[v] < out[v].length) {
+                        int e = out[v][next[v]++];
+                        int w = edgeDown[e];
+                        if (state[w] == 1) {
+                            flip[e] = true;
+                        } else if (state[w] == 0) {
+                            state[w] = 1;
+                            stack[++top] = w;
+                        }
+                    } else {
+                        state[v] = 2;
+                        top--;
+                    }
+                }
+            }
+            for (int e = 0; e < flip.length; e++) {
+                if (flip[e]) {
+                    int tmp = edgeUp[e];
+                    edgeUp[e] = edgeDown[e];
+                    edgeDown[e] = tmp;
+                    reversed++;
+                }
+            }
+        }
+        
+        /**
+         * Longest path from the sources, then move each source down to just
+         * above its highest child to shorten edges
+         */
+        private void assignLayers() {
+            int[][] out = outEdges();
+            int[] indegree = new int[n];
+            for (int e = 0; e < edgeDown.length; e++) {
+                indegree[edgeDown[e]]++;
+            }
+            layerOf = new int[n];
+            Arrays.fill(layerOf, -1);
+            int[] queue = new int[n];
+            int head = 0;
+            int tail = 0;
+            for (int v = 0; v < n; v++) {
+                if (indegree[v] == 0 && out[v].length > 0) {
+                    layerOf[v] = 0;
+                    queue[tail++] = v;
+                }
+            }
+            while (head < tail) {
+                int v = queue[head++];
+                for (int e : out[v]) {
+                    int w = edgeDown[e];
+                    layerOf[w] = Math.max(layerOf[w], layerOf[v] + 1);
+                    if (--indegree[w] == 0) {
+                        queue[tail++] = w;
+                    }
+                }
+            }
+            for (int v = 0; v < n; v++) {
+                if (out[v].length > 0 && layerOf[v] == 0) {
+                    int min = Integer.MAX_VALUE;
+                    for (int e : out[v]) {
+                        min = Math.min(min, layerOf[edgeDown[e]]);
+                    }
+                    layerOf[v] = min - 1;
+                }
+            }
+        }
+        
+        /**
+         * Split long edges into chains of dummy nodes and build the proper
+         * layered graph with its initial ordering
+         */
+        private void insertDummies() {
+            chainStart = new int[edgeUp.length];
+            int dummies = 0;
+            int segments = 0;
+            for (int e = 0; e < edgeUp.length; e++) {
+                int span = layerOf[edgeDown[e]] - layerOf[edgeUp[e]];
+                chainStart[e] = span > 1 ? n + dummies : -1;
+                dummies += span - 1;
+                segments += span;
+            }
+            total = n + dummies;
+            layerOf = Arrays.copyOf(layerOf, total);
+            int[] segUp = new int[segments];
+            int[] segDown = new int[segments];
+            int s = 0;
+            for (int e = 0; e < edgeUp.length; e++) {
+                int previous = edgeUp[e];
+                int span = layerOf[edgeDown[e]] - layerOf[edgeUp[e]];
+                for (int k = 1; k < span; k++) {
+                    int d = chainStart[e] + k - 1;
+                    layerOf[d] = layerOf[edgeUp[e]] + k;
+                    segUp[s] = previous;
+                    segDown[s++] = d;
+                    previous = d;
+                }
+                segUp[s] = previous;
+                segDown[s++] = edgeDown[e];
+            }
+            upper = adjacency(segDown, segUp);
+            lower = adjacency(segUp, segDown);
+            
+            int layerCount = 0;
+            int[] layerSize = new int[total + 1];
+            for (int v = 0; v < total; v++) {
+                if (layerOf[v] >= 0) {
+                    layerCount = Math.max(layerCount, layerOf[v] + 1);
+                    layerSize[layerOf[v]]++;
+                }
+            }
+            layers = new int[layerCount][];
+            for (int l = 0; l < layerCount; l++) {
+                layers[l] = new int[layerSize[l]];
+                layerSize[l] = 0;
+            }
+            pos = new int[total];
+            for (int v = 0; v < total; v++) {
+                if (layerOf[v] >= 0) {
+                    int l = layerOf[v];
+                    pos[v] = layerSize[l];
+                    layers[l][layerSize[l]++] = v;
+                }
+            }
+        }
+        
+        private int[][] adjacency(int[] from, int[] to) {
+            int[] degree = new int[total];
+            for (int v : from) {
+                degree[v]++;
+            }
+            int[][] adjacency = new int[total][];
+            for (int v = 0; v < total; v++) {
+                adjacency[v] = new int[degree[v]];
+                degree[v] = 0;
+            }
+            for (int s = 0; s < from.length; s++) {
+                adjacency[from[s]][degree[from[s]]++] = to[s];
+            }
+            return adjacency;
+        }
+        
+        /**
+         * Alternate downward and upward barycenter sweeps and keep the
+         * ordering with the fewest crossings
+         */
+        private long orderLayers() {
+            long best = countCrossings();
+            int[][] bestLayers = copy(layers);
+            for (int sweep = 0; sweep < sweeps && best > 0; sweep++) {
+                if (sweep % 2 == 0) {
+                    for (int l = 1; l < layers.length; l++) {
+                        reorder(layers[l], upper, layers[l - 1].length);
+                    }
+                } else {
+                    for (int l = layers.length - 2; l >= 0; l--) {
+                        reorder(layers[l], lower, layers[l + 1].length);
+                    }
+                }
+                long crossings = countCrossings();
+                if (crossings < best) {
+                    best = crossings;
+                    bestLayers = copy(layers);
+                }
+            }
+            layers = bestLayers;
+            for (int[] layer : layers) {
+                for (int k = 0; k < layer.length; k++) {
+                    pos[layer[k]] = k;
+                }
+            }
+            return best;
+        }
+        
+        /**
+         * Sort a layer by the mean relative position of its neighbors in the
+         * adjacent layer; nodes without neighbors keep their relative position
+         */
+        private void reorder(int[] layer, int[][] neighbors, int adjacentSize) {
+            int size = layer.length;
+            double[] key = new double[size];
+            Integer[] order = new Integer[size];
+            for (int k = 0; k < size; k++) {
+                int v = layer[k];
+                order[k] = k;
+                if (neighbors[v].length == 0) {
+                    key[k] = (k + 0.5) / size;
+                } else {
+                    double sum = 0;
+                    for (int w : neighbors[v]) {
+                        sum += pos[w] + 0.5;
+                    }
+                    key[k] = sum / neighbors[v].length / adjacentSize;
+                }
+            }
+            Arrays.sort(order, (a, b) -> key[a] != key[b] ? Double.compare(key[a], key[b]) : Integer.compare(a, b));
+            int[] sorted = new int[size];
+            for (int k = 0; k < size; k++) {
+                sorted[k] = layer[order[k]];
+            }
+            for (int k = 0; k < size; k++) {
+                layer[k] = sorted[k];
+                pos[sorted[k]] = k;
+            }
+        }
+        
+        /**
+         * Bilayer crossing count with a Fenwick tree, O(E log V) per layer pair
+         */
+        private long countCrossings() {
+            long crossings = 0;
+            for (int l = 0; l + 1 < layers.length; l++) {
+                int size = layers[l + 1].length;
+                int[] tree = new int[size + 1];
+                int inserted = 0;
+                for (int v : layers[l]) {
+                    int[] south = new int[lower[v].length];
+                    for (int k = 0; k < south.length; k++) {
+                        south[k] = pos[lower[v][k]];
+                    }
+                    Arrays.sort(south);
+                    for (int p : south) {
+                        int atMost = 0;
+                        for (int i = p + 1; i > 0; i -= i & -i) {
+                            atMost += tree[i];
+                        }
+                        crossings += inserted - atMost;
+                        for (int i = p + 1; i <= size; i += i & -i) {
+                            tree[i]++;
+                        }
+                        inserted++;
+                    }
+                }
+            }
+            return crossings;
+        }
+        
+        private int[][] copy(int[][] source) {
+            int[][] copy = new int[source.length][];
+            for (int l = 0; l < source.length; l++) {
+                copy[l] = source[l].clone();
+            }
+            return copy;
+        }
+        
+        /**
+         * Brandes-Köpf: four vertical alignments compacted horizontally,
+         * aligned to the narrowest one and balanced by the average median
+         */
+        private double[] assignCoordinates() {
+            markConflicts();
+            double[][] candidates = new double[4][];
+            int narrowest = 0;
+            double narrowestWidth = Double.MAX_VALUE;
+            for (int i = 0; i < 4; i++) {
+                candidates[i] = align(i < 2, i % 2 == 1);
+                double width = max(candidates[i]) - min(candidates[i]);
+                if (width < narrowestWidth) {
+                    narrowestWidth = width;
+                    narrowest = i;
+                }
+            }
+            double alignMin = min(candidates[narrowest]);
+            double alignMax = max(candidates[narrowest]);
+            for (int i = 0; i < 4; i++) {
+                double delta = i % 2 == 1 ? alignMax - max(candidates[i]) : alignMin - min(candidates[i]);
+                for (int v = 0; v < total; v++) {
+                    candidates[i][v] += delta;
+                }
+            }
+            double[] x = new double[total];
+            double[] values = new double[4];
+            for (int v = 0; v < total; v++) {
+                for (int i = 0; i < 4; i++) {
+                    values[i] = candidates[i][v];
+                }
+                Arrays.sort(values);
+                x[v] = (values[1] + values[2]) / 2;
+            }
+            return x;
+        }
+        
+        private double min(double[] xs) {
+            double min = Double.MAX_VALUE;
+            for (int v = 0; v < total; v++) {
+                if (layerOf[v] >= 0) {
+                    min = Math.min(min, xs[v]);
+                }
+            }
+            return min == Double.MAX_VALUE ? 0 : min;
+        }
+        
+        private double max(double[] xs) {
+            double max = -Double.MAX_VALUE;
+            for (int v = 0; v < total; v++) {
+                if (layerOf[v] >= 0) {
+                    max = Math.max(max, xs[v]);
+                }
+            }
+            return max == -Double.MAX_VALUE ? 0 : max;
+        }
+        
+        /**
+         * Type 1 conflicts: non-inner segments crossing an inner segment
+         * (one between two dummies), which is kept straight instead
+         */
+        private void markConflicts() {
+            conflicts = new HashSet<>();
+            for (int l = 1; l + 1 < layers.length; l++) {
+                int[] previous = layers[l];
+                int[] layer = layers[l + 1];
+                int k0 = 0;
+                int scan = 0;
+                for (int i = 0; i < layer.length; i++) {
+                    int v = layer[i];
+                    int inner = innerUpper(v);
+                    if (inner < 0 && i != layer.length - 1) {
+                        continue;
+                    }
+                    int k1 = inner >= 0 ? pos[inner] : previous.length;
+                    for (; scan <= i; scan++) {
+                        int w = layer[scan];
+                        for (int u : upper[w]) {
+                            if ((pos[u] < k0 || pos[u] > k1) && !(u >= n && w >= n)) {
+                                conflicts.add(key(u, w));
+                            }
+                        }
+                    }
+                    k0 = k1;
+                }
+            }
+        }
+        
+        private int innerUpper(int v) {
+            return v >= n && upper[v].length == 1 && upper[v][0] >= n ? upper[v][0] : -1;
+        }
+        
+        private long key(int a, int b) {
+            return (long) Math.min(a, b) * total + Math.max(a, b);
+        }
+        
+        /**
+         * One Brandes-Köpf alignment towards the upper (or lower) neighbors and
+         * the left (or right), returning x coordinates for every node
+         */
+        private double[] align(boolean towardsUpper, boolean towardsRight) {
+            int h = layers.length;
+            int[][] order = new int[h][];
+            for (int l = 0; l < h; l++) {
+                int[] layer = layers[towardsUpper ? l : h - 1 - l];
+                order[l] = towardsRight ? reverse(layer) : layer;
+            }
+            int[][] neighbors = towardsUpper ? upper : lower;
+            int[] local = new int[total];
+            int[] root = new int[total];
+            int[] align = new int[total];
+            for (int v = 0; v < total; v++) {
+                root[v] = v;
+                align[v] = v;
+            }
+            for (int[] layer : order) {
+                for (int k = 0; k < layer.length; k++) {
+                    local[layer[k]] = k;
+                }
+            }
+            
+            // Vertical alignment with the median neighbors
+            for (int[] layer : order) {
+                int previous = -1;
+                for (int v : layer) {
+                    int count = neighbors[v].length;
+                    if (count == 0) {
+                        continue;
+                    }
+                    int[] ws = new int[count];
+                    for (int k = 0; k < count; k++) {
+                        ws[k] = neighbors[v][k];
+                    }
+                    sortByLocal(ws, local);
+                    for (int m = (count - 1) / 2; m <= count / 2; m++) {
+                        int w = ws[m];
+                        if (align[v] == v && previous < local[w] && !conflicts.contains(key(v, w))) {
+                            align[w] = v;
+                            root[v] = root[w];
+                            align[v] = root[v];
+                            previous = local[w];
+                        }
+                    }
+                }
+            }
+            
+            // Horizontal compaction over the block graph
+            int edges = 0;
+            for (int[] layer : order) {
+                edges += Math.max(0, layer.length - 1);
+            }
+            int[] from = new int[edges];
+            int[] to = new int[edges];
+            double[] separation = new double[edges];
+            int e = 0;
+            for (int[] layer : order) {
+                for (int k = 1; k < layer.length; k++) {
+                    from[e] = root[layer[k - 1]];
+                    to[e] = root[layer[k]];
+                    separation[e++] = width(layer[k - 1]) / 2 + width(layer[k]) / 2;
+                }
+            }
+            int[][] in = byEndpoint(to, from.length);
+            int[][] out = byEndpoint(from, from.length);
+            int[] topo = topologicalRoots(root, in, out, from, to);
+            
+            double[] xs = new double[total];
+            for (int b : topo) {
+                double x = 0;
+                for (int edge : in[b]) {
+                    x = Math.max(x, xs[from[edge]] + separation[edge]);
+                }
+                xs[b] = x;
+            }
+            for (int i = topo.length - 1; i >= 0; i--) {
+                int b = topo[i];
+                double x = Double.MAX_VALUE;
+                for (int edge : out[b]) {
+                    x = Math.min(x, xs[to[edge]] - separation[edge]);
+                }
+                if (x != Double.MAX_VALUE) {
+                    xs[b] = Math.max(xs[b], x);
+                }
+            }
+            double[] result = new double[total];
+            for (int v = 0; v < total; v++) {
+                result[v] = towardsRight ? -xs[root[v]] : xs[root[v]];
+            }
+            return result;
+        }
+        
+        private double width(int v) {
+            return v < n ? nodeSpacing : edgeSpacing;
+        }
+        
+        private int[] reverse(int[] layer) {
+            int[] reversed = new int[layer.length];
+            for (int k = 0; k < layer.length; k++) {
+                reversed[k] = layer[layer.length - 1 - k];
+            }
+            return reversed;
+        }
+        
+        private void sortByLocal(int[] ws, int[] local) {
+            for (int i = 1; i < ws.length; i++) {
+                int w = ws[i];
+                int j = i - 1;
+                while (j >= 0 && local[ws[j]] > local[w]) {
+                    ws[j + 1] = ws[j];
+                    j--;
+                }
+                ws[j + 1] = w;
+            }
+        }
+        
+        private int[][] byEndpoint(int[] endpoint, int count) {
+            int[] degree = new int[total];
+            for (int e = 0; e < count; e++) {
+                degree[endpoint[e]]++;
+            }
+            int[][] edges = new int[total][];
+            for (int v = 0; v < total; v++) {
+                edges[v] = new int[degree[v]];
+                degree[v] = 0;
+            }
+            for (int e = 0; e < count; e++) {
+                edges[endpoint[e]][degree[endpoint[e]]++] = e;
+            }
+            return edges;
+        }
+        
+        /**
+         * Block roots of laid out nodes in topological order of the block graph
+         */
+        private int[] topologicalRoots(int[] root, int[][] in, int[][] out, int[] from, int[] to) {
+            int[] indegree = new int[total];
+            int roots = 0;
+            for (int v = 0; v < total; v++) {
+                if (layerOf[v] >= 0 && root[v] == v) {
+                    indegree[v] = in[v].length;
+                    roots++;
+                }
+            }
+            int[] queue = new int[roots];
+            int head = 0;
+            int tail = 0;
+            for (int v = 0; v < total; v++) {
+                if (layerOf[v] >= 0 && root[v] == v && indegree[v] == 0) {
+                    queue[tail++] = v;
+                }
+            }
+            while (head < tail) {
+                int b = queue[head++];
+                for (int e : out[b]) {
+                    if (--indegree[to[e]] == 0) {
+                        queue[tail++] = to[e];
+                    }
+                }
+            }
+            return queue;
+        }
+        
+        /**
+         * Grid of the classes outside the hierarchy, starting at offsetX
+         */
+        private void packIsolated(double[] x, double[] y, double offsetX) {
+            int isolated = 0;
+            for (int v = 0; v < n; v++) {
+                if (layerOf[v] < 0) {
+                    isolated++;
+                }
+            }
+            int columns = (int) Math.ceil(Math.sqrt(isolated));
+            int k = 0;
+            for (int v = 0; v < n; v++) {
+                if (layerOf[v] < 0) {
+                    x[v] = offsetX + (k % columns) * nodeSpacing;
+                    y[v] = (k / columns) * layerSpacing;
+                    k++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package core.layout.test;
+
+import static org.junit.Assert.*;
+
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import core.layout.BarnesHutLayout;
+import core.layout.GraphIndex;
+import core.layout.LayoutResult;
+import core.model.ClassNode;
+import core.model.IntermediateRepresentation;
+import core.model.Relation;
+
+/**
+ * Unit tests for the headless Barnes-Hut force-directed layout
+ */
+public class BarnesHutLayoutTest {
+
+    private IntermediateRepresentation ir;
+
+    @Before
+    public void setUp() {
+        // Two rings of 20 classes joined by a single relation
+        ir = new IntermediateRepresentation();
+        for (int ring = 0; ring < 2; ring++) {
+            for (int i = 0; i < 20; i++) {
+                ir.addClass(new ClassNode("C" + ring + "_" + i, "class", "p"));
+                if (i > 0) {
+                    ir.addRelation(new Relation(id(ring, i), id(ring, i - 1), "association"));
+                }
+            }
+            ir.addRelation(new Relation(id(ring, 0), id(ring, 19), "association"));
+        }
+        ir.addRelation(new Relation(id(0, 0), id(1, 0), "association"));
+        ir.addRelation(new Relation(id(0, 3), "java.util.List", "aggregation", true));
+    }
+
+    private static String id(int ring, int i) {
+        return "p.C" + ring + "_" + i;
+    }
+
+    private static double distance(LayoutResult layout, String a, String b) {
+        double[] pa = layout.getPosition(a);
+        double[] pb = layout.getPosition(b);
+        return Math.hypot(pa[0] - pb[0], pa[1] - pb[1]);
+    }
+
+    /**
+     * Test Case 1: Graph index keeps internal relations only
+     */
+    @Test
+    public void testGraphIndex() {
+        GraphIndex graph = GraphIndex.of(ir);
+        assertEquals(40, graph.nodeCount());
+        assertEquals(41, graph.edgeCount());
+        assertEquals(-1, graph.indexOf("java.util.List"));
+        assertEquals(3, graph.degree(graph.indexOf(id(0, 0))));
+    }
+
+    /**
+     * Test Case 2: Connected classes end up closer than unconnected ones
+     */
+    @Test
+    public void testNeighborsAreClose() {
+        LayoutResult layout = new BarnesHutLayout().iterations(200).layout(ir);
+
+        double neighbors = distance(layout, id(0, 5), id(0, 6));
+        double farApart = distance(layout, id(0, 5), id(1, 15));
+        assertTrue(neighbors < farApart);
+        for (double[] p : layout.toMap().values()) {
+            assertFalse(Double.isNaN(p[0]) || Double.isNaN(p[1]));
+        }
+    }
+
+    /**
+     * Test Case 3: Results do not depend on the number of threads
+     */
+    @Test
+    public void testDeterministicAcrossThreads() {
+        LayoutResult single = new BarnesHutLayout().parallelism(1).iterations(50).layout(ir);
+        LayoutResult parallel = new BarnesHutLayout().parallelism(4).iterations(50).layout(ir);
+
+        for (int i = 0; i < single.getGraph().nodeCount(); i++) {
+            assertEquals(single.getX(i), parallel.getX(i), 0.0);
+            assertEquals(single.getY(i), parallel.getY(i), 0.0);
+        }
+    }
+
+    /**
+     * Test Case 4: Warm start keeps previous positions and places new nodes nearby
+     */
+    @Test
+    public void testWarmStart() {
+        Map<String, double[]> previous = new BarnesHutLayout().iterations(100).layout(ir).toMap();
+
+        LayoutResult unchanged = new BarnesHutLayout().warmStart(previous).iterations(0).layout(ir);
+        assertEquals(previous.get(id(1, 7))[0], unchanged.getPosition(id(1, 7))[0], 0.0);
+
+        ir.addClass(new ClassNode("Extra", "class", "p"));
+        ir.addRelation(new Relation("p.Extra", id(1, 7), "association"));
+        LayoutResult updated = new BarnesHutLayout().warmStart(previous).iterations(20).layout(ir);
+        assertTrue(distance(updated, "p.Extra", id(1, 7)) < 3 * 80);
+    }
+}
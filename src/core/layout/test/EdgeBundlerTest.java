@@ -0,0 +1,132 @@
+package core.layout.test;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import core.layout.EdgeBundle;
+import core.layout.EdgeBundler;
+import core.layout.LayoutCache;
+import core.model.ClassNode;
+import core.model.IntermediateRepresentation;
+import core.model.PackageGraph;
+import core.model.Relation;
+
+/**
+ * Unit tests for relation multiplicity and hierarchical edge bundling
+ */
+public class EdgeBundlerTest {
+
+    private IntermediateRepresentation ir;
+    private PackageGraph packageGraph;
+    private LayoutCache cache;
+
+    @Before
+    public void setUp() {
+        ir = new IntermediateRepresentation();
+        cache = new LayoutCache();
+        addClass("X", "app.ui.x", 0, 0);
+        addClass("Y", "app.ui.y", 100, 0);
+        addClass("Z", "app.core.z", 0, 400);
+        addClass("W", "app.core.w", 200, 400);
+        packageGraph = new PackageGraph(ir);
+    }
+
+    private void addClass(String name, String packageName, double x, double y) {
+        ClassNode classNode = new ClassNode(name, "class", packageName);
+        ir.addClass(classNode);
+        cache.put(classNode.getId(), x, y);
+    }
+
+    private static EdgeBundle find(List<EdgeBundle> bundles, String source, String target) {
+        for (EdgeBundle bundle : bundles) {
+            if (bundle.getSourcePackage().equals(source) && bundle.getTargetPackage().equals(target)) {
+                return bundle;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Test Case 1: One bundle per package pair, weighted by relation multiplicity
+     */
+    @Test
+    public void testBundlesAndWeights() {
+        ir.mergeRelation(new Relation("app.ui.x.X", "app.core.z.Z", "composition"));
+        ir.mergeRelation(new Relation("app.ui.x.X", "app.core.z.Z", "composition"));
+        ir.mergeRelation(new Relation("app.ui.x.X", "app.core.z.Z", "association"));
+        ir.mergeRelation(new Relation("app.ui.x.X", "java.util.List", "aggregation", true));
+        ir.mergeRelation(new Relation("app.ui.x.X", "app.ui.x.X", "association"));
+
+        List<EdgeBundle> bundles = new EdgeBundler(ir, packageGraph).route(cache);
+
+        assertEquals(1, bundles.size());
+        EdgeBundle bundle = bundles.get(0);
+        assertEquals(2, bundle.getRelations().size());
+        assertEquals(3, bundle.getWeight());
+        assertTrue(new EdgeBundler(ir, packageGraph).minWeight(4).route(cache).isEmpty());
+    }
+
+    /**
+     * Test Case 2: Control points follow the package tree, straightened by beta
+     */
+    @Test
+    public void testTreePath() {
+        ir.addRelation(new Relation("app.ui.x.X", "app.core.w.W", "association"));
+        ir.addRelation(new Relation("app.ui.x.X", "app.ui.y.Y", "association"));
+
+        List<EdgeBundle> bundles = new EdgeBundler(ir, packageGraph).beta(1).route(cache);
+
+        // x -> app.ui -> app.core -> w; the common ancestor app is skipped
+        assertArrayEquals(new double[] { 0, 0, 50, 0, 100, 400, 200, 400 },
+            find(bundles, "app.ui.x", "app.core.w").getControlPoints(), 1e-9);
+        assertArrayEquals(new double[] { 0, 0, 100, 0 },
+            find(bundles, "app.ui.x", "app.ui.y").getControlPoints(), 1e-9);
+
+        double[] straight = find(new EdgeBundler(ir, packageGraph).beta(0).route(cache),
+            "app.ui.x", "app.core.w").getControlPoints();
+        for (int i = 2; i < straight.length; i += 2) {
+            assertEquals(2 * straight[i], straight[i + 1], 1e-9);
+        }
+    }
+
+    /**
+     * Test Case 3: Sampled curves start and end at the package centroids
+     */
+    @Test
+    public void testSample() {
+        ir.addRelation(new Relation("app.ui.x.X", "app.core.w.W", "association"));
+        EdgeBundle bundle = new EdgeBundler(ir, packageGraph).route(cache).get(0);
+
+        double[] polyline = bundle.sample(8);
+
+        assertEquals((5 * 8 + 1) * 2, polyline.length);
+        assertEquals(0, polyline[0], 1e-9);
+        assertEquals(0, polyline[1], 1e-9);
+        assertEquals(200, polyline[polyline.length - 2], 1e-9);
+        assertEquals(400, polyline[polyline.length - 1], 1e-9);
+    }
+
+    /**
+     * Test Case 4: Routing again after IR and layout changes picks them up
+     */
+    @Test
+    public void testIncrementalUpdate() {
+        EdgeBundler bundler = new EdgeBundler(ir, packageGraph);
+        assertTrue(bundler.route(cache).isEmpty());
+
+        addClass("V", "app.core.z", 100, 400);
+        ir.addRelation(new Relation("app.ui.y.Y", "app.core.z.V", "association"));
+        List<EdgeBundle> bundles = bundler.route(cache);
+
+        assertEquals(1, bundles.size());
+        double[] points = bundles.get(0).getControlPoints();
+        assertEquals(50, points[points.length - 2], 1e-9);
+
+        ir.removeRelation(new Relation("app.ui.y.Y", "app.core.z.V", "association"));
+        assertTrue(bundler.route(cache).isEmpty());
+    }
+}
@@ -0,0 +1,135 @@
+package core.layout.test;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import core.layout.BarnesHutLayout;
+import core.layout.IncrementalLayout;
+import core.layout.LayoutCache;
+import core.model.ClassNode;
+import core.model.IntermediateRepresentation;
+import core.model.Relation;
+
+/**
+ * Unit tests for the layout cache and incremental layout updates
+ */
+public class IncrementalLayoutTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private IntermediateRepresentation ir;
+    private LayoutCache cache;
+
+    @Before
+    public void setUp() {
+        ir = new IntermediateRepresentation();
+        for (int i = 0; i < 30; i++) {
+            ir.addClass(new ClassNode("C" + i, "class", "p"));
+            if (i > 0) {
+                ir.addRelation(new Relation("p.C" + i, "p.C" + (i - 1), "association"));
+            }
+        }
+        cache = LayoutCache.of(new BarnesHutLayout().iterations(100).layout(ir));
+    }
+
+    /**
+     * Test Case 1: New classes are placed near their neighbors, other classes do not move
+     */
+    @Test
+    public void testNewClassPlacedLocally() {
+        IncrementalLayout layout = new IncrementalLayout(ir, cache);
+        double[] before = cache.get("p.C10");
+
+        ir.addClass(new ClassNode("New", "class", "p"));
+        ir.addRelation(new Relation("p.New", "p.C20", "association"));
+        assertTrue(layout.hasPendingChanges());
+        Set<String> moved = layout.update();
+
+        assertEquals(1, moved.size());
+        assertTrue(moved.contains("p.New"));
+        assertArrayEquals(before, cache.get("p.C10"), 0.0);
+        double[] added = cache.get("p.New");
+        double[] anchor = cache.get("p.C20");
+        assertTrue(Math.hypot(added[0] - anchor[0], added[1] - anchor[1]) < 3 * 80);
+        assertFalse(layout.hasPendingChanges());
+    }
+
+    /**
+     * Test Case 2: A new component without positioned neighbors is placed beside the diagram
+     */
+    @Test
+    public void testNewComponent() {
+        IncrementalLayout layout = new IncrementalLayout(ir, cache);
+        ir.addClass(new ClassNode("A", "class", "q"));
+        ir.addClass(new ClassNode("B", "class", "q"));
+        ir.addRelation(new Relation("q.A", "q.B", "association"));
+
+        Set<String> moved = layout.update();
+
+        assertEquals(2, moved.size());
+        double[] a = cache.get("q.A");
+        double[] b = cache.get("q.B");
+        assertTrue(Math.hypot(a[0] - b[0], a[1] - b[1]) < 3 * 80);
+    }
+
+    /**
+     * Test Case 3: Removed classes leave the cache, replaced classes keep their position
+     */
+    @Test
+    public void testRemoveAndReplace() {
+        IncrementalLayout layout = new IncrementalLayout(ir, cache);
+        double[] before = cache.get("p.C5");
+
+        ir.removeClass("p.C29");
+        ir.addClass(new ClassNode("C5", "interface", "p"));
+        layout.update();
+
+        assertFalse(cache.contains("p.C29"));
+        assertArrayEquals(before, cache.get("p.C5"), 0.0);
+        assertEquals(29, cache.size());
+    }
+
+    /**
+     * Test Case 4: Affected classes move only when enabled
+     */
+    @Test
+    public void testMoveAffected() {
+        IncrementalLayout layout = new IncrementalLayout(ir, cache).moveAffected(true);
+        double[] before = cache.get("p.C0");
+
+        ir.addRelation(new Relation("p.C0", "p.C29", "association"));
+        Set<String> moved = layout.update();
+
+        assertTrue(moved.contains("p.C0"));
+        assertTrue(moved.contains("p.C29"));
+        assertEquals(2, moved.size());
+        assertFalse(before[0] == cache.get("p.C0")[0] && before[1] == cache.get("p.C0")[1]);
+    }
+
+    /**
+     * Test Case 5: Cache survives a save and load, stale classes are dropped on attach
+     */
+    @Test
+    public void testPersistence() throws Exception {
+        File file = folder.newFile("layout.json");
+        cache.put("p.Gone", 1, 2);
+        cache.save(file.getPath());
+
+        LayoutCache loaded = LayoutCache.load(file.getPath());
+        assertEquals(31, loaded.size());
+        assertArrayEquals(cache.get("p.C3"), loaded.get("p.C3"), 0.0);
+
+        IncrementalLayout layout = new IncrementalLayout(ir, loaded);
+        assertFalse(loaded.contains("p.Gone"));
+        assertFalse(layout.hasPendingChanges());
+        assertEquals(0, LayoutCache.fromJson("{\"version\":99,\"positions\":{\"a\":[1,2]}}").size());
+    }
+}
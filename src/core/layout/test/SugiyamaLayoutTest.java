@@ -0,0 +1,114 @@
+package core.layout.test;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import core.layout.GraphIndex;
+import core.layout.LayeredLayoutResult;
+import core.layout.SugiyamaLayout;
+import core.model.ClassNode;
+import core.model.IntermediateRepresentation;
+import core.model.Relation;
+
+/**
+ * Unit tests for the layered hierarchy layout
+ */
+public class SugiyamaLayoutTest {
+
+    private IntermediateRepresentation ir;
+
+    @Before
+    public void setUp() {
+        // Shape <- Circle, Shape <- Polygon <- Square, Drawable <- Square, plus an unrelated Util
+        ir = new IntermediateRepresentation();
+        for (String name : new String[] { "Shape", "Circle", "Polygon", "Square", "Drawable", "Util" }) {
+            ir.addClass(new ClassNode(name, "class", "p"));
+        }
+        ir.addRelation(new Relation("p.Circle", "p.Shape", "inheritance"));
+        ir.addRelation(new Relation("p.Polygon", "p.Shape", "inheritance"));
+        ir.addRelation(new Relation("p.Square", "p.Polygon", "inheritance"));
+        ir.addRelation(new Relation("p.Square", "p.Drawable", "implements"));
+        ir.addRelation(new Relation("p.Circle", "p.Util", "association"));
+    }
+
+    private static int layer(LayeredLayoutResult layout, String id) {
+        return layout.getLayer(layout.getGraph().indexOf(id));
+    }
+
+    /**
+     * Test Case 1: Supertypes are placed in layers above their subtypes
+     */
+    @Test
+    public void testSupertypesOnTop() {
+        LayeredLayoutResult layout = new SugiyamaLayout().layout(ir);
+
+        assertEquals(3, layout.getLayerCount());
+        assertEquals(0, layer(layout, "p.Shape"));
+        assertEquals(1, layer(layout, "p.Polygon"));
+        assertEquals(2, layer(layout, "p.Square"));
+        // Drawable is pulled down next to its only subtype
+        assertEquals(1, layer(layout, "p.Drawable"));
+        assertTrue(layout.getPosition("p.Shape")[1] < layout.getPosition("p.Square")[1]);
+        assertEquals(0, layout.getCrossings());
+    }
+
+    /**
+     * Test Case 2: Classes in the same layer do not overlap and unrelated classes are packed aside
+     */
+    @Test
+    public void testSpacingAndIsolatedClasses() {
+        LayeredLayoutResult layout = new SugiyamaLayout().nodeSpacing(100).layout(ir);
+
+        double[] polygon = layout.getPosition("p.Polygon");
+        double[] drawable = layout.getPosition("p.Drawable");
+        double[] circle = layout.getPosition("p.Circle");
+        assertTrue(Math.abs(polygon[0] - drawable[0]) >= 100 - 1e-9);
+        assertTrue(Math.abs(polygon[0] - circle[0]) >= 100 - 1e-9);
+        assertEquals(-1, layer(layout, "p.Util"));
+        assertTrue(layout.getPosition("p.Util")[0] > layout.getPosition("p.Square")[0]);
+    }
+
+    /**
+     * Test Case 3: Inheritance cycles are broken and long edges get bend points
+     */
+    @Test
+    public void testCyclesAndLongEdges() {
+        ir.addRelation(new Relation("p.Shape", "p.Square", "inheritance"));
+        ir.addClass(new ClassNode("Base", "class", "p"));
+        ir.addRelation(new Relation("p.Square", "p.Base", "inheritance"));
+        ir.addRelation(new Relation("p.Polygon", "p.Base", "inheritance"));
+        ir.addRelation(new Relation("p.Base", "p.Drawable", "inheritance"));
+
+        LayeredLayoutResult layout = new SugiyamaLayout().layout(ir);
+        GraphIndex graph = layout.getGraph();
+
+        assertEquals(1, layout.getReversedEdgeCount());
+        int bends = 0;
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            int source = layout.getLayer(graph.edgeSource(e));
+            int target = layout.getLayer(graph.edgeTarget(e));
+            if (source >= 0 && target >= 0) {
+                assertNotEquals(source, target);
+                assertEquals(2 * (Math.abs(source - target) - 1), layout.getBendPoints(e).length);
+                bends += layout.getBendPoints(e).length;
+            }
+        }
+        assertTrue(bends > 0);
+    }
+
+    /**
+     * Test Case 4: Layout is deterministic
+     */
+    @Test
+    public void testDeterministic() {
+        LayeredLayoutResult first = new SugiyamaLayout().layout(ir);
+        LayeredLayoutResult second = new SugiyamaLayout().layout(ir);
+
+        for (int i = 0; i < first.getGraph().nodeCount(); i++) {
+            assertEquals(first.getX(i), second.getX(i), 0.0);
+            assertEquals(first.getY(i), second.getY(i), 0.0);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package core.metrics;
+
+/**
+ * Coupling and inheritance metrics of a single class.
+ */
+public class ClassMetrics {
+    private String classId;
+    private String packageName;
+    private int cbo;    // coupling between objects: distinct classes used or using
+    private int fanIn;  // distinct classes with a relation to this class
+    private int fanOut; // distinct classes this class has a relation to
+    private int dit;    // depth of inheritance tree
+    private int noc;    // number of direct subtypes
+    
+    public ClassMetrics(String classId, String packageName, int cbo, int fanIn, int fanOut, int dit, int noc) {
+        this.classId = classId;
+        this.packageName = packageName;
+        this.cbo = cbo;
+        this.fanIn = fanIn;
+        this.fanOut = fanOut;
+        this.dit = dit;
+        this.noc = noc;
+    }
+    
+    public String getClassId() {
+        return classId;
+    }
+    
+    public String getPackageName() {
+        return packageName;
+    }
+    
+    public int getCbo() {
+        return cbo;
+    }
+    
+    public int getFanIn() {
+        return fanIn;
+    }
+    
+    public int getFanOut() {
+        return fanOut;
+    }
+    
+    public int getDit() {
+        return dit;
+    }
+    
+    public int getNoc() {
+        return noc;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("ClassMetrics[%s: cbo=%d, fanIn=%d, fanOut=%d, dit=%d, noc=%d]", 
+            classId, cbo, fanIn, fanOut, dit, noc);
+    }
+}
@@ -0,0 +1,35 @@
+package core.metrics;
+
+/**
+ * Metrics a class node can be measured (and colored) by.
+ * Package metrics resolve to the value of the class's package.
+ */
+public enum Metric {
+    CBO, FAN_IN, FAN_OUT, DIT, NOC, CA, CE, INSTABILITY, ABSTRACTNESS, DISTANCE;
+    
+    /**
+     * Value of this metric for a class, or 0 if the class was not measured
+     */
+    public double valueFor(String classId, MetricsResult result) {
+        ClassMetrics cm = result.getClassMetrics(classId);
+        if (cm == null) {
+            return 0.0;
+        }
+        switch (this) {
+            case CBO: return cm.getCbo();
+            case FAN_IN: return cm.getFanIn();
+            case FAN_OUT: return cm.getFanOut();
+            case DIT: return cm.getDit();
+            case NOC: return cm.getNoc();
+            default: break;
+        }
+        PackageMetrics pm = result.getPackageMetrics(cm.getPackageName());
+        switch (this) {
+            case CA: return pm.getCa();
+            case CE: return pm.getCe();
+            case INSTABILITY: return pm.getInstability();
+            case ABSTRACTNESS: return pm.getAbstractness();
+            default: return pm.getDistance();
+        }
+    }
+}
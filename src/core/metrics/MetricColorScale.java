@@ -0,0 +1,64 @@
+package core.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps a metric to node colors on a green (low) to red (high) scale,
+ * normalized over the range of values in the result. Colors are returned
+ * as 0xRRGGBB ints so any renderer can convert them.
+ */
+public class MetricColorScale {
+    
+    private Metric metric;
+    private MetricsResult result;
+    private double min;
+    private double max;
+    
+    public MetricColorScale(Metric metric, MetricsResult result) {
+        this.metric = metric;
+        this.result = result;
+        this.min = Double.MAX_VALUE;
+        this.max = -Double.MAX_VALUE;
+        for (String classId : result.getAllClassMetrics().keySet()) {
+            double value = metric.valueFor(classId, result);
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+    }
+    
+    public Metric getMetric() {
+        return metric;
+    }
+    
+    /**
+     * Metric value scaled to [0, 1]
+     */
+    public double normalized(String classId) {
+        if (max <= min) {
+            return 0.0;
+        }
+        return (metric.valueFor(classId, result) - min) / (max - min);
+    }
+    
+    /**
+     * Color of a class node as 0xRRGGBB
+     */
+    public int colorFor(String classId) {
+        double t = normalized(classId);
+        int red = (int) Math.round(255 * Math.min(1.0, 2 * t));
+        int green = (int) Math.round(255 * Math.min(1.0, 2 * (1 - t)));
+        return (red << 16) | (green << 8);
+    }
+    
+    /**
+     * Colors of all measured classes
+     */
+    public Map<String, Integer> colors() {
+        Map<String, Integer> colors = new HashMap<>();
+        for (String classId : result.getAllClassMetrics().keySet()) {
+            colors.put(classId, colorFor(classId));
+        }
+        return colors;
+    }
+}
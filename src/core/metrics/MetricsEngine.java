@@ -0,0 +1,164 @@
+package core.metrics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import core.model.ClassNode;
+import core.model.IntermediateRepresentation;
+import core.model.Relation;
+
+/**
+ * Computes class and package design metrics over an IR.
+ * Every class is visited once, in parallel; each visit only reads the IR
+ * adjacency of that class. Package metrics are reduced from the per-class results.
+ * Only relations between project classes are counted as coupling.
+ */
+public class MetricsEngine {
+    
+    public MetricsResult compute(IntermediateRepresentation ir) {
+        Map<String, Integer> depths = depthsOfInheritance(ir);
+        List<ClassVisit> visits = ir.getAllClasses().values().parallelStream()
+            .map(classNode -> visit(ir, classNode, depths))
+            .collect(Collectors.toList());
+        
+        Map<String, ClassMetrics> classMetrics = new TreeMap<>();
+        Map<String, int[]> packageCounts = new TreeMap<>(); // package -> {classes, abstract, ce}
+        Map<String, Set<String>> afferent = new HashMap<>();
+        
+        for (ClassVisit visit : visits) {
+            classMetrics.put(visit.metrics.getClassId(), visit.metrics);
+            
+            int[] counts = packageCounts.computeIfAbsent(visit.metrics.getPackageName(), k -> new int[3]);
+            counts[0]++;
+            if (visit.isAbstract) {
+                counts[1]++;
+            }
+            if (!visit.dependedPackages.isEmpty()) {
+                counts[2]++;
+            }
+            for (String packageName : visit.dependedPackages) {
+                afferent.computeIfAbsent(packageName, k -> new HashSet<>()).add(visit.metrics.getClassId());
+            }
+        }
+        
+        Map<String, PackageMetrics> packageMetrics = new TreeMap<>();
+        for (Map.Entry<String, int[]> entry : packageCounts.entrySet()) {
+            int[] counts = entry.getValue();
+            int ca = afferent.getOrDefault(entry.getKey(), Set.of()).size();
+            packageMetrics.put(entry.getKey(), new PackageMetrics(entry.getKey(), counts[0], counts[1], ca, counts[2]));
+        }
+        
+        return new MetricsResult(classMetrics, packageMetrics);
+    }
+    
+    /**
+     * Measure a single class from its incoming and outgoing relations
+     */
+    private ClassVisit visit(IntermediateRepresentation ir, ClassNode classNode, Map<String, Integer> depths) {
+        String classId = classNode.getId();
+        Set<String> fanOut = new HashSet<>();
+        Set<String> fanIn = new HashSet<>();
+        Set<String> dependedPackages = new HashSet<>();
+        int noc = 0;
+        
+        for (Relation rel : ir.getOutgoingRelations(classId)) {
+            ClassNode target = ir.getClass(rel.getTargetId());
+            if (target == null || target == classNode) {
+                continue;
+            }
+            fanOut.add(target.getId());
+            if (!target.getPackageName().equals(classNode.getPackageName())) {
+                dependedPackages.add(target.getPackageName());
+            }
+        }
+        
+        for (Relation rel : ir.getIncomingRelations(classId)) {
+            if (rel.getSourceId().equals(classId) || ir.getClass(rel.getSourceId()) == null) {
+                continue;
+            }
+            fanIn.add(rel.getSourceId());
+            if (isSubtypeRelation(rel)) {
+                noc++;
+            }
+        }
+        
+        Set<String> coupled = new HashSet<>(fanOut);
+        coupled.addAll(fanIn);
+        
+        ClassMetrics metrics = new ClassMetrics(classId, classNode.getPackageName(), 
+            coupled.size(), fanIn.size(), fanOut.size(), depths.getOrDefault(classId, 0), noc);
+        boolean isAbstract = classNode.isAbstract() || "interface".equals(classNode.getType());
+        return new ClassVisit(metrics, isAbstract, dependedPackages);
+    }
+    
+    /**
+     * Number of superclass steps up to the root for every class; an external
+     * superclass counts as one step and ends the walk. Each chain is walked
+     * once, depths found before are reused.
+     */
+    private Map<String, Integer> depthsOfInheritance(IntermediateRepresentation ir) {
+        Map<String, String> superclasses = new HashMap<>();
+        for (Relation rel : ir.getRelationsByType("inheritance")) {
+            superclasses.putIfAbsent(rel.getSourceId(), rel.getTargetId());
+        }
+        Map<String, Integer> depths = new HashMap<>();
+        for (String classId : ir.getAllClasses().keySet()) {
+            List<String> chain = new ArrayList<>();
+            Set<String> onChain = new HashSet<>();
+            String current = classId;
+            int depth;
+            if (depths.containsKey(classId)) {
+                continue;
+            }
+            // Walk up to a root, an external or known superclass, or a cycle;
+            // depth is then the depth of the last class of the chain
+            while (true) {
+                chain.add(current);
+                onChain.add(current);
+                String superId = superclasses.get(current);
+                if (superId == null) {
+                    depth = 0;
+                    break;
+                }
+                if (ir.getClass(superId) == null || onChain.contains(superId)) {
+                    depth = 1;
+                    break;
+                }
+                if (depths.containsKey(superId)) {
+                    depth = depths.get(superId) + 1;
+                    break;
+                }
+                current = superId;
+            }
+            for (int i = chain.size() - 1; i >= 0; i--) {
+                depths.put(chain.get(i), depth++);
+            }
+        }
+        return depths;
+    }
+    
+    private boolean isSubtypeRelation(Relation rel) {
+        return "inheritance".equals(rel.getType()) || "implements".equals(rel.getType());
+    }
+    
+    /**
+     * Per-class result of the parallel pass
+     */
+    private static class ClassVisit {
+        private ClassMetrics metrics;
+        private boolean isAbstract;
+        private Set<String> dependedPackages;
+        
+        ClassVisit(ClassMetrics metrics, boolean isAbstract, Set<String> dependedPackages) {
+            this.metrics = metrics;
+            this.isAbstract = isAbstract;
+            this.dependedPackages = dependedPackages;
+        }
+    }
+}
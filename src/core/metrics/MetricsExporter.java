@@ -0,0 +1,90 @@
+package core.metrics;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Locale;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Exports metrics results as CSV or JSON.
+ */
+public class MetricsExporter {
+    
+    private Gson gson;
+    
+    public MetricsExporter() {
+        this.gson = new GsonBuilder().setPrettyPrinting().create();
+    }
+    
+    /**
+     * Class metrics as CSV, one row per class
+     */
+    public String toClassCsv(MetricsResult result) {
+        StringBuilder sb = new StringBuilder("class,package,cbo,fanIn,fanOut,dit,noc\n");
+        for (ClassMetrics cm : result.getAllClassMetrics().values()) {
+            sb.append(csv(cm.getClassId())).append(',')
+              .append(csv(cm.getPackageName())).append(',')
+              .append(cm.getCbo()).append(',')
+              .append(cm.getFanIn()).append(',')
+              .append(cm.getFanOut()).append(',')
+              .append(cm.getDit()).append(',')
+              .append(cm.getNoc()).append('\n');
+        }
+        return sb.toString();
+    }
+    
+    /**
+     * Package metrics as CSV, one row per package
+     */
+    public String toPackageCsv(MetricsResult result) {
+        StringBuilder sb = new StringBuilder("package,classes,abstract,ca,ce,instability,abstractness,distance\n");
+        for (PackageMetrics pm : result.getAllPackageMetrics().values()) {
+            sb.append(csv(pm.getPackageName())).append(',')
+              .append(pm.getClassCount()).append(',')
+              .append(pm.getAbstractCount()).append(',')
+              .append(pm.getCa()).append(',')
+              .append(pm.getCe()).append(',')
+              .append(String.format(Locale.ROOT, "%.4f,%.4f,%.4f", 
+                  pm.getInstability(), pm.getAbstractness(), pm.getDistance()))
+              .append('\n');
+        }
+        return sb.toString();
+    }
+    
+    /**
+     * Class and package metrics as one JSON document
+     */
+    public String toJson(MetricsResult result) {
+        return gson.toJson(result);
+    }
+    
+    /**
+     * Save class and package CSV files
+     */
+    public void saveCsv(MetricsResult result, String classFilePath, String packageFilePath) throws IOException {
+        try (FileWriter writer = new FileWriter(classFilePath)) {
+            writer.write(toClassCsv(result));
+        }
+        try (FileWriter writer = new FileWriter(packageFilePath)) {
+            writer.write(toPackageCsv(result));
+        }
+    }
+    
+    /**
+     * Save metrics as JSON file
+     */
+    public void saveJson(MetricsResult result, String filePath) throws IOException {
+        try (FileWriter writer = new FileWriter(filePath)) {
+            gson.toJson(result, writer);
+        }
+    }
+    
+    private String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,38 @@
+package core.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Class and package metrics computed for one IR.
+ */
+public class MetricsResult {
+    private Map<String, ClassMetrics> classes;
+    private Map<String, PackageMetrics> packages;
+    
+    public MetricsResult(Map<String, ClassMetrics> classes, Map<String, PackageMetrics> packages) {
+        this.classes = classes;
+        this.packages = packages;
+    }
+    
+    public ClassMetrics getClassMetrics(String classId) {
+        return classes.get(classId);
+    }
+    
+    public PackageMetrics getPackageMetrics(String packageName) {
+        return packages.get(packageName);
+    }
+    
+    public Map<String, ClassMetrics> getAllClassMetrics() {
+        return Collections.unmodifiableMap(classes);
+    }
+    
+    public Map<String, PackageMetrics> getAllPackageMetrics() {
+        return Collections.unmodifiableMap(packages);
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("MetricsResult[classes=%d, packages=%d]", classes.size(), packages.size());
+    }
+}
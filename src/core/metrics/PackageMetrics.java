@@ -0,0 +1,67 @@
+package core.metrics;
+
+/**
+ * Martin's package metrics: afferent/efferent coupling, instability and abstractness.
+ */
+public class PackageMetrics {
+    private String packageName;
+    private int classCount;
+    private int abstractCount;
+    private int ca; // afferent coupling: classes outside the package that depend on it
+    private int ce; // efferent coupling: classes inside the package that depend on other packages
+    
+    public PackageMetrics(String packageName, int classCount, int abstractCount, int ca, int ce) {
+        this.packageName = packageName;
+        this.classCount = classCount;
+        this.abstractCount = abstractCount;
+        this.ca = ca;
+        this.ce = ce;
+    }
+    
+    public String getPackageName() {
+        return packageName;
+    }
+    
+    public int getClassCount() {
+        return classCount;
+    }
+    
+    public int getAbstractCount() {
+        return abstractCount;
+    }
+    
+    public int getCa() {
+        return ca;
+    }
+    
+    public int getCe() {
+        return ce;
+    }
+    
+    /**
+     * I = Ce / (Ca + Ce), 0 for a package without any coupling
+     */
+    public double getInstability() {
+        return ca + ce == 0 ? 0.0 : (double) ce / (ca + ce);
+    }
+    
+    /**
+     * A = abstract types / all types
+     */
+    public double getAbstractness() {
+        return classCount == 0 ? 0.0 : (double) abstractCount / classCount;
+    }
+    
+    /**
+     * Distance from the main sequence, |A + I - 1|
+     */
+    public double getDistance() {
+        return Math.abs(getAbstractness() + getInstability() - 1.0);
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("PackageMetrics[%s: ca=%d, ce=%d, I=%.2f, A=%.2f]", 
+            packageName, ca, ce, getInstability(), getAbstractness());
+    }
+}
@@ -0,0 +1,136 @@
+package core.metrics.test;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import core.metrics.ClassMetrics;
+import core.metrics.Metric;
+import core.metrics.MetricColorScale;
+import core.metrics.MetricsEngine;
+import core.metrics.MetricsExporter;
+import core.metrics.MetricsResult;
+import core.metrics.PackageMetrics;
+import core.model.ClassNode;
+import core.model.IntermediateRepresentation;
+import core.model.Relation;
+
+/**
+ * Unit tests for the coupling and design metrics engine
+ */
+public class MetricsEngineTest {
+
+    private MetricsResult result;
+
+    @Before
+    public void setUp() {
+        // api: Shape (interface); impl: Base implements Shape, Circle extends Base,
+        // Square extends Base, Canvas aggregates Shape
+        IntermediateRepresentation ir = new IntermediateRepresentation();
+        ir.addClass(new ClassNode("Shape", "interface", "api"));
+        ir.addClass(new ClassNode("Base", "class", "impl"));
+        ir.addClass(new ClassNode("Circle", "class", "impl"));
+        ir.addClass(new ClassNode("Square", "class", "impl"));
+        ir.addClass(new ClassNode("Canvas", "class", "ui"));
+        ir.addRelation(new Relation("impl.Base", "api.Shape", "implements"));
+        ir.addRelation(new Relation("impl.Circle", "impl.Base", "inheritance"));
+        ir.addRelation(new Relation("impl.Square", "impl.Base", "inheritance"));
+        ir.addRelation(new Relation("ui.Canvas", "api.Shape", "aggregation"));
+        ir.addRelation(new Relation("ui.Canvas", "java.util.List", "association", true));
+        result = new MetricsEngine().compute(ir);
+    }
+
+    /**
+     * Test Case 1: Fan-in, fan-out and CBO ignore external targets
+     */
+    @Test
+    public void testCouplingMetrics() {
+        ClassMetrics base = result.getClassMetrics("impl.Base");
+        assertEquals(2, base.getFanIn());
+        assertEquals(1, base.getFanOut());
+        assertEquals(3, base.getCbo());
+
+        ClassMetrics canvas = result.getClassMetrics("ui.Canvas");
+        assertEquals(1, canvas.getFanOut());
+    }
+
+    /**
+     * Test Case 2: DIT and NOC follow the inheritance tree
+     */
+    @Test
+    public void testInheritanceMetrics() {
+        assertEquals(0, result.getClassMetrics("impl.Base").getDit());
+        assertEquals(1, result.getClassMetrics("impl.Circle").getDit());
+        assertEquals(2, result.getClassMetrics("impl.Base").getNoc());
+        assertEquals(1, result.getClassMetrics("api.Shape").getNoc());
+    }
+
+    /**
+     * Test Case 3: Package afferent/efferent coupling, instability, abstractness
+     */
+    @Test
+    public void testPackageMetrics() {
+        PackageMetrics api = result.getPackageMetrics("api");
+        assertEquals(2, api.getCa());
+        assertEquals(0, api.getCe());
+        assertEquals(0.0, api.getInstability(), 1e-9);
+        assertEquals(1.0, api.getAbstractness(), 1e-9);
+
+        PackageMetrics impl = result.getPackageMetrics("impl");
+        assertEquals(0, impl.getCa());
+        assertEquals(1, impl.getCe());
+        assertEquals(1.0, impl.getInstability(), 1e-9);
+    }
+
+    /**
+     * Test Case 4: CSV and JSON export
+     */
+    @Test
+    public void testExport() {
+        MetricsExporter exporter = new MetricsExporter();
+        String csv = exporter.toClassCsv(result);
+        assertEquals(6, csv.split("\n").length);
+        assertTrue(csv.contains("impl.Base,impl,3,2,1,0,2"));
+        assertTrue(exporter.toPackageCsv(result).contains("api,1,1,2,0,0.0000,1.0000,0.0000"));
+        assertTrue(exporter.toJson(result).contains("\"cbo\""));
+    }
+
+    /**
+     * Test Case 5: Node colors by metric
+     */
+    @Test
+    public void testColorScale() {
+        MetricColorScale scale = new MetricColorScale(Metric.FAN_IN, result);
+        assertEquals(0x00FF00, scale.colorFor("ui.Canvas"));
+        assertEquals(0xFF0000, scale.colorFor("impl.Base"));
+        assertEquals(5, scale.colors().size());
+        assertEquals(1.0, Metric.INSTABILITY.valueFor("impl.Circle", result), 1e-9);
+    }
+
+    /**
+     * Test Case 6: Abstract classes count toward abstractness; DIT of a
+     * chain reuses the depths of its superclasses
+     */
+    @Test
+    public void testAbstractClassesAndDeepChain() {
+        IntermediateRepresentation ir = new IntermediateRepresentation();
+        ClassNode shape = new ClassNode("AbstractShape", "class", "geo");
+        shape.setAbstract(true);
+        ir.addClass(shape);
+        ir.addClass(new ClassNode("Circle", "class", "geo"));
+        ir.addClass(new ClassNode("Ring", "class", "geo"));
+        ir.addClass(new ClassNode("Disc", "class", "geo"));
+        ir.addRelation(new Relation("geo.AbstractShape", "java.lang.Object", "inheritance", true));
+        ir.addRelation(new Relation("geo.Ring", "geo.Circle", "inheritance"));
+        ir.addRelation(new Relation("geo.Disc", "geo.Circle", "inheritance"));
+        ir.addRelation(new Relation("geo.Circle", "geo.AbstractShape", "inheritance"));
+        MetricsResult metrics = new MetricsEngine().compute(ir);
+
+        assertEquals(0.25, metrics.getPackageMetrics("geo").getAbstractness(), 1e-9);
+        assertEquals(1, metrics.getClassMetrics("geo.AbstractShape").getDit());
+        assertEquals(2, metrics.getClassMetrics("geo.Circle").getDit());
+        assertEquals(3, metrics.getClassMetrics("geo.Ring").getDit());
+        assertEquals(3, metrics.getClassMetrics("geo.Disc").getDit());
+    }
+}
@@ -0,0 +1,61 @@
+package core.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Fields and methods of one class as loaded by a MemberLoader. The lists are
+ * shared by every ClassNode of the class and must not be modified.
+ */
+public final class ClassMembers {
+    
+    public static final ClassMembers EMPTY = new ClassMembers(Collections.emptyList(), Collections.emptyList());
+    
+    private final List<Field> fields;
+    private final List<Method> methods;
+    private volatile ClassMembers withoutPrivate;
+    
+    public ClassMembers(List<Field> fields, List<Method> methods) {
+        this.fields = Collections.unmodifiableList(fields);
+        this.methods = Collections.unmodifiableList(methods);
+    }
+    
+    public List<Field> getFields() {
+        return fields;
+    }
+    
+    public List<Method> getMethods() {
+        return methods;
+    }
+    
+    /**
+     * The members a reduction level keeps; the NO_PRIVATE lists are built
+     * once and kept with these members
+     */
+    public ClassMembers reducedTo(ReductionLevel level) {
+        switch (level) {
+            case FULL:
+                return this;
+            case NO_PRIVATE:
+                if (withoutPrivate == null) {
+                    List<Field> keptFields = new ArrayList<>();
+                    for (Field field : fields) {
+                        if (level.keepsMember(field.getVisibility())) {
+                            keptFields.add(field);
+                        }
+                    }
+                    List<Method> keptMethods = new ArrayList<>();
+                    for (Method method : methods) {
+                        if (level.keepsMember(method.getVisibility())) {
+                            keptMethods.add(method);
+                        }
+                    }
+                    withoutPrivate = new ClassMembers(keptFields, keptMethods);
+                }
+                return withoutPrivate;
+            default:
+                return EMPTY;
+        }
+    }
+}
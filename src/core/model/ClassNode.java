@@ -10,6 +10,11 @@ public class ClassNode {
     private List<Field> fields;
     private List<Method> methods;
     private String packageName;
+    private boolean isAbstract;
+    // Set for nodes whose members are loaded on demand; not serialized
+    private transient String memberHandle;
+    private transient MemberCache memberCache;
+    private transient ReductionLevel memberLevel = ReductionLevel.FULL;
     
     public ClassNode(String name) {
         this(name, "class", "");
@@ -44,24 +49,114 @@ public class ClassNode {
         return packageName;
     }
     
+    /**
+     * True for abstract classes and interfaces
+     */
+    public boolean isAbstract() {
+        return isAbstract;
+    }
+    
+    public void setAbstract(boolean isAbstract) {
+        this.isAbstract = isAbstract;
+    }
+    
+    /**
+     * Fields of the class; for a lazy node they are loaded through the member cache
+     */
     public List<Field> getFields() {
-        return fields;
+        return memberCache != null ? loadMembers().getFields() : fields;
     }
     
     public void addField(Field field) {
+        materializeMembers();
         this.fields.add(field);
     }
     
+    /**
+     * Methods of the class; for a lazy node they are loaded through the member cache
+     */
     public List<Method> getMethods() {
-        return methods;
+        return memberCache != null ? loadMembers().getMethods() : methods;
     }
     
     public void addMethod(Method method) {
+        materializeMembers();
         this.methods.add(method);
     }
     
+    /**
+     * Load members on demand from the cache instead of holding them. Members
+     * added before are dropped.
+     */
+    public void setLazyMembers(String handle, MemberCache cache) {
+        setLazyMembers(handle, cache, ReductionLevel.FULL);
+    }
+    
+    /**
+     * Load members on demand, keeping only those the level keeps
+     */
+    public void setLazyMembers(String handle, MemberCache cache, ReductionLevel level) {
+        this.memberHandle = handle;
+        this.memberCache = cache;
+        this.memberLevel = level;
+        this.fields = new ArrayList<>(0);
+        this.methods = new ArrayList<>(0);
+    }
+    
+    /**
+     * True if members are loaded on demand
+     */
+    public boolean hasLazyMembers() {
+        return memberCache != null;
+    }
+    
+    /**
+     * Handle the members are loaded with, or null for a node that holds its members
+     */
+    public String getMemberHandle() {
+        return memberHandle;
+    }
+    
+    MemberCache getMemberCache() {
+        return memberCache;
+    }
+    
+    /**
+     * Level lazy members are reduced to when they are loaded
+     */
+    ReductionLevel getMemberLevel() {
+        return memberLevel;
+    }
+    
+    private ClassMembers loadMembers() {
+        return memberCache.get(memberHandle).reducedTo(memberLevel);
+    }
+    
+    /**
+     * True if the members can be read without loading them
+     */
+    public boolean areMembersLoaded() {
+        return memberCache == null || memberCache.contains(memberHandle);
+    }
+    
+    /**
+     * Turn a lazy node into one that holds its members, so they can be modified
+     */
+    private void materializeMembers() {
+        if (memberCache != null) {
+            ClassMembers members = loadMembers();
+            fields = new ArrayList<>(members.getFields());
+            methods = new ArrayList<>(members.getMethods());
+            memberCache = null;
+            memberHandle = null;
+        }
+    }
+    
     @Override
     public String toString() {
+        if (memberCache != null) {
+            return String.format("ClassNode[id=%s, type=%s, lazy members]", id, type);
+        }
         return String.format("ClassNode[id=%s, type=%s, fields=%d, methods=%d]", 
             id, type, fields.size(), methods.size());
     }
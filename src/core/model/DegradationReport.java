@@ -0,0 +1,133 @@
+package core.model;
+
+/**
+ * Outcome of fitting an IR into a MemoryBudget: the IR to show, the level it
+ * was reduced to and what was dropped, so the UI can tell the user.
+ */
+public class DegradationReport {
+    
+    /** Type of the ClassNodes standing for packages in a package summary */
+    public static final String PACKAGE_TYPE = "package";
+    
+    private final IntermediateRepresentation ir;
+    private final ReductionLevel level;
+    private final long budgetBytes;
+    private final long fullBytes;
+    private final long bytes;
+    private final int droppedFields;
+    private final int droppedMethods;
+    private final int unloadedClasses;
+    private final int summarizedClasses;
+    
+    public DegradationReport(IntermediateRepresentation ir, ReductionLevel level, long budgetBytes, long fullBytes,
+                             long bytes, int droppedFields, int droppedMethods, int summarizedClasses) {
+        this(ir, level, budgetBytes, fullBytes, bytes, droppedFields, droppedMethods, 0, summarizedClasses);
+    }
+    
+    /**
+     * @param unloadedClasses lazy classes whose members were not in memory,
+     *        so their dropped members are not counted
+     */
+    public DegradationReport(IntermediateRepresentation ir, ReductionLevel level, long budgetBytes, long fullBytes,
+                             long bytes, int droppedFields, int droppedMethods, int unloadedClasses,
+                             int summarizedClasses) {
+        this.ir = ir;
+        this.level = level;
+        this.budgetBytes = budgetBytes;
+        this.fullBytes = fullBytes;
+        this.bytes = bytes;
+        this.droppedFields = droppedFields;
+        this.droppedMethods = droppedMethods;
+        this.unloadedClasses = unloadedClasses;
+        this.summarizedClasses = summarizedClasses;
+    }
+    
+    /**
+     * ID of the node of a package in a package summary
+     */
+    public static String packageNodeId(String packageName) {
+        return packageName.isEmpty() ? "(default package)" : packageName;
+    }
+    
+    /**
+     * IR reduced to the level; the original IR if nothing was dropped
+     */
+    public IntermediateRepresentation getIR() {
+        return ir;
+    }
+    
+    public ReductionLevel getLevel() {
+        return level;
+    }
+    
+    public boolean isDegraded() {
+        return level != ReductionLevel.FULL;
+    }
+    
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+    
+    /**
+     * Estimated footprint of the full IR
+     */
+    public long getFullBytes() {
+        return fullBytes;
+    }
+    
+    /**
+     * Estimated footprint at the chosen level; above the budget if even the package summary does not fit
+     */
+    public long getBytes() {
+        return bytes;
+    }
+    
+    public int getDroppedFields() {
+        return droppedFields;
+    }
+    
+    public int getDroppedMethods() {
+        return droppedMethods;
+    }
+    
+    /**
+     * Number of lazy classes whose members were not loaded to be counted; at
+     * the member levels they lose members beyond the dropped counts
+     */
+    public int getUnloadedClasses() {
+        return unloadedClasses;
+    }
+    
+    /**
+     * Number of classes folded into package nodes, 0 unless the level is PACKAGE_SUMMARY
+     */
+    public int getSummarizedClasses() {
+        return summarizedClasses;
+    }
+    
+    /**
+     * One sentence for the user about what was dropped and why
+     */
+    public String describe() {
+        if (!isDegraded()) {
+            return "Full detail";
+        }
+        String dropped = level == ReductionLevel.PACKAGE_SUMMARY
+            ? String.format("%d classes collapsed into %d packages", summarizedClasses, ir.getAllClasses().size())
+            : String.format("%d fields and %d methods hidden", droppedFields, droppedMethods)
+                + (unloadedClasses > 0 ? String.format(" (and more of %d classes not loaded yet)", unloadedClasses) : "");
+        return String.format("Diagram reduced (%s): %s, since the full model needs about %d MB of the %d MB budget. "
+            + "Narrow the scope to see more detail.", level.getDescription(), dropped, megabytes(fullBytes),
+            megabytes(budgetBytes));
+    }
+    
+    private static long megabytes(long bytes) {
+        return (bytes + 1024 * 1024 - 1) / (1024 * 1024);
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("DegradationReport[level=%s, estimate=%d of %d bytes (full %d)]",
+            level, bytes, budgetBytes, fullBytes);
+    }
+}
@@ -0,0 +1,168 @@
+package core.model;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Estimate of the heap an IR retains, on a 64-bit JVM with compressed
+ * references and compact strings. Counts the model objects, their names and
+ * type strings and the IR's indexes; literal strings such as visibilities and
+ * relation types are shared and not counted. Names that are still shared with
+ * the Java model are counted too, so the estimate errs on the high side.
+ * Lazy classes count with their handle only; their members are not retained
+ * by the IR. The estimate can be made for
+ * any ReductionLevel without building the reduced IR.
+ */
+public class FootprintEstimator {
+    
+    static final int REFERENCE = 4;
+    static final int ARRAY_HEADER = 16;
+    
+    // Shallow sizes of the model classes, rounded to 8 bytes
+    static final int CLASS_NODE = 40;
+    static final int FIELD = 32;
+    static final int METHOD = 32;
+    static final int PARAMETER = 24;
+    static final int RELATION = 40;
+    static final int ARRAY_LIST = 24;
+    // One HashMap node plus its share of the table at the default load factor
+    static final int MAP_ENTRY = 32 + 6;
+    static final int LINKED_MAP_ENTRY = 40 + 6;
+    
+    /**
+     * Estimated bytes of the IR as it is
+     */
+    public long estimate(IntermediateRepresentation ir) {
+        return estimate(ir, ReductionLevel.FULL);
+    }
+    
+    /**
+     * Estimated bytes of the IR reduced to a detail level
+     */
+    public long estimate(IntermediateRepresentation ir, ReductionLevel level) {
+        if (level == ReductionLevel.PACKAGE_SUMMARY) {
+            return estimatePackageSummary(ir);
+        }
+        return estimateMemberLevels(ir)[level.ordinal()];
+    }
+    
+    /**
+     * Estimates for FULL, NO_PRIVATE and NO_MEMBERS, indexed by ordinal, in one pass over the IR
+     */
+    public long[] estimateMemberLevels(IntermediateRepresentation ir) {
+        long[] bytes = new long[ReductionLevel.PACKAGE_SUMMARY.ordinal()];
+        long[] members = new long[4]; // bytes and count of private, then of other members
+        for (ClassNode classNode : ir.getAllClasses().values()) {
+            long base = CLASS_NODE + string(classNode.getId().length()) + string(classNode.getName().length())
+                + string(classNode.getPackageName().length());
+            if (classNode.hasLazyMembers()) {
+                // Only the handle; loaded members live in the bounded MemberCache
+                long lazy = base + string(classNode.getMemberHandle().length()) + 2 * list(0);
+                bytes[0] += lazy;
+                bytes[1] += lazy;
+                bytes[2] += base + 2 * list(0);
+                continue;
+            }
+            members(classNode.getFields(), members);
+            long fields = members[0] + members[2];
+            long publicFields = members[2];
+            int fieldCount = (int) (members[1] + members[3]);
+            int publicFieldCount = (int) members[3];
+            members(classNode.getMethods(), members);
+            bytes[0] += base + fields + members[0] + members[2] + list(fieldCount) + list((int) (members[1] + members[3]));
+            bytes[1] += base + publicFields + members[2] + list(publicFieldCount) + list((int) members[3]);
+            bytes[2] += base + list(0) + list(0);
+        }
+        long relations = indexes(ir.getAllClasses().size(), ir.getPackageNames().size(), ir.getAllRelations().size());
+        for (Relation relation : ir.getAllRelations()) {
+            relations += relation(relation);
+        }
+        for (int level = 0; level < bytes.length; level++) {
+            bytes[level] += relations;
+        }
+        return bytes;
+    }
+    
+    private long estimatePackageSummary(IntermediateRepresentation ir) {
+        Map<String, ClassNode> classes = ir.getAllClasses();
+        Set<String> edges = new HashSet<>();
+        long bytes = 0;
+        for (Relation relation : ir.getAllRelations()) {
+            ClassNode source = classes.get(relation.getSourceId());
+            ClassNode target = classes.get(relation.getTargetId());
+            String sourcePackage = source != null ? source.getPackageName() : relation.getSourceId();
+            String targetPackage = target != null ? target.getPackageName() : relation.getTargetId();
+            if (!sourcePackage.equals(targetPackage)
+                    && edges.add(sourcePackage + "_" + relation.getType() + "_" + targetPackage)) {
+                bytes += RELATION + string(sourcePackage.length() + targetPackage.length() + relation.getType().length() + 2);
+            }
+        }
+        int packages = ir.getPackageNames().size();
+        for (String packageName : ir.getPackageNames()) {
+            bytes += CLASS_NODE + 2 * string(packageName.length()) + 2 * list(0);
+        }
+        return bytes + indexes(packages, 1, edges.size());
+    }
+    
+    /**
+     * Bytes and count of the private members, then of the other members, into totals
+     */
+    private static void members(List<?> members, long[] totals) {
+        Arrays.fill(totals, 0);
+        for (Object member : members) {
+            long bytes;
+            String visibility;
+            if (member instanceof Field) {
+                Field field = (Field) member;
+                bytes = FIELD + string(field.getName().length()) + string(field.getType().length());
+                visibility = field.getVisibility();
+            } else {
+                Method method = (Method) member;
+                bytes = METHOD + string(method.getName().length()) + string(method.getReturnType().length())
+                    + list(method.getParameters().size());
+                for (Parameter parameter : method.getParameters()) {
+                    bytes += PARAMETER + string(parameter.getName().length()) + string(parameter.getType().length());
+                }
+                visibility = method.getVisibility();
+            }
+            int slot = "private".equals(visibility) ? 0 : 2;
+            totals[slot] += bytes;
+            totals[slot + 1]++;
+        }
+    }
+    
+    private long relation(Relation relation) {
+        return RELATION + string(relation.getId().length()) + string(relation.getSourceId().length())
+            + string(relation.getTargetId().length());
+    }
+    
+    /**
+     * Class map, package index, relation ID set, outgoing and incoming lists and the per-type sets
+     */
+    private long indexes(int classes, int packages, int relations) {
+        long bytes = (long) classes * (MAP_ENTRY + LINKED_MAP_ENTRY);
+        bytes += (long) packages * (MAP_ENTRY + LINKED_MAP_ENTRY);
+        bytes += (long) relations * (REFERENCE + MAP_ENTRY + LINKED_MAP_ENTRY + 2 * REFERENCE);
+        int sources = Math.min(classes, relations);
+        bytes += 2L * sources * (MAP_ENTRY + list(0));
+        return bytes;
+    }
+    
+    static long string(int length) {
+        return 24 + align(ARRAY_HEADER + length);
+    }
+    
+    /**
+     * ArrayList grown from the default capacity of 10 by half each time; on average a quarter is unused
+     */
+    static long list(int size) {
+        return ARRAY_LIST + (size == 0 ? 0 : align(ARRAY_HEADER + (long) REFERENCE * Math.max(10, size + size / 4)));
+    }
+    
+    static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
@@ -1,7 +1,9 @@
 package core.model;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import core.diagnostics.PipelineStats;
 import core.parser.ClassInfo;
 import core.parser.FieldInfo;
 import core.parser.MethodInfo;
@@ -13,20 +15,31 @@ import core.parser.MethodInfo;
 public class IRBuilder {
     
     private IntermediateRepresentation ir;
+    private MemberCache memberCache;
     
     public IRBuilder() {
         this.ir = new IntermediateRepresentation();
     }
     
+    /**
+     * Cache through which classes parsed without members (with a handle) load them
+     */
+    public IRBuilder memberCache(MemberCache memberCache) {
+        this.memberCache = memberCache;
+        return this;
+    }
+    
     /**
      * Build IR from a list of parsed classes
      */
     public IntermediateRepresentation build(List<ClassInfo> parsedClasses) {
+        long start = PipelineStats.start();
         // Convert parsed classes to IR ClassNodes
         for (ClassInfo classInfo : parsedClasses) {
             ClassNode classNode = convertToClassNode(classInfo);
             ir.addClass(classNode);
         }
+        PipelineStats.stop(PipelineStats.Stage.BUILD, start);
         return ir;
     }
     
@@ -34,33 +47,59 @@ public class IRBuilder {
      * Convert a parsed ClassInfo to IR ClassNode
      */
     private ClassNode convertToClassNode(ClassInfo classInfo) {
-        ClassNode classNode = new ClassNode(classInfo.getName(), classInfo.getType(), "");
+        ClassNode classNode = new ClassNode(classInfo.getName(), classInfo.getType(), classInfo.getPackageName());
+        classNode.setAbstract(classInfo.isAbstract());
+        if (classInfo.getHandle() != null && memberCache != null) {
+            classNode.setLazyMembers(classInfo.getHandle(), memberCache);
+            return classNode;
+        }
         
         // Add fields
         for (FieldInfo fieldInfo : classInfo.getFields()) {
-            Field field = new Field(
-                fieldInfo.getName(),
-                fieldInfo.getType(),
-                fieldInfo.getVisibility(),
-                fieldInfo.isStatic()
-            );
-            classNode.addField(field);
+            classNode.addField(convertField(fieldInfo));
         }
         
         // Add methods
         for (MethodInfo methodInfo : classInfo.getMethods()) {
-            Method method = new Method(
-                methodInfo.getName(),
-                methodInfo.getReturnType(),
-                methodInfo.getVisibility(),
-                methodInfo.isStatic()
-            );
-            classNode.addMethod(method);
+            classNode.addMethod(convertMethod(methodInfo));
         }
         
         return classNode;
     }
     
+    /**
+     * Members of a parsed class in IR form, for a MemberLoader
+     */
+    public static ClassMembers convertMembers(ClassInfo classInfo) {
+        List<Field> fields = new ArrayList<>(classInfo.getFields().size());
+        for (FieldInfo fieldInfo : classInfo.getFields()) {
+            fields.add(convertField(fieldInfo));
+        }
+        List<Method> methods = new ArrayList<>(classInfo.getMethods().size());
+        for (MethodInfo methodInfo : classInfo.getMethods()) {
+            methods.add(convertMethod(methodInfo));
+        }
+        return new ClassMembers(fields, methods);
+    }
+    
+    private static Field convertField(FieldInfo fieldInfo) {
+        return new Field(
+            fieldInfo.getName(),
+            fieldInfo.getType(),
+            fieldInfo.getVisibility(),
+            fieldInfo.isStatic()
+        );
+    }
+    
+    private static Method convertMethod(MethodInfo methodInfo) {
+        return new Method(
+            methodInfo.getName(),
+            methodInfo.getReturnType(),
+            methodInfo.getVisibility(),
+            methodInfo.isStatic()
+        );
+    }
+    
     /**
      * Get the built IR
      */
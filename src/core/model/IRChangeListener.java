@@ -0,0 +1,22 @@
+package core.model;
+
+/**
+ * Callback for structural changes to an IntermediateRepresentation.
+ * Used by derived views that are maintained incrementally.
+ */
+public interface IRChangeListener {
+    
+    void classAdded(ClassNode classNode);
+    
+    void classRemoved(ClassNode classNode);
+    
+    void relationAdded(Relation relation);
+    
+    void relationRemoved(Relation relation);
+    
+    /**
+     * Called when a merged relation changed its multiplicity
+     */
+    default void relationChanged(Relation relation) {
+    }
+}
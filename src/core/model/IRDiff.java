@@ -0,0 +1,147 @@
+package core.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Difference between two IR snapshots, matched by ClassNode.getId() and
+ * Relation.getId(). A class or relation present in both but with different
+ * content (members, external flag, multiplicity) is reported as changed.
+ */
+public class IRDiff {
+    
+    private List<ClassNode> addedClasses = new ArrayList<>();
+    private List<ClassNode> removedClasses = new ArrayList<>();
+    private List<ClassNode> changedClasses = new ArrayList<>();
+    private List<Relation> addedRelations = new ArrayList<>();
+    private List<Relation> removedRelations = new ArrayList<>();
+    private List<Relation> changedRelations = new ArrayList<>();
+    
+    /**
+     * Changes that turn before into after; a null before counts as empty
+     */
+    public static IRDiff between(IntermediateRepresentation before, IntermediateRepresentation after) {
+        IRDiff diff = new IRDiff();
+        Map<String, ClassNode> oldClasses = before == null 
+            ? Collections.emptyMap() : before.getAllClasses();
+        Map<String, ClassNode> newClasses = after.getAllClasses();
+        
+        for (ClassNode node : newClasses.values()) {
+            ClassNode previous = oldClasses.get(node.getId());
+            if (previous == null) {
+                diff.addedClasses.add(node);
+            } else if (!sameContent(previous, node)) {
+                diff.changedClasses.add(node);
+            }
+        }
+        for (ClassNode node : oldClasses.values()) {
+            if (!newClasses.containsKey(node.getId())) {
+                diff.removedClasses.add(node);
+            }
+        }
+        
+        List<Relation> oldRelations = before == null ? Collections.emptyList() : before.getAllRelations();
+        Map<String, Relation> oldById = new HashMap<>(oldRelations.size() * 2);
+        for (Relation relation : oldRelations) {
+            oldById.put(relation.getId(), relation);
+        }
+        for (Relation relation : after.getAllRelations()) {
+            Relation previous = oldById.remove(relation.getId());
+            if (previous == null) {
+                diff.addedRelations.add(relation);
+            } else if (previous.isTargetExternal() != relation.isTargetExternal()
+                    || previous.getMultiplicity() != relation.getMultiplicity()) {
+                diff.changedRelations.add(relation);
+            }
+        }
+        diff.removedRelations.addAll(oldById.values());
+        return diff;
+    }
+    
+    /**
+     * Same name, kind and members. Lazy nodes loading from the same handle
+     * count as having the same members, so comparing loads nothing.
+     */
+    private static boolean sameContent(ClassNode a, ClassNode b) {
+        if (a == b) {
+            return true;
+        }
+        if (!a.getName().equals(b.getName()) || !a.getType().equals(b.getType())) {
+            return false;
+        }
+        if (a.hasLazyMembers() && b.hasLazyMembers()) {
+            return a.getMemberHandle().equals(b.getMemberHandle()) && a.getMemberLevel() == b.getMemberLevel();
+        }
+        if (a.getFields().size() != b.getFields().size() 
+                || a.getMethods().size() != b.getMethods().size()) {
+            return false;
+        }
+        for (int i = 0; i < a.getFields().size(); i++) {
+            Field fa = a.getFields().get(i);
+            Field fb = b.getFields().get(i);
+            if (!fa.equals(fb) || !fa.getVisibility().equals(fb.getVisibility()) || fa.isStatic() != fb.isStatic()) {
+                return false;
+            }
+        }
+        for (int i = 0; i < a.getMethods().size(); i++) {
+            Method ma = a.getMethods().get(i);
+            Method mb = b.getMethods().get(i);
+            if (!ma.equals(mb) || !ma.getVisibility().equals(mb.getVisibility()) || ma.isStatic() != mb.isStatic()
+                    || ma.getParameters().size() != mb.getParameters().size()) {
+                return false;
+            }
+            for (int k = 0; k < ma.getParameters().size(); k++) {
+                if (!ma.getParameters().get(k).getType().equals(mb.getParameters().get(k).getType())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    
+    public List<ClassNode> getAddedClasses() {
+        return addedClasses;
+    }
+    
+    public List<ClassNode> getRemovedClasses() {
+        return removedClasses;
+    }
+    
+    public List<ClassNode> getChangedClasses() {
+        return changedClasses;
+    }
+    
+    public List<Relation> getAddedRelations() {
+        return addedRelations;
+    }
+    
+    public List<Relation> getRemovedRelations() {
+        return removedRelations;
+    }
+    
+    public List<Relation> getChangedRelations() {
+        return changedRelations;
+    }
+    
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+    
+    /**
+     * Total number of operations
+     */
+    public int size() {
+        return addedClasses.size() + removedClasses.size() + changedClasses.size()
+            + addedRelations.size() + removedRelations.size() + changedRelations.size();
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("IRDiff[classes +%d -%d ~%d, relations +%d -%d ~%d]",
+            addedClasses.size(), removedClasses.size(), changedClasses.size(),
+            addedRelations.size(), removedRelations.size(), changedRelations.size());
+    }
+}
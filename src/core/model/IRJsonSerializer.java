@@ -1,10 +1,19 @@
 package core.model;
 
+import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.lang.reflect.Type;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonSerializationContext;
+import com.google.gson.JsonSerializer;
+
+import core.diagnostics.PipelineStats;
+import core.diagnostics.SerializationEvent;
 
 /**
  * Serializer to convert IR to JSON for debugging.
@@ -15,41 +24,83 @@ public class IRJsonSerializer {
     private Gson gson;
     
     public IRJsonSerializer() {
-        this.gson = new GsonBuilder().setPrettyPrinting().create();
+        this.gson = new GsonBuilder()
+            .registerTypeAdapter(ClassNode.class, new ClassNodeSerializer())
+            .setPrettyPrinting()
+            .create();
     }
     
     /**
      * Convert IR to JSON string
      */
     public String toJson(IntermediateRepresentation ir) {
-        return gson.toJson(ir.getAllClasses());
+        long start = PipelineStats.start();
+        SerializationEvent event = new SerializationEvent();
+        event.begin();
+        String json = gson.toJson(ir.getAllClasses());
+        PipelineStats.stop(PipelineStats.Stage.SERIALIZE, start);
+        commit(event, ir, false, "", json.length());
+        return json;
     }
     
     /**
      * Convert IR with relations to JSON string
      */
     public String toJsonWithRelations(IntermediateRepresentation ir) {
+        long start = PipelineStats.start();
+        SerializationEvent event = new SerializationEvent();
+        event.begin();
         IRSnapshot snapshot = new IRSnapshot(ir.getAllClasses(), ir.getAllRelations());
-        return gson.toJson(snapshot);
+        String json = gson.toJson(snapshot);
+        PipelineStats.stop(PipelineStats.Stage.SERIALIZE, start);
+        commit(event, ir, true, "", json.length());
+        return json;
     }
     
     /**
      * Save IR to JSON file
      */
     public void saveToFile(IntermediateRepresentation ir, String filePath) throws IOException {
+        long start = PipelineStats.start();
+        SerializationEvent event = new SerializationEvent();
+        event.begin();
         try (FileWriter writer = new FileWriter(filePath)) {
             gson.toJson(ir.getAllClasses(), writer);
         }
+        PipelineStats.stop(PipelineStats.Stage.SERIALIZE, start);
+        commit(event, ir, false, filePath, -1);
     }
     
     /**
      * Save IR with relations to JSON file
      */
     public void saveToFileWithRelations(IntermediateRepresentation ir, String filePath) throws IOException {
+        long start = PipelineStats.start();
+        SerializationEvent event = new SerializationEvent();
+        event.begin();
         try (FileWriter writer = new FileWriter(filePath)) {
             IRSnapshot snapshot = new IRSnapshot(ir.getAllClasses(), ir.getAllRelations());
             gson.toJson(snapshot, writer);
         }
+        PipelineStats.stop(PipelineStats.Stage.SERIALIZE, start);
+        commit(event, ir, true, filePath, -1);
+    }
+    
+    /**
+     * Fill in and commit a serialization event if JFR records it; a negative
+     * size means the size of the target file
+     */
+    private void commit(SerializationEvent event, IntermediateRepresentation ir, boolean withRelations,
+                        String target, long size) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.serializer = getClass().getSimpleName();
+            event.target = target;
+            event.classes = ir.getAllClasses().size();
+            event.relations = withRelations ? ir.getAllRelations().size() : 0;
+            event.size = size >= 0 ? size : new File(target).length();
+            event.commit();
+        }
     }
     
     /**
@@ -60,6 +111,26 @@ public class IRJsonSerializer {
         System.out.println(toJsonWithRelations(ir));
     }
     
+    /**
+     * Writes a ClassNode through its getters, so lazy members are loaded and
+     * the JSON is the same as for a node that holds its members
+     */
+    private static class ClassNodeSerializer implements JsonSerializer<ClassNode> {
+        
+        @Override
+        public JsonElement serialize(ClassNode classNode, Type type, JsonSerializationContext context) {
+            JsonObject json = new JsonObject();
+            json.addProperty("id", classNode.getId());
+            json.addProperty("name", classNode.getName());
+            json.addProperty("type", classNode.getType());
+            json.addProperty("abstract", classNode.isAbstract());
+            json.add("fields", context.serialize(classNode.getFields()));
+            json.add("methods", context.serialize(classNode.getMethods()));
+            json.addProperty("packageName", classNode.getPackageName());
+            return json;
+        }
+    }
+    
     /**
      * Snapshot class for JSON serialization
      */
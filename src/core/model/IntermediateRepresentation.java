@@ -1,9 +1,16 @@
 package core.model;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+
+import core.diagnostics.PipelineStats;
 
 /**
  * Internal Representation (IR) container for all parsed classes and relations.
@@ -12,17 +19,106 @@ import java.util.Map;
 public class IntermediateRepresentation {
     private Map<String, ClassNode> classes;
     private List<Relation> relations;
+    private Map<String, Integer> relationIndex; // relation ID -> position in relations
+    private Map<String, Map<String, Relation>> outgoing; // source ID -> relation ID -> relation
+    private Map<String, Map<String, Relation>> incoming; // target ID -> relation ID -> relation
+    private Map<String, Set<String>> classesByPackage; // package -> class IDs
+    private Map<String, Set<Relation>> relationsByType;
+    private List<IRChangeListener> listeners;
+    private volatile boolean frozen;
     
     public IntermediateRepresentation() {
         this.classes = new HashMap<>();
         this.relations = new ArrayList<>();
+        this.relationIndex = new HashMap<>();
+        this.outgoing = new HashMap<>();
+        this.incoming = new HashMap<>();
+        this.classesByPackage = new HashMap<>();
+        this.relationsByType = new HashMap<>();
+        this.listeners = new ArrayList<>();
+    }
+    
+    /**
+     * Register a listener notified after classes or relations are added or removed
+     */
+    public void addChangeListener(IRChangeListener listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeChangeListener(IRChangeListener listener) {
+        listeners.remove(listener);
+    }
+    
+    /**
+     * Make the set of classes and relations read-only; later adds and removes
+     * throw IllegalStateException. Used before an IR is handed to other
+     * threads. The ClassNode and Relation objects themselves stay mutable, so
+     * readers must not change them either.
+     */
+    public IntermediateRepresentation freeze() {
+        this.frozen = true;
+        return this;
+    }
+    
+    public boolean isFrozen() {
+        return frozen;
+    }
+    
+    private void checkMutable() {
+        if (frozen) {
+            throw new IllegalStateException("IR is frozen");
+        }
     }
     
     /**
      * Add a class to the IR
      */
     public void addClass(ClassNode classNode) {
-        this.classes.put(classNode.getId(), classNode);
+        checkMutable();
+        ClassNode previous = this.classes.put(classNode.getId(), classNode);
+        if (previous == classNode) {
+            return;
+        }
+        if (previous != null) {
+            removeFromPackageIndex(previous);
+        }
+        classesByPackage.computeIfAbsent(classNode.getPackageName(), k -> new LinkedHashSet<>()).add(classNode.getId());
+        for (IRChangeListener listener : listeners) {
+            if (previous != null) {
+                listener.classRemoved(previous);
+            }
+            listener.classAdded(classNode);
+        }
+    }
+    
+    /**
+     * Remove a class and every relation from or to it
+     */
+    public ClassNode removeClass(String id) {
+        checkMutable();
+        ClassNode removed = classes.get(id);
+        if (removed == null) {
+            return null;
+        }
+        for (Relation rel : getRelationsForClass(id)) {
+            removeRelation(rel);
+        }
+        classes.remove(id);
+        removeFromPackageIndex(removed);
+        for (IRChangeListener listener : listeners) {
+            listener.classRemoved(removed);
+        }
+        return removed;
+    }
+    
+    private void removeFromPackageIndex(ClassNode classNode) {
+        Set<String> ids = classesByPackage.get(classNode.getPackageName());
+        if (ids != null) {
+            ids.remove(classNode.getId());
+            if (ids.isEmpty()) {
+                classesByPackage.remove(classNode.getPackageName());
+            }
+        }
     }
     
     /**
@@ -33,35 +129,147 @@ public class IntermediateRepresentation {
     }
     
     /**
-     * Get all classes
+     * Get all classes, as a read-only view
      */
     public Map<String, ClassNode> getAllClasses() {
-        return classes;
+        return Collections.unmodifiableMap(classes);
+    }
+    
+    /**
+     * Names of all packages that contain at least one class
+     */
+    public Set<String> getPackageNames() {
+        return Collections.unmodifiableSet(classesByPackage.keySet());
+    }
+    
+    /**
+     * IDs of the classes in a package (not including subpackages)
+     */
+    public Set<String> getClassIdsInPackage(String packageName) {
+        return Collections.unmodifiableSet(classesByPackage.getOrDefault(packageName, Collections.emptySet()));
     }
     
     /**
      * Add a relation between two classes
      */
     public void addRelation(Relation relation) {
-        if (!relations.contains(relation)) {
+        checkMutable();
+        if (relationIndex.putIfAbsent(relation.getId(), relations.size()) == null) {
             this.relations.add(relation);
+            outgoing.computeIfAbsent(relation.getSourceId(), k -> new LinkedHashMap<>()).put(relation.getId(), relation);
+            incoming.computeIfAbsent(relation.getTargetId(), k -> new LinkedHashMap<>()).put(relation.getId(), relation);
+            relationsByType.computeIfAbsent(relation.getType(), k -> new LinkedHashSet<>()).add(relation);
+            for (IRChangeListener listener : listeners) {
+                listener.relationAdded(relation);
+            }
+            PipelineStats.count(PipelineStats.Counter.RELATIONS_ADDED);
+        } else {
+            PipelineStats.count(PipelineStats.Counter.RELATIONS_DEDUPED);
+        }
+    }
+    
+    /**
+     * Add a relation, or if an equal one (same ID) is present, add this
+     * relation's multiplicity to it. Returns the relation held by the IR.
+     */
+    public Relation mergeRelation(Relation relation) {
+        checkMutable();
+        Integer index = relationIndex.get(relation.getId());
+        if (index == null) {
+            addRelation(relation);
+            return relation;
+        }
+        Relation existing = relations.get(index);
+        existing.setMultiplicity(existing.getMultiplicity() + relation.getMultiplicity());
+        for (IRChangeListener listener : listeners) {
+            listener.relationChanged(existing);
+        }
+        PipelineStats.count(PipelineStats.Counter.RELATIONS_DEDUPED);
+        return existing;
+    }
+    
+    /**
+     * Add a relation, or if an equal one (same ID) is present, set its
+     * multiplicity to this relation's, so adding the same result again
+     * changes nothing. Returns the relation held by the IR.
+     */
+    public Relation putRelation(Relation relation) {
+        checkMutable();
+        Integer index = relationIndex.get(relation.getId());
+        if (index == null) {
+            addRelation(relation);
+            return relation;
+        }
+        Relation existing = relations.get(index);
+        if (existing.getMultiplicity() != relation.getMultiplicity()) {
+            existing.setMultiplicity(relation.getMultiplicity());
+            for (IRChangeListener listener : listeners) {
+                listener.relationChanged(existing);
+            }
+        }
+        PipelineStats.count(PipelineStats.Counter.RELATIONS_DEDUPED);
+        return existing;
+    }
+    
+    /**
+     * Remove a relation in constant time; the last relation takes its place
+     * in getAllRelations(). Returns false if it was not part of the IR.
+     */
+    public boolean removeRelation(Relation relation) {
+        checkMutable();
+        Integer index = relationIndex.remove(relation.getId());
+        if (index == null) {
+            return false;
+        }
+        Relation last = relations.remove(relations.size() - 1);
+        if (index < relations.size()) {
+            relations.set(index, last);
+            relationIndex.put(last.getId(), index);
+        }
+        removeFromIndex(outgoing, relation.getSourceId(), relation);
+        removeFromIndex(incoming, relation.getTargetId(), relation);
+        Set<Relation> sameType = relationsByType.get(relation.getType());
+        sameType.remove(relation);
+        if (sameType.isEmpty()) {
+            relationsByType.remove(relation.getType());
+        }
+        for (IRChangeListener listener : listeners) {
+            listener.relationRemoved(relation);
+        }
+        return true;
+    }
+    
+    private void removeFromIndex(Map<String, Map<String, Relation>> index, String classId, Relation relation) {
+        Map<String, Relation> byId = index.get(classId);
+        if (byId != null) {
+            byId.remove(relation.getId());
+            if (byId.isEmpty()) {
+                index.remove(classId);
+            }
         }
     }
     
     /**
-     * Get all relations
+     * Get all relations, as a read-only view
      */
     public List<Relation> getAllRelations() {
-        return relations;
+        return Collections.unmodifiableList(relations);
+    }
+    
+    /**
+     * Get all relations of one type, e.g. "composition"
+     */
+    public Collection<Relation> getRelationsByType(String type) {
+        return Collections.unmodifiableCollection(relationsByType.getOrDefault(type, Collections.emptySet()));
     }
     
     /**
      * Get relations for a specific class
      */
     public List<Relation> getRelationsForClass(String classId) {
-        List<Relation> result = new ArrayList<>();
-        for (Relation rel : relations) {
-            if (rel.getSourceId().equals(classId) || rel.getTargetId().equals(classId)) {
+        List<Relation> result = getOutgoingRelations(classId);
+        for (Relation rel : incoming.getOrDefault(classId, Map.of()).values()) {
+            if (!rel.getSourceId().equals(classId)) {
                 result.add(rel);
             }
         }
@@ -72,30 +280,18 @@ public class IntermediateRepresentation {
      * Get outgoing relations from a class (source relations)
      */
     public List<Relation> getOutgoingRelations(String classId) {
-        List<Relation> result = new ArrayList<>();
-        for (Relation rel : relations) {
-            if (rel.getSourceId().equals(classId)) {
-                result.add(rel);
-            }
-        }
-        return result;
+        return new ArrayList<>(outgoing.getOrDefault(classId, Map.of()).values());
     }
     
     /**
      * Get incoming relations to a class (target relations)
      */
     public List<Relation> getIncomingRelations(String classId) {
-        List<Relation> result = new ArrayList<>();
-        for (Relation rel : relations) {
-            if (rel.getTargetId().equals(classId)) {
-                result.add(rel);
-            }
-        }
-        return result;
+        return new ArrayList<>(incoming.getOrDefault(classId, Map.of()).values());
     }
     
     @Override
     public String toString() {
         return String.format("IR[classes=%d, relations=%d]", classes.size(), relations.size());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,129 @@
+package core.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import core.diagnostics.PipelineStats;
+
+/**
+ * Bounded LRU of materialized member lists, shared by the lazy ClassNodes of
+ * one or more IRs. Members are loaded on the first access after the class was
+ * evicted, so only the classes the user is looking at are kept in memory.
+ * Handles that do not resolve yield no members and are not cached.
+ */
+public class MemberCache {
+    
+    public static final int DEFAULT_CAPACITY = 2000;
+    
+    private final MemberLoader loader;
+    private final int capacity;
+    private final LinkedHashMap<String, ClassMembers> entries;
+    private long hits;
+    private long misses;
+    
+    public MemberCache(MemberLoader loader) {
+        this(loader, DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * @param capacity maximum number of classes whose members are kept
+     */
+    public MemberCache(MemberLoader loader, int capacity) {
+        this.loader = loader;
+        this.capacity = Math.max(1, capacity);
+        this.entries = new LinkedHashMap<String, ClassMembers>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ClassMembers> eldest) {
+                return size() > MemberCache.this.capacity;
+            }
+        };
+    }
+    
+    /**
+     * Members of a class, loading them if they are not cached
+     */
+    public ClassMembers get(String handle) {
+        synchronized (entries) {
+            ClassMembers members = entries.get(handle);
+            if (members != null) {
+                hits++;
+                PipelineStats.count(PipelineStats.Counter.MEMBER_CACHE_HITS);
+                return members;
+            }
+            misses++;
+            PipelineStats.count(PipelineStats.Counter.MEMBER_CACHE_MISSES);
+        }
+        // Loaded outside the lock, so slow loads do not block cached lookups
+        ClassMembers loaded = loader.load(handle);
+        if (loaded == null) {
+            return ClassMembers.EMPTY;
+        }
+        synchronized (entries) {
+            ClassMembers raced = entries.putIfAbsent(handle, loaded);
+            return raced != null ? raced : loaded;
+        }
+    }
+    
+    /**
+     * True if the members of a class are in memory
+     */
+    public boolean contains(String handle) {
+        synchronized (entries) {
+            return entries.containsKey(handle);
+        }
+    }
+    
+    /**
+     * Forget the members of a class, e.g. after its source changed
+     */
+    public void invalidate(String handle) {
+        synchronized (entries) {
+            entries.remove(handle);
+        }
+    }
+    
+    /**
+     * Forget the members of all classes whose handle starts with a prefix,
+     * e.g. all types of a compilation unit
+     */
+    public void invalidatePrefix(String handlePrefix) {
+        synchronized (entries) {
+            entries.keySet().removeIf(handle -> handle.startsWith(handlePrefix));
+        }
+    }
+    
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+    
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+    
+    public int getCapacity() {
+        return capacity;
+    }
+    
+    public long getHits() {
+        synchronized (entries) {
+            return hits;
+        }
+    }
+    
+    public long getMisses() {
+        synchronized (entries) {
+            return misses;
+        }
+    }
+    
+    @Override
+    public String toString() {
+        synchronized (entries) {
+            return String.format("MemberCache[%d of %d classes, %d hits, %d misses]", entries.size(), capacity, hits, misses);
+        }
+    }
+}
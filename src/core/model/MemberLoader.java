@@ -0,0 +1,14 @@
+package core.model;
+
+/**
+ * Source of the members of lazily loaded ClassNodes, keyed by the handle the
+ * node was created with (for JDT, the IType handle identifier)
+ */
+@FunctionalInterface
+public interface MemberLoader {
+    
+    /**
+     * Fields and methods of the class, or null if the handle no longer resolves
+     */
+    ClassMembers load(String handle);
+}
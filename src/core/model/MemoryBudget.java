@@ -0,0 +1,165 @@
+package core.model;
+
+/**
+ * Upper bound for the heap an IR may retain. apply() picks the finest
+ * ReductionLevel whose estimated footprint fits and reduces the IR to it. The
+ * level is chosen afresh for every IR, so a narrower scope gets its detail
+ * back on the next refresh.
+ */
+public class MemoryBudget {
+    
+    private final long budgetBytes;
+    private final FootprintEstimator estimator = new FootprintEstimator();
+    
+    public MemoryBudget(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+    }
+    
+    /**
+     * Budget that every IR fits
+     */
+    public static MemoryBudget unlimited() {
+        return new MemoryBudget(Long.MAX_VALUE);
+    }
+    
+    /**
+     * Budget of a share (0..1) of the maximum heap
+     */
+    public static MemoryBudget fractionOfHeap(double fraction) {
+        return new MemoryBudget((long) (Runtime.getRuntime().maxMemory() * fraction));
+    }
+    
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+    
+    public FootprintEstimator getEstimator() {
+        return estimator;
+    }
+    
+    /**
+     * Finest level whose estimate fits the budget; PACKAGE_SUMMARY if none does
+     */
+    public ReductionLevel chooseLevel(IntermediateRepresentation ir) {
+        return chooseLevel(estimator.estimateMemberLevels(ir));
+    }
+    
+    /**
+     * Reduce an IR to the finest level that fits. At FULL the given IR itself
+     * is returned; otherwise a new IR, which shares the relations and, for the
+     * member levels, nothing else with the given one.
+     */
+    public DegradationReport apply(IntermediateRepresentation ir) {
+        long[] estimates = estimator.estimateMemberLevels(ir);
+        long fullBytes = estimates[ReductionLevel.FULL.ordinal()];
+        if (fullBytes <= budgetBytes) {
+            return new DegradationReport(ir, ReductionLevel.FULL, budgetBytes, fullBytes, fullBytes, 0, 0, 0);
+        }
+        ReductionLevel level = chooseLevel(estimates);
+        long bytes = level == ReductionLevel.PACKAGE_SUMMARY
+            ? estimator.estimate(ir, level) : estimates[level.ordinal()];
+        
+        int droppedFields = 0;
+        int droppedMethods = 0;
+        int unloadedClasses = 0;
+        for (ClassNode classNode : ir.getAllClasses().values()) {
+            if (!classNode.areMembersLoaded()) {
+                // Counting would load them; they are reduced when they are loaded
+                unloadedClasses++;
+                continue;
+            }
+            for (Field field : classNode.getFields()) {
+                droppedFields += level.keepsMember(field.getVisibility()) ? 0 : 1;
+            }
+            for (Method method : classNode.getMethods()) {
+                droppedMethods += level.keepsMember(method.getVisibility()) ? 0 : 1;
+            }
+        }
+        IntermediateRepresentation reduced = level == ReductionLevel.PACKAGE_SUMMARY
+            ? summarizePackages(ir) : dropMembers(ir, level);
+        int summarizedClasses = level == ReductionLevel.PACKAGE_SUMMARY ? ir.getAllClasses().size() : 0;
+        return new DegradationReport(reduced, level, budgetBytes, fullBytes, bytes, droppedFields, droppedMethods,
+            unloadedClasses, summarizedClasses);
+    }
+    
+    private ReductionLevel chooseLevel(long[] estimates) {
+        for (int level = 0; level < estimates.length; level++) {
+            if (estimates[level] <= budgetBytes) {
+                return ReductionLevel.values()[level];
+            }
+        }
+        return ReductionLevel.PACKAGE_SUMMARY;
+    }
+    
+    private static IntermediateRepresentation dropMembers(IntermediateRepresentation ir, ReductionLevel level) {
+        IntermediateRepresentation reduced = new IntermediateRepresentation();
+        for (ClassNode classNode : ir.getAllClasses().values()) {
+            ClassNode copy = new ClassNode(classNode.getName(), classNode.getType(), classNode.getPackageName());
+            copy.setAbstract(classNode.isAbstract());
+            if (classNode.hasLazyMembers()) {
+                // Lazy members are not retained; they are reduced as they are loaded
+                if (level == ReductionLevel.NO_PRIVATE) {
+                    copy.setLazyMembers(classNode.getMemberHandle(), classNode.getMemberCache(), level);
+                }
+                reduced.addClass(copy);
+                continue;
+            }
+            for (Field field : classNode.getFields()) {
+                if (level.keepsMember(field.getVisibility())) {
+                    copy.addField(field);
+                }
+            }
+            for (Method method : classNode.getMethods()) {
+                if (level.keepsMember(method.getVisibility())) {
+                    copy.addMethod(method);
+                }
+            }
+            reduced.addClass(copy);
+        }
+        for (Relation relation : ir.getAllRelations()) {
+            reduced.addRelation(relation);
+        }
+        return reduced;
+    }
+    
+    /**
+     * One node of type PACKAGE_TYPE per package, with the package name as
+     * ID. Relations are redirected to the packages of their ends and merged,
+     * adding up their multiplicity; relations within a package are dropped.
+     * External targets are summarized to the package part of their name.
+     */
+    private static IntermediateRepresentation summarizePackages(IntermediateRepresentation ir) {
+        IntermediateRepresentation summary = new IntermediateRepresentation();
+        for (String packageName : ir.getPackageNames()) {
+            summary.addClass(new ClassNode(DegradationReport.packageNodeId(packageName),
+                DegradationReport.PACKAGE_TYPE, ""));
+        }
+        for (Relation relation : ir.getAllRelations()) {
+            String source = packageOf(ir, relation.getSourceId());
+            String target = packageOf(ir, relation.getTargetId());
+            if (source.equals(target)) {
+                continue;
+            }
+            boolean external = summary.getClass(target) == null;
+            Relation merged = new Relation(source, target, relation.getType(), external);
+            merged.setMultiplicity(relation.getMultiplicity());
+            summary.mergeRelation(merged);
+        }
+        return summary;
+    }
+    
+    private static String packageOf(IntermediateRepresentation ir, String classId) {
+        ClassNode classNode = ir.getClass(classId);
+        if (classNode != null) {
+            return DegradationReport.packageNodeId(classNode.getPackageName());
+        }
+        int dot = classId.lastIndexOf('.');
+        return DegradationReport.packageNodeId(dot < 0 ? "" : classId.substring(0, dot));
+    }
+    
+    @Override
+    public String toString() {
+        return budgetBytes == Long.MAX_VALUE ? "MemoryBudget[unlimited]"
+            : String.format("MemoryBudget[%d MB]", budgetBytes / (1024 * 1024));
+    }
+}
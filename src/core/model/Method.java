@@ -68,24 +68,3 @@ public class Method {
         return name.hashCode() + returnType.hashCode();
     }
 }
-
-/**
- * Internal Representation of a method parameter
- */
-class Parameter {
-    private String name;
-    private String type;
-    
-    public Parameter(String name, String type) {
-        this.name = name;
-        this.type = type;
-    }
-    
-    public String getName() {
-        return name;
-    }
-    
-    public String getType() {
-        return type;
-    }
-}
\ No newline at end of file
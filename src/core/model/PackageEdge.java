@@ -0,0 +1,118 @@
+package core.model;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Weighted package-to-package edge aggregating all class relations between two packages.
+ * The weight is the number of aggregated relations; counts are also kept per relation type.
+ */
+public class PackageEdge {
+    private String sourcePackage;
+    private String targetPackage;
+    private Map<String, Integer> typeCounts;
+    private Map<Relation, Integer> relations; // relation -> multiplicity counted in the sum
+    private int multiplicity;
+    
+    public PackageEdge(String sourcePackage, String targetPackage) {
+        this.sourcePackage = sourcePackage;
+        this.targetPackage = targetPackage;
+        this.typeCounts = new HashMap<>();
+        this.relations = new LinkedHashMap<>();
+    }
+    
+    public static String key(String sourcePackage, String targetPackage) {
+        return sourcePackage + "->" + targetPackage;
+    }
+    
+    public String getKey() {
+        return key(sourcePackage, targetPackage);
+    }
+    
+    public String getSourcePackage() {
+        return sourcePackage;
+    }
+    
+    public String getTargetPackage() {
+        return targetPackage;
+    }
+    
+    /**
+     * Total number of class relations collapsed into this edge
+     */
+    public int getWeight() {
+        return relations.size();
+    }
+    
+    /**
+     * Sum of the multiplicities of the collapsed relations, i.e. the number of
+     * declarations behind this edge
+     */
+    public int getMultiplicity() {
+        return multiplicity;
+    }
+    
+    /**
+     * Number of collapsed relations of the given type
+     */
+    public int getCount(String relationType) {
+        return typeCounts.getOrDefault(relationType, 0);
+    }
+    
+    public Map<String, Integer> getTypeCounts() {
+        return Collections.unmodifiableMap(typeCounts);
+    }
+    
+    /**
+     * Class relations behind this edge, for drill-down
+     */
+    public Set<Relation> getRelations() {
+        return Collections.unmodifiableSet(relations.keySet());
+    }
+    
+    /**
+     * True for relations between classes of the same package
+     */
+    public boolean isSelfLoop() {
+        return sourcePackage.equals(targetPackage);
+    }
+    
+    void add(Relation relation) {
+        if (relations.putIfAbsent(relation, relation.getMultiplicity()) == null) {
+            typeCounts.merge(relation.getType(), 1, Integer::sum);
+            multiplicity += relation.getMultiplicity();
+        }
+    }
+    
+    /**
+     * Remove a relation with the multiplicity it was counted with; the
+     * removed relation may be a copy whose multiplicity is unknown
+     */
+    void remove(Relation relation) {
+        Integer counted = relations.remove(relation);
+        if (counted != null) {
+            typeCounts.computeIfPresent(relation.getType(), (type, count) -> count > 1 ? count - 1 : null);
+            multiplicity -= counted;
+        }
+    }
+    
+    /**
+     * Apply the change of a relation's multiplicity, e.g. after it was merged into
+     */
+    void updateMultiplicity(Relation relation) {
+        Integer counted = relations.get(relation);
+        if (counted != null) {
+            multiplicity += relation.getMultiplicity() - counted;
+            relations.put(relation, relation.getMultiplicity());
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("PackageEdge[%s --%d--> %s %s]", 
+            sourcePackage, getWeight(), targetPackage, typeCounts);
+    }
+}
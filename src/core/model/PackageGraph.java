@@ -0,0 +1,183 @@
+package core.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Package-level aggregate of an IR. Class relations are collapsed into
+ * weighted package-to-package edges with per-type counts. The graph listens
+ * to the IR and is updated in constant time per added or removed class or relation.
+ */
+public class PackageGraph implements IRChangeListener {
+    
+    private IntermediateRepresentation ir;
+    private Map<String, PackageNode> packages;
+    private Map<String, PackageEdge> edges;
+    private Map<String, PackageEdge> edgeByRelation; // relation ID -> edge it was counted in
+    private long version;
+    
+    public PackageGraph(IntermediateRepresentation ir) {
+        this.ir = ir;
+        this.packages = new LinkedHashMap<>();
+        this.edges = new LinkedHashMap<>();
+        this.edgeByRelation = new HashMap<>();
+        
+        for (ClassNode classNode : ir.getAllClasses().values()) {
+            classAdded(classNode);
+        }
+        for (Relation relation : ir.getAllRelations()) {
+            relationAdded(relation);
+        }
+        ir.addChangeListener(this);
+    }
+    
+    /**
+     * Stop tracking changes of the underlying IR
+     */
+    public void detach() {
+        ir.removeChangeListener(this);
+    }
+    
+    /**
+     * Incremented on every change, so renderers can skip redraws of an unchanged graph
+     */
+    public long getVersion() {
+        return version;
+    }
+    
+    public PackageNode getPackage(String name) {
+        return packages.get(name);
+    }
+    
+    public Collection<PackageNode> getPackages() {
+        return Collections.unmodifiableCollection(packages.values());
+    }
+    
+    public PackageEdge getEdge(String sourcePackage, String targetPackage) {
+        return edges.get(PackageEdge.key(sourcePackage, targetPackage));
+    }
+    
+    /**
+     * All package edges, including self loops for relations inside a package
+     */
+    public Collection<PackageEdge> getEdges() {
+        return Collections.unmodifiableCollection(edges.values());
+    }
+    
+    /**
+     * Class nodes of a package, for drill-down
+     */
+    public List<ClassNode> getClassesInPackage(String packageName) {
+        List<ClassNode> result = new ArrayList<>();
+        PackageNode node = packages.get(packageName);
+        if (node != null) {
+            for (String classId : node.getClassIds()) {
+                result.add(ir.getClass(classId));
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Class-level view of the given packages: their classes, the relations
+     * between them and their relations to external targets
+     */
+    public SubgraphView drillDown(Collection<String> packageNames) {
+        List<String> seeds = new ArrayList<>();
+        for (String packageName : packageNames) {
+            PackageNode node = packages.get(packageName);
+            if (node != null) {
+                seeds.addAll(node.getClassIds());
+            }
+        }
+        return new SubgraphView(ir, seeds, 0, TraversalRules.all());
+    }
+    
+    @Override
+    public void classAdded(ClassNode classNode) {
+        packageNode(classNode.getPackageName()).addClassId(classNode.getId());
+        version++;
+    }
+    
+    @Override
+    public void classRemoved(ClassNode classNode) {
+        PackageNode node = packages.get(classNode.getPackageName());
+        if (node != null) {
+            node.removeClassId(classNode.getId());
+            pruneIfUnused(node);
+        }
+        version++;
+    }
+    
+    @Override
+    public void relationAdded(Relation relation) {
+        String sourcePackage = packageOf(relation.getSourceId());
+        String targetPackage = packageOf(relation.getTargetId());
+        String key = PackageEdge.key(sourcePackage, targetPackage);
+        
+        PackageEdge edge = edges.get(key);
+        if (edge == null) {
+            edge = new PackageEdge(sourcePackage, targetPackage);
+            edges.put(key, edge);
+            packageNode(sourcePackage).adjustEdgeCount(1);
+            packageNode(targetPackage).adjustEdgeCount(1);
+        }
+        edge.add(relation);
+        edgeByRelation.put(relation.getId(), edge);
+        version++;
+    }
+    
+    @Override
+    public void relationRemoved(Relation relation) {
+        PackageEdge edge = edgeByRelation.remove(relation.getId());
+        if (edge == null) {
+            return;
+        }
+        edge.remove(relation);
+        if (edge.getWeight() == 0) {
+            edges.remove(edge.getKey());
+            for (String packageName : new String[] { edge.getSourcePackage(), edge.getTargetPackage() }) {
+                PackageNode node = packages.get(packageName);
+                node.adjustEdgeCount(-1);
+                pruneIfUnused(node);
+            }
+        }
+        version++;
+    }
+    
+    @Override
+    public void relationChanged(Relation relation) {
+        PackageEdge edge = edgeByRelation.get(relation.getId());
+        if (edge != null) {
+            edge.updateMultiplicity(relation);
+        }
+        version++;
+    }
+    
+    private PackageNode packageNode(String packageName) {
+        return packages.computeIfAbsent(packageName, PackageNode::new);
+    }
+    
+    private void pruneIfUnused(PackageNode node) {
+        if (node.isExternal() && node.getEdgeCount() == 0) {
+            packages.remove(node.getName());
+        }
+    }
+    
+    /**
+     * Package of a class ID; external targets fall back to the qualifier of their name
+     */
+    private String packageOf(String classId) {
+        ClassNode classNode = ir.getClass(classId);
+        if (classNode != null) {
+            return classNode.getPackageName();
+        }
+        int lastDot = classId.lastIndexOf('.');
+        return lastDot > 0 ? classId.substring(0, lastDot) : "";
+    }
+}
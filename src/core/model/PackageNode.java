@@ -0,0 +1,57 @@
+package core.model;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * A package in the package-level aggregate graph.
+ * Packages that only appear as relation targets have no classes and are external.
+ */
+public class PackageNode {
+    private String name;
+    private Set<String> classIds;
+    private int edgeCount;
+    
+    public PackageNode(String name) {
+        this.name = name;
+        this.classIds = new LinkedHashSet<>();
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * IDs of the project classes in this package
+     */
+    public Set<String> getClassIds() {
+        return Collections.unmodifiableSet(classIds);
+    }
+    
+    public boolean isExternal() {
+        return classIds.isEmpty();
+    }
+    
+    void addClassId(String classId) {
+        classIds.add(classId);
+    }
+    
+    void removeClassId(String classId) {
+        classIds.remove(classId);
+    }
+    
+    int getEdgeCount() {
+        return edgeCount;
+    }
+    
+    void adjustEdgeCount(int delta) {
+        edgeCount += delta;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("PackageNode[%s, classes=%d%s]", 
+            name, classIds.size(), isExternal() ? " (external)" : "");
+    }
+}
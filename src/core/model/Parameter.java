@@ -0,0 +1,22 @@
+package core.model;
+
+/**
+ * Internal Representation of a method parameter
+ */
+class Parameter {
+    private String name;
+    private String type;
+    
+    public Parameter(String name, String type) {
+        this.name = name;
+        this.type = type;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public String getType() {
+        return type;
+    }
+}
@@ -0,0 +1,31 @@
+package core.model;
+
+/**
+ * How much of the IR is kept when it does not fit the memory budget, from
+ * everything down to one node per package. Each level drops more than the
+ * one before.
+ */
+public enum ReductionLevel {
+    /** All classes, members and relations */
+    FULL("all members"),
+    /** Private fields and methods dropped */
+    NO_PRIVATE("private members dropped"),
+    /** All fields and methods dropped, classes and relations kept */
+    NO_MEMBERS("all members dropped"),
+    /** One node per package, relations merged between packages */
+    PACKAGE_SUMMARY("collapsed to packages");
+    
+    private final String description;
+    
+    ReductionLevel(String description) {
+        this.description = description;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public boolean keepsMember(String visibility) {
+        return this == FULL || (this == NO_PRIVATE && !"private".equals(visibility));
+    }
+}
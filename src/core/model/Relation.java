@@ -12,6 +12,7 @@ public class Relation {
     private String targetId;      // ID of target class
     private String type;          // "inheritance", "implements", "association", "aggregation", "composition"
     private boolean targetExternal; // true if target is external class
+    private int multiplicity = 1;   // number of fields or declarations merged into this relation
     
     public Relation(String sourceId, String targetId, String type) {
         this(sourceId, targetId, type, false);
@@ -49,10 +50,22 @@ public class Relation {
         this.targetExternal = external;
     }
     
+    /**
+     * How many declarations (e.g. fields) this relation stands for
+     */
+    public int getMultiplicity() {
+        return multiplicity;
+    }
+    
+    public void setMultiplicity(int multiplicity) {
+        this.multiplicity = multiplicity;
+    }
+    
     @Override
     public String toString() {
-        return String.format("Relation[%s --%s--> %s%s]", 
-            sourceId, type, targetId, targetExternal ? " (external)" : "");
+        return String.format("Relation[%s --%s--> %s%s%s]", 
+            sourceId, type, targetId, multiplicity > 1 ? " x" + multiplicity : "", 
+            targetExternal ? " (external)" : "");
     }
     
     @Override
@@ -0,0 +1,203 @@
+package core.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read view of the k-hop neighborhood around one or more seed classes.
+ * The neighborhood is computed on first access by walking the adjacency
+ * indexes of the base IR, so the cost depends on the size of the result,
+ * not on the size of the base IR. ClassNode and Relation instances are
+ * shared with the base IR, not copied.
+ */
+public class SubgraphView extends IntermediateRepresentation {
+    
+    private IntermediateRepresentation base;
+    private Set<String> seedIds;
+    private int hops;
+    private TraversalRules rules;
+    private boolean materialized;
+    
+    public SubgraphView(IntermediateRepresentation base, Collection<String> seedIds, int hops,
+            TraversalRules rules) {
+        if (hops < 0) {
+            throw new IllegalArgumentException("hops must not be negative: " + hops);
+        }
+        this.base = base;
+        this.seedIds = new LinkedHashSet<>(seedIds);
+        this.hops = hops;
+        this.rules = rules;
+    }
+    
+    /**
+     * Neighborhood of a single class following every relation type in both directions
+     */
+    public static SubgraphView neighborhood(IntermediateRepresentation base, String classId, int hops) {
+        return new SubgraphView(base, List.of(classId), hops, TraversalRules.all());
+    }
+    
+    /**
+     * Neighborhood of a single class using custom direction rules
+     */
+    public static SubgraphView neighborhood(IntermediateRepresentation base, String classId, int hops,
+            TraversalRules rules) {
+        return new SubgraphView(base, List.of(classId), hops, rules);
+    }
+    
+    public IntermediateRepresentation getBase() {
+        return base;
+    }
+    
+    public int getHops() {
+        return hops;
+    }
+    
+    /**
+     * Breadth-first walk from the seeds, then collect the relations between
+     * the visited classes plus relations to external targets.
+     */
+    private void materialize() {
+        if (materialized) {
+            return;
+        }
+        materialized = true;
+        
+        Set<String> visited = new LinkedHashSet<>();
+        List<String> frontier = new ArrayList<>();
+        for (String seedId : seedIds) {
+            if (base.getClass(seedId) != null && visited.add(seedId)) {
+                frontier.add(seedId);
+            }
+        }
+        
+        for (int depth = 0; depth < hops && !frontier.isEmpty(); depth++) {
+            List<String> next = new ArrayList<>();
+            for (String classId : frontier) {
+                for (Relation rel : base.getOutgoingRelations(classId)) {
+                    if (rules.followsOutgoing(rel.getType())) {
+                        visit(rel.getTargetId(), visited, next);
+                    }
+                }
+                for (Relation rel : base.getIncomingRelations(classId)) {
+                    if (rules.followsIncoming(rel.getType())) {
+                        visit(rel.getSourceId(), visited, next);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        
+        for (String classId : visited) {
+            super.addClass(base.getClass(classId));
+        }
+        for (String classId : visited) {
+            for (Relation rel : base.getOutgoingRelations(classId)) {
+                String targetId = rel.getTargetId();
+                if (visited.contains(targetId) || base.getClass(targetId) == null) {
+                    super.addRelation(rel);
+                }
+            }
+        }
+    }
+    
+    private void visit(String classId, Set<String> visited, List<String> next) {
+        // External targets have no ClassNode and are never expanded
+        if (base.getClass(classId) != null && visited.add(classId)) {
+            next.add(classId);
+        }
+    }
+    
+    @Override
+    public IntermediateRepresentation freeze() {
+        materialize();
+        return super.freeze();
+    }
+    
+    @Override
+    public void addClass(ClassNode classNode) {
+        materialize();
+        super.addClass(classNode);
+    }
+    
+    @Override
+    public ClassNode removeClass(String id) {
+        materialize();
+        return super.removeClass(id);
+    }
+    
+    @Override
+    public ClassNode getClass(String id) {
+        materialize();
+        return super.getClass(id);
+    }
+    
+    @Override
+    public Map<String, ClassNode> getAllClasses() {
+        materialize();
+        return super.getAllClasses();
+    }
+    
+    @Override
+    public Set<String> getPackageNames() {
+        materialize();
+        return super.getPackageNames();
+    }
+    
+    @Override
+    public Set<String> getClassIdsInPackage(String packageName) {
+        materialize();
+        return super.getClassIdsInPackage(packageName);
+    }
+    
+    @Override
+    public void addRelation(Relation relation) {
+        materialize();
+        super.addRelation(relation);
+    }
+    
+    @Override
+    public boolean removeRelation(Relation relation) {
+        materialize();
+        return super.removeRelation(relation);
+    }
+    
+    @Override
+    public List<Relation> getAllRelations() {
+        materialize();
+        return super.getAllRelations();
+    }
+    
+    @Override
+    public Collection<Relation> getRelationsByType(String type) {
+        materialize();
+        return super.getRelationsByType(type);
+    }
+    
+    @Override
+    public List<Relation> getRelationsForClass(String classId) {
+        materialize();
+        return super.getRelationsForClass(classId);
+    }
+    
+    @Override
+    public List<Relation> getOutgoingRelations(String classId) {
+        materialize();
+        return super.getOutgoingRelations(classId);
+    }
+    
+    @Override
+    public List<Relation> getIncomingRelations(String classId) {
+        materialize();
+        return super.getIncomingRelations(classId);
+    }
+    
+    @Override
+    public String toString() {
+        materialize();
+        return String.format("SubgraphView[seeds=%s, hops=%d, %s]", seedIds, hops, super.toString());
+    }
+}
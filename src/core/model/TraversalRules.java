@@ -0,0 +1,74 @@
+package core.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-relation-type direction rules used when walking the IR graph.
+ * A relation type without a rule is not followed.
+ */
+public class TraversalRules {
+    
+    public enum Direction {
+        OUTGOING, INCOMING, BOTH
+    }
+    
+    private Map<String, Direction> directions;
+    
+    public TraversalRules() {
+        this.directions = new HashMap<>();
+    }
+    
+    /**
+     * Rules that follow every known relation type in both directions
+     */
+    public static TraversalRules all() {
+        return new TraversalRules()
+            .follow("inheritance", Direction.BOTH)
+            .follow("implements", Direction.BOTH)
+            .follow("association", Direction.BOTH)
+            .follow("aggregation", Direction.BOTH)
+            .follow("composition", Direction.BOTH);
+    }
+    
+    /**
+     * Rules that only follow the type hierarchy (supertypes and subtypes)
+     */
+    public static TraversalRules hierarchy() {
+        return new TraversalRules()
+            .follow("inheritance", Direction.BOTH)
+            .follow("implements", Direction.BOTH);
+    }
+    
+    /**
+     * Follow relations of the given type in the given direction
+     */
+    public TraversalRules follow(String relationType, Direction direction) {
+        directions.put(relationType, direction);
+        return this;
+    }
+    
+    /**
+     * Stop following relations of the given type
+     */
+    public TraversalRules ignore(String relationType) {
+        directions.remove(relationType);
+        return this;
+    }
+    
+    /**
+     * Whether a relation of this type is followed from its source to its target
+     */
+    public boolean followsOutgoing(String relationType) {
+        Direction direction = directions.get(relationType);
+        return direction == Direction.OUTGOING || direction == Direction.BOTH;
+    }
+    
+    /**
+     * Whether a relation of this type is followed from its target back to its source
+     */
+    public boolean followsIncoming(String relationType) {
+        Direction direction = directions.get(relationType);
+        return direction == Direction.INCOMING || direction == Direction.BOTH;
+    }
+}
@@ -0,0 +1,141 @@
+package core.model.test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import core.model.ClassMembers;
+import core.model.ClassNode;
+import core.model.Field;
+import core.model.IRDiff;
+import core.model.IntermediateRepresentation;
+import core.model.MemberCache;
+import core.model.Relation;
+
+/**
+ * Unit tests for IR snapshot diffing
+ */
+public class IRDiffTest {
+
+    private IntermediateRepresentation before;
+
+    @Before
+    public void setUp() {
+        before = build();
+    }
+
+    private static IntermediateRepresentation build() {
+        IntermediateRepresentation ir = new IntermediateRepresentation();
+        ClassNode account = new ClassNode("Account", "class", "bank");
+        account.addField(new Field("balance", "long", "private", false));
+        ir.addClass(account);
+        ir.addClass(new ClassNode("Customer", "class", "bank"));
+        ir.addClass(new ClassNode("Audit", "class", "bank"));
+        ir.addRelation(new Relation("bank.Customer", "bank.Account", "association"));
+        ir.addRelation(new Relation("bank.Account", "java.util.List", "aggregation", true));
+        return ir;
+    }
+
+    /**
+     * Test Case 1: Identical snapshots built separately have no difference
+     */
+    @Test
+    public void testNoChanges() {
+        IRDiff diff = IRDiff.between(before, build());
+
+        assertTrue(diff.isEmpty());
+    }
+
+    /**
+     * Test Case 2: Added, removed and changed classes and relations are reported
+     */
+    @Test
+    public void testChanges() {
+        IntermediateRepresentation after = build();
+        after.removeClass("bank.Audit");
+        after.addClass(new ClassNode("Branch", "class", "bank"));
+        ClassNode account = new ClassNode("Account", "class", "bank");
+        account.addField(new Field("balance", "java.math.BigDecimal", "private", false));
+        after.addClass(account);
+        after.addRelation(new Relation("bank.Branch", "bank.Account", "composition"));
+        after.removeRelation(new Relation("bank.Customer", "bank.Account", "association"));
+
+        IRDiff diff = IRDiff.between(before, after);
+
+        assertEquals(1, diff.getAddedClasses().size());
+        assertEquals("bank.Branch", diff.getAddedClasses().get(0).getId());
+        assertEquals(1, diff.getRemovedClasses().size());
+        assertEquals("bank.Audit", diff.getRemovedClasses().get(0).getId());
+        assertEquals(1, diff.getChangedClasses().size());
+        assertEquals(1, diff.getAddedRelations().size());
+        assertEquals(1, diff.getRemovedRelations().size());
+        assertEquals(5, diff.size());
+    }
+
+    /**
+     * Test Case 3: A relation whose target became internal is reported as changed
+     */
+    @Test
+    public void testChangedRelation() {
+        IntermediateRepresentation after = build();
+        after.removeRelation(new Relation("bank.Account", "java.util.List", "aggregation"));
+        after.addRelation(new Relation("bank.Account", "java.util.List", "aggregation", false));
+
+        IRDiff diff = IRDiff.between(before, after);
+
+        assertEquals(1, diff.getChangedRelations().size());
+        assertEquals(1, diff.size());
+    }
+
+    /**
+     * Test Case 4: A relation merged from another field is reported as changed
+     */
+    @Test
+    public void testChangedMultiplicity() {
+        IntermediateRepresentation after = build();
+        after.mergeRelation(new Relation("bank.Customer", "bank.Account", "association"));
+
+        IRDiff diff = IRDiff.between(before, after);
+
+        assertEquals(1, diff.getChangedRelations().size());
+        assertEquals(2, diff.getChangedRelations().get(0).getMultiplicity());
+    }
+
+    /**
+     * Test Case 5: Diff from nothing adds everything
+     */
+    @Test
+    public void testInitialDiff() {
+        IRDiff diff = IRDiff.between(null, before);
+
+        assertEquals(3, diff.getAddedClasses().size());
+        assertEquals(2, diff.getAddedRelations().size());
+    }
+
+    /**
+     * Test Case 6: Lazy nodes with the same handle are compared without
+     * loading their members
+     */
+    @Test
+    public void testLazyNodesNotLoaded() {
+        List<String> loads = new ArrayList<>();
+        MemberCache cache = new MemberCache(handle -> {
+            loads.add(handle);
+            return new ClassMembers(Collections.emptyList(), Collections.emptyList());
+        });
+        IntermediateRepresentation after = new IntermediateRepresentation();
+        for (IntermediateRepresentation ir : new IntermediateRepresentation[] { before, after }) {
+            ClassNode lazy = new ClassNode("Ledger", "class", "bank");
+            lazy.setLazyMembers("Ledger.java", cache);
+            ir.addClass(lazy);
+        }
+
+        assertTrue(IRDiff.between(before, after).getChangedClasses().isEmpty());
+        assertTrue(loads.isEmpty());
+    }
+}
@@ -213,4 +213,59 @@ public class IntermediateRepresentationTest {
         // Should only have 1 relation (duplicate prevented)
         assertEquals(1, ir.getAllRelations().size());
     }
+
+    /**
+     * Test Case 9: Frozen IR rejects changes but stays readable
+     */
+    @Test
+    public void testFreeze() {
+        ir.addClass(new ClassNode("ClassA", "class", "com.example"));
+        ir.freeze();
+
+        assertTrue(ir.isFrozen());
+        assertNotNull(ir.getClass("com.example.ClassA"));
+        try {
+            ir.addRelation(new Relation("com.example.ClassA", "com.example.ClassB", "association"));
+            fail("Frozen IR accepted a relation");
+        } catch (IllegalStateException expected) {
+            // expected
+        }
+        assertTrue(ir.getAllRelations().isEmpty());
+        try {
+            ir.getAllClasses().remove("com.example.ClassA");
+            fail("Class map of a frozen IR is writable");
+        } catch (UnsupportedOperationException expected) {
+            // expected
+        }
+        assertNotNull(ir.getClass("com.example.ClassA"));
+    }
+
+    /**
+     * Test Case 10: Merging an existing relation adds up its multiplicity
+     */
+    @Test
+    public void testMergeRelation() {
+        ir.addClass(new ClassNode("ClassA", "class", "com.example"));
+        ir.addClass(new ClassNode("ClassB", "class", "com.example"));
+        int[] changes = new int[1];
+        ir.addChangeListener(new core.model.IRChangeListener() {
+            public void classAdded(ClassNode classNode) { }
+            public void classRemoved(ClassNode classNode) { }
+            public void relationAdded(Relation relation) { }
+            public void relationRemoved(Relation relation) { }
+            public void relationChanged(Relation relation) {
+                changes[0]++;
+            }
+        });
+
+        Relation first = ir.mergeRelation(new Relation("com.example.ClassA", "com.example.ClassB", "composition"));
+        Relation second = ir.mergeRelation(new Relation("com.example.ClassA", "com.example.ClassB", "composition"));
+        ir.mergeRelation(new Relation("com.example.ClassA", "com.example.ClassB", "association"));
+
+        assertSame(first, second);
+        assertEquals(2, first.getMultiplicity());
+        assertEquals(2, ir.getAllRelations().size());
+        assertEquals(1, changes[0]);
+        assertTrue(serializer.toJsonWithRelations(ir).contains("\"multiplicity\": 2"));
+    }
 }
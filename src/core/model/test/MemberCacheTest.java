@@ -0,0 +1,133 @@
+package core.model.test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import core.model.ClassMembers;
+import core.model.ClassNode;
+import core.model.Field;
+import core.model.FootprintEstimator;
+import core.model.IRBuilder;
+import core.model.IRJsonSerializer;
+import core.model.IntermediateRepresentation;
+import core.model.MemberCache;
+import core.model.Method;
+import core.parser.ClassInfo;
+import core.parser.FieldInfo;
+import core.parser.MethodInfo;
+
+/**
+ * Unit tests for lazily loaded class members and their LRU cache
+ */
+public class MemberCacheTest {
+    
+    private List<String> loads;
+    private MemberCache cache;
+    
+    @Before
+    public void setUp() {
+        loads = new ArrayList<>();
+        cache = new MemberCache(handle -> {
+            loads.add(handle);
+            if (handle.startsWith("gone")) {
+                return null;
+            }
+            return new ClassMembers(
+                Arrays.asList(new Field("id", "long", "private", false)),
+                Arrays.asList(new Method("get" + handle, "void", "public", false)));
+        }, 2);
+    }
+    
+    private static ClassInfo parsedWithHandle(String name) {
+        ClassInfo classInfo = new ClassInfo(name, "class", "p");
+        classInfo.setHandle(name);
+        return classInfo;
+    }
+    
+    /**
+     * Test Case 1: Members are loaded on first access only
+     */
+    @Test
+    public void testLoadsOnFirstAccess() {
+        ClassNode classNode = new ClassNode("A", "class", "p");
+        classNode.setLazyMembers("A", cache);
+        assertTrue(loads.isEmpty());
+        assertFalse(classNode.areMembersLoaded());
+        
+        assertEquals("id", classNode.getFields().get(0).getName());
+        assertEquals("getA", classNode.getMethods().get(0).getName());
+        assertEquals(Collections.singletonList("A"), loads);
+        assertTrue(classNode.areMembersLoaded());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+    }
+    
+    /**
+     * Test Case 2: The least recently used classes are evicted and reloaded when read again
+     */
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        cache.get("A");
+        cache.get("B");
+        cache.get("A");
+        cache.get("C");
+        assertEquals(2, cache.size());
+        assertTrue(cache.contains("A"));
+        assertFalse(cache.contains("B"));
+        
+        cache.get("B");
+        assertEquals(Arrays.asList("A", "B", "C", "B"), loads);
+    }
+    
+    /**
+     * Test Case 3: Unresolvable handles give no members and are not cached
+     */
+    @Test
+    public void testUnresolvedHandle() {
+        assertSame(ClassMembers.EMPTY, cache.get("gone.A"));
+        assertFalse(cache.contains("gone.A"));
+    }
+    
+    /**
+     * Test Case 4: Adding a member turns a lazy node into one holding its members
+     */
+    @Test
+    public void testAddMemberMaterializes() {
+        ClassNode classNode = new ClassNode("A", "class", "p");
+        classNode.setLazyMembers("A", cache);
+        classNode.addField(new Field("name", "String"));
+        
+        assertFalse(classNode.hasLazyMembers());
+        assertEquals(2, classNode.getFields().size());
+        assertEquals(1, classNode.getMethods().size());
+    }
+    
+    /**
+     * Test Case 5: Lazy nodes serialize like eager ones, and only their handle counts toward the footprint
+     */
+    @Test
+    public void testLazyNodesSerializeAndEstimate() {
+        IntermediateRepresentation lazy = new IRBuilder().memberCache(cache)
+            .build(Arrays.asList(parsedWithHandle("A")));
+        
+        ClassInfo eagerInfo = new ClassInfo("A", "class", "p");
+        eagerInfo.addField(new FieldInfo("id", "long", "private", false));
+        eagerInfo.addMethod(new MethodInfo("getA", "void", "public", false));
+        IntermediateRepresentation eager = new IRBuilder().build(Arrays.asList(eagerInfo));
+        
+        assertTrue(lazy.getClass("p.A").hasLazyMembers());
+        FootprintEstimator estimator = new FootprintEstimator();
+        assertTrue(estimator.estimate(lazy) < estimator.estimate(eager));
+        assertTrue(loads.isEmpty());
+        
+        IRJsonSerializer serializer = new IRJsonSerializer();
+        assertEquals(serializer.toJsonWithRelations(eager), serializer.toJsonWithRelations(lazy));
+    }
+}
@@ -0,0 +1,156 @@
+package core.model.test;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import core.model.ClassMembers;
+import core.model.ClassNode;
+import core.model.DegradationReport;
+import core.model.Field;
+import core.model.FootprintEstimator;
+import core.model.IntermediateRepresentation;
+import core.model.MemberCache;
+import core.model.MemoryBudget;
+import core.model.Method;
+import core.model.ReductionLevel;
+import core.model.Relation;
+import core.parser.FilterSpec;
+
+/**
+ * Unit tests for the footprint estimate and the detail levels of the memory budget
+ */
+public class MemoryBudgetTest {
+    
+    private IntermediateRepresentation ir;
+    private FootprintEstimator estimator;
+    
+    @Before
+    public void setUp() {
+        ir = new IntermediateRepresentation();
+        for (String packageName : new String[] { "com.acme.order", "com.acme.billing" }) {
+            for (int i = 0; i < 20; i++) {
+                ClassNode classNode = new ClassNode("Type" + i, "class", packageName);
+                classNode.addField(new Field("id", "long", "private", false));
+                classNode.addField(new Field("name", "String", "public", false));
+                classNode.addMethod(new Method("validate", "boolean", "private", false));
+                classNode.addMethod(new Method("getName", "String", "public", false));
+                ir.addClass(classNode);
+            }
+        }
+        ir.addRelation(new Relation("com.acme.order.Type1", "com.acme.order.Type2", "composition"));
+        ir.addRelation(new Relation("com.acme.order.Type1", "com.acme.billing.Type1", "association"));
+        ir.addRelation(new Relation("com.acme.order.Type2", "com.acme.billing.Type3", "association"));
+        ir.addRelation(new Relation("com.acme.order.Type3", "java.lang.Thread", "inheritance", true));
+        estimator = new FootprintEstimator();
+    }
+    
+    /**
+     * Test Case 1: Every level is estimated smaller than the one before
+     */
+    @Test
+    public void testEstimateShrinksPerLevel() {
+        long previous = Long.MAX_VALUE;
+        for (ReductionLevel level : ReductionLevel.values()) {
+            long bytes = estimator.estimate(ir, level);
+            assertTrue(level + " should be smaller", bytes > 0 && bytes < previous);
+            previous = bytes;
+        }
+        assertEquals(0, estimator.estimate(new IntermediateRepresentation()));
+    }
+    
+    /**
+     * Test Case 2: An IR within the budget is returned as it is
+     */
+    @Test
+    public void testFitsBudget() {
+        DegradationReport report = MemoryBudget.unlimited().apply(ir);
+        assertSame(ir, report.getIR());
+        assertEquals(ReductionLevel.FULL, report.getLevel());
+        assertFalse(report.isDegraded());
+    }
+    
+    /**
+     * Test Case 3: Just below the full estimate, private members are dropped and relations kept
+     */
+    @Test
+    public void testDropPrivateMembers() {
+        DegradationReport report = new MemoryBudget(estimator.estimate(ir) - 1).apply(ir);
+        assertEquals(ReductionLevel.NO_PRIVATE, report.getLevel());
+        assertEquals(40, report.getDroppedFields());
+        assertEquals(40, report.getDroppedMethods());
+        ClassNode reduced = report.getIR().getClass("com.acme.order.Type1");
+        assertEquals(1, reduced.getFields().size());
+        assertEquals("name", reduced.getFields().get(0).getName());
+        assertEquals(1, reduced.getMethods().size());
+        assertEquals(4, report.getIR().getAllRelations().size());
+        assertEquals(2, ir.getClass("com.acme.order.Type1").getFields().size());
+        assertTrue(report.describe().contains("40 fields and 40 methods hidden"));
+    }
+    
+    /**
+     * Test Case 4: Without room for classes, the IR collapses to packages with merged relations
+     */
+    @Test
+    public void testPackageSummary() {
+        DegradationReport report = new MemoryBudget(estimator.estimate(ir, ReductionLevel.PACKAGE_SUMMARY)).apply(ir);
+        assertEquals(ReductionLevel.PACKAGE_SUMMARY, report.getLevel());
+        assertEquals(40, report.getSummarizedClasses());
+        
+        IntermediateRepresentation summary = report.getIR();
+        assertEquals(2, summary.getAllClasses().size());
+        assertEquals(DegradationReport.PACKAGE_TYPE, summary.getClass("com.acme.order").getType());
+        assertEquals(2, summary.getAllRelations().size());
+        Relation association = summary.getOutgoingRelations("com.acme.order").stream()
+            .filter(relation -> relation.getType().equals("association")).findFirst().get();
+        assertEquals("com.acme.billing", association.getTargetId());
+        assertEquals(2, association.getMultiplicity());
+        assertTrue(summary.getOutgoingRelations("com.acme.order").stream()
+            .anyMatch(relation -> relation.getTargetId().equals("java.lang") && relation.isTargetExternal()));
+    }
+    
+    /**
+     * Test Case 5: Narrowing the scope brings back full detail with the same budget
+     */
+    @Test
+    public void testNarrowScopeRestoresDetail() {
+        IntermediateRepresentation narrowed = new FilterSpec().includePackages("com.acme.billing").apply(ir);
+        MemoryBudget budget = new MemoryBudget(estimator.estimate(narrowed));
+        assertTrue(budget.apply(ir).isDegraded());
+        
+        DegradationReport report = budget.apply(narrowed);
+        assertEquals(ReductionLevel.FULL, report.getLevel());
+        assertEquals(2, report.getIR().getClass("com.acme.billing.Type1").getFields().size());
+    }
+    
+    /**
+     * Test Case 6: Lazy classes lose their private members when loaded, and
+     * only loaded ones are counted
+     */
+    @Test
+    public void testLazyMembersReduced() {
+        MemberCache cache = new MemberCache(handle -> new ClassMembers(
+            Arrays.asList(new Field("secret", "long", "private", false), new Field("label", "String", "public", false)),
+            Arrays.asList(new Method("check", "void", "private", false))));
+        for (String name : new String[] { "Loaded", "Unloaded" }) {
+            ClassNode lazy = new ClassNode(name, "class", "com.acme.lazy");
+            lazy.setLazyMembers(name, cache);
+            ir.addClass(lazy);
+        }
+        ir.getClass("com.acme.lazy.Loaded").getFields();
+        
+        DegradationReport report = new MemoryBudget(estimator.estimate(ir) - 1).apply(ir);
+        assertEquals(ReductionLevel.NO_PRIVATE, report.getLevel());
+        assertEquals(41, report.getDroppedFields());
+        assertEquals(41, report.getDroppedMethods());
+        assertEquals(1, report.getUnloadedClasses());
+        ClassNode reduced = report.getIR().getClass("com.acme.lazy.Unloaded");
+        assertEquals(1, reduced.getFields().size());
+        assertEquals("label", reduced.getFields().get(0).getName());
+        assertTrue(reduced.getMethods().isEmpty());
+        assertEquals(2, ir.getClass("com.acme.lazy.Unloaded").getFields().size());
+    }
+}
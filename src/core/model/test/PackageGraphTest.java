@@ -0,0 +1,121 @@
+package core.model.test;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import core.model.ClassNode;
+import core.model.IntermediateRepresentation;
+import core.model.PackageEdge;
+import core.model.PackageGraph;
+import core.model.Relation;
+import core.model.SubgraphView;
+
+/**
+ * Unit tests for the incrementally maintained package-level graph
+ */
+public class PackageGraphTest {
+
+    private IntermediateRepresentation ir;
+    private PackageGraph graph;
+
+    @Before
+    public void setUp() {
+        ir = new IntermediateRepresentation();
+        ir.addClass(new ClassNode("OrderService", "class", "com.acme.service"));
+        ir.addClass(new ClassNode("UserService", "class", "com.acme.service"));
+        ir.addClass(new ClassNode("OrderRepo", "interface", "com.acme.repo"));
+        ir.addRelation(new Relation("com.acme.service.OrderService", "com.acme.repo.OrderRepo", "composition"));
+        graph = new PackageGraph(ir);
+    }
+
+    /**
+     * Test Case 1: Existing IR content is aggregated on construction
+     */
+    @Test
+    public void testInitialAggregation() {
+        assertEquals(2, graph.getPackages().size());
+        assertEquals(2, graph.getPackage("com.acme.service").getClassIds().size());
+
+        PackageEdge edge = graph.getEdge("com.acme.service", "com.acme.repo");
+        assertNotNull(edge);
+        assertEquals(1, edge.getWeight());
+        assertEquals(1, edge.getCount("composition"));
+    }
+
+    /**
+     * Test Case 2: Relations added later update weights and per-type counts
+     */
+    @Test
+    public void testIncrementalRelationAdd() {
+        ir.addRelation(new Relation("com.acme.service.UserService", "com.acme.repo.OrderRepo", "association"));
+        ir.addRelation(new Relation("com.acme.service.UserService", "com.acme.service.OrderService", "association"));
+
+        PackageEdge edge = graph.getEdge("com.acme.service", "com.acme.repo");
+        assertEquals(2, edge.getWeight());
+        assertEquals(1, edge.getCount("association"));
+        assertTrue(graph.getEdge("com.acme.service", "com.acme.service").isSelfLoop());
+    }
+
+    /**
+     * Test Case 3: Removing a class removes its relations and empties edges
+     */
+    @Test
+    public void testIncrementalClassRemove() {
+        long before = graph.getVersion();
+        ir.removeClass("com.acme.repo.OrderRepo");
+
+        assertNull(graph.getEdge("com.acme.service", "com.acme.repo"));
+        assertNull(graph.getPackage("com.acme.repo"));
+        assertTrue(graph.getVersion() > before);
+        assertEquals(0, ir.getAllRelations().size());
+    }
+
+    /**
+     * Test Case 4: External targets create external package nodes that disappear with their edges
+     */
+    @Test
+    public void testExternalPackages() {
+        Relation external = new Relation("com.acme.service.OrderService", "java.util.List", "aggregation", true);
+        ir.addRelation(external);
+        assertTrue(graph.getPackage("java.util").isExternal());
+
+        ir.removeRelation(external);
+        assertNull(graph.getPackage("java.util"));
+    }
+
+    /**
+     * Test Case 5: Drill-down into a package yields its classes
+     */
+    @Test
+    public void testDrillDown() {
+        List<ClassNode> classes = graph.getClassesInPackage("com.acme.service");
+        assertEquals(2, classes.size());
+
+        SubgraphView view = graph.drillDown(List.of("com.acme.service", "com.acme.repo"));
+        assertEquals(3, view.getAllClasses().size());
+        assertEquals(1, view.getAllRelations().size());
+    }
+
+    /**
+     * Test Case 6: Merges and removals keep the multiplicity sum, also when a
+     * copy of a relation is removed
+     */
+    @Test
+    public void testMultiplicityDeltas() {
+        Relation merged = new Relation("com.acme.service.OrderService", "com.acme.repo.OrderRepo", "composition");
+        merged.setMultiplicity(2);
+        ir.mergeRelation(merged);
+        ir.addRelation(new Relation("com.acme.service.UserService", "com.acme.repo.OrderRepo", "association"));
+
+        PackageEdge edge = graph.getEdge("com.acme.service", "com.acme.repo");
+        assertEquals(4, edge.getMultiplicity());
+
+        ir.removeRelation(new Relation("com.acme.service.OrderService", "com.acme.repo.OrderRepo", "composition"));
+        assertEquals(1, edge.getMultiplicity());
+        assertEquals(1, edge.getWeight());
+    }
+}
@@ -0,0 +1,109 @@
+package core.model.test;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import core.model.ClassNode;
+import core.model.IntermediateRepresentation;
+import core.model.Relation;
+import core.model.SubgraphView;
+import core.model.TraversalRules;
+
+/**
+ * Unit tests for k-hop neighborhood subgraph views
+ */
+public class SubgraphViewTest {
+
+    private IntermediateRepresentation ir;
+
+    @Before
+    public void setUp() {
+        // Chain: A -> B -> C -> D, plus E implements B
+        ir = new IntermediateRepresentation();
+        for (String name : new String[] { "A", "B", "C", "D", "E" }) {
+            ir.addClass(new ClassNode(name, "class", "com.example"));
+        }
+        ir.addRelation(new Relation("com.example.A", "com.example.B", "association"));
+        ir.addRelation(new Relation("com.example.B", "com.example.C", "composition"));
+        ir.addRelation(new Relation("com.example.C", "com.example.D", "aggregation"));
+        ir.addRelation(new Relation("com.example.E", "com.example.B", "implements"));
+        ir.addRelation(new Relation("com.example.B", "java.util.List", "association", true));
+    }
+
+    /**
+     * Test Case 1: 1-hop neighborhood of B contains A, C and E
+     */
+    @Test
+    public void testOneHopNeighborhood() {
+        SubgraphView view = SubgraphView.neighborhood(ir, "com.example.B", 1);
+
+        assertEquals(4, view.getAllClasses().size());
+        assertNotNull(view.getClass("com.example.A"));
+        assertNotNull(view.getClass("com.example.C"));
+        assertNotNull(view.getClass("com.example.E"));
+        assertNull(view.getClass("com.example.D"));
+    }
+
+    /**
+     * Test Case 2: 2-hop neighborhood reaches D
+     */
+    @Test
+    public void testTwoHopNeighborhood() {
+        SubgraphView view = SubgraphView.neighborhood(ir, "com.example.A", 2);
+
+        assertEquals(4, view.getAllClasses().size());
+        assertNotNull(view.getClass("com.example.C"));
+        assertNull(view.getClass("com.example.D"));
+    }
+
+    /**
+     * Test Case 3: Nodes are shared with the base IR, not copied
+     */
+    @Test
+    public void testSharesClassNodes() {
+        SubgraphView view = SubgraphView.neighborhood(ir, "com.example.A", 1);
+
+        assertSame(ir.getClass("com.example.B"), view.getClass("com.example.B"));
+    }
+
+    /**
+     * Test Case 4: Only relations inside the view and to external targets are kept
+     */
+    @Test
+    public void testRelationsInsideView() {
+        SubgraphView view = SubgraphView.neighborhood(ir, "com.example.A", 1);
+
+        // A -> B and B -> java.util.List; B -> C leaves the view
+        assertEquals(2, view.getAllRelations().size());
+        assertEquals(1, view.getOutgoingRelations("com.example.A").size());
+        assertEquals(1, view.getOutgoingRelations("com.example.B").size());
+    }
+
+    /**
+     * Test Case 5: Direction rules restrict the walk
+     */
+    @Test
+    public void testDirectionRules() {
+        TraversalRules rules = new TraversalRules()
+            .follow("composition", TraversalRules.Direction.OUTGOING)
+            .follow("implements", TraversalRules.Direction.INCOMING);
+        SubgraphView view = SubgraphView.neighborhood(ir, "com.example.B", 3, rules);
+
+        // B -> C (composition), E -> B (implements, walked backwards); A and D are not reachable
+        assertEquals(3, view.getAllClasses().size());
+        assertNotNull(view.getClass("com.example.C"));
+        assertNotNull(view.getClass("com.example.E"));
+        assertNull(view.getClass("com.example.A"));
+    }
+
+    /**
+     * Test Case 6: Zero hops and unknown seeds
+     */
+    @Test
+    public void testZeroHopsAndUnknownSeed() {
+        assertEquals(1, SubgraphView.neighborhood(ir, "com.example.B", 0).getAllClasses().size());
+        assertEquals(0, SubgraphView.neighborhood(ir, "com.example.Missing", 2).getAllClasses().size());
+    }
+}
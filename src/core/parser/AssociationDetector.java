@@ -1,52 +1,103 @@
 package core.parser;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
 
 import org.eclipse.jdt.core.IField;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.Signature;
 
+import core.diagnostics.DetectorEvent;
+import core.diagnostics.PipelineStats;
 import core.model.ClassNode;
 import core.model.IntermediateRepresentation;
 import core.model.Relation;
 
 /**
  * Detects associations, aggregations, and compositions from field declarations.
+ * Several fields of the same target and kind are merged into one relation
+ * whose multiplicity is the number of fields. Fields are counted per run, so
+ * detecting the same types again leaves the IR unchanged.
  * Story 2-04: Detect associations/aggregation/composition
  */
 public class AssociationDetector {
     
     private IntermediateRepresentation ir;
     private List<ClassNode> projectClasses;
+    private FilterSpec filter;
+    private Map<String, ClassNode> classesByName;
+    private Map<String, Relation> found; // relation ID -> relation counted in this run
     
     public AssociationDetector(IntermediateRepresentation ir, List<ClassNode> projectClasses) {
+        this(ir, projectClasses, FilterSpec.all());
+    }
+    
+    public AssociationDetector(IntermediateRepresentation ir, List<ClassNode> projectClasses, FilterSpec filter) {
         this.ir = ir;
         this.projectClasses = projectClasses;
+        this.filter = filter;
     }
     
     /**
      * Detect associations for all types
      */
     public void detectAssociations(List<IType> types) throws JavaModelException {
+        if (!filter.acceptsAnyRelationType("association", "aggregation", "composition")) {
+            return;
+        }
+        long start = PipelineStats.start();
+        DetectorEvent event = new DetectorEvent();
+        event.relationsBefore = ir.getAllRelations().size();
+        event.begin();
+        indexProjectClasses();
+        found = new LinkedHashMap<>();
         for (IType type : types) {
-            detectFieldAssociations(type);
+            if (accepts(type)) {
+                detectFieldAssociations(type);
+            }
         }
+        for (Relation relation : found.values()) {
+            ir.putRelation(relation);
+        }
+        found = null;
+        PipelineStats.stop(PipelineStats.Stage.ASSOCIATION, start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.detector = getClass().getSimpleName();
+            event.types = types.size();
+            event.relationsAfter = ir.getAllRelations().size();
+            event.commit();
+        }
+    }
+    
+    /**
+     * Whether the filter keeps this type at all
+     */
+    private boolean accepts(IType type) throws JavaModelException {
+        return filter.acceptsPackage(type.getPackageFragment().getElementName())
+            && filter.acceptsKind(JavaClassParser.getTypeKind(type));
     }
     
     /**
      * Detect associations from fields of a type
      */
     private void detectFieldAssociations(IType type) throws JavaModelException {
-        for (IField field : type.getFields()) {
+        boolean aggregationWanted = filter.acceptsRelationType("aggregation");
+        boolean simpleWanted = filter.acceptsAnyRelationType("association", "composition");
+        IField[] fields = type.getFields();
+        PipelineStats.count(PipelineStats.Counter.FIELDS_SCANNED, fields.length);
+        for (IField field : fields) {
             String fieldType = Signature.toString(field.getTypeSignature());
             
             // Check if it's a collection
-            if (isCollection(fieldType)) {
-                detectAggregation(type, field, fieldType);
-            } else {
+            if (TypeNames.isCollection(fieldType)) {
+                if (aggregationWanted) {
+                    detectAggregation(type, field, fieldType);
+                }
+            } else if (simpleWanted) {
                 // Simple field type
                 detectSimpleAssociation(type, field, fieldType);
             }
@@ -59,7 +110,7 @@ public class AssociationDetector {
     private void detectSimpleAssociation(IType sourceType, IField field, String fieldType) 
             throws JavaModelException {
         // Extract simple class name
-        String className = extractClassName(fieldType);
+        String className = TypeNames.simpleName(fieldType);
         
         // Find if it's in project
         ClassNode targetClass = findClassInProject(className);
@@ -69,6 +120,9 @@ public class AssociationDetector {
         
         // Determine if it's composition or association
         String relationType = determineRelationType(sourceType, field);
+        if (!filter.acceptsRelationType(relationType)) {
+            return;
+        }
         
         Relation relation = new Relation(
             sourceType.getFullyQualifiedName(),
@@ -77,7 +131,7 @@ public class AssociationDetector {
             false
         );
         
-        ir.addRelation(relation);
+        count(relation);
     }
     
     /**
@@ -86,13 +140,13 @@ public class AssociationDetector {
     private void detectAggregation(IType sourceType, IField field, String fieldType) 
             throws JavaModelException {
         // Extract element type from collection (e.g., List<Foo> → Foo)
-        String elementType = extractCollectionElementType(fieldType);
+        String elementType = TypeNames.collectionElementType(fieldType);
         
         if (elementType == null) {
             return; // Could not extract element type
         }
         
-        String className = extractClassName(elementType);
+        String className = TypeNames.simpleName(elementType);
         
         // Find if it's in project
         ClassNode targetClass = findClassInProject(className);
@@ -107,7 +161,17 @@ public class AssociationDetector {
             false
         );
         
-        ir.addRelation(relation);
+        count(relation);
+    }
+    
+    /**
+     * Count one more field behind a relation of this run
+     */
+    private void count(Relation relation) {
+        Relation counted = found.putIfAbsent(relation.getId(), relation);
+        if (counted != null) {
+            counted.setMultiplicity(counted.getMultiplicity() + 1);
+        }
     }
     
     /**
@@ -129,53 +193,22 @@ public class AssociationDetector {
     }
     
     /**
-     * Check if a type is a collection (List, Set, Map, etc.)
+     * Find a class in the project by simple name; the first of several
+     * classes with the same name wins
      */
-    private boolean isCollection(String fieldType) {
-        return fieldType.contains("List") || 
-               fieldType.contains("Set") || 
-               fieldType.contains("Collection") ||
-               fieldType.contains("Map") ||
-               fieldType.contains("Queue") ||
-               fieldType.contains("Deque");
-    }
-    
-    /**
-     * Extract element type from collection (e.g., List<Foo> → Foo)
-     */
-    private String extractCollectionElementType(String fieldType) {
-        Pattern pattern = Pattern.compile("<(.+?)>");
-        Matcher matcher = pattern.matcher(fieldType);
-        
-        if (matcher.find()) {
-            return matcher.group(1);
-        }
-        
-        return null;
-    }
-    
-    /**
-     * Extract simple class name from type string
-     * e.g., "com.example.Foo" → "Foo"
-     */
-    private String extractClassName(String fieldType) {
-        // Remove generic parameters
-        String cleanType = fieldType.split("<")[0];
-        
-        // Get last part (simple name)
-        String[] parts = cleanType.split("\\.");
-        return parts[parts.length - 1];
+    private ClassNode findClassInProject(String className) {
+        ClassNode classNode = classesByName.get(className);
+        PipelineStats.count(classNode != null ? PipelineStats.Counter.LOOKUP_HITS : PipelineStats.Counter.LOOKUP_MISSES);
+        return classNode;
     }
     
     /**
-     * Find a class in the project by simple name
+     * Index the project classes by simple name, so each lookup is constant time
      */
-    private ClassNode findClassInProject(String className) {
+    private void indexProjectClasses() {
+        classesByName = new HashMap<>(projectClasses.size() * 2);
         for (ClassNode classNode : projectClasses) {
-            if (classNode.getName().equals(className)) {
-                return classNode;
-            }
+            classesByName.putIfAbsent(classNode.getName(), classNode);
         }
-        return null;
     }
 }
\ No newline at end of file
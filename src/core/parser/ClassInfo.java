@@ -8,14 +8,22 @@ public class ClassInfo {
     private String type; // "class", "interface", "enum"
     private List<FieldInfo> fields;
     private List<MethodInfo> methods;
+    private String packageName;
+    private boolean isAbstract;
+    private String handle; // set when members are left to be loaded on demand
     
     public ClassInfo(String name) {
         this(name, "class");
     }
     
     public ClassInfo(String name, String type) {
+        this(name, type, "");
+    }
+    
+    public ClassInfo(String name, String type, String packageName) {
         this.name = name;
         this.type = type;
+        this.packageName = packageName;
         this.fields = new ArrayList<>();
         this.methods = new ArrayList<>();
     }
@@ -28,6 +36,21 @@ public class ClassInfo {
         return type;
     }
     
+    public String getPackageName() {
+        return packageName;
+    }
+    
+    /**
+     * True for abstract classes and interfaces
+     */
+    public boolean isAbstract() {
+        return isAbstract;
+    }
+    
+    public void setAbstract(boolean isAbstract) {
+        this.isAbstract = isAbstract;
+    }
+    
     public List<FieldInfo> getFields() {
         return fields;
     }
@@ -44,6 +67,18 @@ public class ClassInfo {
         this.methods.add(method);
     }
     
+    /**
+     * JDT handle identifier of the type if its members were not parsed but
+     * left to be loaded on demand, else null
+     */
+    public String getHandle() {
+        return handle;
+    }
+    
+    public void setHandle(String handle) {
+        this.handle = handle;
+    }
+    
     @Override
     public String toString() {
         return String.format("%s %s (fields=%d, methods=%d)", 
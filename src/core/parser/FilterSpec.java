@@ -0,0 +1,207 @@
+package core.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import core.model.ClassNode;
+import core.model.Field;
+import core.model.IntermediateRepresentation;
+import core.model.Method;
+import core.model.Relation;
+
+/**
+ * Declarative scope of a parse: which packages, type kinds, member
+ * visibilities and relation types to extract, and whether relations to
+ * external targets are kept. The parser and detectors check it before doing
+ * the work, so excluded types, members and relations are never built.
+ * 
+ * Package globs: "com.acme" matches that package only, "com.acme.*" its
+ * direct subpackages and "com.acme.**" the package and all subpackages.
+ */
+public class FilterSpec {
+    
+    public static final List<String> ALL_VISIBILITIES = List.of("public", "protected", "package", "private");
+    public static final List<String> ALL_KINDS = List.of("class", "interface", "enum");
+    public static final List<String> ALL_RELATION_TYPES = 
+        List.of("inheritance", "implements", "association", "aggregation", "composition");
+    
+    private List<Pattern> includePackages;
+    private List<Pattern> excludePackages;
+    private Set<String> visibilities;
+    private Set<String> kinds;
+    private Set<String> relationTypes;
+    private boolean includeExternalTargets;
+    
+    public FilterSpec() {
+        this.includePackages = new ArrayList<>();
+        this.excludePackages = new ArrayList<>();
+        this.visibilities = new HashSet<>(ALL_VISIBILITIES);
+        this.kinds = new HashSet<>(ALL_KINDS);
+        this.relationTypes = new HashSet<>(ALL_RELATION_TYPES);
+        this.includeExternalTargets = true;
+    }
+    
+    /**
+     * Filter that accepts everything
+     */
+    public static FilterSpec all() {
+        return new FilterSpec();
+    }
+    
+    /**
+     * Only keep types in packages matching one of the globs
+     */
+    public FilterSpec includePackages(String... globs) {
+        for (String glob : globs) {
+            includePackages.add(packagePattern(glob));
+        }
+        return this;
+    }
+    
+    /**
+     * Drop types in packages matching one of the globs
+     */
+    public FilterSpec excludePackages(String... globs) {
+        for (String glob : globs) {
+            excludePackages.add(packagePattern(glob));
+        }
+        return this;
+    }
+    
+    /**
+     * Only keep fields and methods with these visibilities; none means no members at all
+     */
+    public FilterSpec visibilities(String... visibilities) {
+        this.visibilities = new HashSet<>(Arrays.asList(visibilities));
+        return this;
+    }
+    
+    /**
+     * Only keep types of these kinds ("class", "interface", "enum")
+     */
+    public FilterSpec kinds(String... kinds) {
+        this.kinds = new HashSet<>(Arrays.asList(kinds));
+        return this;
+    }
+    
+    /**
+     * Only detect relations of these types
+     */
+    public FilterSpec relationTypes(String... relationTypes) {
+        this.relationTypes = new HashSet<>(Arrays.asList(relationTypes));
+        return this;
+    }
+    
+    public FilterSpec includeExternalTargets(boolean include) {
+        this.includeExternalTargets = include;
+        return this;
+    }
+    
+    public boolean acceptsPackage(String packageName) {
+        if (!includePackages.isEmpty() && !matchesAny(includePackages, packageName)) {
+            return false;
+        }
+        return !matchesAny(excludePackages, packageName);
+    }
+    
+    public boolean acceptsKind(String kind) {
+        return kinds.contains(kind);
+    }
+    
+    public boolean acceptsVisibility(String visibility) {
+        return visibilities.contains(visibility);
+    }
+    
+    /**
+     * False if no member survives the visibility filter, so members need not be read
+     */
+    public boolean acceptsAnyMembers() {
+        return !visibilities.isEmpty();
+    }
+    
+    public boolean acceptsRelationType(String relationType) {
+        return relationTypes.contains(relationType);
+    }
+    
+    /**
+     * True if at least one of the given relation types is accepted
+     */
+    public boolean acceptsAnyRelationType(String... relationTypes) {
+        for (String relationType : relationTypes) {
+            if (acceptsRelationType(relationType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    public boolean includesExternalTargets() {
+        return includeExternalTargets;
+    }
+    
+    /**
+     * Filtered copy of an already built IR. ClassNodes are copied when members
+     * are dropped; this is the after-the-fact equivalent of pushing the filter
+     * into parsing.
+     */
+    public IntermediateRepresentation apply(IntermediateRepresentation ir) {
+        IntermediateRepresentation result = new IntermediateRepresentation();
+        for (ClassNode classNode : ir.getAllClasses().values()) {
+            if (!acceptsPackage(classNode.getPackageName()) || !acceptsKind(classNode.getType())) {
+                continue;
+            }
+            ClassNode copy = new ClassNode(classNode.getName(), classNode.getType(), classNode.getPackageName());
+            copy.setAbstract(classNode.isAbstract());
+            for (Field field : classNode.getFields()) {
+                if (acceptsVisibility(field.getVisibility())) {
+                    copy.addField(field);
+                }
+            }
+            for (Method method : classNode.getMethods()) {
+                if (acceptsVisibility(method.getVisibility())) {
+                    copy.addMethod(method);
+                }
+            }
+            result.addClass(copy);
+        }
+        for (Relation relation : ir.getAllRelations()) {
+            if (!acceptsRelationType(relation.getType()) || result.getClass(relation.getSourceId()) == null) {
+                continue;
+            }
+            boolean external = result.getClass(relation.getTargetId()) == null;
+            if (external && !includeExternalTargets) {
+                continue;
+            }
+            result.addRelation(relation);
+        }
+        return result;
+    }
+    
+    private static boolean matchesAny(List<Pattern> patterns, String packageName) {
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(packageName).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static Pattern packagePattern(String glob) {
+        if (glob.endsWith(".**")) {
+            String base = Pattern.quote(glob.substring(0, glob.length() - 3));
+            return Pattern.compile(base + "(\\..+)?");
+        }
+        StringBuilder regex = new StringBuilder();
+        for (String segment : glob.split("\\.")) {
+            if (regex.length() > 0) {
+                regex.append("\\.");
+            }
+            regex.append(segment.equals("*") ? "[^.]+" : Pattern.quote(segment));
+        }
+        return Pattern.compile(regex.toString());
+    }
+}
@@ -6,6 +6,8 @@ import java.util.List;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.JavaModelException;
 
+import core.diagnostics.DetectorEvent;
+import core.diagnostics.PipelineStats;
 import core.model.IntermediateRepresentation;
 import core.model.Relation;
 
@@ -16,21 +18,59 @@ import core.model.Relation;
 public class InheritanceDetector {
     
     private IntermediateRepresentation ir;
+    private FilterSpec filter;
     
     public InheritanceDetector(IntermediateRepresentation ir) {
+        this(ir, FilterSpec.all());
+    }
+    
+    public InheritanceDetector(IntermediateRepresentation ir, FilterSpec filter) {
         this.ir = ir;
+        this.filter = filter;
     }
     
     /**
      * Detect inheritance relationships for a list of types
      */
     public void detectInheritance(List<IType> types) throws JavaModelException {
+        boolean extendsWanted = filter.acceptsRelationType("inheritance");
+        boolean implementsWanted = filter.acceptsRelationType("implements");
+        if (!extendsWanted && !implementsWanted) {
+            return;
+        }
+        long start = PipelineStats.start();
+        DetectorEvent event = new DetectorEvent();
+        event.relationsBefore = ir.getAllRelations().size();
+        event.begin();
         for (IType type : types) {
-            detectInheritanceForType(type);
-            detectImplementedInterfaces(type);
+            if (!accepts(type)) {
+                continue;
+            }
+            if (extendsWanted) {
+                detectInheritanceForType(type);
+            }
+            if (implementsWanted) {
+                detectImplementedInterfaces(type);
+            }
+        }
+        PipelineStats.stop(PipelineStats.Stage.INHERITANCE, start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.detector = getClass().getSimpleName();
+            event.types = types.size();
+            event.relationsAfter = ir.getAllRelations().size();
+            event.commit();
         }
     }
     
+    /**
+     * Whether the filter keeps this type at all
+     */
+    private boolean accepts(IType type) throws JavaModelException {
+        return filter.acceptsPackage(type.getPackageFragment().getElementName())
+            && filter.acceptsKind(JavaClassParser.getTypeKind(type));
+    }
+    
     /**
      * Detect inheritance (extends) for a single type
      */
@@ -44,6 +84,10 @@ public class InheritanceDetector {
             // Determine if external
             boolean isExternal = isExternalClass(fullyQualifiedSuper, type);
             
+            if (isExternal && !filter.includesExternalTargets()) {
+                return;
+            }
+            
             // Create relation
             Relation relation = new Relation(
                 type.getFullyQualifiedName(),
@@ -69,6 +113,10 @@ public class InheritanceDetector {
             // Determine if external
             boolean isExternal = isExternalClass(fullyQualifiedInterface, type);
             
+            if (isExternal && !filter.includesExternalTargets()) {
+                continue;
+            }
+            
             // Create relation
             Relation relation = new Relation(
                 type.getFullyQualifiedName(),
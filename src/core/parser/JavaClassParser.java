@@ -10,47 +10,231 @@ import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.Signature;
 
+import core.diagnostics.CompilationUnitParseEvent;
+import core.diagnostics.PipelineStats;
+
 
 public class JavaClassParser {
+    
+    private FilterSpec filter;
+    private boolean lazyMembers;
+    private ParseBudget budget;
+    private ParseBudget.Tier tier = ParseBudget.Tier.MEMBERS;
+    
+    public JavaClassParser() {
+        this(FilterSpec.all());
+    }
+    
+    public JavaClassParser(FilterSpec filter) {
+        this.filter = filter;
+    }
+    
+    /**
+     * Skip fields and methods and record the type's handle instead, so a
+     * MemberCache can load them when they are first shown
+     */
+    public JavaClassParser lazyMembers(boolean lazyMembers) {
+        this.lazyMembers = lazyMembers;
+        return this;
+    }
+    
+    /**
+     * Keep each unit within the limits of a budget and record how it went
+     * there. Failures of a unit no longer abort the parse: the types parsed
+     * before are kept.
+     */
+    public JavaClassParser budget(ParseBudget budget) {
+        return budget(budget, ParseBudget.Tier.MEMBERS);
+    }
+    
+    /**
+     * Keep each unit within a budget, recording outcomes for the given tier
+     */
+    public JavaClassParser budget(ParseBudget budget, ParseBudget.Tier tier) {
+        this.budget = budget;
+        this.tier = tier;
+        return this;
+    }
+    
     /**
      * Parse a compilation unit and extract all classes
      */
     public List<ClassInfo> parse(ICompilationUnit compilationUnit) throws JavaModelException {
+        return parse(compilationUnit, new ArrayList<>());
+    }
+    
+    /**
+     * Parse a compilation unit and extract all classes; the types the filter
+     * accepted are added to parsedTypes for the detectors. With a budget in
+     * the member tier only types parsed with their members are added, as the
+     * association detector reads their fields.
+     */
+    public List<ClassInfo> parse(ICompilationUnit compilationUnit, List<IType> parsedTypes) throws JavaModelException {
+        long start = PipelineStats.start();
+        CompilationUnitParseEvent event = new CompilationUnitParseEvent();
+        event.begin();
         List<ClassInfo> classes = new ArrayList<>();
         
-        IType[] types = compilationUnit.getAllTypes();
-        for (IType type : types) {
-            ClassInfo classInfo = parseType(type);
-            classes.add(classInfo);
+        if (budget == null) {
+            for (IType type : compilationUnit.getAllTypes()) {
+                if (addClass(classes, parseType(type, true))) {
+                    parsedTypes.add(type);
+                }
+            }
+        } else {
+            parseWithinBudget(compilationUnit, classes, parsedTypes);
         }
         
+        PipelineStats.stop(PipelineStats.Stage.PARSE, start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.unit = compilationUnit.getPath() != null
+                ? compilationUnit.getPath().toString() : compilationUnit.getElementName();
+            event.types = classes.size();
+            for (ClassInfo classInfo : classes) {
+                event.fields += classInfo.getFields().size();
+                event.methods += classInfo.getMethods().size();
+            }
+            event.commit();
+        }
         return classes;
     }
     
     /**
-     * Parse a single type (class/interface/enum)
+     * Parse the types of a unit as the budget allows. A type that is too large
+     * is parsed as a skeleton, and once the time is up so are all further
+     * types; a unit with too many types keeps only its top-level types, as
+     * skeletons. The skeleton
+     * tier leaves out the members of units the member tier quarantined.
      */
-    private ClassInfo parseType(IType type) throws JavaModelException {
-        String typeName = type.getElementName();
+    private void parseWithinBudget(ICompilationUnit compilationUnit, List<ClassInfo> classes, List<IType> parsedTypes) {
+        String handle = compilationUnit.getHandleIdentifier();
+        if (budget.skips(tier, handle)) {
+            return;
+        }
+        boolean memberTier = tier == ParseBudget.Tier.MEMBERS;
+        boolean withMembers = memberTier || !budget.isQuarantined(ParseBudget.Tier.MEMBERS, handle);
+        long deadline = budget.getMaxMillis() > 0 ? System.nanoTime() + budget.getMaxMillis() * 1_000_000 : Long.MAX_VALUE;
+        ParseBudget.Outcome outcome = ParseBudget.Outcome.PARSED;
+        String reason = null;
+        try {
+            IType[] types = compilationUnit.getAllTypes();
+            if (types.length > budget.getMaxTypes()) {
+                outcome = ParseBudget.Outcome.DEGRADED;
+                reason = types.length + " types";
+                types = compilationUnit.getTypes();
+                withMembers = false;
+            }
+            for (IType type : types) {
+                if (outcome != ParseBudget.Outcome.FAILED && System.nanoTime() > deadline) {
+                    outcome = ParseBudget.Outcome.FAILED;
+                    reason = "over " + budget.getMaxMillis() + " ms";
+                }
+                boolean members = withMembers && outcome != ParseBudget.Outcome.FAILED;
+                if (members) {
+                    int memberCount = memberCount(type);
+                    if (memberCount > budget.getMaxMembers()) {
+                        // Only this type loses its members; its siblings keep theirs
+                        members = false;
+                        outcome = ParseBudget.Outcome.DEGRADED;
+                        reason = type.getElementName() + " has " + memberCount + " members";
+                    }
+                }
+                // Supertypes are read from every type, fields only from those with members
+                if (addClass(classes, parseType(type, members)) && (members || !memberTier)) {
+                    parsedTypes.add(type);
+                }
+            }
+        } catch (JavaModelException | RuntimeException e) {
+            outcome = ParseBudget.Outcome.FAILED;
+            reason = e.toString();
+        }
+        budget.record(tier, handle, outcome, reason);
+    }
+    
+    private static int memberCount(IType type) throws JavaModelException {
+        return type.getFields().length + type.getMethods().length;
+    }
+    
+    /**
+     * Add a parsed class; false if the filter excluded it (null)
+     */
+    private static boolean addClass(List<ClassInfo> classes, ClassInfo classInfo) {
+        if (classInfo == null) {
+            return false;
+        }
+        classes.add(classInfo);
+        PipelineStats.count(PipelineStats.Counter.TYPES_PARSED);
+        PipelineStats.count(PipelineStats.Counter.MEMBERS_PARSED,
+            classInfo.getFields().size() + classInfo.getMethods().size());
+        return true;
+    }
+    
+    /**
+     * Parse a single type (class/interface/enum); null if the filter excludes it
+     * 
+     * @param members false to leave out the members, also in lazy mode
+     */
+    private ClassInfo parseType(IType type, boolean members) throws JavaModelException {
+        String packageName = type.getPackageFragment().getElementName();
+        if (!filter.acceptsPackage(packageName)) {
+            return null;
+        }
         String typeKind = getTypeKind(type);
+        if (!filter.acceptsKind(typeKind)) {
+            return null;
+        }
+        String typeName = type.getElementName();
         
-        ClassInfo classInfo = new ClassInfo(typeName, typeKind);
-        
+        ClassInfo classInfo = new ClassInfo(typeName, typeKind, packageName);
+        classInfo.setAbstract(isAbstract(type));
+        if (!members || !filter.acceptsAnyMembers()) {
+            return classInfo;
+        }
+        if (lazyMembers) {
+            classInfo.setHandle(type.getHandleIdentifier());
+            return classInfo;
+        }
+        parseMembers(type, classInfo);
+        return classInfo;
+    }
+    
+    /**
+     * Parse a type with its members even in lazy mode, unless the budget finds
+     * it too large; null if the filter excludes it
+     */
+    public ClassInfo parseWithMembers(IType type) throws JavaModelException {
+        if (!filter.acceptsPackage(type.getPackageFragment().getElementName()) || !filter.acceptsKind(getTypeKind(type))) {
+            return null;
+        }
+        ClassInfo classInfo = new ClassInfo(type.getElementName(), getTypeKind(type),
+            type.getPackageFragment().getElementName());
+        classInfo.setAbstract(isAbstract(type));
+        if (filter.acceptsAnyMembers() && (budget == null || memberCount(type) <= budget.getMaxMembers())) {
+            parseMembers(type, classInfo);
+        }
+        return classInfo;
+    }
+    
+    /**
+     * Parse the fields and methods the filter accepts
+     */
+    private void parseMembers(IType type, ClassInfo classInfo) throws JavaModelException {
         // Parse fields
         for (IField field : type.getFields()) {
-            FieldInfo fieldInfo = parseField(field);
-            classInfo.addField(fieldInfo);
+            if (filter.acceptsVisibility(getVisibility(field.getFlags()))) {
+                FieldInfo fieldInfo = parseField(field);
+                classInfo.addField(fieldInfo);
+            }
         }
         
         // Parse methods
         for (IMethod method : type.getMethods()) {
-            if (!method.isConstructor()) {
+            if (!method.isConstructor() && filter.acceptsVisibility(getVisibility(method.getFlags()))) {
                 MethodInfo methodInfo = parseMethod(method);
                 classInfo.addMethod(methodInfo);
             }
         }
-        
-        return classInfo;
     }
     
     /**
@@ -91,7 +275,7 @@ public class JavaClassParser {
     /**
      * Get type kind (class, interface, enum)
      */
-    private String getTypeKind(IType type) throws JavaModelException {
+    static String getTypeKind(IType type) throws JavaModelException {
         if (type.isEnum()) {
             return "enum";
         } else if (type.isInterface()) {
@@ -101,6 +285,13 @@ public class JavaClassParser {
         }
     }
     
+    /**
+     * Interfaces and classes declared abstract
+     */
+    private static boolean isAbstract(IType type) throws JavaModelException {
+        return type.isInterface() || org.eclipse.jdt.core.Flags.isAbstract(type.getFlags());
+    }
+    
     /**
      * Get visibility modifier
      */
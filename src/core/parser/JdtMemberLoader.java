@@ -0,0 +1,56 @@
+package core.parser;
+
+import java.util.function.Function;
+
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+
+import core.model.ClassMembers;
+import core.model.IRBuilder;
+import core.model.MemberLoader;
+
+/**
+ * Loads the members of lazy ClassNodes from the Java model, resolving the
+ * IType handle identifier recorded by a JavaClassParser in lazy mode. The
+ * same filter as for the initial parse should be used, so loaded members
+ * match an eager parse.
+ */
+public class JdtMemberLoader implements MemberLoader {
+    
+    private final JavaClassParser parser;
+    private final Function<String, IType> resolver;
+    
+    public JdtMemberLoader(FilterSpec filter) {
+        this(filter, JdtMemberLoader::resolve);
+    }
+    
+    /**
+     * @param resolver finds the type of a handle identifier, or returns null
+     */
+    public JdtMemberLoader(FilterSpec filter, Function<String, IType> resolver) {
+        this.parser = new JavaClassParser(filter);
+        this.resolver = resolver;
+    }
+    
+    @Override
+    public ClassMembers load(String handle) {
+        IType type = resolver.apply(handle);
+        if (type == null || !type.exists()) {
+            return null;
+        }
+        try {
+            ClassInfo classInfo = parser.parseWithMembers(type);
+            return classInfo == null ? ClassMembers.EMPTY : IRBuilder.convertMembers(classInfo);
+        } catch (JavaModelException e) {
+            // The type went away or its file cannot be read; it shows without members
+            return null;
+        }
+    }
+    
+    private static IType resolve(String handle) {
+        IJavaElement element = JavaCore.create(handle);
+        return element instanceof IType ? (IType) element : null;
+    }
+}
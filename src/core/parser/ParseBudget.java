@@ -0,0 +1,280 @@
+package core.parser;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import core.diagnostics.PipelineStats;
+
+/**
+ * Limits on the work a JavaClassParser spends on one compilation unit, and a
+ * circuit breaker over units that keep failing. Units over the size limits
+ * are parsed as skeletons (types and supertypes, no members); a unit that
+ * runs out of time or throws counts as a failure, and after a number of
+ * failures in a row it is quarantined and skipped in that tier until the
+ * quarantine ends or it is released, e.g. because its source changed; a unit
+ * quarantined for its members still gets its skeleton. One budget is shared by
+ * all parsers of a pipeline so failures are remembered across runs; each Tier
+ * keeps its own, so a quick skeleton parse does not clear the failures of the
+ * member parse. Units are identified by their handle identifier.
+ */
+public class ParseBudget {
+    
+    public static final long DEFAULT_MAX_MILLIS = 500;
+    public static final int DEFAULT_MAX_TYPES = 1000;
+    public static final int DEFAULT_MAX_MEMBERS = 2000;
+    public static final int DEFAULT_FAILURE_THRESHOLD = 3;
+    public static final long DEFAULT_QUARANTINE_MILLIS = 10 * 60 * 1000;
+    
+    /**
+     * How the last parse of a unit went
+     */
+    public enum Outcome {
+        /** Within all limits */
+        PARSED,
+        /** Too large; parsed as a skeleton */
+        DEGRADED,
+        /** Out of time or threw; what was parsed before is kept */
+        FAILED,
+        /** Failed too often; skipped */
+        QUARANTINED
+    }
+    
+    /**
+     * Parse a budget applies to
+     */
+    public enum Tier {
+        /** Types and supertypes only */
+        SKELETON,
+        /** Types with their members */
+        MEMBERS
+    }
+    
+    private static class UnitState {
+        Outcome outcome;
+        String reason;
+        int failures;
+        long quarantinedUntil;
+    }
+    
+    private long maxMillis = DEFAULT_MAX_MILLIS;
+    private int maxTypes = DEFAULT_MAX_TYPES;
+    private int maxMembers = DEFAULT_MAX_MEMBERS;
+    private int failureThreshold = DEFAULT_FAILURE_THRESHOLD;
+    private long quarantineMillis = DEFAULT_QUARANTINE_MILLIS;
+    private final Map<Tier, Map<String, UnitState>> tiers = new EnumMap<>(Tier.class);
+    
+    public ParseBudget() {
+        for (Tier tier : Tier.values()) {
+            tiers.put(tier, new HashMap<>());
+        }
+    }
+    
+    /**
+     * No limits and no quarantine; failures are still recorded
+     */
+    public static ParseBudget unlimited() {
+        return new ParseBudget().maxMillis(0).maxTypes(Integer.MAX_VALUE).maxMembers(Integer.MAX_VALUE)
+            .failureThreshold(Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Time for one unit; types after it are parsed as skeletons. 0 for no limit.
+     */
+    public ParseBudget maxMillis(long maxMillis) {
+        this.maxMillis = maxMillis;
+        return this;
+    }
+    
+    /**
+     * Types, nested ones included, above which only the top-level types of a
+     * unit are parsed, as skeletons
+     */
+    public ParseBudget maxTypes(int maxTypes) {
+        this.maxTypes = maxTypes;
+        return this;
+    }
+    
+    /**
+     * Fields (enum constants included) and methods above which a type is
+     * parsed as a skeleton
+     */
+    public ParseBudget maxMembers(int maxMembers) {
+        this.maxMembers = maxMembers;
+        return this;
+    }
+    
+    /**
+     * Failures in a row after which a unit is quarantined
+     */
+    public ParseBudget failureThreshold(int failureThreshold) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        return this;
+    }
+    
+    /**
+     * How long a quarantined unit is skipped before it gets another try
+     */
+    public ParseBudget quarantineMillis(long quarantineMillis) {
+        this.quarantineMillis = quarantineMillis;
+        return this;
+    }
+    
+    public long getMaxMillis() {
+        return maxMillis;
+    }
+    
+    public int getMaxTypes() {
+        return maxTypes;
+    }
+    
+    public int getMaxMembers() {
+        return maxMembers;
+    }
+    
+    /**
+     * True if the member parse of a unit is to be skipped
+     */
+    public boolean skips(String handle) {
+        return skips(Tier.MEMBERS, handle);
+    }
+    
+    /**
+     * True while a unit is quarantined in a tier; unlike skips(), neither
+     * counted nor giving the unit another try
+     */
+    public synchronized boolean isQuarantined(Tier tier, String handle) {
+        UnitState state = tiers.get(tier).get(handle);
+        return state != null && state.outcome == Outcome.QUARANTINED
+            && System.currentTimeMillis() < state.quarantinedUntil;
+    }
+    
+    /**
+     * True if a unit is to be skipped in a tier; counted as a skip. After the
+     * quarantine a unit gets one more try, and a failure quarantines it again.
+     */
+    public synchronized boolean skips(Tier tier, String handle) {
+        UnitState state = tiers.get(tier).get(handle);
+        if (state == null || state.outcome != Outcome.QUARANTINED) {
+            return false;
+        }
+        if (System.currentTimeMillis() >= state.quarantinedUntil) {
+            state.failures = failureThreshold - 1;
+            return false;
+        }
+        PipelineStats.count(PipelineStats.Counter.UNITS_QUARANTINED);
+        return true;
+    }
+    
+    /**
+     * Record how a member parse of a unit went
+     *
+     * @param reason why the unit was degraded or failed, or null
+     */
+    public void record(String handle, Outcome outcome, String reason) {
+        record(Tier.MEMBERS, handle, outcome, reason);
+    }
+    
+    /**
+     * Record how a parse of a unit went in a tier; the other tier's failures
+     * are kept
+     *
+     * @param reason why the unit was degraded or failed, or null
+     */
+    public synchronized void record(Tier tier, String handle, Outcome outcome, String reason) {
+        Map<String, UnitState> units = tiers.get(tier);
+        if (outcome == Outcome.PARSED) {
+            units.remove(handle);
+            return;
+        }
+        UnitState state = units.computeIfAbsent(handle, key -> new UnitState());
+        state.reason = reason;
+        if (outcome == Outcome.DEGRADED) {
+            // Size is a property of the source, not a failure
+            state.outcome = Outcome.DEGRADED;
+            state.failures = 0;
+            PipelineStats.count(PipelineStats.Counter.UNITS_DEGRADED);
+            return;
+        }
+        PipelineStats.count(PipelineStats.Counter.UNITS_FAILED);
+        state.failures++;
+        if (state.failures >= failureThreshold) {
+            state.outcome = Outcome.QUARANTINED;
+            state.quarantinedUntil = System.currentTimeMillis() + quarantineMillis;
+        } else {
+            state.outcome = Outcome.FAILED;
+        }
+    }
+    
+    /**
+     * Outcome of the last parses of a unit, the worse of both tiers; PARSED
+     * if nothing went wrong
+     */
+    public synchronized Outcome getOutcome(String handle) {
+        UnitState state = worstState(handle);
+        return state == null ? Outcome.PARSED : state.outcome;
+    }
+    
+    /**
+     * Outcome of the last parse of a unit in a tier; PARSED if nothing went wrong
+     */
+    public synchronized Outcome getOutcome(Tier tier, String handle) {
+        UnitState state = tiers.get(tier).get(handle);
+        return state == null ? Outcome.PARSED : state.outcome;
+    }
+    
+    /**
+     * Forget what went wrong with a unit in all tiers, e.g. after its source changed
+     */
+    public synchronized void release(String handle) {
+        for (Map<String, UnitState> units : tiers.values()) {
+            units.remove(handle);
+        }
+    }
+    
+    /**
+     * Units that were degraded, failed or are quarantined, with the reason of
+     * the worse tier
+     */
+    public synchronized Map<String, String> getSkippedUnits() {
+        Map<String, String> skipped = new LinkedHashMap<>();
+        for (String handle : handles()) {
+            UnitState state = worstState(handle);
+            skipped.put(handle, state.outcome + (state.reason != null ? ": " + state.reason : ""));
+        }
+        return skipped;
+    }
+    
+    private Set<String> handles() {
+        Set<String> handles = new HashSet<>();
+        for (Map<String, UnitState> units : tiers.values()) {
+            handles.addAll(units.keySet());
+        }
+        return handles;
+    }
+    
+    private UnitState worstState(String handle) {
+        UnitState worst = null;
+        for (Map<String, UnitState> units : tiers.values()) {
+            UnitState state = units.get(handle);
+            if (state != null && (worst == null || state.outcome.compareTo(worst.outcome) > 0)) {
+                worst = state;
+            }
+        }
+        return worst;
+    }
+    
+    @Override
+    public synchronized String toString() {
+        Set<String> handles = handles();
+        int quarantined = 0;
+        for (String handle : handles) {
+            quarantined += worstState(handle).outcome == Outcome.QUARANTINED ? 1 : 0;
+        }
+        return String.format("ParseBudget[%d ms, %d types, %d members per unit; %d units skipped, %d quarantined]",
+            maxMillis, maxTypes, maxMembers, handles.size(), quarantined);
+    }
+}
@@ -0,0 +1,178 @@
+package core.parser;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IField;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.Signature;
+
+/**
+ * Hands out the compilation units of a parse in order of interest: the
+ * focused units (open editors, active one first), then the units their types
+ * extend, implement or hold in fields, then units of the same packages, then
+ * the rest in their original order. focus() may be called from any thread
+ * while a parse is taking units; the units still waiting are reordered.
+ * Referenced types are matched to units by the unit's primary type name.
+ */
+public class ParseScheduler {
+    
+    /**
+     * Why a unit is parsed when it is, most urgent first
+     */
+    public enum Priority {
+        FOCUSED,
+        RELATED,
+        SAME_PACKAGE,
+        REST
+    }
+    
+    private final Set<ICompilationUnit> units;
+    private final Map<String, List<ICompilationUnit>> unitsByTypeName = new HashMap<>();
+    private final List<Deque<ICompilationUnit>> queues = new ArrayList<>();
+    private final Map<ICompilationUnit, Priority> priorities = new HashMap<>();
+    private final Set<ICompilationUnit> taken = new HashSet<>();
+    
+    public ParseScheduler(List<ICompilationUnit> units) {
+        this.units = new LinkedHashSet<>(units);
+        for (ICompilationUnit unit : this.units) {
+            unitsByTypeName.computeIfAbsent(primaryTypeName(unit), name -> new ArrayList<>()).add(unit);
+        }
+        for (int i = 0; i < Priority.values().length; i++) {
+            queues.add(new ArrayDeque<>());
+        }
+        focus(Collections.emptyList());
+    }
+    
+    /**
+     * Reorder the units not taken yet around the given focus. Focused units
+     * that are not part of this parse still pull their neighbors forward.
+     */
+    public ParseScheduler focus(Collection<ICompilationUnit> focused) {
+        Set<ICompilationUnit> focusedUnits = new LinkedHashSet<>(focused);
+        Set<ICompilationUnit> related = new HashSet<>();
+        Set<String> packages = new HashSet<>();
+        for (ICompilationUnit unit : focusedUnits) {
+            packages.add(packageName(unit));
+            for (String typeName : referencedTypeNames(unit)) {
+                related.addAll(unitsByTypeName.getOrDefault(typeName, Collections.emptyList()));
+            }
+        }
+        synchronized (this) {
+            for (Deque<ICompilationUnit> queue : queues) {
+                queue.clear();
+            }
+            priorities.clear();
+            // Focused units keep the order of the focus, the others that of the parse
+            for (ICompilationUnit unit : focusedUnits) {
+                if (units.contains(unit)) {
+                    enqueue(unit, Priority.FOCUSED);
+                }
+            }
+            for (ICompilationUnit unit : units) {
+                if (focusedUnits.contains(unit)) {
+                    continue;
+                }
+                enqueue(unit, related.contains(unit) ? Priority.RELATED
+                    : packages.contains(packageName(unit)) ? Priority.SAME_PACKAGE : Priority.REST);
+            }
+        }
+        return this;
+    }
+    
+    private void enqueue(ICompilationUnit unit, Priority priority) {
+        if (!taken.contains(unit)) {
+            queues.get(priority.ordinal()).add(unit);
+            priorities.put(unit, priority);
+        }
+    }
+    
+    /**
+     * Next unit to parse, or null when all units were taken
+     */
+    public synchronized ICompilationUnit next() {
+        for (Deque<ICompilationUnit> queue : queues) {
+            ICompilationUnit unit = queue.poll();
+            if (unit != null) {
+                taken.add(unit);
+                return unit;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Priority of the unit next() would return, or null when all units were taken
+     */
+    public synchronized Priority peekPriority() {
+        for (int i = 0; i < queues.size(); i++) {
+            if (!queues.get(i).isEmpty()) {
+                return Priority.values()[i];
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Priority a unit was last given
+     */
+    public synchronized Priority getPriority(ICompilationUnit unit) {
+        return priorities.get(unit);
+    }
+    
+    /**
+     * Number of units not taken yet
+     */
+    public synchronized int remaining() {
+        return units.size() - taken.size();
+    }
+    
+    private static String primaryTypeName(ICompilationUnit unit) {
+        String name = unit.getElementName();
+        return name.endsWith(".java") ? name.substring(0, name.length() - ".java".length()) : name;
+    }
+    
+    private static String packageName(ICompilationUnit unit) {
+        return unit.getParent() != null ? unit.getParent().getElementName() : "";
+    }
+    
+    /**
+     * Simple names of the supertypes and field types of a unit's types. A unit
+     * that cannot be read has no references.
+     */
+    private static Set<String> referencedTypeNames(ICompilationUnit unit) {
+        Set<String> names = new HashSet<>();
+        try {
+            for (IType type : unit.getAllTypes()) {
+                if (type.getSuperclassName() != null) {
+                    names.add(TypeNames.simpleName(type.getSuperclassName()));
+                }
+                for (String superInterface : type.getSuperInterfaceNames()) {
+                    names.add(TypeNames.simpleName(superInterface));
+                }
+                for (IField field : type.getFields()) {
+                    String fieldType = Signature.toString(field.getTypeSignature());
+                    String element = TypeNames.collectionElementType(fieldType);
+                    names.add(TypeNames.simpleName(fieldType));
+                    if (element != null) {
+                        names.add(TypeNames.simpleName(element));
+                    }
+                }
+            }
+        } catch (JavaModelException e) {
+            // Deleted or unreadable; it is still scheduled by its package
+        }
+        return names;
+    }
+}
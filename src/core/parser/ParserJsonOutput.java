@@ -1,5 +1,6 @@
 package core.parser;
 
+import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.List;
@@ -7,6 +8,9 @@ import java.util.List;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
+import core.diagnostics.PipelineStats;
+import core.diagnostics.SerializationEvent;
+
 /**
  * Utility to output parsed results as JSON.
  * Story 2-01: Sample JSON dump of parsed results
@@ -23,16 +27,42 @@ public class ParserJsonOutput {
      * Convert list of ClassInfo to JSON string
      */
     public String toJson(List<ClassInfo> classes) {
-        return gson.toJson(classes);
+        long start = PipelineStats.start();
+        SerializationEvent event = new SerializationEvent();
+        event.begin();
+        String json = gson.toJson(classes);
+        PipelineStats.stop(PipelineStats.Stage.SERIALIZE, start);
+        commit(event, classes, "", json.length());
+        return json;
     }
     
     /**
      * Save parsed results to JSON file
      */
     public void saveToFile(List<ClassInfo> classes, String filePath) throws IOException {
+        long start = PipelineStats.start();
+        SerializationEvent event = new SerializationEvent();
+        event.begin();
         try (FileWriter writer = new FileWriter(filePath)) {
             gson.toJson(classes, writer);
         }
+        PipelineStats.stop(PipelineStats.Stage.SERIALIZE, start);
+        commit(event, classes, filePath, -1);
+    }
+    
+    /**
+     * Fill in and commit a serialization event if JFR records it; a negative
+     * size means the size of the target file
+     */
+    private void commit(SerializationEvent event, List<ClassInfo> classes, String target, long size) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.serializer = getClass().getSimpleName();
+            event.target = target;
+            event.classes = classes.size();
+            event.size = size >= 0 ? size : new File(target).length();
+            event.commit();
+        }
     }
     
     /**
@@ -0,0 +1,53 @@
+package core.parser;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Helpers for the type strings produced by Signature.toString(), e.g.
+ * "java.util.List<com.example.Foo>".
+ */
+public final class TypeNames {
+    
+    private static final Pattern TYPE_ARGUMENTS = Pattern.compile("<(.+?)>");
+    
+    private TypeNames() {
+    }
+    
+    /**
+     * Check if a type is a collection (List, Set, Map, etc.)
+     */
+    public static boolean isCollection(String typeName) {
+        return typeName.contains("List") || 
+               typeName.contains("Set") || 
+               typeName.contains("Collection") ||
+               typeName.contains("Map") ||
+               typeName.contains("Queue") ||
+               typeName.contains("Deque");
+    }
+    
+    /**
+     * Extract element type from collection (e.g., List<Foo> → Foo), or null
+     * if the type has no type arguments
+     */
+    public static String collectionElementType(String typeName) {
+        Matcher matcher = TYPE_ARGUMENTS.matcher(typeName);
+        if (matcher.find()) {
+            return matcher.group(1);
+        }
+        return null;
+    }
+    
+    /**
+     * Extract simple class name from type string
+     * e.g., "com.example.Foo<Bar>" → "Foo"
+     */
+    public static String simpleName(String typeName) {
+        // Remove generic parameters
+        int genericStart = typeName.indexOf('<');
+        String cleanType = genericStart >= 0 ? typeName.substring(0, genericStart) : typeName;
+        
+        // Get last part (simple name)
+        return cleanType.substring(cleanType.lastIndexOf('.') + 1);
+    }
+}
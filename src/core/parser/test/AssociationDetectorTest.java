@@ -1,10 +1,17 @@
 package core.parser.test;
 
+import static core.parser.test.JdtFakes.fake;
 import static org.junit.Assert.*;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+import org.eclipse.jdt.core.Flags;
+import org.eclipse.jdt.core.IField;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaModelException;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -215,4 +222,47 @@ public class AssociationDetectorTest {
         List<Relation> relations = ir.getOutgoingRelations("com.example.TreeNode");
         assertEquals(2, relations.size());
     }
+    
+    /**
+     * Test Case 9: Fields of one target count once per run, and detecting
+     * again does not add them up
+     */
+    @Test
+    public void testDetectionIsIdempotent() throws JavaModelException {
+        ClassNode order = new ClassNode("Order", "class", "com.example");
+        ClassNode address = new ClassNode("Address", "class", "com.example");
+        ir.addClass(order);
+        ir.addClass(address);
+        projectClasses.add(order);
+        projectClasses.add(address);
+        IType orderType = type("com.example.Order",
+            field("billing", "QAddress;"), field("shipping", "QAddress;"), field("lines", "QList<QAddress;>;"));
+        
+        detector.detectAssociations(Arrays.asList(orderType));
+        detector.detectAssociations(Arrays.asList(orderType));
+        
+        List<Relation> relations = ir.getOutgoingRelations("com.example.Order");
+        assertEquals(2, relations.size());
+        assertEquals("composition", relations.get(0).getType());
+        assertEquals(2, relations.get(0).getMultiplicity());
+        assertEquals("aggregation", relations.get(1).getType());
+        assertEquals(1, relations.get(1).getMultiplicity());
+    }
+    
+    /**
+     * Private field of the given type signature
+     */
+    private static IField field(String name, String signature) {
+        return fake(IField.class, name, "getElementName", name, "getTypeSignature", signature,
+            "getFlags", Flags.AccPrivate);
+    }
+    
+    /**
+     * Class in package com.example with the given fields
+     */
+    private static IType type(String qualifiedName, IField... fields) {
+        IPackageFragment fragment = fake(IPackageFragment.class, "com.example", "getElementName", "com.example");
+        return fake(IType.class, qualifiedName, "getFullyQualifiedName", qualifiedName, "getPackageFragment", fragment,
+            "getFields", fields, "isEnum", false, "isInterface", false);
+    }
 }
@@ -0,0 +1,96 @@
+package core.parser.test;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import core.model.ClassNode;
+import core.model.Field;
+import core.model.IntermediateRepresentation;
+import core.model.Method;
+import core.model.Relation;
+import core.parser.FilterSpec;
+
+/**
+ * Unit tests for the declarative parse filter
+ */
+public class FilterSpecTest {
+
+    /**
+     * Test Case 1: Package globs
+     */
+    @Test
+    public void testPackageGlobs() {
+        FilterSpec exact = FilterSpec.all().includePackages("com.acme");
+        assertTrue(exact.acceptsPackage("com.acme"));
+        assertFalse(exact.acceptsPackage("com.acme.service"));
+
+        FilterSpec children = FilterSpec.all().includePackages("com.acme.*");
+        assertTrue(children.acceptsPackage("com.acme.service"));
+        assertFalse(children.acceptsPackage("com.acme.service.impl"));
+        assertFalse(children.acceptsPackage("com.acme"));
+
+        FilterSpec tree = FilterSpec.all().includePackages("com.acme.**").excludePackages("com.acme.internal.**");
+        assertTrue(tree.acceptsPackage("com.acme"));
+        assertTrue(tree.acceptsPackage("com.acme.service.impl"));
+        assertFalse(tree.acceptsPackage("com.acme.internal.util"));
+        assertFalse(tree.acceptsPackage("com.acmex"));
+    }
+
+    /**
+     * Test Case 2: Defaults accept everything
+     */
+    @Test
+    public void testDefaults() {
+        FilterSpec filter = FilterSpec.all();
+        assertTrue(filter.acceptsPackage("any.thing"));
+        assertTrue(filter.acceptsKind("enum"));
+        assertTrue(filter.acceptsVisibility("private"));
+        assertTrue(filter.acceptsRelationType("composition"));
+        assertTrue(filter.includesExternalTargets());
+    }
+
+    /**
+     * Test Case 3: Visibility, kind and relation type switches
+     */
+    @Test
+    public void testSwitches() {
+        FilterSpec filter = FilterSpec.all()
+            .visibilities("public")
+            .kinds("class", "interface")
+            .relationTypes("inheritance", "implements");
+
+        assertFalse(filter.acceptsVisibility("private"));
+        assertFalse(filter.acceptsKind("enum"));
+        assertFalse(filter.acceptsAnyRelationType("association", "aggregation", "composition"));
+        assertTrue(filter.acceptsAnyMembers());
+        assertFalse(FilterSpec.all().visibilities().acceptsAnyMembers());
+    }
+
+    /**
+     * Test Case 4: Filtering an already built IR
+     */
+    @Test
+    public void testApply() {
+        IntermediateRepresentation ir = new IntermediateRepresentation();
+        ClassNode service = new ClassNode("Service", "class", "com.acme.service");
+        service.addField(new Field("repo", "Repo", "private", false));
+        service.addMethod(new Method("run", "void", "public", false));
+        ir.addClass(service);
+        ir.addClass(new ClassNode("Repo", "class", "com.acme.repo"));
+        ir.addRelation(new Relation("com.acme.service.Service", "com.acme.repo.Repo", "composition"));
+        ir.addRelation(new Relation("com.acme.service.Service", "java.lang.Runnable", "implements", true));
+
+        IntermediateRepresentation filtered = FilterSpec.all()
+            .includePackages("com.acme.service")
+            .visibilities("public")
+            .includeExternalTargets(false)
+            .apply(ir);
+
+        assertEquals(1, filtered.getAllClasses().size());
+        ClassNode copy = filtered.getClass("com.acme.service.Service");
+        assertEquals(0, copy.getFields().size());
+        assertEquals(1, copy.getMethods().size());
+        assertEquals(0, filtered.getAllRelations().size());
+    }
+}
@@ -0,0 +1,46 @@
+package core.parser.test;
+
+import java.lang.reflect.Proxy;
+import java.util.function.Supplier;
+
+/**
+ * Fake JDT elements for unit tests: proxies of the JDT interfaces that answer
+ * a few methods and return null from all others
+ */
+public final class JdtFakes {
+
+    private JdtFakes() {
+    }
+
+    /**
+     * Proxy answering the given methods, as name/answer pairs, with fixed
+     * values or with the value of a Supplier, read on every call. equals and
+     * hashCode are by identity; toString is the description.
+     */
+    public static <T> T fake(Class<T> type, String description, Object... answers) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "equals": return proxy == args[0];
+                case "hashCode": return System.identityHashCode(proxy);
+                case "toString": return description;
+                default:
+                    for (int i = 0; i < answers.length; i += 2) {
+                        if (answers[i].equals(method.getName())) {
+                            Object answer = answers[i + 1];
+                            return answer instanceof Supplier ? ((Supplier<?>) answer).get() : answer;
+                        }
+                    }
+                    return null;
+            }
+        }));
+    }
+
+    /**
+     * Answer that throws when read, e.g. for an element that cannot be read
+     */
+    public static Supplier<Object> fails(String description) {
+        return () -> {
+            throw new IllegalStateException(description + " cannot be read");
+        };
+    }
+}
@@ -0,0 +1,183 @@
+package core.parser.test;
+
+import static core.parser.test.JdtFakes.fails;
+import static core.parser.test.JdtFakes.fake;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.core.Flags;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IField;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaModelException;
+import org.junit.Test;
+
+import core.parser.ClassInfo;
+import core.parser.FilterSpec;
+import core.parser.JavaClassParser;
+import core.parser.ParseBudget;
+import core.parser.ParseBudget.Outcome;
+import core.parser.ParseBudget.Tier;
+
+/**
+ * Unit tests for the per-unit parse budget and its circuit breaker
+ */
+public class ParseBudgetTest {
+    
+    /**
+     * Test Case 1: Failures in a row quarantine a unit; degraded parses are not failures
+     */
+    @Test
+    public void testFailuresQuarantine() {
+        ParseBudget budget = new ParseBudget().failureThreshold(2);
+        
+        budget.record("A", Outcome.FAILED, "over 500 ms");
+        assertEquals(Outcome.FAILED, budget.getOutcome("A"));
+        assertFalse(budget.skips("A"));
+        budget.record("A", Outcome.FAILED, "over 500 ms");
+        assertEquals(Outcome.QUARANTINED, budget.getOutcome("A"));
+        assertTrue(budget.skips("A"));
+        assertEquals("QUARANTINED: over 500 ms", budget.getSkippedUnits().get("A"));
+        
+        budget.record("B", Outcome.DEGRADED, "Big has 9000 members");
+        budget.record("B", Outcome.DEGRADED, "Big has 9000 members");
+        assertEquals(Outcome.DEGRADED, budget.getOutcome("B"));
+        assertFalse(budget.skips("B"));
+    }
+    
+    /**
+     * Test Case 2: After the quarantine a unit gets one try; releasing it forgets its failures
+     */
+    @Test
+    public void testQuarantineEndsAndRelease() {
+        ParseBudget budget = new ParseBudget().failureThreshold(2).quarantineMillis(0);
+        budget.record("A", Outcome.FAILED, null);
+        budget.record("A", Outcome.FAILED, null);
+        
+        assertFalse(budget.skips("A"));
+        budget.record("A", Outcome.FAILED, null);
+        assertEquals(Outcome.QUARANTINED, budget.getOutcome("A"));
+        
+        budget.release("A");
+        assertEquals(Outcome.PARSED, budget.getOutcome("A"));
+        assertTrue(budget.getSkippedUnits().isEmpty());
+    }
+    
+    /**
+     * Test Case 3: A type with too many members is parsed as a skeleton
+     */
+    @Test
+    public void testLargeTypeBecomesSkeleton() throws JavaModelException {
+        ParseBudget budget = new ParseBudget().maxMembers(3);
+        JavaClassParser parser = new JavaClassParser().budget(budget);
+        
+        List<IType> types = new ArrayList<>();
+        List<ClassInfo> classes = parser.parse(unit("Small.java", type("Small", 2)), types);
+        assertEquals(2, classes.get(0).getFields().size());
+        assertEquals(Outcome.PARSED, budget.getOutcome("Small.java"));
+        
+        classes = parser.parse(unit("Huge.java", type("Huge", 50)), types);
+        assertEquals(1, classes.size());
+        assertTrue(classes.get(0).getFields().isEmpty());
+        assertEquals(Outcome.DEGRADED, budget.getOutcome("Huge.java"));
+        assertEquals(1, types.size());
+    }
+    
+    /**
+     * Test Case 4: A unit that throws is recorded instead of aborting the parse
+     */
+    @Test
+    public void testFailingUnitDoesNotThrow() throws JavaModelException {
+        ParseBudget budget = new ParseBudget().failureThreshold(1);
+        JavaClassParser parser = new JavaClassParser().budget(budget);
+        ICompilationUnit broken = fake(ICompilationUnit.class, "Broken.java", "getHandleIdentifier", "Broken.java",
+            "getElementName", "Broken.java", "getAllTypes", fails("Broken.java"));
+        
+        assertTrue(parser.parse(broken).isEmpty());
+        assertEquals(Outcome.QUARANTINED, budget.getOutcome("Broken.java"));
+        assertTrue(budget.skips("Broken.java"));
+    }
+    
+    /**
+     * Test Case 5: Types the filter rejects are not handed to the detectors,
+     * with or without a budget
+     */
+    @Test
+    public void testFilteredTypesNotCollected() throws JavaModelException {
+        FilterSpec filter = FilterSpec.all().excludePackages("p");
+        List<IType> types = new ArrayList<>();
+        
+        assertTrue(new JavaClassParser(filter).parse(unit("A.java", type("A", 1)), types).isEmpty());
+        assertTrue(new JavaClassParser(filter).budget(new ParseBudget()).parse(unit("B.java", type("B", 1)), types).isEmpty());
+        assertTrue(types.isEmpty());
+    }
+    
+    /**
+     * Test Case 6: A unit quarantined for its members keeps its skeleton, and
+     * only its member parse is skipped
+     */
+    @Test
+    public void testQuarantinedUnitKeepsSkeleton() throws JavaModelException {
+        ParseBudget budget = new ParseBudget().failureThreshold(1);
+        budget.record(Tier.MEMBERS, "Slow.java", Outcome.FAILED, "over 500 ms");
+        ICompilationUnit slow = unit("Slow.java", type("Slow", 2));
+        
+        List<IType> supertypeSources = new ArrayList<>();
+        List<ClassInfo> classes = new JavaClassParser().lazyMembers(true).budget(budget, Tier.SKELETON)
+            .parse(slow, supertypeSources);
+        assertEquals(1, classes.size());
+        assertNull(classes.get(0).getHandle());
+        assertEquals(1, supertypeSources.size());
+        assertEquals(Outcome.PARSED, budget.getOutcome(Tier.SKELETON, "Slow.java"));
+        
+        List<IType> fieldSources = new ArrayList<>();
+        assertTrue(new JavaClassParser().budget(budget, Tier.MEMBERS).parse(slow, fieldSources).isEmpty());
+        assertTrue(fieldSources.isEmpty());
+        assertEquals(Outcome.QUARANTINED, budget.getOutcome(Tier.MEMBERS, "Slow.java"));
+    }
+    
+    /**
+     * Test Case 7: Only the oversized type of a unit loses its members
+     */
+    @Test
+    public void testOversizedTypeDegradesAlone() throws JavaModelException {
+        ParseBudget budget = new ParseBudget().maxMembers(3);
+        List<IType> types = new ArrayList<>();
+        
+        List<ClassInfo> classes = new JavaClassParser().budget(budget)
+            .parse(unit("Mixed.java", type("Huge", 50), type("Small", 2)), types);
+        assertEquals(2, classes.size());
+        assertTrue(classes.get(0).getFields().isEmpty());
+        assertEquals(2, classes.get(1).getFields().size());
+        assertEquals(1, types.size());
+        assertEquals(Outcome.DEGRADED, budget.getOutcome("Mixed.java"));
+        assertEquals("DEGRADED: Huge has 50 members", budget.getSkippedUnits().get("Mixed.java"));
+    }
+    
+    /**
+     * Unit whose handle is its name
+     */
+    private static ICompilationUnit unit(String name, IType... types) {
+        return fake(ICompilationUnit.class, name, "getHandleIdentifier", name, "getElementName", name,
+            "getAllTypes", types, "getTypes", types);
+    }
+    
+    /**
+     * Public class with the given number of private int fields
+     */
+    private static IType type(String name, int fieldCount) {
+        IPackageFragment fragment = fake(IPackageFragment.class, "p", "getElementName", "p");
+        IField[] fields = new IField[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            fields[i] = fake(IField.class, "f" + i, "getElementName", "f" + i, "getTypeSignature", "I",
+                "getFlags", Flags.AccPrivate);
+        }
+        return fake(IType.class, name, "getElementName", name, "getPackageFragment", fragment, "getFields", fields,
+            "getMethods", new IMethod[0], "isEnum", false, "isInterface", false, "getFlags", Flags.AccPublic,
+            "getHandleIdentifier", name);
+    }
+}
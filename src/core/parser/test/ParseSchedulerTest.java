@@ -0,0 +1,103 @@
+package core.parser.test;
+
+import static core.parser.test.JdtFakes.fake;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IField;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IType;
+import org.junit.Test;
+
+import core.parser.ParseScheduler;
+import core.parser.ParseScheduler.Priority;
+
+/**
+ * Unit tests for the priority order of parse work
+ */
+public class ParseSchedulerTest {
+    
+    /**
+     * Test Case 1: Without a focus, units come in their original order
+     */
+    @Test
+    public void testOriginalOrderWithoutFocus() {
+        ICompilationUnit a = unit("p", "A", null);
+        ICompilationUnit b = unit("q", "B", null);
+        ICompilationUnit c = unit("p", "C", null);
+        ParseScheduler scheduler = new ParseScheduler(Arrays.asList(a, b, c));
+        
+        assertEquals(Arrays.asList(a, b, c), drain(scheduler));
+        assertNull(scheduler.next());
+        assertEquals(0, scheduler.remaining());
+    }
+    
+    /**
+     * Test Case 2: Focused units, then their supertypes and field types, then
+     * their packages, then the rest
+     */
+    @Test
+    public void testFocusNeighborhoodFirst() {
+        ICompilationUnit other = unit("r", "Other", null);
+        ICompilationUnit sibling = unit("p", "Sibling", null);
+        ICompilationUnit base = unit("q", "Base", null);
+        ICompilationUnit item = unit("r", "Item", null);
+        ICompilationUnit editor = unit("p", "Editor", "q.Base", "Qjava.util.List<Qr.Item;>;");
+        ParseScheduler scheduler = new ParseScheduler(Arrays.asList(other, sibling, base, item, editor))
+            .focus(Collections.singletonList(editor));
+        
+        assertEquals(Priority.FOCUSED, scheduler.getPriority(editor));
+        assertEquals(Priority.RELATED, scheduler.getPriority(base));
+        assertEquals(Priority.RELATED, scheduler.getPriority(item));
+        assertEquals(Priority.SAME_PACKAGE, scheduler.getPriority(sibling));
+        assertEquals(Priority.REST, scheduler.getPriority(other));
+        assertEquals(Arrays.asList(editor, base, item, sibling, other), drain(scheduler));
+    }
+    
+    /**
+     * Test Case 3: Moving the focus reorders the units still waiting, and
+     * taken units are not handed out again
+     */
+    @Test
+    public void testRefocusReordersRemaining() {
+        ICompilationUnit a = unit("p", "A", null);
+        ICompilationUnit b = unit("p", "B", null);
+        ICompilationUnit c = unit("q", "C", null);
+        ICompilationUnit d = unit("q", "D", null);
+        ParseScheduler scheduler = new ParseScheduler(Arrays.asList(a, b, c, d)).focus(Arrays.asList(a));
+        
+        assertSame(a, scheduler.next());
+        scheduler.focus(Arrays.asList(d));
+        assertEquals(Priority.FOCUSED, scheduler.peekPriority());
+        assertEquals(Arrays.asList(d, c, b), drain(scheduler));
+    }
+    
+    private static List<ICompilationUnit> drain(ParseScheduler scheduler) {
+        List<ICompilationUnit> order = new ArrayList<>();
+        for (ICompilationUnit unit = scheduler.next(); unit != null; unit = scheduler.next()) {
+            order.add(unit);
+        }
+        return order;
+    }
+    
+    /**
+     * Compilation unit with one type, its superclass and fields of the given type signatures
+     */
+    private static ICompilationUnit unit(String packageName, String typeName, String superclass,
+                                         String... fieldSignatures) {
+        IPackageFragment fragment = fake(IPackageFragment.class, packageName, "getElementName", packageName);
+        IField[] fields = new IField[fieldSignatures.length];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = fake(IField.class, "field" + i, "getTypeSignature", fieldSignatures[i]);
+        }
+        IType type = fake(IType.class, typeName, "getSuperclassName", superclass,
+            "getSuperInterfaceNames", new String[0], "getFields", fields);
+        return fake(ICompilationUnit.class, typeName + ".java", "getElementName", typeName + ".java",
+            "getParent", fragment, "getAllTypes", new IType[] { type });
+    }
+}
@@ -0,0 +1,42 @@
+package core.parser.test;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import core.parser.TypeNames;
+
+/**
+ * Unit tests for the type string helpers used by the detectors
+ */
+public class TypeNamesTest {
+    
+    /**
+     * Test Case 1: Collections are recognized by their type name
+     */
+    @Test
+    public void testIsCollection() {
+        assertTrue(TypeNames.isCollection("java.util.List<com.example.Foo>"));
+        assertTrue(TypeNames.isCollection("Map<String, Foo>"));
+        assertFalse(TypeNames.isCollection("com.example.Foo"));
+    }
+    
+    /**
+     * Test Case 2: Element type is the first type argument list
+     */
+    @Test
+    public void testCollectionElementType() {
+        assertEquals("com.example.Foo", TypeNames.collectionElementType("java.util.List<com.example.Foo>"));
+        assertNull(TypeNames.collectionElementType("java.util.List"));
+    }
+    
+    /**
+     * Test Case 3: Simple name drops the package and type arguments
+     */
+    @Test
+    public void testSimpleName() {
+        assertEquals("Foo", TypeNames.simpleName("com.example.Foo"));
+        assertEquals("List", TypeNames.simpleName("java.util.List<com.example.Foo>"));
+        assertEquals("Foo", TypeNames.simpleName("Foo"));
+    }
+}
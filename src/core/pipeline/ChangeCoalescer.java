@@ -0,0 +1,205 @@
+package core.pipeline;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.JavaCore;
+
+import core.diagnostics.PipelineStats;
+
+/**
+ * Collects the compilation units touched by Java model changes and hands
+ * them over in one batch once no change arrived for the quiet window, so a
+ * save-all or a refactoring causes one update instead of one per file.
+ * Units are deduplicated; under a steady stream of changes a batch is still
+ * sent after the maximum delay.
+ */
+public class ChangeCoalescer implements IElementChangedListener {
+    
+    public static final long DEFAULT_QUIET_MILLIS = 300;
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 2000;
+    
+    private static final int CONTENT_FLAGS = IJavaElementDelta.F_CONTENT | IJavaElementDelta.F_PRIMARY_RESOURCE;
+    
+    private final Consumer<Set<ICompilationUnit>> update;
+    private final Job flushJob;
+    private final LongAdder eventsReceived = new LongAdder();
+    private final LongAdder unitsReceived = new LongAdder();
+    private final LongAdder updatesRun = new LongAdder();
+    private final LongAdder unitsUpdated = new LongAdder();
+    private volatile long quietMillis = DEFAULT_QUIET_MILLIS;
+    private volatile long maxDelayMillis = DEFAULT_MAX_DELAY_MILLIS;
+    private Set<ICompilationUnit> pending = new LinkedHashSet<>();
+    private long firstChange;
+    private long lastChange;
+    
+    /**
+     * @param update receives each batch of changed units, on a background thread
+     */
+    public ChangeCoalescer(Consumer<Set<ICompilationUnit>> update) {
+        this.update = update;
+        this.flushJob = new Job("Collecting Java changes") {
+            @Override
+            protected IStatus run(IProgressMonitor monitor) {
+                flush();
+                return Status.OK_STATUS;
+            }
+        };
+        flushJob.setSystem(true);
+    }
+    
+    /**
+     * Time without changes after which the collected units are sent
+     */
+    public ChangeCoalescer quietMillis(long quietMillis) {
+        this.quietMillis = quietMillis;
+        return this;
+    }
+    
+    /**
+     * Longest time a change waits while further changes keep arriving
+     */
+    public ChangeCoalescer maxDelayMillis(long maxDelayMillis) {
+        this.maxDelayMillis = maxDelayMillis;
+        return this;
+    }
+    
+    /**
+     * Listen to changes of the Java model
+     */
+    public void install() {
+        JavaCore.addElementChangedListener(this, ElementChangedEvent.POST_CHANGE);
+    }
+    
+    /**
+     * Stop listening; units still waiting are dropped
+     */
+    public void uninstall() {
+        JavaCore.removeElementChangedListener(this);
+        flushJob.cancel();
+        synchronized (this) {
+            pending = new LinkedHashSet<>();
+            firstChange = 0;
+        }
+    }
+    
+    @Override
+    public void elementChanged(ElementChangedEvent event) {
+        eventsReceived.increment();
+        PipelineStats.count(PipelineStats.Counter.CHANGE_EVENTS);
+        Set<ICompilationUnit> units = new LinkedHashSet<>();
+        collect(event.getDelta(), units);
+        changed(units);
+    }
+    
+    /**
+     * Compilation units added, removed or changed in content below a delta.
+     * Working copies count as their primary unit; opening or closing an
+     * editor changes nothing.
+     */
+    private static void collect(IJavaElementDelta delta, Set<ICompilationUnit> units) {
+        IJavaElement element = delta.getElement();
+        if (element.getElementType() == IJavaElement.COMPILATION_UNIT) {
+            if (delta.getKind() != IJavaElementDelta.CHANGED || (delta.getFlags() & CONTENT_FLAGS) != 0) {
+                units.add(((ICompilationUnit) element).getPrimary());
+            }
+            return;
+        }
+        for (IJavaElementDelta child : delta.getAffectedChildren()) {
+            collect(child, units);
+        }
+    }
+    
+    /**
+     * Add changed units to the next batch, e.g. from a source other than the
+     * Java model, and restart the quiet window
+     */
+    public void changed(Collection<ICompilationUnit> units) {
+        if (units.isEmpty()) {
+            return;
+        }
+        unitsReceived.add(units.size());
+        PipelineStats.count(PipelineStats.Counter.CHANGED_UNITS, units.size());
+        synchronized (this) {
+            pending.addAll(units);
+            lastChange = System.nanoTime();
+            if (firstChange == 0) {
+                firstChange = lastChange;
+            }
+        }
+        flushJob.schedule(quietMillis);
+    }
+    
+    /**
+     * Send the collected units if the window has passed, otherwise check again
+     * when it will have
+     */
+    private void flush() {
+        Set<ICompilationUnit> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            long now = System.nanoTime();
+            long quietLeft = quietMillis - (now - lastChange) / 1_000_000;
+            long delayLeft = maxDelayMillis - (now - firstChange) / 1_000_000;
+            if (quietLeft > 0 && delayLeft > 0) {
+                flushJob.schedule(Math.min(quietLeft, delayLeft));
+                return;
+            }
+            batch = pending;
+            pending = new LinkedHashSet<>();
+            firstChange = 0;
+        }
+        updatesRun.increment();
+        unitsUpdated.add(batch.size());
+        PipelineStats.count(PipelineStats.Counter.CHANGE_UPDATES);
+        update.accept(batch);
+    }
+    
+    /**
+     * Number of Java model change events received
+     */
+    public long getEventsReceived() {
+        return eventsReceived.sum();
+    }
+    
+    /**
+     * Number of changed units reported, before deduplication
+     */
+    public long getUnitsReceived() {
+        return unitsReceived.sum();
+    }
+    
+    /**
+     * Number of batches sent
+     */
+    public long getUpdatesRun() {
+        return updatesRun.sum();
+    }
+    
+    /**
+     * Number of units in all batches sent
+     */
+    public long getUnitsUpdated() {
+        return unitsUpdated.sum();
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("ChangeCoalescer[%d events, %d units received, %d updates of %d units]",
+            getEventsReceived(), getUnitsReceived(), getUpdatesRun(), getUnitsUpdated());
+    }
+}
@@ -0,0 +1,772 @@
+package core.pipeline;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaModelException;
+
+import core.diagnostics.PipelineStats;
+import core.layout.BarnesHutLayout;
+import core.layout.IncrementalLayout;
+import core.layout.LayoutCache;
+import core.layout.LayoutResult;
+import core.model.DegradationReport;
+import core.model.ClassNode;
+import core.model.IRBuilder;
+import core.model.IntermediateRepresentation;
+import core.model.MemberCache;
+import core.model.MemoryBudget;
+import core.model.Relation;
+import core.parser.AssociationDetector;
+import core.parser.ClassInfo;
+import core.parser.FilterSpec;
+import core.parser.InheritanceDetector;
+import core.parser.JavaClassParser;
+import core.parser.JdtMemberLoader;
+import core.parser.ParseBudget;
+import core.parser.ParseScheduler;
+
+/**
+ * Runs parse, detect and layout as a chain of background jobs in two tiers:
+ * a skeleton of types and supertypes that is laid out and shown first, then
+ * members and associations, laid out starting from the skeleton's positions.
+ * Each stage publishes a frozen DiagramSnapshot that is swapped in on the UI executor
+ * (Display.asyncExec in the workbench, see DisplayExecutor). A new request
+ * cancels the one in flight; stale stages never publish. An update after
+ * edits starts from the last complete diagram and parses only what changed.
+ */
+public class DiagramPipeline {
+    
+    public static final String PLUGIN_ID = "Eclipse_UML_Visualizer";
+    
+    private final Executor uiExecutor;
+    private final AtomicReference<DiagramSnapshot> snapshot = new AtomicReference<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final List<Consumer<DiagramSnapshot>> listeners = new CopyOnWriteArrayList<>();
+    private final ISchedulingRule rule = new MutexRule();
+    private FilterSpec filter = FilterSpec.all();
+    private MemoryBudget memoryBudget = MemoryBudget.fractionOfHeap(0.25);
+    private ParseBudget parseBudget = new ParseBudget();
+    private volatile MemberCache memberCache;
+    private volatile List<ICompilationUnit> focus = Collections.emptyList();
+    private volatile ParseScheduler scheduler;
+    private List<ICompilationUnit> requested = Collections.emptyList();
+    private LaidOut lastLaidOut;
+    private final Set<ICompilationUnit> pending = new LinkedHashSet<>(); // changed since lastLaidOut
+    private volatile long skeletonLayoutMillis = 1000;
+    private BiFunction<IntermediateRepresentation, LayoutResult, LayoutResult> layoutEngine = (ir, previous) ->
+        previous == null
+            ? new BarnesHutLayout().timeBudgetMillis(skeletonLayoutMillis).layout(ir)
+            : new BarnesHutLayout().warmStart(previous.toMap()).layout(ir);
+    
+    /**
+     * @param uiExecutor runs snapshot swaps and listener calls on the UI thread
+     */
+    public DiagramPipeline(Executor uiExecutor) {
+        this.uiExecutor = uiExecutor;
+        PipelineStats.configureFromPlatform();
+    }
+    
+    public DiagramPipeline filter(FilterSpec filter) {
+        this.filter = filter;
+        return this;
+    }
+    
+    /**
+     * Parse classes without their members and load the members when they are
+     * first read, keeping those of at most cacheCapacity classes. 0 parses
+     * members upfront again.
+     */
+    public DiagramPipeline lazyMembers(int cacheCapacity) {
+        this.memberCache = cacheCapacity > 0
+            ? new MemberCache(handle -> new JdtMemberLoader(filter).load(handle), cacheCapacity) : null;
+        return this;
+    }
+    
+    /**
+     * Cache of lazily loaded members, or null if members are parsed upfront
+     */
+    public MemberCache getMemberCache() {
+        return memberCache;
+    }
+    
+    /**
+     * Heap the published IR may take; larger IRs are reduced in detail.
+     * Defaults to a quarter of the maximum heap.
+     */
+    public DiagramPipeline memoryBudget(MemoryBudget memoryBudget) {
+        this.memoryBudget = memoryBudget;
+        return this;
+    }
+    
+    /**
+     * Limits per compilation unit; units over them, and units whose member
+     * parse keeps failing, show as skeletons. Kept across requests.
+     */
+    public DiagramPipeline parseBudget(ParseBudget parseBudget) {
+        this.parseBudget = parseBudget;
+        return this;
+    }
+    
+    public ParseBudget getParseBudget() {
+        return parseBudget;
+    }
+    
+    /**
+     * Time the default layout engine spends on the skeleton layout, which the
+     * final layout then refines; 0 for no limit
+     */
+    public DiagramPipeline skeletonLayoutMillis(long millis) {
+        this.skeletonLayoutMillis = millis;
+        return this;
+    }
+    
+    /**
+     * Layout algorithm for the skeleton and the final layout; it receives a frozen IR
+     */
+    public DiagramPipeline layoutEngine(Function<IntermediateRepresentation, LayoutResult> layoutEngine) {
+        this.layoutEngine = (ir, previous) -> layoutEngine.apply(ir);
+        return this;
+    }
+    
+    /**
+     * Layout algorithm that also receives the previous layout of the same
+     * request (the skeleton's, for the final layout) or null, to start from
+     */
+    public DiagramPipeline layoutEngine(BiFunction<IntermediateRepresentation, LayoutResult, LayoutResult> layoutEngine) {
+        this.layoutEngine = layoutEngine;
+        return this;
+    }
+    
+    /**
+     * Listener called on the UI thread after each snapshot swap
+     */
+    public void addSnapshotListener(Consumer<DiagramSnapshot> listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeSnapshotListener(Consumer<DiagramSnapshot> listener) {
+        listeners.remove(listener);
+    }
+    
+    /**
+     * Latest published snapshot, or null before the first one
+     */
+    public DiagramSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+    
+    /**
+     * Start the pipeline for a set of compilation units, cancelling any
+     * earlier request still in progress
+     * 
+     * @return generation of the new request
+     */
+    public synchronized long request(List<ICompilationUnit> units) {
+        MemberCache cache = memberCache;
+        if (cache != null) {
+            // Units may have changed; visible classes reload their members on demand
+            cache.clear();
+        }
+        lastLaidOut = null;
+        pending.clear();
+        return start(units, null, false);
+    }
+    
+    /**
+     * Bring the diagram up to date after units changed, e.g. with a batch from
+     * a ChangeCoalescer. Units that no longer exist are dropped, new units of
+     * the diagram's projects are added and changes outside the diagram are
+     * ignored. The update starts from the last complete diagram, also while
+     * an earlier update is still running: only the units changed since are
+     * parsed again (see UpdateJob), classes keep their positions and no
+     * skeleton replaces the diagram. If that diagram was reduced to fit the
+     * memory budget, all units are parsed again instead.
+     * 
+     * @return generation of the update, or -1 if nothing in the diagram changed
+     */
+    public synchronized long update(Collection<ICompilationUnit> changed) {
+        Set<ICompilationUnit> units = new LinkedHashSet<>(requested);
+        Set<IJavaProject> projects = new HashSet<>();
+        for (ICompilationUnit unit : units) {
+            projects.add(unit.getJavaProject());
+        }
+        MemberCache cache = memberCache;
+        boolean affected = false;
+        for (ICompilationUnit unit : changed) {
+            boolean inDiagram;
+            if (!unit.exists()) {
+                inDiagram = units.remove(unit);
+            } else if (units.contains(unit)) {
+                inDiagram = true;
+            } else {
+                inDiagram = projects.contains(unit.getJavaProject())
+                    && filter.acceptsPackage(unit.getParent().getElementName()) && units.add(unit);
+            }
+            if (inDiagram) {
+                pending.add(unit);
+                affected = true;
+            }
+            if (cache != null) {
+                cache.invalidatePrefix(unit.getHandleIdentifier() + "[");
+            }
+            // Edited sources get another chance
+            parseBudget.release(unit.getHandleIdentifier());
+        }
+        if (!affected) {
+            return -1;
+        }
+        LaidOut last = lastLaidOut;
+        List<ICompilationUnit> next = new ArrayList<>(units);
+        if (last != null && !last.snapshot.isDegraded()) {
+            Set<ICompilationUnit> reparse = new HashSet<>(pending);
+            return start(next, current -> new UpdateJob(current, next, reparse, last));
+        }
+        boolean complete = last != null && last.classesByUnit.keySet().equals(units);
+        return start(next, last != null ? last.snapshot.getLayout() : null, complete);
+    }
+    
+    /**
+     * @param previous layout to keep the positions of, or null to lay out from scratch
+     * @param refresh true if the request refreshes a complete diagram of the
+     *        same units, which partial stages are not to replace
+     */
+    private long start(List<ICompilationUnit> units, LayoutResult previous, boolean refresh) {
+        return start(units, current -> new SkeletonJob(current, units, previous, refresh));
+    }
+    
+    /**
+     * Cancel the request in progress and schedule the first stage of a new one
+     */
+    private long start(List<ICompilationUnit> units, LongFunction<StageJob> firstStage) {
+        long current = generation.incrementAndGet();
+        Job.getJobManager().cancel(this);
+        requested = new ArrayList<>(units);
+        firstStage.apply(current).schedule();
+        return current;
+    }
+    
+    /**
+     * Units the user is looking at, the active editor first. Their members and
+     * associations, and those of their neighbors, are parsed first and
+     * published as a FOCUSED snapshot; a parse in progress is reordered.
+     */
+    public void focus(List<ICompilationUnit> units) {
+        this.focus = new ArrayList<>(units);
+        ParseScheduler current = scheduler;
+        if (current != null) {
+            current.focus(this.focus);
+        }
+    }
+    
+    /**
+     * Cancel the request in progress without starting a new one
+     */
+    public void cancel() {
+        generation.incrementAndGet();
+        Job.getJobManager().cancel(this);
+    }
+    
+    /**
+     * Wait until no pipeline job is running or scheduled
+     */
+    public void join() throws InterruptedException {
+        Job.getJobManager().join(this, null);
+    }
+    
+    private boolean isCurrent(long requestGeneration) {
+        return generation.get() == requestGeneration;
+    }
+    
+    private void publish(DiagramSnapshot next) {
+        publish(next, null);
+    }
+    
+    /**
+     * @param classesByUnit IDs of the classes of each unit a LAID_OUT snapshot
+     *        was built from, to remember it by as the last complete diagram
+     *        once it is shown; null otherwise
+     */
+    private void publish(DiagramSnapshot next, Map<ICompilationUnit, Set<String>> classesByUnit) {
+        if (!isCurrent(next.getGeneration())) {
+            return;
+        }
+        uiExecutor.execute(() -> {
+            if (!isCurrent(next.getGeneration())) {
+                return;
+            }
+            DiagramSnapshot previous = snapshot.getAndAccumulate(next, (old, candidate) -> 
+                candidate.supersedes(old) ? candidate : old);
+            if (next.supersedes(previous)) {
+                if (classesByUnit != null) {
+                    laidOut(new LaidOut(next, classesByUnit));
+                }
+                for (Consumer<DiagramSnapshot> listener : listeners) {
+                    listener.accept(next);
+                }
+            }
+        });
+    }
+    
+    /**
+     * Remember the last complete diagram, unless a newer request started
+     * meanwhile; the changes it was built with are no longer pending
+     */
+    private synchronized void laidOut(LaidOut laidOut) {
+        if (isCurrent(laidOut.snapshot.getGeneration())) {
+            lastLaidOut = laidOut;
+            pending.clear();
+        }
+    }
+    
+    /**
+     * Layout of a frozen IR at the positions of a previous one; only classes
+     * without a position are placed, by an IncrementalLayout
+     */
+    private static LayoutResult keepPositions(IntermediateRepresentation ir, LayoutResult previous) {
+        LayoutCache positions = LayoutCache.of(previous);
+        IncrementalLayout incremental = new IncrementalLayout(ir, positions);
+        incremental.update();
+        incremental.detach();
+        return positions.toLayout(ir);
+    }
+    
+    private static Set<String> classIds(List<ClassInfo> classInfos) {
+        Set<String> classIds = new LinkedHashSet<>();
+        for (ClassInfo classInfo : classInfos) {
+            classIds.add(classId(classInfo.getPackageName(), classInfo.getName()));
+        }
+        return classIds;
+    }
+    
+    /**
+     * ID of the ClassNode of a type
+     */
+    private static String classId(String packageName, String name) {
+        return packageName.isEmpty() ? name : packageName + "." + name;
+    }
+    
+    /**
+     * Base class of the stage jobs: one generation, one rule, cancellable
+     */
+    private abstract class StageJob extends Job {
+        
+        protected final long requestGeneration;
+        
+        StageJob(String name, long requestGeneration) {
+            super(name);
+            this.requestGeneration = requestGeneration;
+            setRule(rule);
+        }
+        
+        @Override
+        public boolean belongsTo(Object family) {
+            return family == DiagramPipeline.this;
+        }
+        
+        @Override
+        protected IStatus run(IProgressMonitor monitor) {
+            if (!isCurrent(requestGeneration)) {
+                return Status.CANCEL_STATUS;
+            }
+            try {
+                runStage(monitor);
+                return Status.OK_STATUS;
+            } catch (OperationCanceledException e) {
+                return Status.CANCEL_STATUS;
+            } catch (JavaModelException e) {
+                return new Status(IStatus.ERROR, PLUGIN_ID, "Diagram pipeline failed: " + getName(), e);
+            }
+        }
+        
+        protected abstract void runStage(IProgressMonitor monitor) throws JavaModelException;
+        
+        /**
+         * Consume one unit of work, aborting if cancelled or superseded
+         */
+        protected void step(SubMonitor progress) {
+            progress.split(1);
+            if (!isCurrent(requestGeneration)) {
+                throw new OperationCanceledException();
+            }
+        }
+        
+        protected void scheduleNext(Job next) {
+            if (isCurrent(requestGeneration)) {
+                next.schedule();
+            }
+        }
+    }
+    
+    /**
+     * First tier: type names, kinds and supertypes only, laid out, so a
+     * diagram is on screen before any member is read. With a previous layout
+     * only new classes are placed, by an IncrementalLayout.
+     */
+    private class SkeletonJob extends StageJob {
+        
+        private final List<ICompilationUnit> units;
+        private final LayoutResult previous;
+        private final boolean refresh;
+        
+        SkeletonJob(long requestGeneration, List<ICompilationUnit> units, LayoutResult previous, boolean refresh) {
+            super("Parsing Java types", requestGeneration);
+            this.units = units;
+            this.previous = previous;
+            this.refresh = refresh;
+        }
+        
+        @Override
+        protected void runStage(IProgressMonitor monitor) throws JavaModelException {
+            SubMonitor progress = SubMonitor.convert(monitor, getName(), units.size() + 2);
+            // Members are skipped; with a member cache the recorded handles make them loadable
+            JavaClassParser parser = new JavaClassParser(filter).lazyMembers(true)
+                .budget(parseBudget, ParseBudget.Tier.SKELETON);
+            List<ClassInfo> classInfos = new ArrayList<>();
+            List<IType> types = new ArrayList<>();
+            Map<ICompilationUnit, Set<String>> classesByUnit = new LinkedHashMap<>();
+            for (ICompilationUnit unit : units) {
+                step(progress);
+                List<ClassInfo> parsed = parser.parse(unit, types);
+                classInfos.addAll(parsed);
+                classesByUnit.put(unit, classIds(parsed));
+            }
+            step(progress);
+            IntermediateRepresentation ir = new IRBuilder().memberCache(memberCache).build(classInfos);
+            new InheritanceDetector(ir, filter).detectInheritance(types);
+            DegradationReport degradation = memoryBudget.apply(ir);
+            degradation.getIR().freeze();
+            step(progress);
+            LayoutResult layout = previous == null
+                ? layoutEngine.apply(degradation.getIR(), null) : keepPositions(degradation.getIR(), previous);
+            if (!refresh) {
+                publish(new DiagramSnapshot(requestGeneration, DiagramSnapshot.Stage.SKELETON, 
+                    degradation.getIR(), layout, degradation));
+            }
+            scheduleNext(new MembersJob(requestGeneration, classesByUnit, ir, layout, refresh));
+        }
+    }
+    
+    /**
+     * Second tier: fields, methods and associations, unit by unit in the order
+     * of a ParseScheduler. The supertypes of the skeleton are kept rather than
+     * detected again. A refresh publishes no FOCUSED snapshot, and its
+     * DETECTED snapshot keeps the positions on screen.
+     */
+    private class MembersJob extends StageJob {
+        
+        private final Map<ICompilationUnit, Set<String>> classesByUnit;
+        private final List<ICompilationUnit> units;
+        private final IntermediateRepresentation skeleton;
+        private final LayoutResult skeletonLayout;
+        private final boolean refresh;
+        
+        MembersJob(long requestGeneration, Map<ICompilationUnit, Set<String>> classesByUnit,
+                   IntermediateRepresentation skeleton, LayoutResult skeletonLayout, boolean refresh) {
+            super("Detecting relations", requestGeneration);
+            this.classesByUnit = classesByUnit;
+            this.units = new ArrayList<>(classesByUnit.keySet());
+            this.skeleton = skeleton;
+            this.skeletonLayout = skeletonLayout;
+            this.refresh = refresh;
+        }
+        
+        @Override
+        protected void runStage(IProgressMonitor monitor) throws JavaModelException {
+            SubMonitor progress = SubMonitor.convert(monitor, getName(), units.size() + 1);
+            List<ICompilationUnit> focusSeen = focus;
+            ParseScheduler order = new ParseScheduler(units).focus(focusSeen);
+            scheduler = order;
+            try {
+                // Lazy classes already load their members; the parse only times the unit and picks its types
+                JavaClassParser parser = new JavaClassParser(filter).lazyMembers(memberCache != null)
+                    .budget(parseBudget, ParseBudget.Tier.MEMBERS);
+                List<ClassInfo> classInfos = new ArrayList<>();
+                List<IType> types = new ArrayList<>();
+                boolean focusParsed = false;
+                boolean focusPublished = refresh;
+                ParseScheduler.Priority priority;
+                while ((priority = order.peekPriority()) != null) {
+                    if (focus != focusSeen) {
+                        // The focus moved, maybe before focus() saw this scheduler;
+                        // show the new one once it is parsed
+                        focusSeen = focus;
+                        order.focus(focusSeen);
+                        focusParsed = false;
+                        focusPublished = refresh;
+                    }
+                    boolean nearFocus = priority.compareTo(ParseScheduler.Priority.RELATED) <= 0;
+                    if (focusParsed && !nearFocus && !focusPublished) {
+                        // The focus and its neighbors are done; show them before the rest
+                        publishDetected(DiagramSnapshot.Stage.FOCUSED, classInfos, types);
+                        focusPublished = true;
+                    }
+                    ICompilationUnit unit = order.next();
+                    step(progress);
+                    focusParsed |= nearFocus;
+                    // Types over budget stay skeletons without associations
+                    List<ClassInfo> parsed = parser.parse(unit, types);
+                    if (memberCache == null) {
+                        classInfos.addAll(parsed);
+                    }
+                }
+                step(progress);
+                DegradationReport degradation = publishDetected(DiagramSnapshot.Stage.DETECTED, classInfos, types);
+                scheduleNext(new LayoutJob(requestGeneration, classesByUnit, degradation, skeletonLayout));
+            } finally {
+                if (scheduler == order) {
+                    scheduler = null;
+                }
+            }
+        }
+        
+        /**
+         * Publish the skeleton with the members and associations of the types
+         * parsed so far, at the skeleton's positions until the final layout
+         */
+        private DegradationReport publishDetected(DiagramSnapshot.Stage stage, List<ClassInfo> classInfos,
+                                                  List<IType> types) throws JavaModelException {
+            IntermediateRepresentation ir;
+            if (memberCache != null) {
+                // Lazy skeleton classes already load their members on demand
+                ir = new IntermediateRepresentation();
+            } else {
+                ir = new IRBuilder().build(classInfos);
+            }
+            for (ClassNode classNode : skeleton.getAllClasses().values()) {
+                if (ir.getClass(classNode.getId()) == null) {
+                    ir.addClass(classNode);
+                }
+            }
+            for (Relation relation : skeleton.getAllRelations()) {
+                ir.addRelation(relation);
+            }
+            new AssociationDetector(ir, new ArrayList<>(ir.getAllClasses().values()), filter).detectAssociations(types);
+            // Reduced after detection, which needs the full classes; the full IR is dropped here
+            DegradationReport degradation = memoryBudget.apply(ir);
+            degradation.getIR().freeze();
+            publish(new DiagramSnapshot(requestGeneration, stage, degradation.getIR(),
+                stage == DiagramSnapshot.Stage.FOCUSED || refresh ? skeletonLayout : null, degradation));
+            return degradation;
+        }
+    }
+    
+    /**
+     * Brings the last complete diagram up to date. The classes of changed and
+     * deleted units are dropped and only changed and new units are parsed,
+     * in both tiers. The detectors run again for their types and for the
+     * types with a relation to a class that was dropped or parsed; all other
+     * relations are kept. Classes keep their positions and only new ones are
+     * placed before the final layout. An unchanged type whose field names a
+     * class new to the diagram gets that association with the next request.
+     */
+    private class UpdateJob extends StageJob {
+        
+        private final Set<ICompilationUnit> units;
+        private final Set<ICompilationUnit> changed;
+        private final LaidOut base;
+        
+        UpdateJob(long requestGeneration, List<ICompilationUnit> units, Set<ICompilationUnit> changed, LaidOut base) {
+            super("Updating diagram", requestGeneration);
+            this.units = new LinkedHashSet<>(units);
+            this.changed = changed;
+            this.base = base;
+        }
+        
+        @Override
+        protected void runStage(IProgressMonitor monitor) throws JavaModelException {
+            Set<ICompilationUnit> reparse = new LinkedHashSet<>();
+            for (ICompilationUnit unit : units) {
+                if (changed.contains(unit) || !base.classesByUnit.containsKey(unit)) {
+                    reparse.add(unit);
+                }
+            }
+            SubMonitor progress = SubMonitor.convert(monitor, getName(), reparse.size() + 2);
+            Map<ICompilationUnit, Set<String>> classesByUnit = new LinkedHashMap<>();
+            Set<String> dropped = new HashSet<>();
+            for (Map.Entry<ICompilationUnit, Set<String>> entry : base.classesByUnit.entrySet()) {
+                if (units.contains(entry.getKey()) && !reparse.contains(entry.getKey())) {
+                    classesByUnit.put(entry.getKey(), entry.getValue());
+                } else {
+                    dropped.addAll(entry.getValue());
+                }
+            }
+            JavaClassParser skeletonParser = new JavaClassParser(filter).lazyMembers(true)
+                .budget(parseBudget, ParseBudget.Tier.SKELETON);
+            JavaClassParser memberParser = new JavaClassParser(filter).lazyMembers(memberCache != null)
+                .budget(parseBudget, ParseBudget.Tier.MEMBERS);
+            List<ClassInfo> skeletonInfos = new ArrayList<>();
+            List<ClassInfo> memberInfos = new ArrayList<>();
+            List<IType> supertypeSources = new ArrayList<>();
+            List<IType> fieldSources = new ArrayList<>();
+            for (ICompilationUnit unit : reparse) {
+                step(progress);
+                List<ClassInfo> parsed = skeletonParser.parse(unit, supertypeSources);
+                skeletonInfos.addAll(parsed);
+                classesByUnit.put(unit, classIds(parsed));
+                List<ClassInfo> withMembers = memberParser.parse(unit, fieldSources);
+                if (memberCache == null) {
+                    memberInfos.addAll(withMembers);
+                }
+            }
+            step(progress);
+            IntermediateRepresentation parsed = new IRBuilder().build(memberInfos);
+            for (ClassNode classNode : new IRBuilder().memberCache(memberCache).build(skeletonInfos)
+                    .getAllClasses().values()) {
+                if (parsed.getClass(classNode.getId()) == null) {
+                    parsed.addClass(classNode);
+                }
+            }
+            IntermediateRepresentation previous = base.snapshot.getIR();
+            IntermediateRepresentation ir = new IntermediateRepresentation();
+            for (ClassNode classNode : previous.getAllClasses().values()) {
+                if (!dropped.contains(classNode.getId())) {
+                    ir.addClass(classNode);
+                }
+            }
+            for (ClassNode classNode : parsed.getAllClasses().values()) {
+                ir.addClass(classNode);
+            }
+            keepRelations(previous, ir, dropped, parsed.getAllClasses().keySet(), supertypeSources, fieldSources);
+            new InheritanceDetector(ir, filter).detectInheritance(supertypeSources);
+            new AssociationDetector(ir, new ArrayList<>(ir.getAllClasses().values()), filter)
+                .detectAssociations(fieldSources);
+            DegradationReport degradation = memoryBudget.apply(ir);
+            degradation.getIR().freeze();
+            step(progress);
+            LayoutResult layout = keepPositions(degradation.getIR(), base.snapshot.getLayout());
+            publish(new DiagramSnapshot(requestGeneration, DiagramSnapshot.Stage.DETECTED, degradation.getIR(),
+                layout, degradation));
+            scheduleNext(new LayoutJob(requestGeneration, classesByUnit, degradation, layout));
+        }
+        
+        /**
+         * Copy the relations of the previous IR into the new one, except those
+         * from or to a dropped or parsed class; copies, as the detectors set
+         * the multiplicity of relations they find again. The types with a
+         * relation to such a class are added to the detectors' types.
+         */
+        private void keepRelations(IntermediateRepresentation previous, IntermediateRepresentation ir,
+                                   Set<String> dropped, Set<String> parsedIds, List<IType> supertypeSources,
+                                   List<IType> fieldSources) throws JavaModelException {
+            Set<String> referrers = new HashSet<>();
+            Set<String> fieldReferrers = new HashSet<>();
+            for (Relation relation : previous.getAllRelations()) {
+                String source = relation.getSourceId();
+                String target = relation.getTargetId();
+                if (dropped.contains(source) || parsedIds.contains(source)) {
+                    continue;
+                }
+                if (dropped.contains(target) || parsedIds.contains(target)) {
+                    referrers.add(source);
+                    if (!relation.getType().equals("inheritance") && !relation.getType().equals("implements")) {
+                        fieldReferrers.add(source);
+                    }
+                    continue;
+                }
+                Relation copy = new Relation(source, target, relation.getType(), relation.isTargetExternal());
+                copy.setMultiplicity(relation.getMultiplicity());
+                ir.addRelation(copy);
+            }
+            for (Map.Entry<ICompilationUnit, Set<String>> entry : base.classesByUnit.entrySet()) {
+                if (!units.contains(entry.getKey()) || Collections.disjoint(entry.getValue(), referrers)) {
+                    continue;
+                }
+                for (IType type : entry.getKey().getAllTypes()) {
+                    String classId = classId(type.getPackageFragment().getElementName(), type.getElementName());
+                    if (referrers.contains(classId)) {
+                        supertypeSources.add(type);
+                        if (fieldReferrers.contains(classId)) {
+                            fieldSources.add(type);
+                        }
+                    }
+                }
+            }
+        }
+    }
+    
+    private class LayoutJob extends StageJob {
+        
+        private final Map<ICompilationUnit, Set<String>> classesByUnit;
+        private final IntermediateRepresentation ir;
+        private final DegradationReport degradation;
+        private final LayoutResult previous;
+        
+        LayoutJob(long requestGeneration, Map<ICompilationUnit, Set<String>> classesByUnit,
+                  DegradationReport degradation, LayoutResult previous) {
+            super("Laying out diagram", requestGeneration);
+            this.classesByUnit = classesByUnit;
+            this.ir = degradation.getIR();
+            this.degradation = degradation;
+            this.previous = previous;
+        }
+        
+        @Override
+        protected void runStage(IProgressMonitor monitor) {
+            SubMonitor progress = SubMonitor.convert(monitor, getName(), 1);
+            step(progress);
+            LayoutResult layout = layoutEngine.apply(ir, previous);
+            if (!isCurrent(requestGeneration)) {
+                throw new OperationCanceledException();
+            }
+            publish(new DiagramSnapshot(requestGeneration, DiagramSnapshot.Stage.LAID_OUT, ir, layout, degradation),
+                classesByUnit);
+        }
+    }
+    
+    /**
+     * Last LAID_OUT snapshot shown, with the IDs of the classes of each unit
+     * it was built from
+     */
+    private static class LaidOut {
+        
+        final DiagramSnapshot snapshot;
+        final Map<ICompilationUnit, Set<String>> classesByUnit;
+        
+        LaidOut(DiagramSnapshot snapshot, Map<ICompilationUnit, Set<String>> classesByUnit) {
+            this.snapshot = snapshot;
+            this.classesByUnit = classesByUnit;
+        }
+    }
+    
+    /**
+     * Lets only one stage of this pipeline run at a time
+     */
+    private static class MutexRule implements ISchedulingRule {
+        
+        @Override
+        public boolean contains(ISchedulingRule rule) {
+            return rule == this;
+        }
+        
+        @Override
+        public boolean isConflicting(ISchedulingRule rule) {
+            return rule == this;
+        }
+    }
+}
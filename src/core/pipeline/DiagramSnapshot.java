@@ -0,0 +1,102 @@
+package core.pipeline;
+
+import core.layout.LayoutResult;
+import core.model.DegradationReport;
+import core.model.IntermediateRepresentation;
+
+/**
+ * Finished result of one pipeline stage. The IR is frozen before it is
+ * published, so a snapshot can be read from any thread while newer ones are
+ * being built.
+ */
+public class DiagramSnapshot {
+    
+    /**
+     * Pipeline stage a snapshot was published after
+     */
+    public enum Stage {
+        /** Types, kinds and inheritance only, with a first layout */
+        SKELETON,
+        /** Skeleton plus members and associations of the focused units and their neighbors */
+        FOCUSED,
+        /** Classes with all detected relations */
+        DETECTED,
+        /** Classes, relations and node positions */
+        LAID_OUT
+    }
+    
+    private final long generation;
+    private final Stage stage;
+    private final IntermediateRepresentation ir;
+    private final LayoutResult layout;
+    private final DegradationReport degradation;
+    
+    public DiagramSnapshot(long generation, Stage stage, IntermediateRepresentation ir, LayoutResult layout) {
+        this(generation, stage, ir, layout, null);
+    }
+    
+    /**
+     * @param degradation how the IR was fitted into the memory budget, or null if no budget was applied
+     */
+    public DiagramSnapshot(long generation, Stage stage, IntermediateRepresentation ir, LayoutResult layout,
+                           DegradationReport degradation) {
+        this.generation = generation;
+        this.stage = stage;
+        this.ir = ir.isFrozen() ? ir : ir.freeze();
+        this.layout = layout;
+        this.degradation = degradation;
+    }
+    
+    /**
+     * Request this snapshot belongs to; higher is newer
+     */
+    public long getGeneration() {
+        return generation;
+    }
+    
+    public Stage getStage() {
+        return stage;
+    }
+    
+    public IntermediateRepresentation getIR() {
+        return ir;
+    }
+    
+    /**
+     * Node positions, or null before the layout stage
+     */
+    public LayoutResult getLayout() {
+        return layout;
+    }
+    
+    /**
+     * How the IR was fitted into the memory budget, or null if no budget was applied
+     */
+    public DegradationReport getDegradation() {
+        return degradation;
+    }
+    
+    /**
+     * True if the IR lacks detail because of the memory budget
+     */
+    public boolean isDegraded() {
+        return degradation != null && degradation.isDegraded();
+    }
+    
+    /**
+     * True if this snapshot should replace the given one. A FOCUSED snapshot
+     * also replaces an earlier FOCUSED one of its request, published before
+     * the focus moved.
+     */
+    public boolean supersedes(DiagramSnapshot other) {
+        return other == null || generation > other.generation 
+            || (generation == other.generation && (stage.compareTo(other.stage) > 0
+                || (stage == Stage.FOCUSED && other.stage == Stage.FOCUSED)));
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("DiagramSnapshot[generation=%d, stage=%s, classes=%d]", 
+            generation, stage, ir.getAllClasses().size());
+    }
+}
@@ -0,0 +1,38 @@
+package core.pipeline;
+
+import java.util.concurrent.Executor;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.SWTException;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Executor that runs tasks on the SWT UI thread via Display.asyncExec.
+ * Tasks submitted after the display was disposed are dropped.
+ */
+public class DisplayExecutor implements Executor {
+    
+    private final Display display;
+    
+    public DisplayExecutor(Display display) {
+        this.display = display;
+    }
+    
+    public static DisplayExecutor getDefault() {
+        return new DisplayExecutor(Display.getDefault());
+    }
+    
+    @Override
+    public void execute(Runnable task) {
+        if (display.isDisposed()) {
+            return;
+        }
+        try {
+            display.asyncExec(task);
+        } catch (SWTException e) {
+            if (e.code != SWT.ERROR_DEVICE_DISPOSED) {
+                throw e;
+            }
+        }
+    }
+}
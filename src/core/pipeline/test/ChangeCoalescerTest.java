@@ -0,0 +1,73 @@
+package core.pipeline.test;
+
+import static core.parser.test.JdtFakes.fake;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.junit.Test;
+
+import core.pipeline.ChangeCoalescer;
+
+/**
+ * Unit tests for the debouncing of change bursts
+ */
+public class ChangeCoalescerTest {
+
+    /**
+     * Test Case 1: A burst within the quiet window becomes one batch of distinct units
+     */
+    @Test
+    public void testBurstBecomesOneBatch() throws Exception {
+        List<Set<ICompilationUnit>> batches = new CopyOnWriteArrayList<>();
+        ChangeCoalescer coalescer = new ChangeCoalescer(batches::add).quietMillis(200);
+        ICompilationUnit a = unit("A.java");
+        ICompilationUnit b = unit("B.java");
+
+        coalescer.changed(Arrays.asList(a));
+        coalescer.changed(Arrays.asList(b, a));
+        coalescer.changed(Arrays.asList(a));
+        awaitUpdates(coalescer, 1);
+        Thread.sleep(300);
+
+        assertEquals(1, batches.size());
+        assertEquals(2, batches.get(0).size());
+        assertTrue(batches.get(0).containsAll(Arrays.asList(a, b)));
+        assertEquals(4, coalescer.getUnitsReceived());
+        assertEquals(1, coalescer.getUpdatesRun());
+        assertEquals(2, coalescer.getUnitsUpdated());
+    }
+
+    /**
+     * Test Case 2: A steady stream of changes is still sent after the maximum delay
+     */
+    @Test
+    public void testMaxDelayUnderSteadyChanges() throws Exception {
+        List<Set<ICompilationUnit>> batches = new CopyOnWriteArrayList<>();
+        ChangeCoalescer coalescer = new ChangeCoalescer(batches::add).quietMillis(100).maxDelayMillis(250);
+        ICompilationUnit a = unit("A.java");
+
+        long end = System.currentTimeMillis() + 1000;
+        while (System.currentTimeMillis() < end) {
+            coalescer.changed(Arrays.asList(a));
+            Thread.sleep(20);
+        }
+
+        assertTrue(batches.size() >= 2);
+    }
+
+    private static void awaitUpdates(ChangeCoalescer coalescer, long updates) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (coalescer.getUpdatesRun() < updates && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static ICompilationUnit unit(String name) {
+        return fake(ICompilationUnit.class, name);
+    }
+}
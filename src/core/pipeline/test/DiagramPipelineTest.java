@@ -0,0 +1,376 @@
+package core.pipeline.test;
+
+import static core.parser.test.JdtFakes.fake;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.eclipse.jdt.core.Flags;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IField;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IType;
+import org.junit.Test;
+
+import core.layout.BarnesHutLayout;
+import core.layout.LayoutResult;
+import core.model.ClassNode;
+import core.model.IntermediateRepresentation;
+import core.parser.ParseBudget;
+import core.parser.ParseBudget.Outcome;
+import core.parser.ParseBudget.Tier;
+import core.pipeline.DiagramPipeline;
+import core.pipeline.DiagramSnapshot;
+import core.pipeline.DiagramSnapshot.Stage;
+
+/**
+ * Unit tests for the background job pipeline and its snapshot handoff
+ */
+public class DiagramPipelineTest {
+
+    /**
+     * Test Case 1: Every stage publishes a frozen snapshot, in order
+     */
+    @Test
+    public void testStagesPublishInOrder() throws Exception {
+        DiagramPipeline pipeline = new DiagramPipeline(Runnable::run);
+        List<DiagramSnapshot> published = Collections.synchronizedList(new ArrayList<>());
+        pipeline.addSnapshotListener(published::add);
+
+        long generation = pipeline.request(Collections.emptyList());
+        pipeline.join();
+
+        assertEquals(3, published.size());
+        assertEquals(Stage.SKELETON, published.get(0).getStage());
+        assertNotNull(published.get(0).getLayout());
+        assertEquals(Stage.DETECTED, published.get(1).getStage());
+        assertEquals(Stage.LAID_OUT, published.get(2).getStage());
+        assertNotNull(published.get(2).getLayout());
+        for (DiagramSnapshot snapshot : published) {
+            assertEquals(generation, snapshot.getGeneration());
+            assertTrue(snapshot.getIR().isFrozen());
+            assertNotNull(snapshot.getDegradation());
+            assertFalse(snapshot.isDegraded());
+        }
+        assertSame(published.get(2), pipeline.getSnapshot());
+    }
+
+    /**
+     * Test Case 2: A newer request cancels the one in flight, which never publishes again
+     */
+    @Test
+    public void testNewerRequestWins() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        DiagramPipeline pipeline = new DiagramPipeline(Runnable::run).layoutEngine(ir -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new BarnesHutLayout().layout(ir);
+        });
+        List<DiagramSnapshot> published = Collections.synchronizedList(new ArrayList<>());
+        pipeline.addSnapshotListener(published::add);
+
+        long first = pipeline.request(Collections.emptyList());
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        long second = pipeline.request(Collections.emptyList());
+        release.countDown();
+        pipeline.join();
+
+        assertTrue(second > first);
+        for (DiagramSnapshot snapshot : published) {
+            assertFalse(snapshot.getGeneration() == first && snapshot.getStage() == Stage.LAID_OUT);
+        }
+        assertEquals(second, pipeline.getSnapshot().getGeneration());
+        assertEquals(Stage.LAID_OUT, pipeline.getSnapshot().getStage());
+    }
+
+    /**
+     * Test Case 3: Published IRs cannot be modified
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testSnapshotIsReadOnly() throws Exception {
+        DiagramPipeline pipeline = new DiagramPipeline(Runnable::run);
+        pipeline.request(Collections.emptyList());
+        pipeline.join();
+
+        pipeline.getSnapshot().getIR().addClass(new ClassNode("Late", "class", "p"));
+    }
+
+    /**
+     * Test Case 4: The final layout starts from the skeleton layout
+     */
+    @Test
+    public void testFinalLayoutStartsFromSkeleton() throws Exception {
+        List<LayoutResult> previousLayouts = Collections.synchronizedList(new ArrayList<>());
+        DiagramPipeline pipeline = new DiagramPipeline(Runnable::run).layoutEngine((ir, previous) -> {
+            previousLayouts.add(previous);
+            return new BarnesHutLayout().layout(ir);
+        });
+        List<DiagramSnapshot> published = Collections.synchronizedList(new ArrayList<>());
+        pipeline.addSnapshotListener(published::add);
+
+        pipeline.request(Collections.emptyList());
+        pipeline.join();
+
+        assertEquals(2, previousLayouts.size());
+        assertNull(previousLayouts.get(0));
+        assertSame(published.get(0).getLayout(), previousLayouts.get(1));
+    }
+
+    /**
+     * Test Case 5: Changes to units outside the diagram start no update
+     */
+    @Test
+    public void testUpdateIgnoresUnrelatedUnits() throws Exception {
+        DiagramPipeline pipeline = new DiagramPipeline(Runnable::run);
+        pipeline.request(Collections.emptyList());
+        pipeline.join();
+        ICompilationUnit elsewhere = fake(ICompilationUnit.class, "Elsewhere.java", "exists", true,
+            "getHandleIdentifier", "=other/src<p{Elsewhere.java");
+
+        assertEquals(-1, pipeline.update(Collections.singletonList(elsewhere)));
+    }
+
+    /**
+     * Test Case 6: Moving the focus during the member tier publishes a new
+     * FOCUSED snapshot for the new focus
+     */
+    @Test
+    public void testFocusMovePublishesAgain() throws Exception {
+        DiagramPipeline pipeline = new DiagramPipeline(Runnable::run);
+        List<DiagramSnapshot> published = Collections.synchronizedList(new ArrayList<>());
+        pipeline.addSnapshotListener(published::add);
+        ICompilationUnit a = unit("p", "A", null);
+        ICompilationUnit c = unit("r", "C", null);
+        ICompilationUnit d = unit("s", "D", null);
+        AtomicBoolean moved = new AtomicBoolean();
+        // B moves the focus to C while it is parsed after the first FOCUSED snapshot
+        ICompilationUnit b = unit("q", "B", () -> {
+            DiagramSnapshot current = pipeline.getSnapshot();
+            if (current != null && current.getStage() == Stage.FOCUSED && moved.compareAndSet(false, true)) {
+                pipeline.focus(Collections.singletonList(c));
+            }
+        });
+
+        pipeline.focus(Collections.singletonList(a));
+        pipeline.request(Arrays.asList(a, b, c, d));
+        pipeline.join();
+
+        List<Stage> stages = new ArrayList<>();
+        for (DiagramSnapshot snapshot : published) {
+            stages.add(snapshot.getStage());
+        }
+        assertEquals(Arrays.asList(Stage.SKELETON, Stage.FOCUSED, Stage.FOCUSED, Stage.DETECTED, Stage.LAID_OUT),
+            stages);
+        assertTrue(published.get(1).getIR().getClass("r.C").getFields().isEmpty());
+        assertEquals(1, published.get(2).getIR().getClass("r.C").getFields().size());
+    }
+
+    /**
+     * Test Case 7: An update of unchanged units lays out from the diagram on
+     * screen and publishes no skeleton over it
+     */
+    @Test
+    public void testUpdateKeepsCompleteDiagram() throws Exception {
+        List<LayoutResult> previousLayouts = Collections.synchronizedList(new ArrayList<>());
+        DiagramPipeline pipeline = new DiagramPipeline(Runnable::run).layoutEngine((ir, previous) -> {
+            previousLayouts.add(previous);
+            return previous == null ? new BarnesHutLayout().layout(ir) : previous;
+        });
+        List<DiagramSnapshot> published = Collections.synchronizedList(new ArrayList<>());
+        pipeline.addSnapshotListener(published::add);
+        ICompilationUnit a = unit("p", "A", null);
+        ICompilationUnit b = unit("q", "B", null);
+        pipeline.request(Arrays.asList(a, b));
+        pipeline.join();
+        LayoutResult shown = pipeline.getSnapshot().getLayout();
+        published.clear();
+        previousLayouts.clear();
+
+        long update = pipeline.update(Collections.singletonList(a));
+        pipeline.join();
+
+        assertEquals(2, published.size());
+        assertEquals(Stage.DETECTED, published.get(0).getStage());
+        assertEquals(Stage.LAID_OUT, published.get(1).getStage());
+        assertEquals(update, published.get(1).getGeneration());
+        assertEquals(1, previousLayouts.size());
+        assertArrayEquals(shown.getPosition("p.A"), previousLayouts.get(0).getPosition("p.A"), 0);
+        assertArrayEquals(shown.getPosition("q.B"), previousLayouts.get(0).getPosition("q.B"), 0);
+    }
+
+    /**
+     * Test Case 8: A unit whose member parse keeps running out of time is
+     * quarantined, although its skeleton parses in time
+     */
+    @Test
+    public void testSlowMembersQuarantine() throws Exception {
+        ParseBudget budget = new ParseBudget().maxMillis(25).failureThreshold(3);
+        DiagramPipeline pipeline = new DiagramPipeline(Runnable::run).parseBudget(budget);
+        ICompilationUnit fast = unit("p", "A", null);
+        // Slow only in the member tier, which runs once the skeleton is shown
+        ICompilationUnit slow = unit("q", "Slow", () -> {
+            DiagramSnapshot current = pipeline.getSnapshot();
+            if (current != null && current.getStage() == Stage.SKELETON) {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        for (int i = 0; i < 3; i++) {
+            assertNotEquals(Outcome.QUARANTINED, budget.getOutcome(Tier.MEMBERS, "Slow.java"));
+            pipeline.request(Arrays.asList(fast, slow));
+            pipeline.join();
+        }
+
+        assertEquals(Outcome.QUARANTINED, budget.getOutcome(Tier.MEMBERS, "Slow.java"));
+        assertEquals(Outcome.PARSED, budget.getOutcome(Tier.SKELETON, "Slow.java"));
+        assertTrue(pipeline.getSnapshot().getIR().getClass("q.Slow").getFields().isEmpty());
+        assertEquals(1, pipeline.getSnapshot().getIR().getClass("p.A").getFields().size());
+    }
+
+    /**
+     * Test Case 9: Updates that overlap, one arriving before the running
+     * update published its DETECTED snapshot and one after, replace the
+     * complete diagram by neither a skeleton nor a diagram without positions
+     */
+    @Test
+    public void testOverlappingUpdatesKeepCompleteDiagram() throws Exception {
+        AtomicBoolean updating = new AtomicBoolean();
+        AtomicBoolean parseOverlapped = new AtomicBoolean();
+        AtomicBoolean layoutOverlapped = new AtomicBoolean();
+        DiagramPipeline[] pipeline = new DiagramPipeline[1];
+        ICompilationUnit a = unit("p", "A", null);
+        // The first update's parse of B starts the second update
+        ICompilationUnit b = unit("q", "B", () -> {
+            if (updating.compareAndSet(true, false)) {
+                parseOverlapped.set(true);
+                pipeline[0].update(Collections.singletonList(a));
+            }
+        });
+        List<LayoutResult> previousLayouts = Collections.synchronizedList(new ArrayList<>());
+        // The second update's final layout starts the third
+        pipeline[0] = new DiagramPipeline(Runnable::run).layoutEngine((ir, previous) -> {
+            previousLayouts.add(previous);
+            if (previous != null && parseOverlapped.get() && layoutOverlapped.compareAndSet(false, true)) {
+                pipeline[0].update(Collections.singletonList(b));
+            }
+            return previous == null ? new BarnesHutLayout().layout(ir) : previous;
+        });
+        List<DiagramSnapshot> published = Collections.synchronizedList(new ArrayList<>());
+        pipeline[0].addSnapshotListener(published::add);
+        pipeline[0].request(Arrays.asList(a, b));
+        pipeline[0].join();
+        LayoutResult shown = pipeline[0].getSnapshot().getLayout();
+        published.clear();
+        previousLayouts.clear();
+
+        updating.set(true);
+        long first = pipeline[0].update(Collections.singletonList(b));
+        pipeline[0].join();
+
+        assertTrue(layoutOverlapped.get());
+        assertFalse(published.isEmpty());
+        for (DiagramSnapshot snapshot : published) {
+            assertNotEquals(Stage.SKELETON, snapshot.getStage());
+            assertNotNull(snapshot.getLayout());
+        }
+        DiagramSnapshot last = pipeline[0].getSnapshot();
+        assertEquals(Stage.LAID_OUT, last.getStage());
+        assertEquals(first + 2, last.getGeneration());
+        for (LayoutResult previous : previousLayouts) {
+            assertArrayEquals(shown.getPosition("p.A"), previous.getPosition("p.A"), 0);
+            assertArrayEquals(shown.getPosition("q.B"), previous.getPosition("q.B"), 0);
+        }
+    }
+
+    /**
+     * Test Case 10: An update parses only the changed unit again, keeps the
+     * relations of the others and detects those to the changed classes again
+     */
+    @Test
+    public void testUpdateParsesOnlyChangedUnits() throws Exception {
+        DiagramPipeline pipeline = new DiagramPipeline(Runnable::run);
+        AtomicInteger readsOfB = new AtomicInteger();
+        AtomicInteger readsOfC = new AtomicInteger();
+        AtomicBoolean bExists = new AtomicBoolean(true);
+        ICompilationUnit a = unit("p", "A", "QB;", () -> true, null);
+        ICompilationUnit b = unit("q", "B", "I", bExists::get, readsOfB::incrementAndGet);
+        ICompilationUnit c = unit("r", "C", "QA;", () -> true, readsOfC::incrementAndGet);
+        pipeline.request(Arrays.asList(a, b, c));
+        pipeline.join();
+        assertEquals(1, pipeline.getSnapshot().getIR().getOutgoingRelations("p.A").size());
+        readsOfB.set(0);
+        readsOfC.set(0);
+
+        pipeline.update(Collections.singletonList(b));
+        pipeline.join();
+
+        IntermediateRepresentation updated = pipeline.getSnapshot().getIR();
+        assertEquals(Stage.LAID_OUT, pipeline.getSnapshot().getStage());
+        assertTrue(readsOfB.get() > 0);
+        assertEquals(0, readsOfC.get());
+        assertEquals(3, updated.getAllClasses().size());
+        assertEquals(1, updated.getClass("q.B").getFields().size());
+        assertEquals("q.B", updated.getOutgoingRelations("p.A").get(0).getTargetId());
+        assertEquals("p.A", updated.getOutgoingRelations("r.C").get(0).getTargetId());
+        assertEquals(2, updated.getAllRelations().size());
+
+        bExists.set(false);
+        pipeline.update(Collections.singletonList(b));
+        pipeline.join();
+
+        updated = pipeline.getSnapshot().getIR();
+        assertNull(updated.getClass("q.B"));
+        assertTrue(updated.getOutgoingRelations("p.A").isEmpty());
+        assertEquals(1, updated.getAllRelations().size());
+        assertEquals(0, readsOfC.get());
+    }
+
+    /**
+     * Unit with one public class of one int field; onParse runs whenever its
+     * types are read
+     */
+    private static ICompilationUnit unit(String packageName, String typeName, Runnable onParse) {
+        return unit(packageName, typeName, "I", () -> true, onParse);
+    }
+
+    /**
+     * Unit with one public class of one field of the given type signature,
+     * e.g. "QB;" for a field of class B, that exists while exists says so
+     */
+    private static ICompilationUnit unit(String packageName, String typeName, String fieldType,
+                                         Supplier<Boolean> exists, Runnable onParse) {
+        IPackageFragment fragment = fake(IPackageFragment.class, packageName, "getElementName", packageName);
+        IField field = fake(IField.class, "count", "getElementName", "count", "getTypeSignature", fieldType,
+            "getFlags", Flags.AccPublic);
+        IType type = fake(IType.class, typeName, "getElementName", typeName,
+            "getFullyQualifiedName", packageName + "." + typeName, "getPackageFragment", fragment, "getFields", new IField[] { field }, "getMethods", new IMethod[0],
+            "getSuperInterfaceNames", new String[0], "isEnum", false, "isInterface", false,
+            "getFlags", Flags.AccPublic, "getHandleIdentifier", typeName);
+        Supplier<IType[]> types = () -> {
+            if (onParse != null) {
+                onParse.run();
+            }
+            return new IType[] { type };
+        };
+        return fake(ICompilationUnit.class, typeName + ".java", "getElementName", typeName + ".java",
+            "getHandleIdentifier", typeName + ".java", "getParent", fragment, "getAllTypes", types, "getTypes", types, "exists", exists);
+    }
+}
@@ -0,0 +1,37 @@
+package core.query;
+
+import java.util.stream.Stream;
+
+import core.model.ClassNode;
+import core.model.IntermediateRepresentation;
+
+/**
+ * A condition on a class in the IR. Predicates that can be answered from an
+ * IR index also report candidate class IDs, so a plan can start from the
+ * index instead of scanning every class.
+ */
+public interface ClassPredicate {
+    
+    boolean test(IntermediateRepresentation ir, ClassNode classNode);
+    
+    /**
+     * Estimated number of index candidates, or -1 if this predicate has no index
+     */
+    default int estimate(IntermediateRepresentation ir) {
+        return -1;
+    }
+    
+    /**
+     * IDs of every class that may satisfy this predicate. May contain
+     * duplicates and unknown IDs. Predicates without an index return every
+     * class of the IR.
+     */
+    default Stream<String> candidates(IntermediateRepresentation ir) {
+        return ir.getAllClasses().keySet().stream();
+    }
+    
+    /**
+     * Human-readable form used by QueryPlan.explain()
+     */
+    String describe();
+}
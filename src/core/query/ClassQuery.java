@@ -0,0 +1,139 @@
+package core.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.stream.Stream;
+
+import core.model.ClassNode;
+import core.model.IntermediateRepresentation;
+import core.model.TraversalRules.Direction;
+
+/**
+ * Fluent structural query over the classes of an IR. All conditions must hold.
+ * 
+ * <pre>
+ * ClassQuery.classes()
+ *     .inPackage("com.acme.service")
+ *     .hasRelation("composition", Direction.OUTGOING, ClassQuery.classes().inPackage("com.acme.repo"))
+ *     .lacksRelation("implements", Direction.OUTGOING)
+ *     .stream(ir);
+ * </pre>
+ */
+public class ClassQuery {
+    
+    private List<ClassPredicate> predicates;
+    
+    private ClassQuery() {
+        this.predicates = new ArrayList<>();
+    }
+    
+    public static ClassQuery classes() {
+        return new ClassQuery();
+    }
+    
+    public ClassQuery inPackage(String packageName) {
+        return where(Predicates.inPackage(packageName));
+    }
+    
+    /**
+     * In the package or any of its subpackages
+     */
+    public ClassQuery inPackageTree(String packageName) {
+        return where(Predicates.inPackageTree(packageName));
+    }
+    
+    /**
+     * "class", "interface" or "enum"
+     */
+    public ClassQuery ofKind(String kind) {
+        return where(Predicates.ofKind(kind));
+    }
+    
+    /**
+     * Simple name matches a glob with * and ? wildcards
+     */
+    public ClassQuery named(String glob) {
+        return where(Predicates.named(glob));
+    }
+    
+    public ClassQuery hasField(String nameGlob) {
+        return where(Predicates.hasField(nameGlob));
+    }
+    
+    public ClassQuery hasMethod(String nameGlob) {
+        return where(Predicates.hasMethod(nameGlob));
+    }
+    
+    /**
+     * Has at least one relation of this type in the given direction
+     */
+    public ClassQuery hasRelation(String type, Direction direction) {
+        return where(Predicates.relation(type, direction, null, false));
+    }
+    
+    /**
+     * Has at least one relation of this type in the given direction whose other end matches the query
+     */
+    public ClassQuery hasRelation(String type, Direction direction, ClassQuery other) {
+        return where(Predicates.relation(type, direction, other, false));
+    }
+    
+    /**
+     * Has no relation of this type in the given direction
+     */
+    public ClassQuery lacksRelation(String type, Direction direction) {
+        return where(Predicates.relation(type, direction, null, true));
+    }
+    
+    /**
+     * Has no relation of this type in the given direction whose other end matches the query
+     */
+    public ClassQuery lacksRelation(String type, Direction direction, ClassQuery other) {
+        return where(Predicates.relation(type, direction, other, true));
+    }
+    
+    /**
+     * Add a custom condition
+     */
+    public ClassQuery where(ClassPredicate predicate) {
+        predicates.add(predicate);
+        return this;
+    }
+    
+    /**
+     * Choose an access path for the given IR
+     */
+    public QueryPlan compile(IntermediateRepresentation ir) {
+        return QueryPlan.compile(ir, predicates);
+    }
+    
+    /**
+     * Compile and run against the IR; results are produced lazily
+     */
+    public Stream<ClassNode> stream(IntermediateRepresentation ir) {
+        return compile(ir).stream();
+    }
+    
+    boolean matches(IntermediateRepresentation ir, ClassNode classNode) {
+        for (ClassPredicate predicate : predicates) {
+            if (!predicate.test(ir, classNode)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    String describe() {
+        StringJoiner joiner = new StringJoiner(" and ");
+        for (ClassPredicate predicate : predicates) {
+            joiner.add(predicate.describe());
+        }
+        return predicates.isEmpty() ? "any" : joiner.toString();
+    }
+    
+    @Override
+    public String toString() {
+        return "ClassQuery[" + describe() + "]";
+    }
+}
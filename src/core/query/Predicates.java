@@ -0,0 +1,223 @@
+package core.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import core.model.ClassNode;
+import core.model.Field;
+import core.model.IntermediateRepresentation;
+import core.model.Method;
+import core.model.Relation;
+import core.model.TraversalRules.Direction;
+
+/**
+ * Built-in predicates used by ClassQuery.
+ */
+final class Predicates {
+    
+    private Predicates() {
+    }
+    
+    /**
+     * Class is in exactly this package; answered from the package index
+     */
+    static ClassPredicate inPackage(String packageName) {
+        return new ClassPredicate() {
+            public boolean test(IntermediateRepresentation ir, ClassNode classNode) {
+                return classNode.getPackageName().equals(packageName);
+            }
+            
+            public int estimate(IntermediateRepresentation ir) {
+                return ir.getClassIdsInPackage(packageName).size();
+            }
+            
+            public Stream<String> candidates(IntermediateRepresentation ir) {
+                return ir.getClassIdsInPackage(packageName).stream();
+            }
+            
+            public String describe() {
+                return "package = " + packageName;
+            }
+        };
+    }
+    
+    /**
+     * Class is in this package or one of its subpackages
+     */
+    static ClassPredicate inPackageTree(String packageName) {
+        return new ClassPredicate() {
+            public boolean test(IntermediateRepresentation ir, ClassNode classNode) {
+                return inTree(classNode.getPackageName());
+            }
+            
+            public int estimate(IntermediateRepresentation ir) {
+                int size = 0;
+                for (String name : packages(ir)) {
+                    size += ir.getClassIdsInPackage(name).size();
+                }
+                return size;
+            }
+            
+            public Stream<String> candidates(IntermediateRepresentation ir) {
+                return packages(ir).stream().flatMap(name -> ir.getClassIdsInPackage(name).stream());
+            }
+            
+            public String describe() {
+                return "package under " + packageName;
+            }
+            
+            private List<String> packages(IntermediateRepresentation ir) {
+                List<String> result = new ArrayList<>();
+                for (String name : ir.getPackageNames()) {
+                    if (inTree(name)) {
+                        result.add(name);
+                    }
+                }
+                return result;
+            }
+            
+            private boolean inTree(String name) {
+                return name.equals(packageName) || name.startsWith(packageName + ".");
+            }
+        };
+    }
+    
+    static ClassPredicate ofKind(String kind) {
+        return new ClassPredicate() {
+            public boolean test(IntermediateRepresentation ir, ClassNode classNode) {
+                return classNode.getType().equals(kind);
+            }
+            
+            public String describe() {
+                return "kind = " + kind;
+            }
+        };
+    }
+    
+    static ClassPredicate named(String glob) {
+        Pattern pattern = globPattern(glob);
+        return new ClassPredicate() {
+            public boolean test(IntermediateRepresentation ir, ClassNode classNode) {
+                return pattern.matcher(classNode.getName()).matches();
+            }
+            
+            public String describe() {
+                return "name ~ " + glob;
+            }
+        };
+    }
+    
+    static ClassPredicate hasField(String glob) {
+        Pattern pattern = globPattern(glob);
+        return new ClassPredicate() {
+            public boolean test(IntermediateRepresentation ir, ClassNode classNode) {
+                for (Field field : classNode.getFields()) {
+                    if (pattern.matcher(field.getName()).matches()) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            
+            public String describe() {
+                return "field ~ " + glob;
+            }
+        };
+    }
+    
+    static ClassPredicate hasMethod(String glob) {
+        Pattern pattern = globPattern(glob);
+        return new ClassPredicate() {
+            public boolean test(IntermediateRepresentation ir, ClassNode classNode) {
+                for (Method method : classNode.getMethods()) {
+                    if (pattern.matcher(method.getName()).matches()) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            
+            public String describe() {
+                return "method ~ " + glob;
+            }
+        };
+    }
+    
+    /**
+     * Class has (or, if negated, has no) relation of the given type in the given
+     * direction whose other end satisfies the optional query. Non-negated
+     * relation predicates are answered from the relation-type index.
+     */
+    static ClassPredicate relation(String type, Direction direction, ClassQuery other, boolean negated) {
+        return new ClassPredicate() {
+            public boolean test(IntermediateRepresentation ir, ClassNode classNode) {
+                return hasMatch(ir, classNode.getId()) != negated;
+            }
+            
+            public int estimate(IntermediateRepresentation ir) {
+                return negated ? -1 : ir.getRelationsByType(type).size();
+            }
+            
+            public Stream<String> candidates(IntermediateRepresentation ir) {
+                Stream<Relation> relations = ir.getRelationsByType(type).stream();
+                switch (direction) {
+                    case OUTGOING: return relations.map(Relation::getSourceId);
+                    case INCOMING: return relations.map(Relation::getTargetId);
+                    default: return relations.flatMap(rel -> Stream.of(rel.getSourceId(), rel.getTargetId()));
+                }
+            }
+            
+            public String describe() {
+                String arrow = direction == Direction.OUTGOING ? "-->" 
+                    : direction == Direction.INCOMING ? "<--" : "<->";
+                return (negated ? "no " : "") + type + " " + arrow 
+                    + (other != null ? " (" + other.describe() + ")" : " any");
+            }
+            
+            private boolean hasMatch(IntermediateRepresentation ir, String classId) {
+                if (direction != Direction.INCOMING) {
+                    for (Relation rel : ir.getOutgoingRelations(classId)) {
+                        if (rel.getType().equals(type) && endMatches(ir, rel.getTargetId())) {
+                            return true;
+                        }
+                    }
+                }
+                if (direction != Direction.OUTGOING) {
+                    for (Relation rel : ir.getIncomingRelations(classId)) {
+                        if (rel.getType().equals(type) && endMatches(ir, rel.getSourceId())) {
+                            return true;
+                        }
+                    }
+                }
+                return false;
+            }
+            
+            private boolean endMatches(IntermediateRepresentation ir, String otherId) {
+                if (other == null) {
+                    return true;
+                }
+                ClassNode otherNode = ir.getClass(otherId);
+                return otherNode != null && other.matches(ir, otherNode);
+            }
+        };
+    }
+    
+    /**
+     * Glob with * and ? wildcards, matched against the whole name
+     */
+    static Pattern globPattern(String glob) {
+        StringBuilder regex = new StringBuilder();
+        for (char c : glob.toCharArray()) {
+            if (c == '*') {
+                regex.append(".*");
+            } else if (c == '?') {
+                regex.append('.');
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+}
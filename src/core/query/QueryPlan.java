@@ -0,0 +1,104 @@
+package core.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import core.model.ClassNode;
+import core.model.IntermediateRepresentation;
+
+/**
+ * A compiled ClassQuery: one access path (the most selective indexed
+ * predicate, or a full scan) plus the residual predicates applied as filters.
+ */
+public class QueryPlan {
+    
+    private IntermediateRepresentation ir;
+    private ClassPredicate access; // null for a full scan
+    private int estimate;
+    private List<ClassPredicate> residual;
+    
+    private QueryPlan(IntermediateRepresentation ir, ClassPredicate access, int estimate, 
+            List<ClassPredicate> residual) {
+        this.ir = ir;
+        this.access = access;
+        this.estimate = estimate;
+        this.residual = residual;
+    }
+    
+    static QueryPlan compile(IntermediateRepresentation ir, List<ClassPredicate> predicates) {
+        ClassPredicate best = null;
+        int bestEstimate = ir.getAllClasses().size();
+        for (ClassPredicate predicate : predicates) {
+            int estimate = predicate.estimate(ir);
+            if (estimate >= 0 && estimate < bestEstimate) {
+                best = predicate;
+                bestEstimate = estimate;
+            }
+        }
+        // The access predicate stays in the residual filters: index candidates are
+        // a superset (e.g. relation sources before the target condition is checked)
+        return new QueryPlan(ir, best, bestEstimate, new ArrayList<>(predicates));
+    }
+    
+    /**
+     * Matching classes, produced lazily from the access path
+     */
+    public Stream<ClassNode> stream() {
+        Stream<ClassNode> source;
+        if (access == null) {
+            source = ir.getAllClasses().values().stream();
+        } else {
+            source = access.candidates(ir).distinct().map(ir::getClass).filter(Objects::nonNull);
+        }
+        return source.filter(classNode -> {
+            for (ClassPredicate predicate : residual) {
+                if (!predicate.test(ir, classNode)) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+    
+    public List<ClassNode> list() {
+        return stream().collect(Collectors.toList());
+    }
+    
+    public boolean usesIndex() {
+        return access != null;
+    }
+    
+    /**
+     * Estimated number of candidate classes examined
+     */
+    public int getEstimate() {
+        return estimate;
+    }
+    
+    /**
+     * Textual description of the chosen plan
+     */
+    public String explain() {
+        StringBuilder sb = new StringBuilder();
+        if (access == null) {
+            sb.append("scan all classes");
+        } else {
+            sb.append("index lookup [").append(access.describe()).append(']');
+        }
+        sb.append(" (~").append(estimate).append(" candidates)");
+        for (ClassPredicate predicate : residual) {
+            if (predicate != access) {
+                sb.append("\n  filter [").append(predicate.describe()).append(']');
+            }
+        }
+        return sb.toString();
+    }
+    
+    @Override
+    public String toString() {
+        return explain();
+    }
+}
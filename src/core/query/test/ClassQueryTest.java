@@ -0,0 +1,124 @@
+package core.query.test;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import core.model.ClassNode;
+import core.model.Field;
+import core.model.IntermediateRepresentation;
+import core.model.Relation;
+import core.model.TraversalRules.Direction;
+import core.query.ClassPredicate;
+import core.query.ClassQuery;
+import core.query.QueryPlan;
+
+/**
+ * Unit tests for the structural class query API
+ */
+public class ClassQueryTest {
+
+    private IntermediateRepresentation ir;
+
+    @Before
+    public void setUp() {
+        ir = new IntermediateRepresentation();
+        ClassNode orders = new ClassNode("OrderService", "class", "com.acme.service");
+        orders.addField(new Field("orderRepo", "OrderRepo", "private", false));
+        ir.addClass(orders);
+        ir.addClass(new ClassNode("UserService", "class", "com.acme.service"));
+        ir.addClass(new ClassNode("AuditService", "class", "com.acme.service.audit"));
+        ir.addClass(new ClassNode("OrderRepo", "class", "com.acme.repo"));
+        ir.addClass(new ClassNode("UserRepo", "class", "com.acme.repo"));
+        ir.addClass(new ClassNode("Service", "interface", "com.acme.api"));
+
+        ir.addRelation(new Relation("com.acme.service.OrderService", "com.acme.repo.OrderRepo", "composition"));
+        ir.addRelation(new Relation("com.acme.service.UserService", "com.acme.repo.UserRepo", "composition"));
+        ir.addRelation(new Relation("com.acme.service.UserService", "com.acme.api.Service", "implements"));
+        ir.addRelation(new Relation("com.acme.service.audit.AuditService", "com.acme.repo.UserRepo", "association"));
+    }
+
+    private List<String> names(ClassQuery query) {
+        return query.stream(ir).map(ClassNode::getName).sorted().collect(Collectors.toList());
+    }
+
+    /**
+     * Test Case 1: Services composing a repo and implementing no interface
+     */
+    @Test
+    public void testCombinedQuery() {
+        ClassQuery query = ClassQuery.classes()
+            .inPackage("com.acme.service")
+            .hasRelation("composition", Direction.OUTGOING, ClassQuery.classes().inPackage("com.acme.repo"))
+            .lacksRelation("implements", Direction.OUTGOING);
+
+        assertEquals(List.of("OrderService"), names(query));
+    }
+
+    /**
+     * Test Case 2: Plans start from the most selective index
+     */
+    @Test
+    public void testPlanUsesIndex() {
+        QueryPlan plan = ClassQuery.classes()
+            .ofKind("class")
+            .hasRelation("implements", Direction.OUTGOING)
+            .compile(ir);
+
+        assertTrue(plan.usesIndex());
+        assertEquals(1, plan.getEstimate());
+        assertTrue(plan.explain().startsWith("index lookup [implements"));
+
+        QueryPlan scan = ClassQuery.classes().ofKind("interface").compile(ir);
+        assertFalse(scan.usesIndex());
+        assertEquals(1, scan.list().size());
+    }
+
+    /**
+     * Test Case 3: Package trees, incoming relations and member predicates
+     */
+    @Test
+    public void testOtherPredicates() {
+        assertEquals(List.of("AuditService", "OrderService", "UserService"),
+            names(ClassQuery.classes().inPackageTree("com.acme.service")));
+        assertEquals(List.of("UserRepo"),
+            names(ClassQuery.classes().hasRelation("association", Direction.INCOMING)));
+        assertEquals(List.of("OrderService"), names(ClassQuery.classes().hasField("*Repo")));
+        assertEquals(List.of("OrderRepo", "UserRepo"), names(ClassQuery.classes().named("*Repo")));
+    }
+
+    /**
+     * Test Case 4: Results are distinct even when a class has several indexed relations
+     */
+    @Test
+    public void testDistinctResults() {
+        ir.addRelation(new Relation("com.acme.service.OrderService", "com.acme.repo.UserRepo", "composition"));
+
+        assertEquals(2, ClassQuery.classes().hasRelation("composition", Direction.OUTGOING).stream(ir).count());
+    }
+
+    /**
+     * Test Case 5: A predicate without an index offers every class as a candidate
+     */
+    @Test
+    public void testPredicateWithoutIndex() {
+        ClassPredicate unindexed = new ClassPredicate() {
+            @Override
+            public boolean test(IntermediateRepresentation ir, ClassNode classNode) {
+                return true;
+            }
+
+            @Override
+            public String describe() {
+                return "any";
+            }
+        };
+
+        assertEquals(-1, unindexed.estimate(ir));
+        assertEquals(ir.getAllClasses().size(), unindexed.candidates(ir).count());
+    }
+}
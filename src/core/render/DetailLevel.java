@@ -0,0 +1,13 @@
+package core.render;
+
+/**
+ * How much of a class node is drawn, from cheapest to most detailed
+ */
+public enum DetailLevel {
+    /** A small marker, no text */
+    DOT,
+    /** A box with the class name only */
+    NAME,
+    /** Name plus field and method compartments */
+    FULL
+}
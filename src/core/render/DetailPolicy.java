@@ -0,0 +1,124 @@
+package core.render;
+
+import core.model.ClassNode;
+import core.model.Field;
+import core.model.Method;
+
+/**
+ * Chooses the detail level for a zoom factor and estimates node sizes at each
+ * level. When more nodes are visible than a level's budget allows, the next
+ * cheaper level is used so frame times stay bounded.
+ */
+public class DetailPolicy {
+    
+    private static final int PARAMETER_CHARS = 12;
+    
+    private double nameZoom = 0.3;
+    private double fullZoom = 0.8;
+    private int fullBudget = 1_000;
+    private int nameBudget = 10_000;
+    private DetailLevel minEdgeLevel = DetailLevel.NAME;
+    private double charWidth = 7;
+    private double lineHeight = 16;
+    private double padding = 8;
+    private double dotSize = 6;
+    
+    /**
+     * Zoom factors from which names and full compartments are drawn
+     */
+    public DetailPolicy thresholds(double nameZoom, double fullZoom) {
+        this.nameZoom = nameZoom;
+        this.fullZoom = fullZoom;
+        return this;
+    }
+    
+    /**
+     * Maximum number of visible nodes drawn in full and with names
+     */
+    public DetailPolicy budgets(int fullBudget, int nameBudget) {
+        this.fullBudget = fullBudget;
+        this.nameBudget = nameBudget;
+        return this;
+    }
+    
+    /**
+     * Lowest level at which edges are drawn
+     */
+    public DetailPolicy minEdgeLevel(DetailLevel minEdgeLevel) {
+        this.minEdgeLevel = minEdgeLevel;
+        return this;
+    }
+    
+    /**
+     * Text metrics in diagram units, used for size estimates
+     */
+    public DetailPolicy textMetrics(double charWidth, double lineHeight) {
+        this.charWidth = charWidth;
+        this.lineHeight = lineHeight;
+        return this;
+    }
+    
+    public DetailLevel levelFor(double zoom) {
+        if (zoom >= fullZoom) {
+            return DetailLevel.FULL;
+        }
+        return zoom >= nameZoom ? DetailLevel.NAME : DetailLevel.DOT;
+    }
+    
+    /**
+     * Level for a zoom factor, lowered while the visible node count exceeds its budget
+     */
+    public DetailLevel levelFor(double zoom, int visibleNodes) {
+        DetailLevel level = levelFor(zoom);
+        if (level == DetailLevel.FULL && visibleNodes > fullBudget) {
+            level = DetailLevel.NAME;
+        }
+        if (level == DetailLevel.NAME && visibleNodes > nameBudget) {
+            level = DetailLevel.DOT;
+        }
+        return level;
+    }
+    
+    public boolean showsEdges(DetailLevel level) {
+        return level.compareTo(minEdgeLevel) >= 0;
+    }
+    
+    public double getLineHeight() {
+        return lineHeight;
+    }
+    
+    /**
+     * Space between a node border and its text
+     */
+    public double getPadding() {
+        return padding;
+    }
+    
+    /**
+     * Size of a dot in screen pixels; it does not scale with zoom
+     */
+    public double getDotSize() {
+        return dotSize;
+    }
+    
+    /**
+     * Estimated {width, height} of a node in diagram units
+     */
+    public double[] size(ClassNode node, DetailLevel level) {
+        int chars = node.getName().length();
+        int lines = 1;
+        if (level == DetailLevel.FULL) {
+            for (Field field : node.getFields()) {
+                chars = Math.max(chars, 4 + field.getName().length() + field.getType().length());
+            }
+            for (Method method : node.getMethods()) {
+                // Parameter types are not exposed outside the model, assume short ones
+                int length = 6 + method.getName().length() + method.getReturnType().length()
+                    + PARAMETER_CHARS * method.getParameters().size();
+                chars = Math.max(chars, length);
+            }
+            lines += node.getFields().size() + node.getMethods().size();
+        }
+        return new double[] { chars * charWidth + 2 * padding, lines * lineHeight + 2 * padding };
+    }
+}
@@ -0,0 +1,207 @@
+package core.render;
+
+import java.util.Arrays;
+
+import core.layout.GraphIndex;
+import core.layout.LayeredLayoutResult;
+import core.layout.LayoutResult;
+import core.model.ClassNode;
+import core.model.IntermediateRepresentation;
+
+/**
+ * Laid out diagram prepared for rendering: node bounds and edge paths with a
+ * spatial index over each, so the visible part can be found without touching
+ * the rest. Node bounds use the full-detail size and are therefore
+ * conservative at the cheaper levels. Lazy nodes whose members are not in
+ * memory are sized by name, so building a scene loads no members.
+ */
+public class RenderScene {
+    
+    private IntermediateRepresentation ir;
+    private LayoutResult layout;
+    private double[] minX;
+    private double[] minY;
+    private double[] maxX;
+    private double[] maxY;
+    private double[][] edgePaths;
+    private SpatialIndex nodeIndex;
+    private SpatialIndex edgeIndex;
+    
+    public RenderScene(IntermediateRepresentation ir, LayoutResult layout, DetailPolicy policy) {
+        this.ir = ir;
+        this.layout = layout;
+        GraphIndex graph = layout.getGraph();
+        int n = graph.nodeCount();
+        minX = new double[n];
+        minY = new double[n];
+        maxX = new double[n];
+        maxY = new double[n];
+        for (int i = 0; i < n; i++) {
+            ClassNode node = ir.getClass(graph.id(i));
+            double[] size = node == null ? new double[] { 0, 0 }
+                : policy.size(node, node.areMembersLoaded() ? DetailLevel.FULL : DetailLevel.NAME);
+            minX[i] = layout.getX(i) - size[0] / 2;
+            minY[i] = layout.getY(i) - size[1] / 2;
+            maxX[i] = layout.getX(i) + size[0] / 2;
+            maxY[i] = layout.getY(i) + size[1] / 2;
+        }
+        nodeIndex = SpatialIndex.build(minX, minY, maxX, maxY);
+        
+        int m = graph.edgeCount();
+        edgePaths = new double[m][];
+        double[] eMinX = new double[m];
+        double[] eMinY = new double[m];
+        double[] eMaxX = new double[m];
+        double[] eMaxY = new double[m];
+        for (int e = 0; e < m; e++) {
+            double[] path = path(graph, e);
+            edgePaths[e] = path;
+            eMinX[e] = Double.MAX_VALUE;
+            eMinY[e] = Double.MAX_VALUE;
+            eMaxX[e] = -Double.MAX_VALUE;
+            eMaxY[e] = -Double.MAX_VALUE;
+            for (int k = 0; k < path.length; k += 2) {
+                eMinX[e] = Math.min(eMinX[e], path[k]);
+                eMinY[e] = Math.min(eMinY[e], path[k + 1]);
+                eMaxX[e] = Math.max(eMaxX[e], path[k]);
+                eMaxY[e] = Math.max(eMaxY[e], path[k + 1]);
+            }
+        }
+        edgeIndex = SpatialIndex.build(eMinX, eMinY, eMaxX, eMaxY);
+    }
+    
+    /**
+     * Polyline from the source centre through any bend points to the target centre
+     */
+    private double[] path(GraphIndex graph, int edge) {
+        int source = graph.edgeSource(edge);
+        int target = graph.edgeTarget(edge);
+        double[] bends = layout instanceof LayeredLayoutResult 
+            ? ((LayeredLayoutResult) layout).getBendPoints(edge) 
+            : new double[0];
+        double[] path = new double[bends.length + 4];
+        path[0] = layout.getX(source);
+        path[1] = layout.getY(source);
+        // Bend points run from the upper end downwards
+        boolean sourceOnTop = layout.getY(source) <= layout.getY(target);
+        for (int k = 0; k < bends.length; k += 2) {
+            int from = sourceOnTop ? k : bends.length - 2 - k;
+            path[2 + k] = bends[from];
+            path[3 + k] = bends[from + 1];
+        }
+        path[path.length - 2] = layout.getX(target);
+        path[path.length - 1] = layout.getY(target);
+        return path;
+    }
+    
+    public IntermediateRepresentation getIR() {
+        return ir;
+    }
+    
+    public LayoutResult getLayout() {
+        return layout;
+    }
+    
+    /**
+     * Class shown by a node, or null if it is not in the IR
+     */
+    public ClassNode getClassNode(int node) {
+        return ir.getClass(layout.getGraph().id(node));
+    }
+    
+    /**
+     * Bounds of all nodes as {minX, minY, maxX, maxY}
+     */
+    public double[] bounds() {
+        double[] bounds = { Double.MAX_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE };
+        for (int i = 0; i < minX.length; i++) {
+            bounds[0] = Math.min(bounds[0], minX[i]);
+            bounds[1] = Math.min(bounds[1], minY[i]);
+            bounds[2] = Math.max(bounds[2], maxX[i]);
+            bounds[3] = Math.max(bounds[3], maxY[i]);
+        }
+        return minX.length == 0 ? new double[4] : bounds;
+    }
+    
+    public int nodeCount() {
+        return minX.length;
+    }
+    
+    public int edgeCount() {
+        return edgePaths.length;
+    }
+    
+    /**
+     * Bounds of a node as {minX, minY, maxX, maxY}
+     */
+    public double[] getNodeBounds(int node) {
+        return new double[] { minX[node], minY[node], maxX[node], maxY[node] };
+    }
+    
+    /**
+     * Edge path as {x0, y0, x1, y1, ...} from the source to the target centre
+     */
+    public double[] getEdgePath(int edge) {
+        return edgePaths[edge].clone();
+    }
+    
+    /**
+     * Nodes whose bounds intersect the viewport, in ascending order
+     */
+    public int[] nodesIn(Viewport viewport) {
+        return nodeIndex.query(viewport.getX(), viewport.getY(), viewport.getMaxX(), viewport.getMaxY());
+    }
+    
+    /**
+     * Edges with a segment crossing the viewport, in ascending order
+     */
+    public int[] edgesIn(Viewport viewport) {
+        int[] candidates = edgeIndex.query(viewport.getX(), viewport.getY(), viewport.getMaxX(), viewport.getMaxY());
+        int count = 0;
+        for (int e : candidates) {
+            if (crosses(edgePaths[e], viewport)) {
+                candidates[count++] = e;
+            }
+        }
+        return Arrays.copyOf(candidates, count);
+    }
+    
+    private static boolean crosses(double[] path, Viewport viewport) {
+        for (int k = 0; k + 3 < path.length; k += 2) {
+            if (segmentIntersects(path[k], path[k + 1], path[k + 2], path[k + 3], viewport)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Liang-Barsky clipping of a segment against the viewport
+     */
+    private static boolean segmentIntersects(double x0, double y0, double x1, double y1, Viewport viewport) {
+        double dx = x1 - x0;
+        double dy = y1 - y0;
+        double[] p = { -dx, dx, -dy, dy };
+        double[] q = { x0 - viewport.getX(), viewport.getMaxX() - x0, y0 - viewport.getY(), viewport.getMaxY() - y0 };
+        double t0 = 0;
+        double t1 = 1;
+        for (int i = 0; i < 4; i++) {
+            if (p[i] == 0) {
+                if (q[i] < 0) {
+                    return false;
+                }
+            } else {
+                double t = q[i] / p[i];
+                if (p[i] < 0) {
+                    t0 = Math.max(t0, t);
+                } else {
+                    t1 = Math.min(t1, t);
+                }
+                if (t0 > t1) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
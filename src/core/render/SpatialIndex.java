@@ -0,0 +1,130 @@
+package core.render;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Static R-tree over axis-aligned boxes, bulk loaded with Sort-Tile-Recursive
+ * packing. Entries are identified by their index in the input arrays.
+ * Rebuilding 50k boxes takes a few milliseconds, so the index is rebuilt
+ * after a layout change instead of being updated in place.
+ */
+public class SpatialIndex {
+    
+    private static final int NODE_SIZE = 16;
+    
+    private double[][] boxes;   // per level, 4 values per box; level 0 holds the entries
+    private int[] entries;      // entry index of each level 0 box
+    private int size;
+    
+    private SpatialIndex(double[][] boxes, int[] entries) {
+        this.boxes = boxes;
+        this.entries = entries;
+        this.size = entries.length;
+    }
+    
+    public static SpatialIndex build(double[] minX, double[] minY, double[] maxX, double[] maxY) {
+        int n = minX.length;
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        // Sort by centre x, cut into vertical slices, sort each slice by centre y
+        Arrays.sort(order, (a, b) -> Double.compare(minX[a] + maxX[a], minX[b] + maxX[b]));
+        int leaves = (n + NODE_SIZE - 1) / NODE_SIZE;
+        int sliceSize = NODE_SIZE * (int) Math.ceil(Math.sqrt(leaves));
+        for (int start = 0; start < n; start += sliceSize) {
+            Arrays.sort(order, start, Math.min(n, start + sliceSize),
+                (a, b) -> Double.compare(minY[a] + maxY[a], minY[b] + maxY[b]));
+        }
+        
+        int[] entries = new int[n];
+        double[] level = new double[4 * n];
+        for (int k = 0; k < n; k++) {
+            int i = order[k];
+            entries[k] = i;
+            level[4 * k] = minX[i];
+            level[4 * k + 1] = minY[i];
+            level[4 * k + 2] = maxX[i];
+            level[4 * k + 3] = maxY[i];
+        }
+        
+        List<double[]> levels = new ArrayList<>();
+        levels.add(level);
+        while (level.length > 4 * NODE_SIZE) {
+            int count = level.length / 4;
+            int parents = (count + NODE_SIZE - 1) / NODE_SIZE;
+            double[] parent = new double[4 * parents];
+            for (int p = 0; p < parents; p++) {
+                double[] box = { Double.MAX_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE };
+                for (int c = p * NODE_SIZE; c < Math.min(count, (p + 1) * NODE_SIZE); c++) {
+                    box[0] = Math.min(box[0], level[4 * c]);
+                    box[1] = Math.min(box[1], level[4 * c + 1]);
+                    box[2] = Math.max(box[2], level[4 * c + 2]);
+                    box[3] = Math.max(box[3], level[4 * c + 3]);
+                }
+                System.arraycopy(box, 0, parent, 4 * p, 4);
+            }
+            levels.add(parent);
+            level = parent;
+        }
+        return new SpatialIndex(levels.toArray(new double[0][]), entries);
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Visit every entry whose box intersects the query box
+     */
+    public void query(double minX, double minY, double maxX, double maxY, IntConsumer visitor) {
+        if (size == 0) {
+            return;
+        }
+        int top = boxes.length - 1;
+        int[] stackLevel = new int[NODE_SIZE * boxes.length + 1];
+        int[] stackIndex = new int[stackLevel.length];
+        int sp = 0;
+        for (int i = 0; i < boxes[top].length / 4; i++) {
+            stackLevel[sp] = top;
+            stackIndex[sp++] = i;
+        }
+        while (sp > 0) {
+            int l = stackLevel[--sp];
+            int i = stackIndex[sp];
+            double[] level = boxes[l];
+            if (level[4 * i] > maxX || level[4 * i + 2] < minX || level[4 * i + 1] > maxY || level[4 * i + 3] < minY) {
+                continue;
+            }
+            if (l == 0) {
+                visitor.accept(entries[i]);
+            } else {
+                int children = boxes[l - 1].length / 4;
+                for (int c = Math.min(children, (i + 1) * NODE_SIZE) - 1; c >= i * NODE_SIZE; c--) {
+                    stackLevel[sp] = l - 1;
+                    stackIndex[sp++] = c;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Entries intersecting the query box, in ascending order
+     */
+    public int[] query(double minX, double minY, double maxX, double maxY) {
+        int[][] result = { new int[16] };
+        int[] count = { 0 };
+        query(minX, minY, maxX, maxY, i -> {
+            if (count[0] == result[0].length) {
+                result[0] = Arrays.copyOf(result[0], count[0] * 2);
+            }
+            result[0][count[0]++] = i;
+        });
+        int[] found = Arrays.copyOf(result[0], count[0]);
+        Arrays.sort(found);
+        return found;
+    }
+}
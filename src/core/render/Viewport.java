@@ -0,0 +1,82 @@
+package core.render;
+
+/**
+ * Visible area of the diagram in diagram coordinates, with the zoom factor
+ * (screen pixels per diagram unit) it is shown at.
+ */
+public class Viewport {
+    
+    private double x;
+    private double y;
+    private double width;
+    private double height;
+    private double zoom;
+    
+    public Viewport(double x, double y, double width, double height, double zoom) {
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+        this.zoom = zoom;
+    }
+    
+    /**
+     * Viewport for a screen area of the given pixel size, scrolled to (x, y)
+     */
+    public static Viewport ofScreen(double x, double y, int screenWidth, int screenHeight, double zoom) {
+        return new Viewport(x, y, screenWidth / zoom, screenHeight / zoom, zoom);
+    }
+    
+    public double getX() {
+        return x;
+    }
+    
+    public double getY() {
+        return y;
+    }
+    
+    public double getWidth() {
+        return width;
+    }
+    
+    public double getHeight() {
+        return height;
+    }
+    
+    public double getZoom() {
+        return zoom;
+    }
+    
+    public double getMaxX() {
+        return x + width;
+    }
+    
+    public double getMaxY() {
+        return y + height;
+    }
+    
+    /**
+     * Same viewport moved by (dx, dy)
+     */
+    public Viewport pan(double dx, double dy) {
+        return new Viewport(x + dx, y + dy, width, height, zoom);
+    }
+    
+    /**
+     * Viewport grown on every side by a fraction of its size
+     */
+    public Viewport expand(double fraction) {
+        double mx = width * fraction;
+        double my = height * fraction;
+        return new Viewport(x - mx, y - my, width + 2 * mx, height + 2 * my, zoom);
+    }
+    
+    public boolean intersects(double minX, double minY, double maxX, double maxY) {
+        return minX <= getMaxX() && maxX >= x && minY <= getMaxY() && maxY >= y;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("Viewport[x=%.1f, y=%.1f, w=%.1f, h=%.1f, zoom=%.2f]", x, y, width, height, zoom);
+    }
+}
@@ -0,0 +1,89 @@
+package core.render;
+
+import java.util.Arrays;
+
+/**
+ * Tracks which nodes and edges of a RenderScene are materialized as figures.
+ * Each update culls against the viewport grown by a margin, so small pans
+ * mostly hit figures that already exist, and reports only what changed.
+ */
+public class ViewportCuller {
+    
+    private static final int[] NONE = new int[0];
+    
+    private RenderScene scene;
+    private DetailPolicy policy;
+    private double margin = 0.25;
+    private int[] visibleNodes = NONE;
+    private int[] visibleEdges = NONE;
+    private DetailLevel level;
+    
+    public ViewportCuller(RenderScene scene, DetailPolicy policy) {
+        this.scene = scene;
+        this.policy = policy;
+    }
+    
+    /**
+     * Extra area around the viewport, as a fraction of its size, that is kept materialized
+     */
+    public ViewportCuller margin(double fraction) {
+        this.margin = fraction;
+        return this;
+    }
+    
+    public ViewportUpdate update(Viewport viewport) {
+        Viewport area = viewport.expand(margin);
+        int[] nodes = scene.nodesIn(area);
+        DetailLevel newLevel = policy.levelFor(viewport.getZoom(), nodes.length);
+        int[] edges = policy.showsEdges(newLevel) ? scene.edgesIn(area) : NONE;
+        
+        ViewportUpdate update = new ViewportUpdate(
+            difference(nodes, visibleNodes), difference(visibleNodes, nodes),
+            difference(edges, visibleEdges), difference(visibleEdges, edges),
+            newLevel, level != null && level != newLevel, nodes.length, edges.length);
+        visibleNodes = nodes;
+        visibleEdges = edges;
+        level = newLevel;
+        return update;
+    }
+    
+    /**
+     * Forget all materialized figures, e.g. after the scene was replaced
+     */
+    public void reset(RenderScene scene) {
+        this.scene = scene;
+        this.visibleNodes = NONE;
+        this.visibleEdges = NONE;
+        this.level = null;
+    }
+    
+    public int[] getVisibleNodes() {
+        return visibleNodes.clone();
+    }
+    
+    public int[] getVisibleEdges() {
+        return visibleEdges.clone();
+    }
+    
+    public DetailLevel getLevel() {
+        return level;
+    }
+    
+    /**
+     * Elements of sorted array a that are not in sorted array b
+     */
+    private static int[] difference(int[] a, int[] b) {
+        int[] result = new int[a.length];
+        int count = 0;
+        int j = 0;
+        for (int value : a) {
+            while (j < b.length && b[j] < value) {
+                j++;
+            }
+            if (j == b.length || b[j] != value) {
+                result[count++] = value;
+            }
+        }
+        return count == a.length ? result : Arrays.copyOf(result, count);
+    }
+}
@@ -0,0 +1,75 @@
+package core.render;
+
+/**
+ * Difference between two culling passes: the figures to create and dispose,
+ * and whether the detail level of the remaining figures changed.
+ */
+public class ViewportUpdate {
+    
+    private int[] addedNodes;
+    private int[] removedNodes;
+    private int[] addedEdges;
+    private int[] removedEdges;
+    private DetailLevel level;
+    private boolean levelChanged;
+    private int visibleNodes;
+    private int visibleEdges;
+    
+    public ViewportUpdate(int[] addedNodes, int[] removedNodes, int[] addedEdges, int[] removedEdges,
+                          DetailLevel level, boolean levelChanged, int visibleNodes, int visibleEdges) {
+        this.addedNodes = addedNodes;
+        this.removedNodes = removedNodes;
+        this.addedEdges = addedEdges;
+        this.removedEdges = removedEdges;
+        this.level = level;
+        this.levelChanged = levelChanged;
+        this.visibleNodes = visibleNodes;
+        this.visibleEdges = visibleEdges;
+    }
+    
+    public int[] getAddedNodes() {
+        return addedNodes;
+    }
+    
+    public int[] getRemovedNodes() {
+        return removedNodes;
+    }
+    
+    public int[] getAddedEdges() {
+        return addedEdges;
+    }
+    
+    public int[] getRemovedEdges() {
+        return removedEdges;
+    }
+    
+    public DetailLevel getLevel() {
+        return level;
+    }
+    
+    /**
+     * True if every materialized node must be redrawn at the new level
+     */
+    public boolean isLevelChanged() {
+        return levelChanged;
+    }
+    
+    public int getVisibleNodeCount() {
+        return visibleNodes;
+    }
+    
+    public int getVisibleEdgeCount() {
+        return visibleEdges;
+    }
+    
+    public boolean isEmpty() {
+        return addedNodes.length == 0 && removedNodes.length == 0 
+            && addedEdges.length == 0 && removedEdges.length == 0 && !levelChanged;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("ViewportUpdate[level=%s, nodes +%d -%d, edges +%d -%d]", 
+            level, addedNodes.length, removedNodes.length, addedEdges.length, removedEdges.length);
+    }
+}
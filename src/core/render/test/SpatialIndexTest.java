@@ -0,0 +1,64 @@
+package core.render.test;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import core.render.SpatialIndex;
+
+/**
+ * Unit tests for the packed R-tree
+ */
+public class SpatialIndexTest {
+
+    /**
+     * Test Case 1: Queries return exactly the boxes a full scan finds
+     */
+    @Test
+    public void testMatchesFullScan() {
+        Random random = new Random(3);
+        int n = 5000;
+        double[] minX = new double[n];
+        double[] minY = new double[n];
+        double[] maxX = new double[n];
+        double[] maxY = new double[n];
+        for (int i = 0; i < n; i++) {
+            minX[i] = random.nextDouble() * 10000;
+            minY[i] = random.nextDouble() * 10000;
+            maxX[i] = minX[i] + random.nextDouble() * 200;
+            maxY[i] = minY[i] + random.nextDouble() * 100;
+        }
+        SpatialIndex index = SpatialIndex.build(minX, minY, maxX, maxY);
+        assertEquals(n, index.size());
+
+        for (int q = 0; q < 50; q++) {
+            double x = random.nextDouble() * 10000;
+            double y = random.nextDouble() * 10000;
+            double w = random.nextDouble() * 2000;
+            int[] expected = new int[n];
+            int count = 0;
+            for (int i = 0; i < n; i++) {
+                if (minX[i] <= x + w && maxX[i] >= x && minY[i] <= y + w && maxY[i] >= y) {
+                    expected[count++] = i;
+                }
+            }
+            assertArrayEquals(Arrays.copyOf(expected, count), index.query(x, y, x + w, y + w));
+        }
+    }
+
+    /**
+     * Test Case 2: Empty and tiny indexes
+     */
+    @Test
+    public void testSmallIndexes() {
+        SpatialIndex empty = SpatialIndex.build(new double[0], new double[0], new double[0], new double[0]);
+        assertEquals(0, empty.query(0, 0, 100, 100).length);
+
+        SpatialIndex single = SpatialIndex.build(new double[] { 5 }, new double[] { 5 }, new double[] { 10 }, new double[] { 10 });
+        assertArrayEquals(new int[] { 0 }, single.query(0, 0, 6, 6));
+        assertEquals(0, single.query(11, 11, 20, 20).length);
+    }
+}
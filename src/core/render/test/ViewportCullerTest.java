@@ -0,0 +1,156 @@
+package core.render.test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import core.layout.GraphIndex;
+import core.layout.LayoutResult;
+import core.model.ClassMembers;
+import core.model.ClassNode;
+import core.model.Field;
+import core.model.IntermediateRepresentation;
+import core.model.MemberCache;
+import core.model.Relation;
+import core.render.DetailLevel;
+import core.render.DetailPolicy;
+import core.render.RenderScene;
+import core.render.Viewport;
+import core.render.ViewportCuller;
+import core.render.ViewportUpdate;
+
+/**
+ * Unit tests for level-of-detail selection and viewport culling
+ */
+public class ViewportCullerTest {
+
+    private IntermediateRepresentation ir;
+    private RenderScene scene;
+    private DetailPolicy policy;
+
+    @Before
+    public void setUp() {
+        // A 10x10 grid of classes 1000 units apart, each linked to its right neighbor
+        ir = new IntermediateRepresentation();
+        for (int row = 0; row < 10; row++) {
+            for (int col = 0; col < 10; col++) {
+                ir.addClass(new ClassNode(name(row, col), "class", "p"));
+                if (col > 0) {
+                    ir.addRelation(new Relation("p." + name(row, col - 1), "p." + name(row, col), "association"));
+                }
+            }
+        }
+        GraphIndex graph = GraphIndex.of(ir);
+        double[] x = new double[graph.nodeCount()];
+        double[] y = new double[graph.nodeCount()];
+        for (int i = 0; i < graph.nodeCount(); i++) {
+            String[] parts = graph.id(i).substring(3).split("_");
+            y[i] = Integer.parseInt(parts[0]) * 1000;
+            x[i] = Integer.parseInt(parts[1]) * 1000;
+        }
+        policy = new DetailPolicy();
+        scene = new RenderScene(ir, new LayoutResult(graph, x, y), policy);
+    }
+
+    private static String name(int row, int col) {
+        return "N" + row + "_" + col;
+    }
+
+    /**
+     * Test Case 1: Detail level follows zoom and falls back when too many nodes are visible
+     */
+    @Test
+    public void testDetailLevels() {
+        assertEquals(DetailLevel.DOT, policy.levelFor(0.1));
+        assertEquals(DetailLevel.NAME, policy.levelFor(0.5));
+        assertEquals(DetailLevel.FULL, policy.levelFor(1.0));
+        assertEquals(DetailLevel.NAME, policy.levelFor(1.0, 5_000));
+        assertEquals(DetailLevel.DOT, policy.levelFor(1.0, 50_000));
+        assertFalse(policy.showsEdges(DetailLevel.DOT));
+
+        ClassNode node = new ClassNode("Account", "class", "p");
+        node.addField(new Field("balance", "long"));
+        assertTrue(policy.size(node, DetailLevel.FULL)[1] > policy.size(node, DetailLevel.NAME)[1]);
+    }
+
+    /**
+     * Test Case 2: Only nodes and edges inside the viewport are materialized
+     */
+    @Test
+    public void testCulling() {
+        ViewportCuller culler = new ViewportCuller(scene, policy).margin(0);
+        ViewportUpdate update = culler.update(new Viewport(-100, -100, 1200, 200, 1.0));
+
+        assertEquals(DetailLevel.FULL, update.getLevel());
+        assertEquals(2, update.getAddedNodes().length);
+        // N0_0 -> N0_1 inside, N0_1 -> N0_2 leaving the viewport
+        assertEquals(2, update.getAddedEdges().length);
+        assertEquals(0, update.getRemovedNodes().length);
+
+        // An edge crossing the viewport is visible even if neither end is
+        update = culler.update(new Viewport(1400, -50, 200, 100, 1.0));
+        assertEquals(0, update.getVisibleNodeCount());
+        assertEquals(1, update.getVisibleEdgeCount());
+    }
+
+    /**
+     * Test Case 3: Panning reports only entering and leaving figures
+     */
+    @Test
+    public void testPanDelta() {
+        ViewportCuller culler = new ViewportCuller(scene, policy).margin(0);
+        Viewport viewport = new Viewport(-100, -100, 2200, 200, 1.0);
+        culler.update(viewport);
+        assertEquals(3, culler.getVisibleNodes().length);
+
+        ViewportUpdate update = culler.update(viewport.pan(1000, 0));
+        assertEquals(1, update.getAddedNodes().length);
+        assertEquals(1, update.getRemovedNodes().length);
+        assertFalse(update.isLevelChanged());
+
+        assertTrue(culler.update(viewport.pan(1000, 0)).isEmpty());
+    }
+
+    /**
+     * Test Case 4: Zooming out switches to dots and drops edges
+     */
+    @Test
+    public void testZoomOut() {
+        ViewportCuller culler = new ViewportCuller(scene, policy);
+        culler.update(new Viewport(-100, -100, 2200, 200, 1.0));
+
+        ViewportUpdate update = culler.update(Viewport.ofScreen(-500, -500, 1000, 1000, 0.1));
+        assertTrue(update.isLevelChanged());
+        assertEquals(DetailLevel.DOT, update.getLevel());
+        assertEquals(0, update.getVisibleEdgeCount());
+        assertTrue(update.getRemovedEdges().length > 0);
+        assertEquals(100, update.getVisibleNodeCount());
+    }
+
+    /**
+     * Test Case 5: Building a scene over lazy nodes loads no members
+     */
+    @Test
+    public void testSceneDoesNotLoadLazyMembers() {
+        List<String> loads = new ArrayList<>();
+        MemberCache cache = new MemberCache(handle -> {
+            loads.add(handle);
+            return new ClassMembers(Collections.singletonList(new Field("id", "long", "private", false)),
+                Collections.emptyList());
+        });
+        IntermediateRepresentation lazy = new IntermediateRepresentation();
+        for (ClassNode classNode : ir.getAllClasses().values()) {
+            ClassNode copy = new ClassNode(classNode.getName(), classNode.getType(), classNode.getPackageName());
+            copy.setLazyMembers(classNode.getId(), cache);
+            lazy.addClass(copy);
+        }
+
+        new RenderScene(lazy, scene.getLayout(), policy);
+        assertTrue(loads.isEmpty());
+    }
+}
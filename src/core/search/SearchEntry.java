@@ -0,0 +1,57 @@
+package core.search;
+
+/**
+ * A searchable name: a class, or a field or method of a class.
+ */
+public class SearchEntry {
+    
+    public enum Kind {
+        CLASS, FIELD, METHOD
+    }
+    
+    private Kind kind;
+    private String classId;
+    private String name;
+    
+    public SearchEntry(Kind kind, String classId, String name) {
+        this.kind = kind;
+        this.classId = classId;
+        this.name = name;
+    }
+    
+    public Kind getKind() {
+        return kind;
+    }
+    
+    /**
+     * ID of the class itself or of the class declaring the member
+     */
+    public String getClassId() {
+        return classId;
+    }
+    
+    /**
+     * Simple name of the class or member
+     */
+    public String getName() {
+        return name;
+    }
+    
+    @Override
+    public String toString() {
+        return kind == Kind.CLASS ? classId : classId + "#" + name;
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        SearchEntry that = (SearchEntry) obj;
+        return kind == that.kind && classId.equals(that.classId) && name.equals(that.name);
+    }
+    
+    @Override
+    public int hashCode() {
+        return (kind.hashCode() * 31 + classId.hashCode()) * 31 + name.hashCode();
+    }
+}
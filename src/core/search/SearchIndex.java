@@ -0,0 +1,462 @@
+package core.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import core.model.ClassNode;
+import core.model.Field;
+import core.model.IRChangeListener;
+import core.model.IntermediateRepresentation;
+import core.model.Method;
+import core.model.Relation;
+
+/**
+ * In-memory name index over the classes, fields and methods of an IR.
+ * Supports prefix, camel-case hump and fuzzy (edit distance) queries.
+ * 
+ * Names are kept in sorted maps keyed by lower-cased name and by lower-cased
+ * hump initials, so prefix and hump lookups are range scans; each key is
+ * also filed by its length, so they read the shortest keys of a range
+ * without scanning the longer ones. Fuzzy queries
+ * walk the sorted name keys as an implicit trie. The index follows IR
+ * changes when attached to an IR.
+ */
+public class SearchIndex implements IRChangeListener {
+    
+    private static final int EXACT_SCORE = 1000;
+    private static final int PREFIX_SCORE = 800;
+    private static final int HUMP_SCORE = 600;
+    private static final int FUZZY_SCORE = 400;
+    private static final int CLASS_BONUS = 50;
+    
+    // Upper bound on candidates scored per query, keeps lookups sub-millisecond
+    private static final int MAX_CANDIDATES = 256;
+    
+    private NavigableMap<String, Set<SearchEntry>> byName;
+    private NavigableMap<String, Set<SearchEntry>> byHumps;
+    private LengthIndex nameLengths;
+    private LengthIndex humpLengths;
+    private Map<String, List<SearchEntry>> entriesByClass;
+    
+    public SearchIndex() {
+        this.byName = new TreeMap<>();
+        this.byHumps = new TreeMap<>();
+        this.nameLengths = new LengthIndex();
+        this.humpLengths = new LengthIndex();
+        this.entriesByClass = new HashMap<>();
+    }
+    
+    /**
+     * Build an index over an IR and keep it in sync with later changes
+     */
+    public static SearchIndex attach(IntermediateRepresentation ir) {
+        SearchIndex index = new SearchIndex();
+        for (ClassNode classNode : ir.getAllClasses().values()) {
+            index.addClassNode(classNode);
+        }
+        ir.addChangeListener(index);
+        return index;
+    }
+    
+    /**
+     * Index a class together with its fields and methods. Members of a lazy
+     * class are only indexed if they are loaded; reindex it after loading.
+     */
+    public void addClassNode(ClassNode classNode) {
+        removeClassNode(classNode.getId());
+        
+        List<SearchEntry> entries = new ArrayList<>();
+        String classId = classNode.getId();
+        entries.add(new SearchEntry(SearchEntry.Kind.CLASS, classId, classNode.getName()));
+        if (classNode.areMembersLoaded()) {
+            for (Field field : classNode.getFields()) {
+                entries.add(new SearchEntry(SearchEntry.Kind.FIELD, classId, field.getName()));
+            }
+            for (Method method : classNode.getMethods()) {
+                entries.add(new SearchEntry(SearchEntry.Kind.METHOD, classId, method.getName()));
+            }
+        }
+        
+        for (SearchEntry entry : entries) {
+            index(entry);
+        }
+        // Fully qualified IDs are searchable by prefix as well
+        if (!classId.equals(classNode.getName())) {
+            put(byName, nameLengths, lower(classId), entries.get(0));
+        }
+        entriesByClass.put(classId, entries);
+    }
+    
+    /**
+     * Re-index a class after its members changed
+     */
+    public void reindex(ClassNode classNode) {
+        addClassNode(classNode);
+    }
+    
+    /**
+     * Drop a class and its members from the index
+     */
+    public void removeClassNode(String classId) {
+        List<SearchEntry> entries = entriesByClass.remove(classId);
+        if (entries == null) {
+            return;
+        }
+        for (SearchEntry entry : entries) {
+            String name = entry.getName();
+            remove(byName, nameLengths, lower(name), entry);
+            remove(byHumps, humpLengths, humpInitials(name), entry);
+        }
+        remove(byName, nameLengths, lower(classId), entries.get(0));
+    }
+    
+    public int size() {
+        int size = 0;
+        for (List<SearchEntry> entries : entriesByClass.values()) {
+            size += entries.size();
+        }
+        return size;
+    }
+    
+    /**
+     * Names or class IDs starting with the query, case-insensitive
+     */
+    public List<SearchResult> prefix(String query, int limit) {
+        Map<SearchEntry, Integer> hits = new HashMap<>();
+        collectPrefix(query, hits);
+        return rank(hits, limit);
+    }
+    
+    /**
+     * Camel-case hump matches, e.g. "NPE" or "NuPoEx" for NullPointerException
+     */
+    public List<SearchResult> camelCase(String query, int limit) {
+        Map<SearchEntry, Integer> hits = new HashMap<>();
+        collectHumps(query, hits);
+        return rank(hits, limit);
+    }
+    
+    /**
+     * Names within a small edit distance of the query
+     */
+    public List<SearchResult> fuzzy(String query, int limit) {
+        Map<SearchEntry, Integer> hits = new HashMap<>();
+        collectFuzzy(query, hits);
+        return rank(hits, limit);
+    }
+    
+    /**
+     * Combined prefix, hump and fuzzy search; each entry keeps its best score
+     */
+    public List<SearchResult> search(String query, int limit) {
+        Map<SearchEntry, Integer> hits = new HashMap<>();
+        collectPrefix(query, hits);
+        collectHumps(query, hits);
+        if (hits.size() < limit) {
+            collectFuzzy(query, hits);
+        }
+        return rank(hits, limit);
+    }
+    
+    private void collectPrefix(String query, Map<SearchEntry, Integer> hits) {
+        String key = lower(query);
+        if (key.isEmpty()) {
+            return;
+        }
+        int examined = 0;
+        for (Map.Entry<String, Set<SearchEntry>> e : nameLengths.shortestKeys(key)) {
+            int score = e.getKey().equals(key) ? EXACT_SCORE : PREFIX_SCORE - (e.getKey().length() - key.length());
+            for (SearchEntry entry : e.getValue()) {
+                hit(hits, entry, score);
+                if (++examined >= MAX_CANDIDATES) {
+                    return;
+                }
+            }
+        }
+    }
+    
+    private void collectHumps(String query, Map<SearchEntry, Integer> hits) {
+        List<String> queryHumps = queryHumps(query);
+        if (queryHumps.size() < 2) {
+            return;
+        }
+        StringBuilder initials = new StringBuilder();
+        for (String hump : queryHumps) {
+            initials.append(Character.toLowerCase(hump.charAt(0)));
+        }
+        String key = initials.toString();
+        int examined = 0;
+        for (Map.Entry<String, Set<SearchEntry>> e : humpLengths.shortestKeys(key)) {
+            for (SearchEntry entry : e.getValue()) {
+                if (matchesHumps(humps(entry.getName()), queryHumps)) {
+                    hit(hits, entry, HUMP_SCORE - (e.getKey().length() - key.length()));
+                }
+                if (++examined >= MAX_CANDIDATES) {
+                    return;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Walks the sorted name keys as an implicit trie: edit distance rows are
+     * shared between keys with a common prefix, and whole subtrees are skipped
+     * once every entry of the current row exceeds the allowed distance.
+     */
+    private void collectFuzzy(String query, Map<SearchEntry, Integer> hits) {
+        String key = lower(query);
+        if (key.length() < 3 || byName.isEmpty()) {
+            return;
+        }
+        int maxDistance = key.length() < 6 ? 1 : 2;
+        
+        int[][] rows = growRows(new int[0][], 32, key.length() + 1);
+        for (int j = 0; j <= key.length(); j++) {
+            rows[0][j] = j;
+        }
+        String previous = "";
+        int examined = 0;
+        String name = byName.firstKey();
+        while (name != null && examined < MAX_CANDIDATES) {
+            if (name.length() >= rows.length) {
+                rows = growRows(rows, name.length() + 1, key.length() + 1);
+            }
+            int depth = commonPrefix(previous, name);
+            boolean pruned = false;
+            while (depth < name.length()) {
+                if (!nextRow(rows[depth], rows[depth + 1], key, name.charAt(depth), maxDistance)) {
+                    pruned = true;
+                    break;
+                }
+                depth++;
+            }
+            if (pruned) {
+                // No key below this prefix can come within maxDistance
+                previous = name.substring(0, depth);
+                name = byName.higherKey(name.substring(0, depth + 1) + Character.MAX_VALUE);
+                continue;
+            }
+            previous = name;
+            int distance = rows[name.length()][key.length()];
+            if (distance <= maxDistance) {
+                for (SearchEntry entry : byName.get(name)) {
+                    hit(hits, entry, FUZZY_SCORE - 100 * distance);
+                    if (++examined >= MAX_CANDIDATES) {
+                        return;
+                    }
+                }
+            }
+            name = byName.higherKey(name);
+        }
+    }
+    
+    /**
+     * Fill the edit distance row for one more name character; false if the
+     * whole row exceeds max
+     */
+    private static boolean nextRow(int[] prev, int[] curr, String key, char c, int max) {
+        curr[0] = prev[0] + 1;
+        int rowMin = curr[0];
+        for (int j = 1; j <= key.length(); j++) {
+            int cost = key.charAt(j - 1) == c ? 0 : 1;
+            curr[j] = Math.min(Math.min(curr[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+            rowMin = Math.min(rowMin, curr[j]);
+        }
+        return rowMin <= max;
+    }
+    
+    private static int[][] growRows(int[][] rows, int length, int width) {
+        int[][] grown = new int[Math.max(length, rows.length * 2)][];
+        System.arraycopy(rows, 0, grown, 0, rows.length);
+        for (int i = rows.length; i < grown.length; i++) {
+            grown[i] = new int[width];
+        }
+        return grown;
+    }
+    
+    private static int commonPrefix(String a, String b) {
+        int n = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < n && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+    
+    private void hit(Map<SearchEntry, Integer> hits, SearchEntry entry, int score) {
+        if (entry.getKind() == SearchEntry.Kind.CLASS) {
+            score += CLASS_BONUS;
+        }
+        hits.merge(entry, score, Math::max);
+    }
+    
+    private List<SearchResult> rank(Map<SearchEntry, Integer> hits, int limit) {
+        List<SearchResult> results = new ArrayList<>(hits.size());
+        for (Map.Entry<SearchEntry, Integer> e : hits.entrySet()) {
+            results.add(new SearchResult(e.getKey(), e.getValue()));
+        }
+        Collections.sort(results);
+        return results.size() > limit ? new ArrayList<>(results.subList(0, limit)) : results;
+    }
+    
+    private void index(SearchEntry entry) {
+        String name = entry.getName();
+        put(byName, nameLengths, lower(name), entry);
+        put(byHumps, humpLengths, humpInitials(name), entry);
+    }
+    
+    private static void put(Map<String, Set<SearchEntry>> map, LengthIndex lengths, String key, SearchEntry entry) {
+        Set<SearchEntry> set = map.get(key);
+        if (set == null) {
+            set = new HashSet<>(2);
+            map.put(key, set);
+            lengths.put(key, set);
+        }
+        set.add(entry);
+    }
+    
+    private static void remove(Map<String, Set<SearchEntry>> map, LengthIndex lengths, String key, SearchEntry entry) {
+        Set<SearchEntry> set = map.get(key);
+        if (set != null && set.remove(entry) && set.isEmpty()) {
+            map.remove(key);
+            lengths.remove(key);
+        }
+    }
+    
+    private static String lower(String s) {
+        return s.toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * Split a name into humps: "getHTTPClient" -> [get, HTTP, Client]
+     */
+    static List<String> humps(String name) {
+        List<String> humps = new ArrayList<>();
+        int start = 0;
+        for (int i = 1; i < name.length(); i++) {
+            char prev = name.charAt(i - 1);
+            char c = name.charAt(i);
+            boolean boundary = c == '_' || c == '$'
+                || (Character.isUpperCase(c) && !Character.isUpperCase(prev))
+                || (Character.isUpperCase(c) && i + 1 < name.length() && Character.isLowerCase(name.charAt(i + 1)));
+            if (boundary) {
+                if (i > start) {
+                    humps.add(name.substring(start, i));
+                }
+                start = (c == '_' || c == '$') ? i + 1 : i;
+            }
+        }
+        if (start < name.length()) {
+            humps.add(name.substring(start));
+        }
+        return humps;
+    }
+    
+    /**
+     * Query humps start at every upper-case letter: "NPE" -> [N, P, E]
+     */
+    private static List<String> queryHumps(String query) {
+        List<String> humps = new ArrayList<>();
+        int start = 0;
+        for (int i = 1; i < query.length(); i++) {
+            if (Character.isUpperCase(query.charAt(i))) {
+                humps.add(query.substring(start, i));
+                start = i;
+            }
+        }
+        if (start < query.length()) {
+            humps.add(query.substring(start));
+        }
+        return humps;
+    }
+    
+    private static String humpInitials(String name) {
+        StringBuilder initials = new StringBuilder();
+        for (String hump : humps(name)) {
+            initials.append(Character.toLowerCase(hump.charAt(0)));
+        }
+        return initials.toString();
+    }
+    
+    private static boolean matchesHumps(List<String> nameHumps, List<String> queryHumps) {
+        if (queryHumps.size() > nameHumps.size()) {
+            return false;
+        }
+        for (int i = 0; i < queryHumps.size(); i++) {
+            if (!nameHumps.get(i).regionMatches(true, 0, queryHumps.get(i), 0, queryHumps.get(i).length())) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Keys of a name map filed by length, sharing its entry sets. Prefix and
+     * hump scores fall with key length, so the best candidates are the
+     * shortest keys with the prefix; they are read length by length, and the
+     * scan stops after MAX_CANDIDATES keys.
+     */
+    private static class LengthIndex {
+        
+        private final List<NavigableMap<String, Set<SearchEntry>>> byLength = new ArrayList<>();
+        
+        void put(String key, Set<SearchEntry> entries) {
+            while (byLength.size() <= key.length()) {
+                byLength.add(new TreeMap<>());
+            }
+            byLength.get(key.length()).put(key, entries);
+        }
+        
+        void remove(String key) {
+            if (key.length() < byLength.size()) {
+                byLength.get(key.length()).remove(key);
+            }
+        }
+        
+        /**
+         * Keys starting with a prefix, shortest first and in key order
+         * within a length, up to MAX_CANDIDATES of them
+         */
+        List<Map.Entry<String, Set<SearchEntry>>> shortestKeys(String prefix) {
+            List<Map.Entry<String, Set<SearchEntry>>> keys = new ArrayList<>();
+            String end = prefix + Character.MAX_VALUE;
+            for (int length = prefix.length(); length < byLength.size(); length++) {
+                for (Map.Entry<String, Set<SearchEntry>> e : byLength.get(length).subMap(prefix, true, end, false).entrySet()) {
+                    keys.add(e);
+                    if (keys.size() == MAX_CANDIDATES) {
+                        return keys;
+                    }
+                }
+            }
+            return keys;
+        }
+    }
+    
+    @Override
+    public void classAdded(ClassNode classNode) {
+        addClassNode(classNode);
+    }
+    
+    @Override
+    public void classRemoved(ClassNode classNode) {
+        removeClassNode(classNode.getId());
+    }
+    
+    @Override
+    public void relationAdded(Relation relation) {
+        // Relations are not searchable
+    }
+    
+    @Override
+    public void relationRemoved(Relation relation) {
+        // Relations are not searchable
+    }
+}
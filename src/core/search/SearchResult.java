@@ -0,0 +1,39 @@
+package core.search;
+
+/**
+ * A ranked search hit. Higher scores rank first.
+ */
+public class SearchResult implements Comparable<SearchResult> {
+    private SearchEntry entry;
+    private int score;
+    
+    public SearchResult(SearchEntry entry, int score) {
+        this.entry = entry;
+        this.score = score;
+    }
+    
+    public SearchEntry getEntry() {
+        return entry;
+    }
+    
+    public int getScore() {
+        return score;
+    }
+    
+    @Override
+    public int compareTo(SearchResult other) {
+        if (score != other.score) {
+            return Integer.compare(other.score, score);
+        }
+        int byLength = Integer.compare(entry.getName().length(), other.entry.getName().length());
+        if (byLength != 0) {
+            return byLength;
+        }
+        return entry.toString().compareTo(other.entry.toString());
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%s (%d)", entry, score);
+    }
+}
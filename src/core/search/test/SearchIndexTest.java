@@ -0,0 +1,112 @@
+package core.search.test;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import core.model.ClassNode;
+import core.model.Field;
+import core.model.IntermediateRepresentation;
+import core.model.Method;
+import core.search.SearchEntry;
+import core.search.SearchIndex;
+import core.search.SearchResult;
+
+/**
+ * Unit tests for the class and member name search index
+ */
+public class SearchIndexTest {
+
+    private IntermediateRepresentation ir;
+    private SearchIndex index;
+
+    @Before
+    public void setUp() {
+        ir = new IntermediateRepresentation();
+        ClassNode npe = new ClassNode("NullPointerException", "class", "java.lang");
+        ClassNode client = new ClassNode("HttpClient", "class", "com.acme.net");
+        client.addField(new Field("connectTimeout", "int", "private", false));
+        client.addMethod(new Method("sendRequest", "void", "public", false));
+        ir.addClass(npe);
+        ir.addClass(client);
+        ir.addClass(new ClassNode("HttpServer", "class", "com.acme.net"));
+        index = SearchIndex.attach(ir);
+    }
+
+    /**
+     * Test Case 1: Prefix queries are case-insensitive and rank exact matches first
+     */
+    @Test
+    public void testPrefix() {
+        List<SearchResult> results = index.prefix("http", 10);
+        assertEquals(2, results.size());
+
+        results = index.prefix("HttpClient", 10);
+        assertEquals("com.acme.net.HttpClient", results.get(0).getEntry().getClassId());
+        assertEquals(1, index.prefix("com.acme.net.HttpS", 10).size());
+    }
+
+    /**
+     * Test Case 2: Camel-case hump queries
+     */
+    @Test
+    public void testCamelCase() {
+        assertEquals("NullPointerException", index.camelCase("NPE", 10).get(0).getEntry().getName());
+        assertEquals("NullPointerException", index.camelCase("NuPoEx", 10).get(0).getEntry().getName());
+        assertEquals(1, index.camelCase("HC", 10).size());
+        assertTrue(index.camelCase("NPX", 10).isEmpty());
+    }
+
+    /**
+     * Test Case 3: Fuzzy queries tolerate typos
+     */
+    @Test
+    public void testFuzzy() {
+        List<SearchResult> results = index.fuzzy("HtpClient", 10);
+        assertEquals(1, results.size());
+        assertEquals("HttpClient", results.get(0).getEntry().getName());
+    }
+
+    /**
+     * Test Case 4: Members are searchable and classes rank above members
+     */
+    @Test
+    public void testMembersAndRanking() {
+        SearchResult field = index.prefix("connect", 10).get(0);
+        assertEquals(SearchEntry.Kind.FIELD, field.getEntry().getKind());
+        assertEquals("com.acme.net.HttpClient", field.getEntry().getClassId());
+        assertEquals(SearchEntry.Kind.METHOD, index.camelCase("sR", 10).get(0).getEntry().getKind());
+    }
+
+    /**
+     * Test Case 5: Index follows IR changes
+     */
+    @Test
+    public void testIncrementalUpdates() {
+        ir.addClass(new ClassNode("HttpRouter", "class", "com.acme.net"));
+        assertEquals(3, index.prefix("http", 10).size());
+
+        ir.removeClass("com.acme.net.HttpClient");
+        assertEquals(2, index.prefix("http", 10).size());
+        assertTrue(index.prefix("connect", 10).isEmpty());
+    }
+
+    /**
+     * Test Case 6: Short names that sort after many longer ones are not cut
+     * off by the candidate limit
+     */
+    @Test
+    public void testCandidateLimitKeepsBestMatches() {
+        for (int i = 0; i < 300; i++) {
+            ir.addClass(new ClassNode(String.format("ItemAaaa%03d", i), "class", "com.acme.bulk"));
+        }
+        ir.addClass(new ClassNode("ItemZ", "class", "com.acme.bulk"));
+
+        List<SearchResult> results = index.prefix("item", 5);
+        assertEquals("ItemZ", results.get(0).getEntry().getName());
+        assertEquals(SearchEntry.Kind.CLASS, index.camelCase("IZ", 5).get(0).getEntry().getKind());
+    }
+}
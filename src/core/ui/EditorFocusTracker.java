@@ -0,0 +1,93 @@
+package core.ui;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.ui.IEditorInput;
+import org.eclipse.ui.IEditorPart;
+import org.eclipse.ui.IEditorReference;
+import org.eclipse.ui.IPartListener2;
+import org.eclipse.ui.IWorkbenchPage;
+import org.eclipse.ui.IWorkbenchPartReference;
+import org.eclipse.ui.PartInitException;
+
+import core.pipeline.DiagramPipeline;
+
+/**
+ * Tells a DiagramPipeline which compilation units are open in Java editors,
+ * the active one first, whenever an editor is activated, opened or closed, so
+ * parsing starts around what the user is looking at. Must be used on the UI
+ * thread.
+ */
+public class EditorFocusTracker implements IPartListener2 {
+    
+    private final DiagramPipeline pipeline;
+    
+    public EditorFocusTracker(DiagramPipeline pipeline) {
+        this.pipeline = pipeline;
+    }
+    
+    /**
+     * Follow the editors of a page, starting with the ones open now
+     */
+    public void install(IWorkbenchPage page) {
+        page.addPartListener(this);
+        update(page, null);
+    }
+    
+    public void uninstall(IWorkbenchPage page) {
+        page.removePartListener(this);
+    }
+    
+    @Override
+    public void partActivated(IWorkbenchPartReference partRef) {
+        if (partRef instanceof IEditorReference) {
+            update(partRef.getPage(), null);
+        }
+    }
+    
+    @Override
+    public void partOpened(IWorkbenchPartReference partRef) {
+        if (partRef instanceof IEditorReference) {
+            update(partRef.getPage(), null);
+        }
+    }
+    
+    @Override
+    public void partClosed(IWorkbenchPartReference partRef) {
+        if (partRef instanceof IEditorReference) {
+            // The page may still list the editor that is closing
+            update(partRef.getPage(), (IEditorReference) partRef);
+        }
+    }
+    
+    private void update(IWorkbenchPage page, IEditorReference closing) {
+        List<ICompilationUnit> units = new ArrayList<>();
+        IEditorPart active = page.getActiveEditor();
+        if (active != null && (closing == null || closing.getEditor(false) != active)) {
+            addUnit(units, active.getEditorInput());
+        }
+        for (IEditorReference reference : page.getEditorReferences()) {
+            if (reference == closing) {
+                continue;
+            }
+            try {
+                addUnit(units, reference.getEditorInput());
+            } catch (PartInitException e) {
+                // Editor that cannot be restored; it is not in focus
+            }
+        }
+        pipeline.focus(units);
+    }
+    
+    private static void addUnit(List<ICompilationUnit> units, IEditorInput input) {
+        IFile file = input != null ? input.getAdapter(IFile.class) : null;
+        ICompilationUnit unit = file != null ? JavaCore.createCompilationUnitFrom(file) : null;
+        if (unit != null && !units.contains(unit)) {
+            units.add(unit);
+        }
+    }
+}
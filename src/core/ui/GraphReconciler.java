@@ -0,0 +1,294 @@
+package core.ui;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Widget;
+import org.eclipse.zest.core.widgets.Graph;
+import org.eclipse.zest.core.widgets.GraphConnection;
+import org.eclipse.zest.core.widgets.GraphNode;
+import org.eclipse.zest.core.widgets.ZestStyles;
+
+import core.layout.LayoutResult;
+import core.model.ClassNode;
+import core.model.IRDiff;
+import core.model.IntermediateRepresentation;
+import core.model.Relation;
+import core.pipeline.DiagramSnapshot;
+import core.render.DetailPolicy;
+import core.render.RenderScene;
+import core.render.Viewport;
+import core.render.ViewportCuller;
+import core.render.ViewportUpdate;
+
+/**
+ * Keeps a Zest graph in sync with successive IR snapshots. Only the classes
+ * and relations that were added, removed or changed are touched, and each
+ * reconcile is applied in a single redraw. Figures exist only for the classes
+ * in the viewport, as a ViewportCuller finds them, and for the relations
+ * between them; no figure is created before the first layout and viewport
+ * are known. Must be called on the UI thread.
+ */
+public class GraphReconciler {
+    
+    private final Graph graph;
+    private final DetailPolicy policy;
+    private final Map<String, GraphNode> nodes = new HashMap<>();
+    private final Map<String, GraphConnection> connections = new HashMap<>();
+    private final Map<String, double[]> locations = new HashMap<>();
+    private IntermediateRepresentation current;
+    private LayoutResult layout;
+    private Viewport viewport;
+    private RenderScene scene;
+    private ViewportCuller culler;
+    
+    public GraphReconciler(Graph graph, DetailPolicy policy) {
+        this.graph = graph;
+        this.policy = policy;
+    }
+    
+    public IRDiff reconcile(DiagramSnapshot snapshot) {
+        return reconcile(snapshot.getIR(), snapshot.getLayout());
+    }
+    
+    /**
+     * Apply the difference to the previously reconciled IR
+     * 
+     * @param layout node positions to apply, or null to keep the current ones
+     */
+    public IRDiff reconcile(IntermediateRepresentation next, LayoutResult layout) {
+        IRDiff diff = IRDiff.between(current, next);
+        current = next;
+        if (diff.isEmpty() && layout == null) {
+            return diff;
+        }
+        if (layout != null) {
+            this.layout = layout;
+        }
+        
+        graph.setRedraw(false);
+        try {
+            for (Relation relation : diff.getRemovedRelations()) {
+                dispose(connections.remove(relation.getId()));
+            }
+            for (Relation relation : diff.getChangedRelations()) {
+                dispose(connections.remove(relation.getId()));
+            }
+            for (ClassNode classNode : diff.getRemovedClasses()) {
+                hide(classNode.getId());
+            }
+            for (ClassNode classNode : diff.getChangedClasses()) {
+                GraphNode node = nodes.get(classNode.getId());
+                if (node != null) {
+                    node.setText(label(classNode));
+                    node.setData(classNode);
+                }
+            }
+            // Sizes and positions may have changed; cull the new scene from scratch
+            if (this.layout != null) {
+                scene = new RenderScene(current, this.layout, policy);
+                if (culler == null) {
+                    culler = new ViewportCuller(scene, policy);
+                } else {
+                    culler.reset(scene);
+                }
+                cull(true);
+            }
+            for (Relation relation : diff.getChangedRelations()) {
+                connect(relation);
+            }
+            for (Relation relation : diff.getAddedRelations()) {
+                connect(relation);
+            }
+            if (layout != null) {
+                applyLayout(layout);
+            }
+        } finally {
+            graph.setRedraw(true);
+        }
+        return diff;
+    }
+    
+    /**
+     * Show the part of the diagram in a new viewport, creating and disposing
+     * only the figures that entered or left it
+     * 
+     * @return what changed, or null before the first layout
+     */
+    public ViewportUpdate setViewport(Viewport viewport) {
+        this.viewport = viewport;
+        if (culler == null) {
+            return null;
+        }
+        graph.setRedraw(false);
+        try {
+            return cull(false);
+        } finally {
+            graph.setRedraw(true);
+        }
+    }
+    
+    /**
+     * Apply a culling pass to the figures
+     * 
+     * @param sceneChanged true after the culler was reset, when nodes shown
+     *        before are not reported as removed
+     */
+    private ViewportUpdate cull(boolean sceneChanged) {
+        if (viewport == null) {
+            return null;
+        }
+        ViewportUpdate update = culler.update(viewport);
+        for (int node : update.getRemovedNodes()) {
+            hide(scene.getLayout().getGraph().id(node));
+        }
+        if (sceneChanged) {
+            Set<String> visible = new HashSet<>();
+            for (int node : culler.getVisibleNodes()) {
+                visible.add(scene.getLayout().getGraph().id(node));
+            }
+            for (String classId : new ArrayList<>(nodes.keySet())) {
+                if (!visible.contains(classId)) {
+                    hide(classId);
+                }
+            }
+        }
+        boolean edges = policy.showsEdges(update.getLevel());
+        if (!edges) {
+            connections.values().forEach(GraphReconciler::dispose);
+            connections.clear();
+        }
+        for (int node : update.getAddedNodes()) {
+            ClassNode classNode = scene.getClassNode(node);
+            if (classNode != null && !nodes.containsKey(classNode.getId())) {
+                show(classNode, scene.getLayout().getX(node), scene.getLayout().getY(node));
+                if (edges) {
+                    connectAll(classNode.getId());
+                }
+            }
+        }
+        if (edges && update.isLevelChanged()) {
+            for (String classId : new ArrayList<>(nodes.keySet())) {
+                connectAll(classId);
+            }
+        }
+        return update;
+    }
+    
+    private void show(ClassNode classNode, double x, double y) {
+        GraphNode node = new GraphNode(graph, SWT.NONE, label(classNode));
+        node.setData(classNode);
+        node.setLocation(x, y);
+        nodes.put(classNode.getId(), node);
+        locations.put(classNode.getId(), new double[] { x, y });
+    }
+    
+    /**
+     * Dispose the figure of a class and the connections at it
+     */
+    private void hide(String classId) {
+        GraphNode node = nodes.remove(classId);
+        if (node == null) {
+            return;
+        }
+        locations.remove(classId);
+        for (Relation relation : relationsAt(classId)) {
+            dispose(connections.remove(relation.getId()));
+        }
+        dispose(node);
+    }
+    
+    private void connectAll(String classId) {
+        for (Relation relation : relationsAt(classId)) {
+            connect(relation);
+        }
+    }
+    
+    private List<Relation> relationsAt(String classId) {
+        List<Relation> relations = new ArrayList<>(current.getOutgoingRelations(classId));
+        relations.addAll(current.getIncomingRelations(classId));
+        return relations;
+    }
+    
+    /**
+     * Move nodes whose position differs from the last one applied
+     */
+    private void applyLayout(LayoutResult layout) {
+        for (Map.Entry<String, GraphNode> entry : nodes.entrySet()) {
+            double[] position = layout.getPosition(entry.getKey());
+            double[] previous = locations.get(entry.getKey());
+            if (position != null && (previous == null || previous[0] != position[0] || previous[1] != position[1])) {
+                entry.getValue().setLocation(position[0], position[1]);
+                locations.put(entry.getKey(), position);
+            }
+        }
+    }
+    
+    /**
+     * Add a connection if both ends are shown and none exists yet; external
+     * targets and culled classes have no node
+     */
+    private void connect(Relation relation) {
+        GraphNode source = nodes.get(relation.getSourceId());
+        GraphNode target = nodes.get(relation.getTargetId());
+        if (source == null || target == null || connections.containsKey(relation.getId())
+                || culler == null || !policy.showsEdges(culler.getLevel())) {
+            return;
+        }
+        int style = ZestStyles.CONNECTIONS_DIRECTED;
+        if ("implements".equals(relation.getType())) {
+            style |= ZestStyles.CONNECTIONS_DASH;
+        }
+        GraphConnection connection = new GraphConnection(graph, style, source, target);
+        connection.setData(relation);
+        connections.put(relation.getId(), connection);
+    }
+    
+    private static String label(ClassNode classNode) {
+        return "class".equals(classNode.getType()) 
+            ? classNode.getName() 
+            : "«" + classNode.getType() + "»\n" + classNode.getName();
+    }
+    
+    private static void dispose(Widget item) {
+        if (item != null && !item.isDisposed()) {
+            item.dispose();
+        }
+    }
+    
+    /**
+     * Figure of a class, or null if it is culled
+     */
+    public GraphNode getNode(String classId) {
+        return nodes.get(classId);
+    }
+    
+    public GraphConnection getConnection(String relationId) {
+        return connections.get(relationId);
+    }
+    
+    /**
+     * Remove every node and connection created by this reconciler
+     */
+    public void clear() {
+        graph.setRedraw(false);
+        try {
+            connections.values().forEach(GraphReconciler::dispose);
+            nodes.values().forEach(GraphReconciler::dispose);
+        } finally {
+            graph.setRedraw(true);
+        }
+        connections.clear();
+        nodes.clear();
+        locations.clear();
+        current = null;
+        layout = null;
+        scene = null;
+        culler = null;
+    }
+}